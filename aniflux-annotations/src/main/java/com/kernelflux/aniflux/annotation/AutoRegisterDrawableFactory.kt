@@ -0,0 +1,30 @@
+package com.kernelflux.aniflux.annotation
+
+/**
+ * 自动注册Drawable工厂注解
+ *
+ * 使用此注解标记AnimationDrawableFactory类，编译时会与Loader一起生成注册代码
+ *
+ * 示例：
+ * ```kotlin
+ * @AutoRegisterDrawableFactory(animationType = "LOTTIE")
+ * class LottieDrawableFactory : AnimationDrawableFactory<LottieComposition, LottieDrawable> {
+ *     // ...
+ * }
+ * ```
+ *
+ * @param animationType 动画类型名称（AnimationTypeDetector.AnimationType的枚举值）
+ *
+ * @author: kernelflux
+ * @date:  2026/10/16
+ */
+@Target(AnnotationTarget.CLASS)
+@Retention(AnnotationRetention.SOURCE)
+@MustBeDocumented
+annotation class AutoRegisterDrawableFactory(
+    /**
+     * 动画类型名称
+     * 与 [AutoRegisterLoader.animationType] 取值相同
+     */
+    val animationType: String
+)
@@ -19,8 +19,38 @@ class LoaderRegistrationProcessor(
 ) : SymbolProcessor {
 
     override fun process(resolver: Resolver): List<KSAnnotated> {
-        // 1. 查找所有标记了@AutoRegisterLoader的类
-        val annotationName = "com.kernelflux.aniflux.annotation.AutoRegisterLoader"
+        // 1. 查找所有标记了@AutoRegisterLoader / @AutoRegisterSizeEstimator / @AutoRegisterDrawableFactory的类，收集信息
+        val loaders = collect(
+            resolver,
+            annotationName = "com.kernelflux.aniflux.annotation.AutoRegisterLoader",
+            registerFunction = "register"
+        )
+        val sizeEstimators = collect(
+            resolver,
+            annotationName = "com.kernelflux.aniflux.annotation.AutoRegisterSizeEstimator",
+            registerFunction = "registerSizeEstimator"
+        )
+        val drawableFactories = collect(
+            resolver,
+            annotationName = "com.kernelflux.aniflux.annotation.AutoRegisterDrawableFactory",
+            registerFunction = "registerDrawableFactory"
+        )
+
+        // 2. 生成注册代码（如果没有找到任何Loader，直接返回）
+        if (loaders.isNotEmpty() || sizeEstimators.isNotEmpty() || drawableFactories.isNotEmpty()) {
+            generateRegistrationCode(loaders + sizeEstimators + drawableFactories)
+        }
+        return emptyList()
+    }
+
+    /**
+     * 收集标记了指定注解的类
+     */
+    private fun collect(
+        resolver: Resolver,
+        annotationName: String,
+        registerFunction: String
+    ): List<LoaderInfo> {
         val symbols = try {
             resolver.getSymbolsWithAnnotation(annotationName)
                 .filterIsInstance<KSClassDeclaration>()
@@ -29,15 +59,15 @@ class LoaderRegistrationProcessor(
             logger.error("Failed to get symbols with annotation: ${e.message}")
             emptyList()
         }
-        
-        // 2. 收集Loader信息
-        val loaders = symbols.mapNotNull { classDeclaration ->
+
+        val shortName = annotationName.substringAfterLast(".")
+        return symbols.mapNotNull { classDeclaration ->
             if (!classDeclaration.validate()) {
                 return@mapNotNull null
             }
 
             val annotation = classDeclaration.annotations
-                .find { it.shortName.asString() == "AutoRegisterLoader" }
+                .find { it.shortName.asString() == shortName }
                 ?: return@mapNotNull null
 
             val animationType = annotation.arguments
@@ -48,15 +78,10 @@ class LoaderRegistrationProcessor(
             LoaderInfo(
                 className = classDeclaration.qualifiedName!!.asString(),
                 simpleName = classDeclaration.simpleName.asString(),
-                animationType = animationType
+                animationType = animationType,
+                registerFunction = registerFunction
             )
         }
-        
-        // 3. 生成注册代码（如果没有找到任何Loader，直接返回）
-        if (loaders.isNotEmpty()) {
-            generateRegistrationCode(loaders)
-        }
-        return emptyList()
     }
 
     /**
@@ -91,7 +116,7 @@ class LoaderRegistrationProcessor(
             val companionObject = TypeSpec.companionObjectBuilder()
                 .addFunction(
                     FunSpec.builder("load")
-                        .addKdoc("加载并注册标记了@AutoRegisterLoader的Loader\n\n此方法由编译时字节码插桩自动调用，通常不需要手动调用。")
+                        .addKdoc("加载并注册标记了@AutoRegisterLoader的Loader（及@AutoRegisterSizeEstimator的估算器、@AutoRegisterDrawableFactory的工厂）\n\n此方法由编译时字节码插桩自动调用，通常不需要手动调用。")
                         .addModifiers(KModifier.PUBLIC)
                         .addAnnotation(
                             AnnotationSpec.builder(ClassName("kotlin.jvm", "JvmStatic"))
@@ -138,8 +163,9 @@ class LoaderRegistrationProcessor(
             val loaderClass = ClassName.bestGuess(loader.className)
 
             builder.addStatement(
-                "%T.register(%T.%L, %T())",
+                "%T.%L(%T.%L, %T())",
                 ClassName("com.kernelflux.aniflux.registry", "LoaderRegistry"),
+                loader.registerFunction,
                 animationTypeEnum,
                 loader.animationType.uppercase(),
                 loaderClass
@@ -156,7 +182,8 @@ class LoaderRegistrationProcessor(
     private data class LoaderInfo(
         val className: String,
         val simpleName: String,
-        val animationType: String
+        val animationType: String,
+        val registerFunction: String
     )
 }
 
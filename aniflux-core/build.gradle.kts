@@ -61,6 +61,9 @@ dependencies {
     api(libs.fragment)
     api(libs.androidx.exifinterface)
     api(libs.okhttp)
+
+    testImplementation(libs.junit)
+    testImplementation(libs.robolectric)
 }
 
 // 应用通用发布配置
@@ -11,6 +11,7 @@ import androidx.fragment.app.Fragment
 import androidx.fragment.app.FragmentActivity
 import com.kernelflux.aniflux.cache.LruAnimationDiskCache
 import com.kernelflux.aniflux.engine.AnimationEngine
+import com.kernelflux.aniflux.engine.AnimationPreloader
 import java.io.File
 import com.kernelflux.aniflux.manager.AnimationConnectivityMonitorFactory
 import com.kernelflux.aniflux.manager.AnimationRequestManagerRetriever
@@ -37,6 +38,7 @@ class AniFlux : ComponentCallbacks2 {
     private val defaultRequestListeners: List<AnimationRequestListener<Any>>
     private val logLevel: Int
     private val engine: AnimationEngine
+    private val preloader: AnimationPreloader
     
     @Volatile
     private var placeholderImageLoader: PlaceholderImageLoader? = null
@@ -47,7 +49,9 @@ class AniFlux : ComponentCallbacks2 {
         connectivityMonitorFactory: AnimationConnectivityMonitorFactory,
         logLevel: Int,
         defaultRequestListeners: List<AnimationRequestListener<Any>>,
-        enableAnimationCompatibility: Boolean = true
+        enableAnimationCompatibility: Boolean = true,
+        preloadMaxConcurrentLoads: Int = AnimationPreloader.DEFAULT_MAX_CONCURRENT_LOADS,
+        preloadMemoryBudgetBytes: Long = AnimationPreloader.defaultMemoryBudget()
     ) {
         this.appContext = context.applicationContext
         this.requestManagerRetriever = requestManagerRetriever
@@ -61,6 +65,9 @@ class AniFlux : ComponentCallbacks2 {
         
         // Initialize Engine (pass disk cache)
         this.engine = AnimationEngine(animationDiskCache = diskCache)
+
+        // Created up front so an invalid preload configuration fails at init, not at first preload
+        this.preloader = AnimationPreloader(appContext, engine, preloadMaxConcurrentLoads, preloadMemoryBudgetBytes)
         
         // Initialize animation compatibility (handle system animation settings)
         // This ensures animations work correctly even when system animations are disabled in developer options
@@ -113,7 +120,7 @@ class AniFlux : ComponentCallbacks2 {
             synchronized(AniFlux::class.java) {
                 aniFlux?.let { unInit() }
                 val configuration = AniFluxConfiguration().apply(config)
-                val instance = initializeAniFlux(context, configuration.enableAnimationCompatibility)
+                val instance = initializeAniFlux(context, configuration)
                 configuration.placeholderImageLoader?.let {
                     instance.setPlaceholderImageLoader(it)
                 }
@@ -122,7 +129,10 @@ class AniFlux : ComponentCallbacks2 {
         }
 
         @JvmStatic
-        private fun initializeAniFlux(context: Context, enableAnimationCompatibility: Boolean = true): AniFlux {
+        private fun initializeAniFlux(
+            context: Context,
+            configuration: AniFluxConfiguration = AniFluxConfiguration()
+        ): AniFlux {
             val appCxt = context.applicationContext
             val connectivityMonitorFactory = DefaultAnimationConnectivityMonitorFactory()
             val defaultRequestListeners = Collections.emptyList<AnimationRequestListener<Any>>()
@@ -137,7 +147,9 @@ class AniFlux : ComponentCallbacks2 {
                 connectivityMonitorFactory,
                 logLevel,
                 defaultRequestListeners,
-                enableAnimationCompatibility
+                configuration.enableAnimationCompatibility,
+                configuration.preloadMaxConcurrentLoads,
+                configuration.preloadMemoryBudgetBytes
             )
             appCxt.registerComponentCallbacks(createAniFlux)
             aniFlux = createAniFlux
@@ -213,6 +225,12 @@ class AniFlux : ComponentCallbacks2 {
     }
 
     fun getEngine(): AnimationEngine = engine
+
+    /**
+     * Get preloader (warms caches without a target)
+     * Concurrency and memory budget come from [AniFluxConfiguration]
+     */
+    fun getPreloader(): AnimationPreloader = preloader
     
     /**
      * Set placeholder image loader
@@ -265,7 +283,8 @@ class AniFlux : ComponentCallbacks2 {
 
     fun clearMemory() {
         Util.assertMainThread()
-        // Clear Engine cache
+        // Clear Engine cache (preloads would refill it)
+        preloader.cancelAll()
         engine.clear()
     }
 
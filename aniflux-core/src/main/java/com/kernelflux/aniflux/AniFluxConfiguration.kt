@@ -1,5 +1,6 @@
 package com.kernelflux.aniflux
 
+import com.kernelflux.aniflux.engine.AnimationPreloader
 import com.kernelflux.aniflux.placeholder.PlaceholderImageLoader
 
 /**
@@ -23,6 +24,21 @@ class AniFluxConfiguration {
      * Default: true (enabled)
      */
     var enableAnimationCompatibility: Boolean = true
+
+    /**
+     * Maximum number of preloads running at once (see [AnimationPreloader])
+     *
+     * Default: 2
+     */
+    var preloadMaxConcurrentLoads: Int = AnimationPreloader.DEFAULT_MAX_CONCURRENT_LOADS
+
+    /**
+     * Memory (in bytes) one preload batch (one preload/preloadAll call) may fill before it stops starting
+     * new loads. The budget is per batch, not shared: concurrent batches each get the full budget.
+     *
+     * Default: 1/16 of the max heap size
+     */
+    var preloadMemoryBudgetBytes: Long = AnimationPreloader.defaultMemoryBudget()
     
     /**
      * Set placeholder image loader
@@ -45,5 +61,27 @@ class AniFluxConfiguration {
         this.enableAnimationCompatibility = enable
         return this
     }
+
+    /**
+     * Set maximum number of preloads running at once
+     *
+     * @param maxConcurrentLoads Must be > 0
+     * @return this, supports method chaining
+     */
+    fun setPreloadMaxConcurrentLoads(maxConcurrentLoads: Int): AniFluxConfiguration {
+        this.preloadMaxConcurrentLoads = maxConcurrentLoads
+        return this
+    }
+
+    /**
+     * Set memory budget of each preload batch, see [preloadMemoryBudgetBytes]
+     *
+     * @param budgetBytes Must be > 0
+     * @return this, supports method chaining
+     */
+    fun setPreloadMemoryBudgetBytes(budgetBytes: Long): AniFluxConfiguration {
+        this.preloadMemoryBudgetBytes = budgetBytes
+        return this
+    }
 }
 
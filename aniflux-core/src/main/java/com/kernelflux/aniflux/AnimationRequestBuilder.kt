@@ -10,6 +10,7 @@ import com.kernelflux.aniflux.request.target.CustomAnimationTarget
 import com.kernelflux.aniflux.request.target.CustomViewAnimationTarget
 import com.kernelflux.aniflux.util.AnimationOptions
 import com.kernelflux.aniflux.cache.AnimationCacheStrategy
+import com.kernelflux.aniflux.load.AnimationPriority
 
 /**
  * Animation request builder
@@ -100,6 +101,15 @@ class AnimationRequestBuilder<T>(
         return this
     }
 
+    /**
+     * Set load priority
+     * Queued loads run visible first, then prefetch, then background (default [AnimationPriority.VISIBLE])
+     */
+    fun priority(priority: AnimationPriority): AnimationRequestBuilder<T> {
+        options.priority(priority)
+        return this
+    }
+
     /**
      * Set animation repeat count
      * @param count -1 means infinite loop, 0 means no loop, >0 means loop count
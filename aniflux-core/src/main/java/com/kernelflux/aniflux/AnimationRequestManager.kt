@@ -15,6 +15,7 @@ import com.kernelflux.aniflux.manager.AnimationRequestTracker
 import com.kernelflux.aniflux.manager.AnimationTargetTracker
 import com.kernelflux.aniflux.engine.AnimationEngine
 import com.kernelflux.aniflux.engine.AnimationEngine.LoadStatus
+import com.kernelflux.aniflux.engine.AnimationPreloader
 import com.kernelflux.aniflux.request.AnimationRequest
 import com.kernelflux.aniflux.request.AnimationRequestListener
 import com.kernelflux.aniflux.request.target.AnimationTarget
@@ -52,6 +53,9 @@ class AnimationRequestManager(
     private var pauseAllRequestsOnTrimMemoryModerate: Boolean = false
     private var clearOnStop = false
 
+    // Preloads started through this manager, cancelled when it is destroyed
+    private val preloadBatches = CopyOnWriteArrayList<AnimationPreloader.PreloadBatch>()
+
     init {
         aniFlux.registerRequestManager(this)
         if (Util.isOnBackgroundThread()) {
@@ -144,6 +148,8 @@ class AnimationRequestManager(
     override fun onDestroy() {
         targetTracker.onDestroy()
         clearRequests()
+        preloadBatches.forEach { it.cancel() }
+        preloadBatches.clear()
         requestTracker.clearRequests()
         lifecycle.removeListener(this)
         lifecycle.removeListener(connectivityMonitor)
@@ -172,6 +178,39 @@ class AnimationRequestManager(
         )
     }
 
+    /**
+     * Preload animation into disk and memory cache without a target
+     * Cancelled automatically when this manager's lifecycle is destroyed
+     *
+     * @param model Animation source (URL, file, asset path, etc.)
+     * @param options Load options, defaults to background priority
+     * @return Batch, can be used to cancel the preload
+     */
+    fun preload(
+        model: Any?,
+        options: AnimationOptions = AnimationPreloader.defaultOptions()
+    ): AnimationPreloader.PreloadBatch {
+        return preloadAll(listOf(model), options)
+    }
+
+    /**
+     * Preload animations into disk and memory cache without a target
+     * Runs with bounded concurrency and stops once the batch reaches the preloader's memory budget
+     *
+     * @param models Animation sources, preloaded in list order
+     * @param options Load options, defaults to background priority
+     * @return Batch, can be used to cancel all of its preloads
+     */
+    fun preloadAll(
+        models: List<Any?>,
+        options: AnimationOptions = AnimationPreloader.defaultOptions()
+    ): AnimationPreloader.PreloadBatch {
+        val batch = aniFlux.getPreloader().preloadAll(models, options)
+        preloadBatches.removeAll { it.isDone() }
+        preloadBatches.add(batch)
+        return batch
+    }
+
     //////////////////////////////////////// Core API END  //////////////////////////////////////////////////
 
 
@@ -1,6 +1,10 @@
 package com.kernelflux.aniflux.cache
 
 import java.io.File
+import java.io.RandomAccessFile
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.security.MessageDigest
 
 /**
  * Disk cache interface
@@ -13,6 +17,21 @@ interface AnimationDiskCache {
      * @return Cache file, returns null if not exists
      */
     fun get(key: String): File?
+
+    /**
+     * Get cache entry as read-only memory-mapped buffer
+     * Lets loaders parse large files without copying them onto the heap first
+     * @param key Cache key
+     * @return Mapped buffer, returns null if not exists or mapping fails
+     */
+    fun getMapped(key: String): MappedByteBuffer? {
+        val file = get(key) ?: return null
+        return try {
+            mapReadOnly(file)
+        } catch (e: Exception) {
+            null
+        }
+    }
     
     /**
      * Save to disk cache
@@ -20,6 +39,37 @@ interface AnimationDiskCache {
      * @param file File to cache
      */
     fun put(key: String, file: File)
+
+    /**
+     * Open an editor to write cache entry in place (avoids writing a temp file then copying it)
+     * Entry becomes visible only after [Editor.commit]
+     * @param key Cache key
+     * @param extension File extension of the entry (without dot), null if unknown
+     * @return Editor, returns null if not supported (caller should fall back to [put])
+     */
+    fun edit(key: String, extension: String? = null): Editor? = null
+
+    /**
+     * Pending cache entry write
+     * Exactly one of [commit] or [abort] must be called
+     */
+    interface Editor {
+        /**
+         * File to write entry content into
+         */
+        fun getFile(): File
+
+        /**
+         * Publish written file as cache entry
+         * @return Cache file, returns null if commit fails (entry is discarded)
+         */
+        fun commit(): File?
+
+        /**
+         * Discard written content, previous entry (if any) is kept
+         */
+        fun abort()
+    }
     
     /**
      * Remove cache
@@ -41,5 +91,30 @@ interface AnimationDiskCache {
      * Get max cache size (bytes)
      */
     fun getMaxSize(): Long
-}
 
+    companion object {
+        /**
+         * Map file read-only
+         * Mapping stays valid after channel is closed, it is released when buffer is garbage collected
+         */
+        @JvmStatic
+        fun mapReadOnly(file: File): MappedByteBuffer {
+            return RandomAccessFile(file, "r").use { raf ->
+                raf.channel.map(FileChannel.MapMode.READ_ONLY, 0, raf.length())
+            }
+        }
+
+        /**
+         * Stable key of file content: MD5 of path, length and last modification time
+         * Same file gives the same key across loads and process restarts, a rewritten file gets a new one,
+         * so loaders can name data derived from it (unpacked archives, snapshots) by this key
+         */
+        @JvmStatic
+        fun contentKey(file: File): String {
+            val id = "${file.absolutePath}:${file.length()}:${file.lastModified()}"
+            return MessageDigest.getInstance("MD5")
+                .digest(id.toByteArray())
+                .joinToString("") { "%02x".format(it) }
+        }
+    }
+}
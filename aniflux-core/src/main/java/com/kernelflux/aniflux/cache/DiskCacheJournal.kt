@@ -0,0 +1,359 @@
+package com.kernelflux.aniflux.cache
+
+import com.kernelflux.aniflux.log.AniFluxLog
+import com.kernelflux.aniflux.log.AniFluxLogCategory
+import java.io.BufferedWriter
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.OutputStreamWriter
+import java.io.Writer
+
+/**
+ * Append-only journal for disk cache index (similar to DiskLruCache journal)
+ *
+ * Journal format:
+ * ```
+ * aniflux.DiskCacheJournal
+ * 1
+ *
+ * DIRTY 3c5a1e
+ * CLEAN 3c5a1e 3c5a1e.svga 52133
+ * READ 3c5a1e
+ * REMOVE 3c5a1e
+ * ```
+ * - DIRTY: entry is being written, must be followed by CLEAN or REMOVE
+ * - CLEAN: entry was written successfully (filename, size)
+ * - READ: entry was accessed (only affects LRU order)
+ * - REMOVE: entry was deleted
+ *
+ * Each operation appends a single line instead of rewriting the whole index,
+ * the journal is compacted (rebuilt from live entries) once redundant lines pile up.
+ *
+ * Not thread-safe, caller is responsible for synchronization (except [writeCompaction]).
+ */
+internal class DiskCacheJournal(private val directory: File) {
+
+    companion object {
+        const val JOURNAL_FILE = "journal"
+        const val JOURNAL_FILE_TEMP = "journal.tmp"
+        const val JOURNAL_FILE_BACKUP = "journal.bkp"
+        const val JOURNAL_FILE_COMPACT = "journal.compact.tmp"
+
+        private const val MAGIC = "aniflux.DiskCacheJournal"
+        private const val VERSION = "1"
+
+        private const val CLEAN = "CLEAN"
+        private const val DIRTY = "DIRTY"
+        private const val REMOVE = "REMOVE"
+        private const val READ = "READ"
+
+        // Compact when redundant lines reach this count (and outnumber live entries)
+        private const val REDUNDANT_OP_COMPACT_THRESHOLD = 2000
+    }
+
+    /**
+     * Journal record of a clean entry
+     */
+    data class Record(
+        val filename: String,
+        val size: Long
+    )
+
+    /**
+     * Result of replaying the journal
+     * @param entries Clean entries in LRU order (least recently used first)
+     * @param dirtyKeys Keys whose DIRTY line was never followed by CLEAN/REMOVE (interrupted writes)
+     */
+    class Snapshot(
+        val entries: LinkedHashMap<String, Record>,
+        val dirtyKeys: Set<String>
+    )
+
+    private val journalFile = File(directory, JOURNAL_FILE)
+    private val journalFileTmp = File(directory, JOURNAL_FILE_TEMP)
+    private val journalFileBackup = File(directory, JOURNAL_FILE_BACKUP)
+    private val journalFileCompact = File(directory, JOURNAL_FILE_COMPACT)
+
+    private var writer: Writer? = null
+
+    // Compaction in progress, see beginCompaction
+    private var compaction: Compaction? = null
+
+    /**
+     * Journal compaction in progress
+     * Lines appended after it started are kept, they are replayed onto the compacted journal on commit
+     * @param redundantAtStart Redundant lines dropped by the compacted journal
+     */
+    class Compaction internal constructor(internal val redundantAtStart: Int) {
+        internal val pendingLines = ArrayList<String>()
+    }
+
+    /**
+     * Number of journal lines that don't contribute to the current state
+     */
+    var redundantOpCount: Int = 0
+        private set
+
+    /**
+     * Replay journal file
+     * @return Snapshot, returns null if journal doesn't exist or is corrupted
+     */
+    fun read(): Snapshot? {
+        // Prefer backup if a rebuild was interrupted after the journal was renamed away
+        if (journalFileBackup.exists()) {
+            if (journalFile.exists()) {
+                journalFileBackup.delete()
+            } else {
+                journalFileBackup.renameTo(journalFile)
+            }
+        }
+        // Left over from a compaction that never committed
+        journalFileCompact.delete()
+        if (!journalFile.exists()) {
+            return null
+        }
+
+        val entries = LinkedHashMap<String, Record>(16, 0.75f, true)
+        val dirtyKeys = HashSet<String>()
+        var lineCount = 0
+        try {
+            journalFile.bufferedReader().useLines { lines ->
+                val iterator = lines.iterator()
+                val magic = if (iterator.hasNext()) iterator.next() else null
+                val version = if (iterator.hasNext()) iterator.next() else null
+                val blank = if (iterator.hasNext()) iterator.next() else null
+                if (magic != MAGIC || version != VERSION || blank?.isEmpty() != true) {
+                    throw IOException("Unexpected journal header: [$magic, $version, $blank]")
+                }
+                while (iterator.hasNext()) {
+                    replayLine(iterator.next(), entries, dirtyKeys)
+                    lineCount++
+                }
+            }
+        } catch (e: Exception) {
+            AniFluxLog.e(AniFluxLogCategory.CACHE, "Journal is corrupted, discarding", e)
+            return null
+        }
+
+        redundantOpCount = lineCount - entries.size
+        openWriter(append = true)
+        return Snapshot(entries, dirtyKeys)
+    }
+
+    private fun replayLine(
+        line: String,
+        entries: LinkedHashMap<String, Record>,
+        dirtyKeys: MutableSet<String>
+    ) {
+        val parts = line.split(' ')
+        if (parts.size < 2) {
+            // Torn last line from a crash, ignore
+            return
+        }
+        val key = parts[1]
+        when (parts[0]) {
+            CLEAN -> {
+                if (parts.size != 4) return
+                val size = parts[3].toLongOrNull() ?: return
+                dirtyKeys.remove(key)
+                // Remove first so the entry moves to the tail (most recently used)
+                entries.remove(key)
+                entries[key] = Record(parts[2], size)
+            }
+            DIRTY -> dirtyKeys.add(key)
+            REMOVE -> {
+                dirtyKeys.remove(key)
+                entries.remove(key)
+            }
+            // Access-ordered map: get() moves the entry to the tail
+            READ -> entries[key]
+        }
+    }
+
+    fun appendDirty(key: String) {
+        append("$DIRTY $key", flush = true)
+    }
+
+    fun appendClean(key: String, record: Record) {
+        append("$CLEAN $key ${record.filename} ${record.size}", flush = true)
+    }
+
+    fun appendRemove(key: String) {
+        redundantOpCount++
+        append("$REMOVE $key", flush = true)
+    }
+
+    fun appendRead(key: String) {
+        redundantOpCount++
+        // READ only affects LRU order, losing it on crash is harmless, so don't flush
+        append("$READ $key", flush = false)
+    }
+
+    /**
+     * Count an overwritten CLEAN line (same key written again) as redundant
+     */
+    fun onEntryReplaced() {
+        redundantOpCount++
+    }
+
+    /**
+     * Whether journal should be compacted
+     * Only compact when redundant lines outnumber live entries, keeps compaction amortized O(1)
+     */
+    fun needsRebuild(liveEntryCount: Int): Boolean {
+        return redundantOpCount >= REDUNDANT_OP_COMPACT_THRESHOLD &&
+                redundantOpCount >= liveEntryCount
+    }
+
+    /**
+     * Rewrite journal with only the live entries (in LRU order)
+     * Written to a temp file then swapped in, so a crash leaves either the old or the new journal
+     */
+    fun rebuild(entries: Map<String, Record>) {
+        // Snapshot of a compaction in progress is outdated now, it must not be swapped in
+        compaction = null
+        writer?.let { runCatching { it.close() } }
+        writer = null
+
+        try {
+            writeEntries(journalFileTmp, entries)
+            swapIn(journalFileTmp)
+            redundantOpCount = 0
+        } catch (e: Exception) {
+            AniFluxLog.e(AniFluxLogCategory.CACHE, "Failed to rebuild journal", e)
+        } finally {
+            openWriter(append = true)
+        }
+    }
+
+    /**
+     * Start compacting, call together with taking the snapshot of live entries
+     *
+     * Unlike [rebuild], compaction runs in three steps so the caller only holds its locks for the snapshot
+     * and the swap: [beginCompaction] while entries are snapshotted, [writeCompaction] without any lock,
+     * then [commitCompaction]. Lines appended in between still go to the current journal
+     */
+    fun beginCompaction(): Compaction {
+        return Compaction(redundantOpCount).also { compaction = it }
+    }
+
+    /**
+     * Write the snapshot taken with [beginCompaction] to a temp file
+     * Touches nothing but that file, so it runs without holding any lock, one compaction at a time
+     * @return false if writing failed, the compaction must be aborted
+     */
+    fun writeCompaction(entries: Map<String, Record>): Boolean {
+        return try {
+            writeEntries(journalFileCompact, entries)
+            true
+        } catch (e: IOException) {
+            AniFluxLog.e(AniFluxLogCategory.CACHE, "Failed to write compacted journal", e)
+            false
+        }
+    }
+
+    /**
+     * Append the lines written since [beginCompaction] to the compacted journal and swap it in
+     * Skipped if a [rebuild] happened meanwhile
+     */
+    fun commitCompaction(compaction: Compaction) {
+        if (this.compaction !== compaction) {
+            journalFileCompact.delete()
+            return
+        }
+        this.compaction = null
+        writer?.let { runCatching { it.close() } }
+        writer = null
+
+        try {
+            BufferedWriter(OutputStreamWriter(FileOutputStream(journalFileCompact, true), Charsets.US_ASCII)).use { w ->
+                compaction.pendingLines.forEach { line ->
+                    w.write(line)
+                    w.write("\n")
+                }
+            }
+            swapIn(journalFileCompact)
+            redundantOpCount -= compaction.redundantAtStart
+        } catch (e: Exception) {
+            // Current journal still has every line, keep appending to it
+            AniFluxLog.e(AniFluxLogCategory.CACHE, "Failed to compact journal", e)
+        } finally {
+            openWriter(append = true)
+        }
+    }
+
+    fun abortCompaction(compaction: Compaction) {
+        if (this.compaction === compaction) {
+            this.compaction = null
+        }
+        journalFileCompact.delete()
+    }
+
+    private fun writeEntries(file: File, entries: Map<String, Record>) {
+        BufferedWriter(OutputStreamWriter(FileOutputStream(file), Charsets.US_ASCII)).use { w ->
+            w.write(MAGIC)
+            w.write("\n")
+            w.write(VERSION)
+            w.write("\n")
+            w.write("\n")
+            entries.forEach { (key, record) ->
+                w.write("$CLEAN $key ${record.filename} ${record.size}\n")
+            }
+        }
+    }
+
+    /**
+     * Replace journal with [file], a crash leaves either the old or the new journal
+     */
+    private fun swapIn(file: File) {
+        if (journalFile.exists()) {
+            journalFileBackup.delete()
+            journalFile.renameTo(journalFileBackup)
+        }
+        if (!file.renameTo(journalFile)) {
+            throw IOException("Failed to rename ${file.absolutePath}")
+        }
+        journalFileBackup.delete()
+    }
+
+    /**
+     * Flush buffered lines (READ lines are not flushed eagerly)
+     */
+    fun flush() {
+        try {
+            writer?.flush()
+        } catch (e: IOException) {
+            AniFluxLog.e(AniFluxLogCategory.CACHE, "Failed to flush journal", e)
+        }
+    }
+
+    fun close() {
+        compaction = null
+        writer?.let { runCatching { it.close() } }
+        writer = null
+    }
+
+    private fun append(line: String, flush: Boolean) {
+        compaction?.pendingLines?.add(line)
+        val w = writer ?: return
+        try {
+            w.write(line)
+            w.write("\n")
+            if (flush) {
+                w.flush()
+            }
+        } catch (e: IOException) {
+            AniFluxLog.e(AniFluxLogCategory.CACHE, "Failed to append journal: $line", e)
+        }
+    }
+
+    private fun openWriter(append: Boolean) {
+        writer = try {
+            BufferedWriter(OutputStreamWriter(FileOutputStream(journalFile, append), Charsets.US_ASCII))
+        } catch (e: IOException) {
+            AniFluxLog.e(AniFluxLogCategory.CACHE, "Failed to open journal writer", e)
+            null
+        }
+    }
+}
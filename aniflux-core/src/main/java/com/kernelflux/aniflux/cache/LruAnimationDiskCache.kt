@@ -1,34 +1,76 @@
 package com.kernelflux.aniflux.cache
 
+import com.kernelflux.aniflux.load.AnimationExecutor
 import com.kernelflux.aniflux.log.AniFluxLog
 import com.kernelflux.aniflux.log.AniFluxLogCategory
 import org.json.JSONObject
 import java.io.File
-import java.io.FileReader
-import java.io.FileWriter
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
 
 /**
  * LRU strategy-based disk cache implementation
- * 
- * Uses index file to record cache metadata (filename, size, access time),
- * implements LRU strategy to manage cache files
+ *
+ * Uses an append-only journal (see [DiskCacheJournal]) to record cache metadata (filename, size),
+ * entries are kept in access order in memory, so a cache hit only appends one READ line
+ * instead of rewriting the whole index
+ *
+ * Safe for concurrent use: the index is split into shards by key hash, each guarded by its own lock
+ * and keeping its own running size. Entries are written through an [AnimationDiskCache.Editor] into a
+ * temp file outside the shard lock and renamed into place on commit,
+ * eviction runs on the disk cache thread and removes the least recently used entry across shards.
+ *
+ * Lock order: shard -> journal. Operations touching every shard (clear, snapshot for journal compaction)
+ * take shard locks in index order first. The compacted journal is written without holding any lock.
  */
 class LruAnimationDiskCache(
     private val cacheDir: File,
-    private val maxSize: Long = 100 * 1024 * 1024 // 100MB default
+    private val maxSize: Long = 100 * 1024 * 1024, // 100MB default
+    shardCount: Int = DEFAULT_SHARD_COUNT
 ) : AnimationDiskCache {
 
     companion object {
         private const val TAG = "LruDiskCache"
-        private const val INDEX_FILE_NAME = "index.json"
+        private const val LEGACY_INDEX_FILE_NAME = "index.json"
         private const val CLEANUP_THRESHOLD = 0.9 // Trigger cleanup when cache reaches 90%
+        private const val DEFAULT_SHARD_COUNT = 8
+        private const val TEMP_FILE_SUFFIX = ".tmp"
     }
 
-    private val indexFile = File(cacheDir, INDEX_FILE_NAME)
-    
-    // Index data: key -> (filename, size, lastAccessTime)
-    private val index: MutableMap<String, CacheEntry> = mutableMapOf()
-    
+    /**
+     * Index entry
+     * @param accessOrder Global access sequence, compares LRU order across shards
+     */
+    private class Entry(
+        val record: DiskCacheJournal.Record,
+        var accessOrder: Long
+    )
+
+    /**
+     * Index shard, guarded by its own monitor
+     */
+    private class Shard {
+        // key -> entry, access ordered (least recently used first)
+        val index = LinkedHashMap<String, Entry>(16, 0.75f, true)
+
+        // Running total of entry sizes in this shard
+        var size = 0L
+    }
+
+    private val shards = Array(shardCount.coerceAtLeast(1)) { Shard() }
+
+    // Guarded by its own monitor, see withJournal
+    private val journal = DiskCacheJournal(cacheDir)
+
+    private val totalSize = AtomicLong()
+    private val entryCount = AtomicInteger()
+    private val accessClock = AtomicLong()
+    private val tempFileSequence = AtomicLong()
+
+    private val evictionScheduled = AtomicBoolean(false)
+    private val rebuildScheduled = AtomicBoolean(false)
+
     init {
         if (!cacheDir.exists()) {
             cacheDir.mkdirs()
@@ -37,20 +79,23 @@ class LruAnimationDiskCache(
     }
 
     override fun get(key: String): File? {
-        val entry = index[key] ?: return null
-        
-        val file = File(cacheDir, entry.filename)
-        if (!file.exists() || !file.isFile) {
-            // File doesn't exist, remove from index
-            index.remove(key)
-            saveIndex()
-            return null
+        val shard = shardFor(key)
+        val file = synchronized(shard) {
+            val entry = shard.index[key] ?: return null
+
+            val file = File(cacheDir, entry.record.filename)
+            if (!file.isFile) {
+                // File doesn't exist, remove from index
+                removeEntry(shard, key)
+                null
+            } else {
+                // Update access order (index[key] above already moved entry to shard tail)
+                entry.accessOrder = accessClock.incrementAndGet()
+                withJournal { appendRead(key) }
+                file
+            }
         }
-        
-        // Update access time
-        entry.lastAccessTime = System.currentTimeMillis()
-        saveIndex()
-        
+        scheduleRebuildIfNeeded()
         return file
     }
 
@@ -59,68 +104,179 @@ class LruAnimationDiskCache(
             AniFluxLog.w(AniFluxLogCategory.CACHE, "Cannot cache non-existent file: ${file.absolutePath}")
             return
         }
-        
-        val fileSize = file.length()
-        
-        // Check cache size, cleanup if exceeds limit
-        if (getSize() + fileSize > maxSize * CLEANUP_THRESHOLD) {
-            evictUntilEnoughSpace(fileSize)
-        }
-        
-        // Determine cache filename
-        val filename = generateFilename(key, file)
-        val cachedFile = File(cacheDir, filename)
-        
+
+        val editor = edit(key, file.extension)
         try {
-            // Copy file to cache directory
-            file.copyTo(cachedFile, overwrite = true)
-            
-            // Update index
-            index[key] = CacheEntry(
-                filename = filename,
-                size = fileSize,
-                lastAccessTime = System.currentTimeMillis()
-            )
-            saveIndex()
-            
-            AniFluxLog.d(AniFluxLogCategory.CACHE, "Cached file: key=$key, size=$fileSize")
+            // Copy outside shard lock, readers of the shard aren't blocked by I/O
+            file.copyTo(editor.getFile(), overwrite = true)
         } catch (e: Exception) {
             AniFluxLog.e(AniFluxLogCategory.CACHE, "Failed to cache file: key=$key", e)
+            editor.abort()
+            return
+        }
+        editor.commit()
+    }
+
+    override fun edit(key: String, extension: String?): AnimationDiskCache.Editor {
+        // Determine cache filename
+        val filename = generateFilename(key, extension)
+        // Unique per editor, concurrent writes of the same key don't clobber each other
+        val tempFile = File(cacheDir, "$filename.${tempFileSequence.incrementAndGet()}$TEMP_FILE_SUFFIX")
+        withJournal { appendDirty(key) }
+        return LruEditor(key, filename, tempFile)
+    }
+
+    /**
+     * Editor writing into a temp file next to the entry, committed with an atomic rename
+     */
+    private inner class LruEditor(
+        private val key: String,
+        private val filename: String,
+        private val tempFile: File
+    ) : AnimationDiskCache.Editor {
+
+        private val done = AtomicBoolean(false)
+
+        override fun getFile(): File = tempFile
+
+        override fun commit(): File? {
+            if (!done.compareAndSet(false, true)) {
+                return null
+            }
+            return commitEntry(key, filename, tempFile)
+        }
+
+        override fun abort() {
+            if (done.compareAndSet(false, true)) {
+                abortEntry(key, tempFile)
+            }
+        }
+    }
+
+    private fun commitEntry(key: String, filename: String, tempFile: File): File? {
+        val cachedFile = File(cacheDir, filename)
+        val fileSize = tempFile.length()
+        val shard = shardFor(key)
+        val committed = synchronized(shard) {
+            // rename() replaces the old file atomically, readers holding it keep the old content
+            if (tempFile.isFile && tempFile.renameTo(cachedFile)) {
+                val record = DiskCacheJournal.Record(filename, fileSize)
+                val previous = shard.index.put(key, Entry(record, accessClock.incrementAndGet()))
+                if (previous != null) {
+                    addSize(shard, -previous.record.size)
+                    if (previous.record.filename != filename) {
+                        File(cacheDir, previous.record.filename).delete()
+                    }
+                    withJournal { onEntryReplaced() }
+                } else {
+                    entryCount.incrementAndGet()
+                }
+                addSize(shard, fileSize)
+                withJournal { appendClean(key, record) }
+                true
+            } else {
+                false
+            }
+        }
+
+        if (!committed) {
+            AniFluxLog.e(AniFluxLogCategory.CACHE, "Failed to commit cache entry: key=$key")
+            abortEntry(key, tempFile)
+            return null
+        }
+        AniFluxLog.d(AniFluxLogCategory.CACHE, "Cached file: key=$key, size=$fileSize")
+        scheduleEvictionIfNeeded()
+        scheduleRebuildIfNeeded()
+        return cachedFile
+    }
+
+    private fun abortEntry(key: String, tempFile: File) {
+        tempFile.delete()
+        val shard = shardFor(key)
+        synchronized(shard) {
+            // Close the DIRTY line, keep the previous version if there is one
+            val existing = shard.index[key]
+            // Lookup moved entry to shard tail, keep its global order in step
+            existing?.accessOrder = accessClock.incrementAndGet()
+            withJournal {
+                if (existing != null) {
+                    appendClean(key, existing.record)
+                    onEntryReplaced()
+                } else {
+                    appendRemove(key)
+                }
+            }
         }
     }
 
     override fun remove(key: String) {
-        val entry = index.remove(key)
-        entry?.let {
-            val file = File(cacheDir, it.filename)
-            file.delete()
-            saveIndex()
+        val shard = shardFor(key)
+        val removed = synchronized(shard) {
+            shard.index.containsKey(key).also { if (it) removeEntry(shard, key) }
+        }
+        if (removed) {
+            scheduleRebuildIfNeeded()
         }
     }
 
     override fun clear() {
-        // Delete all cache files
-        index.values.forEach { entry ->
-            File(cacheDir, entry.filename).delete()
+        withAllShardsLocked {
+            // Delete all cache files
+            shards.forEach { shard ->
+                shard.index.values.forEach { entry ->
+                    File(cacheDir, entry.record.filename).delete()
+                }
+                shard.index.clear()
+                shard.size = 0L
+            }
+            totalSize.set(0L)
+            entryCount.set(0)
+            withJournal { rebuild(emptyMap()) }
         }
-        index.clear()
-        saveIndex()
     }
 
     override fun getSize(): Long {
-        return index.values.sumOf { it.size }
+        return totalSize.get()
     }
 
     override fun getMaxSize(): Long {
         return maxSize
     }
 
+    private fun shardFor(key: String): Shard {
+        val hash = key.hashCode()
+        return shards[((hash xor (hash ushr 16)) and Int.MAX_VALUE) % shards.size]
+    }
+
+    private inline fun <R> withJournal(block: DiskCacheJournal.() -> R): R {
+        return synchronized(journal) { journal.block() }
+    }
+
+    /**
+     * Run block holding every shard lock (taken in index order)
+     */
+    private fun <R> withAllShardsLocked(fromIndex: Int = 0, block: () -> R): R {
+        if (fromIndex == shards.size) {
+            return block()
+        }
+        return synchronized(shards[fromIndex]) { withAllShardsLocked(fromIndex + 1, block) }
+    }
+
+    /**
+     * Must hold shard lock
+     */
+    private fun addSize(shard: Shard, delta: Long) {
+        shard.size += delta
+        totalSize.addAndGet(delta)
+    }
+
     /**
      * Generate cache filename
      * Format: {key}.{original file extension}
+     * Journal lines are space separated, so whitespace is stripped from the extension
      */
-    private fun generateFilename(key: String, file: File): String {
-        val ext = file.extension
+    private fun generateFilename(key: String, extension: String?): String {
+        val ext = extension.orEmpty().filterNot { it.isWhitespace() }
         return if (ext.isNotEmpty()) {
             "$key.$ext"
         } else {
@@ -129,91 +285,195 @@ class LruAnimationDiskCache(
     }
 
     /**
-     * Evict cache until enough space
+     * Remove entry from index, delete its file and record it in journal
+     * Must hold shard lock
+     */
+    private fun removeEntry(shard: Shard, key: String) {
+        val entry = shard.index.remove(key) ?: return
+        addSize(shard, -entry.record.size)
+        entryCount.decrementAndGet()
+        File(cacheDir, entry.record.filename).delete()
+        withJournal { appendRemove(key) }
+    }
+
+    /**
+     * Evict on disk cache thread once cache passes the cleanup threshold
      */
-    private fun evictUntilEnoughSpace(requiredSpace: Long) {
-        val currentSize = getSize()
-        val targetSize = maxSize * CLEANUP_THRESHOLD - requiredSpace
-        
-        if (currentSize <= targetSize) {
+    private fun scheduleEvictionIfNeeded() {
+        val targetSize = (maxSize * CLEANUP_THRESHOLD).toLong()
+        if (totalSize.get() <= targetSize || !evictionScheduled.compareAndSet(false, true)) {
             return
         }
-        
-        // Sort by access time, delete least recently accessed files
-        val sortedEntries = index.entries.sortedBy { it.value.lastAccessTime }
-        
-        var freedSpace = currentSize
-        for (entry in sortedEntries) {
-            if (freedSpace <= targetSize) {
-                break
+        AnimationExecutor.getDiskCacheExecutor().execute {
+            evictionScheduled.set(false)
+            evictToSize(targetSize)
+            scheduleRebuildIfNeeded()
+        }
+    }
+
+    /**
+     * Evict least recently used entries (across all shards) until size drops to target
+     */
+    private fun evictToSize(targetSize: Long) {
+        val startSize = totalSize.get()
+        while (totalSize.get() > targetSize) {
+            val shard = findEldestShard() ?: break
+            synchronized(shard) {
+                // Shard head may have changed since it was peeked, evict whatever is eldest now
+                val eldestKey = shard.index.keys.firstOrNull()
+                if (eldestKey != null) {
+                    removeEntry(shard, eldestKey)
+                }
             }
-            
-            val file = File(cacheDir, entry.value.filename)
-            if (file.delete()) {
-                freedSpace -= entry.value.size
-                index.remove(entry.key)
+        }
+        AniFluxLog.d(AniFluxLogCategory.CACHE, "Evicted cache: freed ${startSize - totalSize.get()} bytes")
+    }
+
+    /**
+     * Shard whose least recently used entry is the oldest one overall
+     * Each shard is access ordered, so comparing shard heads finds the global LRU entry
+     */
+    private fun findEldestShard(): Shard? {
+        var eldestShard: Shard? = null
+        var eldestOrder = Long.MAX_VALUE
+        shards.forEach { shard ->
+            val order = synchronized(shard) {
+                shard.index.values.firstOrNull()?.accessOrder
+            }
+            if (order != null && order < eldestOrder) {
+                eldestOrder = order
+                eldestShard = shard
             }
         }
-        
-        saveIndex()
-        AniFluxLog.d(AniFluxLogCategory.CACHE, "Evicted cache: freed ${currentSize - freedSpace} bytes")
+        return eldestShard
     }
 
     /**
-     * Load index file
+     * Compact journal on disk cache thread once redundant lines pile up
      */
-    private fun loadIndex() {
-        if (!indexFile.exists()) {
+    private fun scheduleRebuildIfNeeded() {
+        if (!withJournal { needsRebuild(entryCount.get()) } || !rebuildScheduled.compareAndSet(false, true)) {
             return
         }
-        
-        try {
-            val json = JSONObject(FileReader(indexFile).readText())
-            json.keys().forEach { key ->
-                val entryObj = json.getJSONObject(key)
-                index[key] = CacheEntry(
-                    filename = entryObj.getString("filename"),
-                    size = entryObj.getLong("size"),
-                    lastAccessTime = entryObj.getLong("lastAccessTime")
-                )
+        AnimationExecutor.getDiskCacheExecutor().execute {
+            rebuildScheduled.set(false)
+            compactJournal()
+        }
+    }
+
+    /**
+     * Rewrite journal from live entries
+     * Shard locks are only held while entries are snapshotted, gets and puts carry on while the
+     * compacted journal is written, lines they append meanwhile are carried over on commit
+     * Runs on disk cache thread only
+     */
+    private fun compactJournal() {
+        val (compaction, entries) = withAllShardsLocked {
+            withJournal {
+                if (needsRebuild(entryCount.get())) beginCompaction() to entriesInLruOrder() else null
             }
-            AniFluxLog.d(AniFluxLogCategory.CACHE, "Loaded index: ${index.size} entries")
-        } catch (e: Exception) {
-            AniFluxLog.e(AniFluxLogCategory.CACHE, "Failed to load index", e)
-            index.clear()
+        } ?: return
+        val written = journal.writeCompaction(entries)
+        withJournal {
+            if (written) commitCompaction(compaction) else abortCompaction(compaction)
+        }
+        if (written) {
+            AniFluxLog.d(AniFluxLogCategory.CACHE, "Compacted journal: ${entries.size} entries")
         }
     }
 
     /**
-     * Save index file
+     * Merge shards into a single map in global LRU order
+     * Must hold every shard lock
      */
-    private fun saveIndex() {
-        try {
-            val json = JSONObject()
-            index.forEach { (key, entry) ->
-                val entryObj = JSONObject().apply {
-                    put("filename", entry.filename)
-                    put("size", entry.size)
-                    put("lastAccessTime", entry.lastAccessTime)
-                }
-                json.put(key, entryObj)
+    private fun entriesInLruOrder(): Map<String, DiskCacheJournal.Record> {
+        val entries = ArrayList<Pair<String, Entry>>(entryCount.get())
+        shards.forEach { shard ->
+            // Iteration doesn't affect access order
+            shard.index.forEach { (key, entry) -> entries.add(key to entry) }
+        }
+        entries.sortBy { it.second.accessOrder }
+        val result = LinkedHashMap<String, DiskCacheJournal.Record>(entries.size)
+        entries.forEach { (key, entry) -> result[key] = entry.record }
+        return result
+    }
+
+    /**
+     * Load index from journal
+     * Falls back to legacy index.json (then migrates it to journal) if journal doesn't exist
+     * Runs from constructor, before the cache is published to other threads
+     */
+    private fun loadIndex() {
+        val snapshot = journal.read()
+        val loaded = if (snapshot != null) {
+            // Interrupted writes: drop the half-written (and temp) files
+            snapshot.dirtyKeys.forEach { key ->
+                val liveFilename = snapshot.entries[key]?.filename
+                cacheDir.listFiles { _, name ->
+                    name != liveFilename && (name == key || name.startsWith("$key."))
+                }?.forEach { it.delete() }
             }
-            
-            FileWriter(indexFile).use { writer ->
-                writer.write(json.toString())
+            snapshot.entries
+        } else {
+            loadLegacyIndex()
+        }
+
+        // Drop entries whose files have gone missing, distribute the rest (LRU order kept) to shards
+        var dropped = false
+        loaded.forEach { (key, record) ->
+            if (File(cacheDir, record.filename).isFile) {
+                val shard = shardFor(key)
+                shard.index[key] = Entry(record, accessClock.incrementAndGet())
+                addSize(shard, record.size)
+                entryCount.incrementAndGet()
+            } else {
+                dropped = true
             }
-        } catch (e: Exception) {
-            AniFluxLog.e(AniFluxLogCategory.CACHE, "Failed to save index", e)
         }
+
+        if (snapshot == null || snapshot.dirtyKeys.isNotEmpty() || dropped) {
+            withJournal { rebuild(entriesInLruOrder()) }
+        }
+        AniFluxLog.d(AniFluxLogCategory.CACHE, "Loaded index: ${entryCount.get()} entries")
     }
 
     /**
-     * Cache entry data class
+     * Load legacy index.json file (written by older versions)
+     * @return Entries in LRU order (least recently used first)
      */
-    private data class CacheEntry(
-        val filename: String,
-        val size: Long,
-        var lastAccessTime: Long
-    )
-}
+    private fun loadLegacyIndex(): Map<String, DiskCacheJournal.Record> {
+        val result = LinkedHashMap<String, DiskCacheJournal.Record>()
+        val legacyIndexFile = File(cacheDir, LEGACY_INDEX_FILE_NAME)
+        if (!legacyIndexFile.exists()) {
+            return result
+        }
 
+        try {
+            val json = JSONObject(legacyIndexFile.readText())
+            val entries = mutableListOf<Triple<String, DiskCacheJournal.Record, Long>>()
+            json.keys().forEach { key ->
+                val entryObj = json.getJSONObject(key)
+                entries.add(
+                    Triple(
+                        key,
+                        DiskCacheJournal.Record(
+                            filename = entryObj.getString("filename"),
+                            size = entryObj.getLong("size")
+                        ),
+                        entryObj.getLong("lastAccessTime")
+                    )
+                )
+            }
+            entries.sortedBy { it.third }.forEach { (key, record, _) ->
+                result[key] = record
+            }
+            AniFluxLog.d(AniFluxLogCategory.CACHE, "Migrated legacy index: ${result.size} entries")
+        } catch (e: Exception) {
+            AniFluxLog.e(AniFluxLogCategory.CACHE, "Failed to load legacy index", e)
+            result.clear()
+        } finally {
+            legacyIndexFile.delete()
+        }
+        return result
+    }
+}
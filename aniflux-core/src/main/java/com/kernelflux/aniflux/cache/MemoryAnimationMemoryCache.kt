@@ -2,60 +2,87 @@ package com.kernelflux.aniflux.cache
 
 import android.util.LruCache
 import com.kernelflux.aniflux.engine.AnimationResource
+import com.kernelflux.aniflux.registry.LoaderRegistry
 
 /**
  * Memory animation cache - implemented based on LruCache
+ *
+ * Entries are weighed in bytes by the [ResourceSizeEstimator] registered for the resource type,
+ * size is estimated once on put (LruCache requires sizeOf to stay consistent while cached)
  */
 class MemoryAnimationMemoryCache(
     maxSize: Int = calculateDefaultMaxSize()
 ) : AnimationMemoryCache {
-    
-    private val cache = object : LruCache<String, AnimationResource<*>>(maxSize) {
-        override fun sizeOf(key: String, value: AnimationResource<*>): Int {
-            // Simple memory calculation, should actually calculate based on resource type
-            return 1
+
+    private val cache = object : LruCache<String, Entry>(maxSize) {
+        override fun sizeOf(key: String, value: Entry): Int {
+            return value.size
         }
-        
+
         override fun entryRemoved(
             evicted: Boolean,
             key: String,
-            oldValue: AnimationResource<*>,
-            newValue: AnimationResource<*>?
+            oldValue: Entry,
+            newValue: Entry?
         ) {
-            // Recycle resource when removed
-            oldValue.recycle()
+            // Recycle resource when evicted or replaced, a plain remove hands it over to the caller
+            // (engine moves it to active resources)
+            if (evicted || (newValue != null && newValue.resource !== oldValue.resource)) {
+                oldValue.resource.recycle()
+            }
         }
     }
-    
+
     override fun get(key: String): AnimationResource<*>? {
-        return cache.get(key)
+        return cache.get(key)?.resource
     }
-    
+
     override fun put(key: String, resource: AnimationResource<*>) {
-        cache.put(key, resource)
+        cache.put(key, Entry(resource, estimateSize(resource)))
     }
-    
+
     override fun remove(key: String) {
         cache.remove(key)
     }
-    
+
     override fun clear() {
         cache.evictAll()
     }
-    
+
     override fun size(): Int {
         return cache.size()
     }
-    
+
     override fun maxSize(): Int {
         return cache.maxSize()
     }
-    
+
+    /**
+     * Cache entry, keeps the size estimated on put
+     */
+    private class Entry(
+        val resource: AnimationResource<*>,
+        val size: Int
+    )
+
     companion object {
+        // Used for resource types without a registered estimator
+        private const val DEFAULT_RESOURCE_SIZE = 1024
+
         private fun calculateDefaultMaxSize(): Int {
             val maxMemory = Runtime.getRuntime().maxMemory()
             val cacheSize = (maxMemory / 8).toInt() // Use 1/8 of memory as cache
             return maxOf(cacheSize, 10 * 1024 * 1024) // Minimum 10MB
         }
+
+        private fun estimateSize(resource: AnimationResource<*>): Int {
+            val value = resource.getUnchecked() ?: return DEFAULT_RESOURCE_SIZE
+            val size = try {
+                LoaderRegistry.estimateSize(value)
+            } catch (e: Exception) {
+                null
+            } ?: DEFAULT_RESOURCE_SIZE.toLong()
+            return size.coerceIn(1L, Int.MAX_VALUE.toLong()).toInt()
+        }
     }
 }
@@ -0,0 +1,24 @@
+package com.kernelflux.aniflux.cache
+
+/**
+ * Resource size estimator
+ * Estimates retained heap size (bytes) of a loaded animation resource,
+ * used by memory cache to evict by real bytes instead of entry count
+ *
+ * Each format module implements it for the resource type its loader produces,
+ * and registers it to LoaderRegistry (marked with @AutoRegisterSizeEstimator)
+ */
+interface ResourceSizeEstimator<T> {
+
+    /**
+     * Resource class this estimator handles
+     */
+    fun getResourceClass(): Class<T>
+
+    /**
+     * Estimate resource size
+     * @param resource Loaded resource
+     * @return Size in bytes
+     */
+    fun estimateSize(resource: T): Long
+}
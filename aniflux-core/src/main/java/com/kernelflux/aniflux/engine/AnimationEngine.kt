@@ -31,8 +31,13 @@ class AnimationEngine(
      *
      * Complete cache flow:
      * 1. Memory cache query (activeResource + memoryCache)
-     * 2. Disk cache query (if enabled)
-     * 3. Start new loading task (network download or local load)
+     * 2. Join in-flight job for the same key (single-flight, whatever its source)
+     * 3. Disk cache query (if enabled)
+     * 4. Start new loading task (network download or local load)
+     *
+     * Memory lookup, joining and job registration happen under the engine lock, and a job leaves
+     * [activeJobs] only after its resource is in [activeResources], so N concurrent identical
+     * requests always share one job (one parse)
      */
     fun <T> load(
         context: Context,
@@ -44,48 +49,78 @@ class AnimationEngine(
     ): LoadStatus? {
         val key = buildAnimationKey(model, options)
 
-        // 1. First try to get resource from memory
-        var memoryResource: AnimationResource<*>?
+        // 1. First try to get resource from memory, 2. otherwise join executing task
         synchronized(this) {
-            memoryResource = loadFromMemory(key)
-            if (memoryResource != null) {
-                // ✅ Found memory resource, return directly (note: loadFromMemory has already called acquire)
-                cb?.onResourceReady(memoryResource, AnimationDataSource.MEMORY_CACHE, false)
+            if (deliverFromMemory(key, cb)) {
                 return null
             }
+            joinActiveJob(key, cb, options)?.let { return it }
         }
 
-        // 2. Not in memory, check disk cache (if enabled)
+        // 3. Not in memory, check disk cache (if enabled), outside engine lock since it touches storage
+        var diskFile: File? = null
         if (animationDiskCache != null &&
             (options.cacheStrategy == AnimationCacheStrategy.DISK_ONLY || options.cacheStrategy == AnimationCacheStrategy.BOTH)
         ) {
-            val diskFile = animationDiskCache.get(key.toCacheKey())
-            if (diskFile != null && diskFile.exists()) {
-                // Disk cache hit, start task to load from disk (no network download needed)
-                // Note: Need to inform AnimationJob to use disk file instead of network download
-                return startNewJob(context, model, target, options, listener, cb, key, diskFile)
-            }
+            // Disk cache hit: job loads from disk file (no network download needed)
+            diskFile = animationDiskCache.get(key.toCacheKey())?.takeIf { it.exists() }
         }
 
-        // 3. Check if there's an executing task
-        val existingJob = activeJobs[key]
-        if (existingJob != null) {
-            // There's an executing task, add new callback to existing Job
-            if (cb != null) {
-                existingJob.addCallback(cb)
+        // 4. Start new loading task, unless another request got there while disk was checked
+        var newJob: AnimationJob<T>? = null
+        val status = synchronized(this) {
+            if (deliverFromMemory(key, cb)) {
+                return null
+            }
+            joinActiveJob(key, cb, options) ?: run {
+                val job = activeJobs.computeIfAbsent(key) {
+                    createJob(context, model, target, options, listener, cb, key, diskFile).also { newJob = it }
+                }
+                LoadStatus(cb, job)
             }
-            return LoadStatus(cb, existingJob)
         }
+        newJob?.start()
+        return status
+    }
 
-        // 4. Start new loading task (network download or local load)
-        return startNewJob(context, model, target, options, listener, cb, key, null)
+    /**
+     * Notify callback directly if resource is in memory
+     * Must hold engine lock
+     * @return Whether resource was found
+     */
+    private fun deliverFromMemory(key: AnimationKey, cb: AnimationResourceCallback?): Boolean {
+        val memoryResource = loadFromMemory(key) ?: return false
+        // ✅ Found memory resource, return directly (note: loadFromMemory has already called acquire)
+        cb?.onResourceReady(memoryResource, AnimationDataSource.MEMORY_CACHE, false)
+        return true
     }
 
     /**
-     * Start new loading task
+     * Attach callback to executing task for the same key
+     * The task is moved up if the joining request has a higher priority than it was queued with
+     * Must hold engine lock
+     * @return Load status, returns null if there's no task to join
+     */
+    private fun joinActiveJob(
+        key: AnimationKey,
+        cb: AnimationResourceCallback?,
+        options: AnimationOptions
+    ): LoadStatus? {
+        val existingJob = activeJobs[key] ?: return null
+        if (cb != null && !existingJob.addCallback(cb)) {
+            // Cancelled task, replace it
+            activeJobs.remove(key, existingJob)
+            return null
+        }
+        existingJob.raisePriority(options.priority)
+        return LoadStatus(cb, existingJob)
+    }
+
+    /**
+     * Create new loading task (not started)
      * @param diskCachedFile Disk cache file (if loading from disk cache)
      */
-    private fun <T> startNewJob(
+    private fun <T> createJob(
         context: Context,
         model: Any?,
         target: AnimationTarget<T>,
@@ -94,8 +129,8 @@ class AnimationEngine(
         cb: AnimationResourceCallback?,
         key: AnimationKey,
         diskCachedFile: File? = null
-    ): LoadStatus {
-        val job = AnimationJob<T>(
+    ): AnimationJob<T> {
+        return AnimationJob<T>(
             engine = this,
             context = context,
             model = model,
@@ -107,10 +142,6 @@ class AnimationEngine(
             animationDiskCache = animationDiskCache,
             diskCachedFile = diskCachedFile
         )
-        activeJobs[key] = job
-        job.start()
-
-        return LoadStatus(cb, job)
     }
 
     private fun loadFromMemory(key: AnimationKey): AnimationResource<*>? {
@@ -172,24 +203,35 @@ class AnimationEngine(
      * Job completion callback
      * Called when AnimationJob completes
      */
-    internal fun <T> onJobComplete(
+    internal fun onJobComplete(
+        job: AnimationJob<*>,
         key: AnimationKey,
-        resource: AnimationResource<T>?
+        resource: AnimationResource<*>?
     ) {
-        // Remove from active jobs
-        activeJobs.remove(key)
-
-        if (resource != null) {
-            // ✅ Acquire when job completes (Engine holds resource)
-            resource.acquire()
-            // Success: add resource to active resources
-            activeResources[key] = resource
+        synchronized(this) {
+            if (resource != null) {
+                // ✅ Acquire when job completes (Engine holds resource)
+                resource.acquire()
+                // Success: add resource to active resources (before job leaves activeJobs, so no request misses both)
+                activeResources[key] = resource
+            }
+
+            // Remove from active jobs (only if it is still this job)
+            activeJobs.remove(key, job)
         }
 
         // Handle other tasks waiting for this resource
         handleWaitingJobs(key, resource)
     }
 
+    /**
+     * Job cancellation callback
+     * Called when AnimationJob is cancelled, so new requests start a fresh job instead of joining it
+     */
+    internal fun onJobCancelled(key: AnimationKey, job: AnimationJob<*>) {
+        activeJobs.remove(key, job)
+    }
+
     /**
      * Resource release callback
      * Called when AnimationResource reference count reaches 0
@@ -236,6 +278,10 @@ class AnimationEngine(
         fun cancel() {
             synchronized(this@AnimationEngine) {
                 engineJob.removeCallback(cb)
+                // Last waiting request gone: drop the job (and its queued source task)
+                if (cb != null) {
+                    engineJob.cancelIfUnused()
+                }
             }
         }
     }
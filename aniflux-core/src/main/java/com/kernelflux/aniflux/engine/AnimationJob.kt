@@ -8,14 +8,18 @@ import com.kernelflux.aniflux.log.AniFluxLogCategory
 import com.kernelflux.aniflux.load.AnimationDataSource
 import com.kernelflux.aniflux.load.AnimationDownloader
 import com.kernelflux.aniflux.load.AnimationExecutor
+import com.kernelflux.aniflux.load.AnimationLoadHandle
 import com.kernelflux.aniflux.load.AnimationLoader
+import com.kernelflux.aniflux.load.AnimationPriority
+import com.kernelflux.aniflux.load.AsyncAnimationLoader
+import com.kernelflux.aniflux.load.AsyncAnimationLoaders
 import com.kernelflux.aniflux.load.OkHttpAnimationDownloader
+import com.kernelflux.aniflux.registry.LoaderRegistry
 import com.kernelflux.aniflux.request.AnimationRequestListener
 import com.kernelflux.aniflux.request.target.AnimationTarget
 import com.kernelflux.aniflux.util.AnimationKey
 import com.kernelflux.aniflux.util.AnimationOptions
 import com.kernelflux.aniflux.util.AnimationTypeDetector
-import java.util.concurrent.ExecutorService
 import androidx.core.net.toUri
 import com.kernelflux.aniflux.cache.AnimationDiskCache
 
@@ -46,7 +50,9 @@ class AnimationJob<T>(
     private val downloader: AnimationDownloader = OkHttpAnimationDownloader()
     
     // Download and cache helper class
-    private val downloadHelper = AnimationJobDownloadHelper(context, key, animationDiskCache, downloader)
+    private val downloadHelper = AnimationJobDownloadHelper(
+        context, key, animationDiskCache, downloader, options.syncDiskWrites
+    )
 
     // State management
     @Volatile
@@ -61,7 +67,19 @@ class AnimationJob<T>(
     @Volatile
     private var hasLoadFailed = false
 
-    private var resource: AnimationResource<T>? = null
+    // Queued source task, dropped from the queue when the job is cancelled
+    @Volatile
+    private var sourceTask: AnimationExecutor.PrioritizedTask? = null
+
+    // Highest priority of the requests waiting for this job, guarded by job lock
+    private var priority = options.priority
+
+    // Load in progress, cancelled together with the job
+    @Volatile
+    private var pendingLoad: AnimationLoadHandle<*>? = null
+
+    // Holds the cached model, targets get their own drawable of type T created from it
+    private var resource: AnimationResource<Any>? = null
     private var exception: Throwable? = null
     private var dataSource: AnimationDataSource = AnimationDataSource.LOCAL
 
@@ -76,14 +94,19 @@ class AnimationJob<T>(
     /**
      * Add callback (for waiting requests)
      * References Glide EngineJob.addCallback()
+     * A job that already completed (but hasn't left the engine yet) notifies the callback directly
+     * @return Whether callback was accepted, false if task was cancelled
      */
     @Synchronized
-    fun addCallback(cb: AnimationResourceCallback) {
-        if (isCancelled || isComplete) {
-            return
+    fun addCallback(cb: AnimationResourceCallback): Boolean {
+        if (isCancelled) {
+            return false
         }
 
-        callbacks.add(cb)
+        if (!isComplete) {
+            callbacks.add(cb)
+            return true
+        }
 
         // If resource is ready, immediately notify newly added callback
         if (hasResource && resource != null) {
@@ -107,16 +130,18 @@ class AnimationJob<T>(
                 }
             }
         }
+        return true
     }
 
     /**
      * Start task
+     * Queued on source executor by [AnimationOptions.priority], or higher if a request joined before
      */
+    @Synchronized
     fun start() {
         if (isCancelled || isComplete) return
 
-        val executor = selectExecutor()
-        executor.execute {
+        sourceTask = AnimationExecutor.executeSource(priority) {
             try {
                 executeTask()
             } catch (e: Exception) {
@@ -126,150 +151,171 @@ class AnimationJob<T>(
     }
 
     /**
-     * Select executor
+     * A request with [newPriority] joined this job
+     * A job queued at a lower priority (e.g. preload) is moved up, so a visible request joining it
+     * doesn't wait behind offscreen work
      */
-    private fun selectExecutor(): ExecutorService {
-        return AnimationExecutor.getSourceExecutor()
+    @Synchronized
+    fun raisePriority(newPriority: AnimationPriority) {
+        if (newPriority >= priority) return
+        priority = newPriority
+        sourceTask?.raisePriority(newPriority)
     }
 
     /**
      * Execute task
+     * Starts the load and returns, the job continues in the completion listener
+     * (async loaders complete on their own parse thread, so no source thread is parked waiting)
      */
     private fun executeTask() {
         if (isCancelled) return
-        val result = loadAnimation()
-        if (isCancelled) return
-        handleSuccess(result)
+        val handle = startLoad()
+        pendingLoad = handle
+        handle.whenComplete { animation, error ->
+            pendingLoad = null
+            if (isCancelled) return@whenComplete
+            when {
+                error != null -> {
+                    AniFluxLog.e(AniFluxLogCategory.ENGINE, "Failed to load animation", error)
+                    handleError(error)
+                }
+                // Cancelled handle (both null)
+                animation == null -> return@whenComplete
+                else -> {
+                    try {
+                        handleSuccess(createResource(animation))
+                    } catch (e: Exception) {
+                        handleError(e)
+                    }
+                }
+            }
+        }
     }
 
     /**
      * Create corresponding loader
      * Dynamically get from LoaderRegistry, instead of directly instantiating
+     * Synchronous loaders are adapted, they run on the current source thread
      */
-    private fun createLoader(animationType: AnimationTypeDetector.AnimationType): AnimationLoader<*>? {
-        return com.kernelflux.aniflux.registry.LoaderRegistry.get(animationType)
+    @Suppress("UNCHECKED_CAST")
+    private fun createLoader(animationType: AnimationTypeDetector.AnimationType): AsyncAnimationLoader<Any>? {
+        val loader = LoaderRegistry.get(animationType) ?: return null
+        return AsyncAnimationLoaders.from(loader as AnimationLoader<Any>)
     }
 
     /**
-     * Load animation - integrate specific animation loading logic
+     * Start loading animation - integrate specific animation loading logic
      * References loading approaches of various animation libraries, supports GIF, Lottie, SVGA, PAG, VAP and other animation types
-     * 
+     *
      * Cache flow:
      * 1. If diskCachedFile exists, load from disk cache
      * 2. Otherwise, load based on model type (network/local)
      * 3. If network resource and disk cache is needed, save to disk cache
      */
-    @Suppress("UNCHECKED_CAST")
-    private fun loadAnimation(): AnimationResource<T> {
-        try {
-            // 1. Detect animation type
-            val animationType = detectAnimationType()
-
-            // 2. Create corresponding loader
-            val loader = createLoader(animationType)
-                ?: throw IllegalArgumentException("Unsupported animation type: $animationType")
-
-            // 3. Load animation based on diskCachedFile or model type
-            val animation = when {
-                // Prefer disk cache file
-                diskCachedFile != null -> {
-                    dataSource = AnimationDataSource.DISK_CACHE
-                    loadFromFile(loader, diskCachedFile)
-                }
-                model is String -> {
-                    val pathType = AnimationTypeDetector.detectPathType(model)
-                    when (pathType) {
-                        AnimationTypeDetector.PathType.NETWORK_URL -> {
-                            // Network URL: download and save to disk cache
-                            val (downloadedFile, isFromCache) = downloadHelper.downloadAndCache(model)
-                            if (downloadedFile != null) {
-                                // Determine data source: if from cache, then DISK_CACHE, otherwise REMOTE
-                                dataSource = if (isFromCache) {
-                                    AnimationDataSource.DISK_CACHE
-                                } else {
-                                    AnimationDataSource.REMOTE
-                                }
-                                loadFromFile(loader, downloadedFile)
+    private fun startLoad(): AnimationLoadHandle<Any> {
+        // 1. Detect animation type
+        val animationType = detectAnimationType()
+
+        // 2. Create corresponding loader
+        val loader = createLoader(animationType)
+            ?: throw IllegalArgumentException("Unsupported animation type: $animationType")
+
+        // 3. Load animation based on diskCachedFile or model type
+        return when {
+            // Prefer disk cache file
+            diskCachedFile != null -> {
+                dataSource = AnimationDataSource.DISK_CACHE
+                loadFromFile(loader, diskCachedFile)
+            }
+            model is String -> {
+                val pathType = AnimationTypeDetector.detectPathType(model)
+                when (pathType) {
+                    AnimationTypeDetector.PathType.NETWORK_URL -> {
+                        // Network URL: download and save to disk cache
+                        val (downloadedFile, isFromCache) = downloadHelper.downloadAndCache(model)
+                        if (downloadedFile != null) {
+                            // Determine data source: if from cache, then DISK_CACHE, otherwise REMOTE
+                            dataSource = if (isFromCache) {
+                                AnimationDataSource.DISK_CACHE
                             } else {
-                                null
+                                AnimationDataSource.REMOTE
                             }
+                            loadFromFile(loader, downloadedFile)
+                        } else {
+                            AnimationLoadHandle.failed(java.io.IOException("Failed to download: $model"))
                         }
+                    }
 
-                        AnimationTypeDetector.PathType.LOCAL_FILE -> {
-                            // Local file path
-                            dataSource = AnimationDataSource.LOCAL
-                            loadFromPath(loader, model)
-                        }
+                    AnimationTypeDetector.PathType.LOCAL_FILE -> {
+                        // Local file path
+                        dataSource = AnimationDataSource.LOCAL
+                        loadFromPath(loader, model)
+                    }
 
-                        AnimationTypeDetector.PathType.ASSET_PATH -> {
-                            // Asset path
-                            dataSource = AnimationDataSource.LOCAL
-                            val assetPath = model.replace("file:///android_asset/", "")
-                                .replace("asset://", "")
-                            loadFromAssetPath(loader, assetPath)
-                        }
+                    AnimationTypeDetector.PathType.ASSET_PATH -> {
+                        // Asset path
+                        dataSource = AnimationDataSource.LOCAL
+                        val assetPath = model.replace("file:///android_asset/", "")
+                            .replace("asset://", "")
+                        loadFromAssetPath(loader, assetPath)
+                    }
 
-                        AnimationTypeDetector.PathType.ASSET_URI -> {
-                            // Asset URI
-                            dataSource = AnimationDataSource.LOCAL
-                            loadFromAssetUri(loader, model)
-                        }
+                    AnimationTypeDetector.PathType.ASSET_URI -> {
+                        // Asset URI
+                        dataSource = AnimationDataSource.LOCAL
+                        loadFromAssetUri(loader, model)
+                    }
 
-                        AnimationTypeDetector.PathType.CONTENT_URI -> {
-                            // Content URI
-                            dataSource = AnimationDataSource.LOCAL
-                            loadFromContentUri(loader, model)
-                        }
+                    AnimationTypeDetector.PathType.CONTENT_URI -> {
+                        // Content URI
+                        dataSource = AnimationDataSource.LOCAL
+                        loadFromContentUri(loader, model)
+                    }
 
-                        else -> {
-                            // Default handle as file path
-                            dataSource = AnimationDataSource.LOCAL
-                            loadFromPath(loader, model)
-                        }
+                    else -> {
+                        // Default handle as file path
+                        dataSource = AnimationDataSource.LOCAL
+                        loadFromPath(loader, model)
                     }
                 }
-                model is java.io.File -> {
-                    // File
-                    dataSource = AnimationDataSource.LOCAL
-                    loadFromFile(loader, model)
-                }
-                model is android.net.Uri -> {
-                    // URI
-                    dataSource = AnimationDataSource.LOCAL
-                    loadFromUri(loader, model)
-                }
-                model is Int -> {
-                    // Resource ID
-                    dataSource = AnimationDataSource.LOCAL
-                    loadFromResource(loader, model)
-                }
-                model is ByteArray -> {
-                    // Byte array
-                    dataSource = AnimationDataSource.LOCAL
-                    loadFromBytes(loader, model)
-                }
-                else -> {
-                    throw IllegalArgumentException("Unsupported model type: ${model?.javaClass}")
-                }
             }
-            // 4. Create AnimationResource
-            val animationResult = animation as? T
-            if (animationResult != null) {
-                // Create ResourceListener to notify Engine when resource is released
-                val resourceListener = object : AnimationResource.ResourceListener {
-                    override fun onResourceReleased(key: String, resource: AnimationResource<*>) {
-                        engine.onResourceReleased(this@AnimationJob.key, resource)
-                    }
-                }
-                return AnimationResource<T>(animationResult, true, key.toString(), resourceListener)
-            } else {
-                throw IllegalStateException("Failed to load animation")
+            model is java.io.File -> {
+                // File
+                dataSource = AnimationDataSource.LOCAL
+                loadFromFile(loader, model)
+            }
+            model is android.net.Uri -> {
+                // URI
+                dataSource = AnimationDataSource.LOCAL
+                loadFromUri(loader, model)
+            }
+            model is Int -> {
+                // Resource ID
+                dataSource = AnimationDataSource.LOCAL
+                loadFromResource(loader, model)
+            }
+            model is ByteArray -> {
+                // Byte array
+                dataSource = AnimationDataSource.LOCAL
+                loadFromBytes(loader, model)
+            }
+            else -> {
+                throw IllegalArgumentException("Unsupported model type: ${model?.javaClass}")
             }
+        }
+    }
 
-        } catch (e: Exception) {
-            AniFluxLog.e(AniFluxLogCategory.ENGINE, "Failed to load animation", e)
-            throw e
+    /**
+     * Create AnimationResource from loaded animation
+     */
+    private fun createResource(animation: Any): AnimationResource<Any> {
+        // Create ResourceListener to notify Engine when resource is released
+        val resourceListener = object : AnimationResource.ResourceListener {
+            override fun onResourceReleased(key: String, resource: AnimationResource<*>) {
+                engine.onResourceReleased(this@AnimationJob.key, resource)
+            }
         }
+        return AnimationResource(animation, true, key.toString(), resourceListener)
     }
 
     /**
@@ -303,66 +349,64 @@ class AnimationJob<T>(
         }
     }
 
-    /**
-     * Determine if network URL
-     */
-    private fun isNetworkUrl(url: String): Boolean {
-        return url.startsWith("http://") || url.startsWith("https://")
-    }
-
-    /**
-     * Load animation from URL
-     */
-    private fun loadFromUrl(loader: AnimationLoader<*>, url: String): Any? {
-        return loader.loadFromUrl(context, url, downloader)
-    }
-
     /**
      * Load animation from file path
      */
-    private fun loadFromPath(loader: AnimationLoader<*>, path: String): Any? {
-        return loader.loadFromPath(context, path)
+    private fun loadFromPath(loader: AsyncAnimationLoader<Any>, path: String): AnimationLoadHandle<Any> {
+        return loader.loadFromPathAsync(context, path)
     }
 
     /**
      * Load animation from file
      */
-    private fun loadFromFile(loader: AnimationLoader<*>, file: java.io.File): Any? {
-        return loader.loadFromFile(context, file)
+    private fun loadFromFile(loader: AsyncAnimationLoader<Any>, file: java.io.File): AnimationLoadHandle<Any> {
+        if (loader.supportsBufferLoad()) {
+            // Memory-map file so loader parses it without copying onto the heap
+            val buffer = try {
+                AnimationDiskCache.mapReadOnly(file)
+            } catch (e: Exception) {
+                AniFluxLog.w(AniFluxLogCategory.ENGINE, "Failed to map file, fallback to file load: ${file.absolutePath}", e)
+                null
+            }
+            if (buffer != null) {
+                return loader.loadFromBufferAsync(context, buffer, AnimationDiskCache.contentKey(file))
+            }
+        }
+        return loader.loadFromFileAsync(context, file)
     }
 
     /**
      * Load animation from URI
      */
-    private fun loadFromUri(loader: AnimationLoader<*>, uri: android.net.Uri): Any? {
-        return loader.loadFromPath(context, uri.toString())
+    private fun loadFromUri(loader: AsyncAnimationLoader<Any>, uri: android.net.Uri): AnimationLoadHandle<Any> {
+        return loader.loadFromPathAsync(context, uri.toString())
     }
 
     /**
      * Load animation from resource ID
      */
-    private fun loadFromResource(loader: AnimationLoader<*>, resourceId: Int): Any? {
-        return loader.loadFromResource(context, resourceId)
+    private fun loadFromResource(loader: AsyncAnimationLoader<Any>, resourceId: Int): AnimationLoadHandle<Any> {
+        return loader.loadFromResourceAsync(context, resourceId)
     }
 
     /**
      * Load animation from byte array
      */
-    private fun loadFromBytes(loader: AnimationLoader<*>, bytes: ByteArray): Any? {
-        return loader.loadFromBytes(context, bytes)
+    private fun loadFromBytes(loader: AsyncAnimationLoader<Any>, bytes: ByteArray): AnimationLoadHandle<Any> {
+        return loader.loadFromBytesAsync(context, bytes)
     }
 
     /**
      * Load animation from Asset path
      */
-    private fun loadFromAssetPath(loader: AnimationLoader<*>, assetPath: String): Any? {
-        return loader.loadFromAssetPath(context, assetPath)
+    private fun loadFromAssetPath(loader: AsyncAnimationLoader<Any>, assetPath: String): AnimationLoadHandle<Any> {
+        return loader.loadFromAssetPathAsync(context, assetPath)
     }
 
     /**
      * Load animation from Asset URI
      */
-    private fun loadFromAssetUri(loader: AnimationLoader<*>, assetUri: String): Any? {
+    private fun loadFromAssetUri(loader: AsyncAnimationLoader<Any>, assetUri: String): AnimationLoadHandle<Any> {
         // Convert file:///android_asset/animations/loading.gif to animations/loading.gif
         val assetPath = assetUri.replace("file:///android_asset/", "")
             .replace("asset://","")
@@ -372,7 +416,7 @@ class AnimationJob<T>(
     /**
      * Load animation from Content URI
      */
-    private fun loadFromContentUri(loader: AnimationLoader<*>, contentUri: String): Any? {
+    private fun loadFromContentUri(loader: AsyncAnimationLoader<Any>, contentUri: String): AnimationLoadHandle<Any> {
         return try {
             val uri = contentUri.toUri()
             val inputStream = context.contentResolver.openInputStream(uri)
@@ -381,18 +425,18 @@ class AnimationJob<T>(
                 inputStream.close()
                 loadFromBytes(loader, bytes)
             } else {
-                null
+                AnimationLoadHandle.failed(java.io.IOException("Failed to open content URI: $contentUri"))
             }
         } catch (e: Exception) {
             AniFluxLog.e(AniFluxLogCategory.ENGINE, "Failed to load from content URI: $contentUri", e)
-            null
+            AnimationLoadHandle.failed(e)
         }
     }
 
     /**
      * Handle success
      */
-    private fun handleSuccess(result: AnimationResource<T>) {
+    private fun handleSuccess(result: AnimationResource<Any>) {
         if (isCancelled) return
 
         synchronized(this) {
@@ -404,7 +448,7 @@ class AnimationJob<T>(
         }
 
         // ✅ Notify engine task completion (Engine will call acquire in onJobComplete)
-        engine.onJobComplete(key, result)
+        engine.onJobComplete(this, key, result)
 
         // Notify callbacks
         notifyCallbacksOfResult()
@@ -425,7 +469,7 @@ class AnimationJob<T>(
         }
 
         // Notify engine task completion (failed)
-        engine.onJobComplete<T>(key, null)
+        engine.onJobComplete(this, key, null)
 
         // Notify callbacks
         notifyCallbacksOfException()
@@ -446,9 +490,12 @@ class AnimationJob<T>(
                 // If no callback, notify target and listener (maintain backward compatibility)
                 mainHandler.post {
                     try {
-                        target.onResourceReady(resource.get())
+                        // Target gets its own instance of the cached model
+                        @Suppress("UNCHECKED_CAST")
+                        val drawable = LoaderRegistry.createDrawable(resource.get()) as T
+                        target.onResourceReady(drawable)
                         listener?.onResourceReady(
-                            resource.get(),
+                            drawable,
                             model,
                             target,
                             dataSource,
@@ -528,6 +575,17 @@ class AnimationJob<T>(
         }
     }
 
+    /**
+     * Cancel task if no request is waiting for it anymore
+     * @return Whether task was cancelled
+     */
+    @Synchronized
+    fun cancelIfUnused(): Boolean {
+        if (isCancelled || isComplete || callbacks.isNotEmpty()) return false
+        cancel()
+        return true
+    }
+
     /**
      * Cancel task
      */
@@ -535,6 +593,11 @@ class AnimationJob<T>(
         if (isCancelled || isComplete) return
 
         isCancelled = true
+        sourceTask?.cancel()
+        sourceTask = null
+        pendingLoad?.cancel()
+        pendingLoad = null
+        engine.onJobCancelled(key, this)
 
         // ✅ When canceling task, if resource exists then release (Job releases resource)
         val currentResource = resource
@@ -10,6 +10,8 @@ import com.kernelflux.aniflux.load.AnimationDownloader
 import com.kernelflux.aniflux.load.OkHttpAnimationDownloader
 import com.kernelflux.aniflux.util.AnimationKey
 import java.io.File
+import java.io.IOException
+import androidx.core.net.toUri
 
 /**
  * Download and cache helper class for AnimationJob
@@ -18,7 +20,8 @@ internal class AnimationJobDownloadHelper(
     private val context: Context,
     private val key: AnimationKey,
     private val animationDiskCache: AnimationDiskCache?,
-    private val downloader: AnimationDownloader = OkHttpAnimationDownloader()
+    private val downloader: AnimationDownloader = OkHttpAnimationDownloader(),
+    private val syncDiskWrites: Boolean = false
 ) {
     
     companion object {
@@ -42,13 +45,33 @@ internal class AnimationJobDownloadHelper(
                 }
             }
             
-            // 2. Network download
+            // 2. Network download, straight into a cache entry when the cache supports editing
+            if (animationDiskCache != null && shouldUseDiskCache()) {
+                val editor = animationDiskCache.edit(key.toCacheKey(), extensionOf(url))
+                if (editor != null) {
+                    try {
+                        downloader.downloadTo(context, url, editor.getFile(), syncDiskWrites)
+                    } catch (e: Exception) {
+                        editor.abort()
+                        throw e
+                    }
+                    val committedFile = editor.commit()
+                        ?: throw IOException("Failed to commit downloaded file to disk cache: $url")
+                    AniFluxLog.d(AniFluxLogCategory.ENGINE, "Downloaded into disk cache: ${committedFile.absolutePath}")
+                    return Pair(committedFile, false)
+                }
+            }
+
+            // 3. Download to temp file, save to cache if needed (cache without editor support)
             val downloadedFile = downloader.download(context, url)
-            
-            // 3. If disk cache is needed, save to cache
             if (animationDiskCache != null && shouldUseDiskCache()) {
                 animationDiskCache.put(key.toCacheKey(), downloadedFile)
                 AniFluxLog.d(AniFluxLogCategory.ENGINE, "Cached downloaded file: ${downloadedFile.absolutePath}")
+                // Cache keeps its own copy, load from it and drop the temp file
+                animationDiskCache.get(key.toCacheKey())?.let { cachedFile ->
+                    downloadedFile.delete()
+                    return Pair(cachedFile, false)
+                }
             }
             
             Pair(downloadedFile, false)
@@ -58,6 +81,14 @@ internal class AnimationJobDownloadHelper(
         }
     }
     
+    /**
+     * File extension from URL path (without dot), keeps cache file recognizable by extension
+     */
+    private fun extensionOf(url: String): String? {
+        val lastSeg = url.toUri().lastPathSegment ?: return null
+        return lastSeg.substringAfterLast('.', missingDelimiterValue = "").ifBlank { null }
+    }
+
     /**
      * Determine whether should use disk cache
      */
@@ -0,0 +1,320 @@
+package com.kernelflux.aniflux.engine
+
+import android.content.Context
+import android.graphics.drawable.Drawable
+import com.kernelflux.aniflux.load.AnimationDataSource
+import com.kernelflux.aniflux.load.AnimationPriority
+import com.kernelflux.aniflux.log.AniFluxLog
+import com.kernelflux.aniflux.log.AniFluxLogCategory
+import com.kernelflux.aniflux.registry.LoaderRegistry
+import com.kernelflux.aniflux.request.AnimationRequest
+import com.kernelflux.aniflux.request.target.AnimationSizeReadyCallback
+import com.kernelflux.aniflux.request.target.AnimationTarget
+import com.kernelflux.aniflux.util.AnimationOptions
+
+/**
+ * Animation preloader
+ * Warms disk and memory caches without a target (e.g. next screen's gift animations during idle time)
+ *
+ * Each model goes through the regular [AnimationEngine.load] pipeline (download -> parse). The preload
+ * gives back its own reference right away, the engine keeps the reference it takes on every completed
+ * load, so the resource stays in the engine's active resources and later requests for the same key
+ * are served from memory. Being held by the engine, preloaded resources are not bounded by the memory
+ * cache size.
+ *
+ * At most [maxConcurrentLoads] preloads run at once. The memory budget is per batch: a batch stops
+ * starting new loads once the resources it loaded reach [memoryBudgetBytes], other batches are not
+ * affected. Preloading many batches can therefore hold more than one budget.
+ */
+class AnimationPreloader(
+    context: Context,
+    private val engine: AnimationEngine,
+    private val maxConcurrentLoads: Int = DEFAULT_MAX_CONCURRENT_LOADS,
+    private val memoryBudgetBytes: Long = defaultMemoryBudget()
+) {
+
+    companion object {
+        const val DEFAULT_MAX_CONCURRENT_LOADS = 2
+
+        /**
+         * Budget of one batch: half of the default memory cache (1/8 of memory)
+         */
+        @JvmStatic
+        fun defaultMemoryBudget(): Long {
+            return Runtime.getRuntime().maxMemory() / 16
+        }
+
+        /**
+         * Default preload options: background priority, memory + disk cache
+         */
+        @JvmStatic
+        fun defaultOptions(): AnimationOptions = AnimationOptions.create().priority(AnimationPriority.BACKGROUND)
+    }
+
+    init {
+        require(maxConcurrentLoads > 0) { "maxConcurrentLoads must be > 0, but given $maxConcurrentLoads" }
+        require(memoryBudgetBytes > 0) { "memoryBudgetBytes must be > 0, but given $memoryBudgetBytes" }
+    }
+
+    private val appContext = context.applicationContext
+
+    // Guarded by this
+    private val pending = ArrayDeque<PreloadItem>()
+    private val activeBatches = mutableSetOf<PreloadBatch>()
+    private var runningCount = 0
+    private var scheduling = false
+
+    /**
+     * Preload single animation
+     * @return Batch, can be used to cancel the preload
+     */
+    fun preload(model: Any?, options: AnimationOptions = defaultOptions()): PreloadBatch {
+        return preloadAll(listOf(model), options)
+    }
+
+    /**
+     * Preload animations, in list order
+     * @return Batch, can be used to cancel all of its pending and running preloads
+     */
+    fun preloadAll(models: List<Any?>, options: AnimationOptions = defaultOptions()): PreloadBatch {
+        val batch = PreloadBatch(models.size)
+        synchronized(this) {
+            if (models.isNotEmpty()) {
+                activeBatches.add(batch)
+            }
+            models.forEach { model -> pending.addLast(PreloadItem(batch, model, options)) }
+        }
+        scheduleNext()
+        return batch
+    }
+
+    /**
+     * Start pending preloads while under concurrency limit
+     * Memory cache hits complete synchronously inside [AnimationEngine.load], so nested calls return
+     * right away and leave the work to the loop already running instead of recursing
+     */
+    private fun scheduleNext() {
+        synchronized(this) {
+            if (scheduling) return
+            scheduling = true
+        }
+        while (true) {
+            val item = synchronized(this) {
+                if (runningCount >= maxConcurrentLoads || pending.isEmpty()) {
+                    scheduling = false
+                    return
+                }
+                runningCount++
+                pending.removeFirst()
+            }
+            if (!item.batch.tryStart()) {
+                // Batch cancelled or over budget, skip
+                item.batch.onItemFinished()
+                onItemFinished()
+                continue
+            }
+            item.start()
+        }
+    }
+
+    private fun onItemFinished() {
+        synchronized(this) {
+            runningCount--
+        }
+        scheduleNext()
+    }
+
+    /**
+     * Cancel every pending and running preload
+     */
+    fun cancelAll() {
+        val batches = synchronized(this) { activeBatches.toList() }
+        batches.forEach { it.cancel() }
+    }
+
+    /**
+     * Group of preloads started by one [preload]/[preloadAll] call
+     */
+    inner class PreloadBatch internal constructor(private val size: Int) {
+
+        // Guarded by this@AnimationPreloader
+        private val running = mutableListOf<PreloadItem>()
+        private var finishedCount = 0
+        private var loadedBytes = 0L
+
+        @Volatile
+        private var cancelled = false
+
+        /**
+         * Cancel batch: pending preloads are dropped, running ones are detached (and their job cancelled
+         * if no other request is waiting for it)
+         */
+        fun cancel() {
+            val toCancel = synchronized(this@AnimationPreloader) {
+                if (cancelled) return
+                cancelled = true
+                val removed = pending.count { it.batch === this }
+                pending.removeAll { it.batch === this }
+                finishedCount += removed
+                checkDone()
+                running.toList()
+            }
+            toCancel.forEach { it.cancel() }
+        }
+
+        fun isCancelled(): Boolean = cancelled
+
+        /**
+         * Whether every preload of the batch has finished (loaded, failed, skipped or cancelled)
+         */
+        fun isDone(): Boolean = synchronized(this@AnimationPreloader) { finishedCount >= size }
+
+        /**
+         * Total size of resources loaded by the batch (bytes, estimated)
+         */
+        fun getLoadedBytes(): Long = synchronized(this@AnimationPreloader) { loadedBytes }
+
+        internal fun tryStart(): Boolean = synchronized(this@AnimationPreloader) {
+            !cancelled && loadedBytes < memoryBudgetBytes
+        }
+
+        internal fun onItemStarted(item: PreloadItem) = synchronized(this@AnimationPreloader) {
+            running.add(item)
+        }
+
+        internal fun onItemLoaded(item: PreloadItem, bytes: Long) = synchronized(this@AnimationPreloader) {
+            loadedBytes += bytes
+            finishItem(item)
+        }
+
+        internal fun onItemFinished(item: PreloadItem? = null) = synchronized(this@AnimationPreloader) {
+            finishItem(item)
+        }
+
+        // Must hold preloader lock
+        private fun finishItem(item: PreloadItem?) {
+            item?.let { running.remove(it) }
+            finishedCount++
+            checkDone()
+        }
+
+        // Must hold preloader lock
+        private fun checkDone() {
+            if (finishedCount >= size) {
+                activeBatches.remove(this)
+            }
+        }
+    }
+
+    /**
+     * Single preload, acts as the engine callback of its load
+     */
+    internal inner class PreloadItem(
+        val batch: PreloadBatch,
+        private val model: Any?,
+        private val options: AnimationOptions
+    ) : AnimationResourceCallback {
+
+        private val lock = Any()
+
+        // Guarded by lock
+        private var loadStatus: AnimationEngine.LoadStatus? = null
+        private var finished = false
+
+        fun start() {
+            batch.onItemStarted(this)
+            val status = try {
+                engine.load(appContext, model, PreloadTarget, options, null, this)
+            } catch (e: Exception) {
+                onLoadFailed(e)
+                return
+            }
+            val cancelledMeanwhile = synchronized(lock) {
+                if (!finished) {
+                    loadStatus = status
+                }
+                finished
+            }
+            if (cancelledMeanwhile) {
+                // Cancelled before status was known, detach now (no-op if already completed)
+                status?.cancel()
+            }
+        }
+
+        fun cancel() {
+            val status = synchronized(lock) {
+                if (finished) return
+                finished = true
+                loadStatus.also { loadStatus = null }
+            }
+            status?.cancel()
+            batch.onItemFinished(this)
+            onItemFinished()
+        }
+
+        override fun onResourceReady(
+            resource: AnimationResource<*>?,
+            dataSource: AnimationDataSource,
+            isLoadedFromAlternateCacheKey: Boolean
+        ) {
+            if (!markFinished()) {
+                // Cancelled meanwhile, still give back the reference handed to this callback
+                resource?.release()
+                return
+            }
+            val bytes = resource?.let { estimateSize(it) } ?: 0L
+            // Give back the preload's reference, the engine keeps its own in active resources
+            resource?.release()
+            AniFluxLog.d(AniFluxLogCategory.ENGINE, "Preloaded: $model ($dataSource, $bytes bytes)")
+            batch.onItemLoaded(this, bytes)
+            onItemFinished()
+        }
+
+        override fun onLoadFailed(exception: Throwable) {
+            if (!markFinished()) return
+            AniFluxLog.w(AniFluxLogCategory.ENGINE, "Failed to preload: $model", exception)
+            batch.onItemFinished(this)
+            onItemFinished()
+        }
+
+        override fun getLock(): Any = lock
+
+        private fun markFinished(): Boolean = synchronized(lock) {
+            if (finished) {
+                false
+            } else {
+                finished = true
+                loadStatus = null
+                true
+            }
+        }
+
+        private fun estimateSize(resource: AnimationResource<*>): Long {
+            val value = resource.getUnchecked() ?: return 0L
+            return try {
+                LoaderRegistry.estimateSize(value) ?: 0L
+            } catch (e: Exception) {
+                0L
+            }
+        }
+    }
+
+    /**
+     * Placeholder target for preloads, results are delivered to [PreloadItem] callbacks instead
+     */
+    private object PreloadTarget : AnimationTarget<Any> {
+        override fun onStart() {}
+        override fun onStop() {}
+        override fun onDestroy() {}
+        override fun onLoadStarted(placeholder: Drawable?) {}
+        override fun onLoadFailed(errorDrawable: Drawable?) {}
+        override fun onResourceReady(resource: Any) {}
+        override fun onLoadCleared(placeholder: Drawable?) {}
+        override fun getSize(cb: AnimationSizeReadyCallback) {
+            cb.onSizeReady(AnimationTarget.SIZE_ORIGINAL, AnimationTarget.SIZE_ORIGINAL)
+        }
+        override fun removeCallback(cb: AnimationSizeReadyCallback) {}
+        override fun setRequest(request: AnimationRequest?) {}
+        override fun getRequest(): AnimationRequest? = null
+    }
+}
@@ -1,5 +1,6 @@
 package com.kernelflux.aniflux.engine
 
+import com.kernelflux.aniflux.registry.LoaderRegistry
 import java.util.concurrent.atomic.AtomicInteger
 
 /**
@@ -79,6 +80,19 @@ class AnimationResource<T>(
             throw IllegalStateException("Cannot recycle a resource that has already been recycled")
         }
         isRecycled = true
+        if (resource is Recyclable) {
+            resource.onRecycled()
+        } else if (resource != null) {
+            LoaderRegistry.recycleModel(resource)
+        }
+    }
+
+    /**
+     * Implemented by cached models that hold memory outside the Java heap or outlive their drawables
+     * Notified once the engine drops the resource, after which no new drawables are created from it
+     */
+    interface Recyclable {
+        fun onRecycled()
     }
     
     /**
@@ -20,6 +20,24 @@ interface AnimationDownloader {
     @Throws(Exception::class)
     fun download(context: Context, url: String): File
 
+    /**
+     * Download animation resource into given file (e.g. a disk cache editor file)
+     * Default implementation downloads to a temp file, copies it over and deletes the temp file
+     * @param url Resource URL
+     * @param file Destination file, overwritten
+     * @param sync Whether to flush file to storage (fsync) before returning
+     * @throws Exception Throws exception when download fails
+     */
+    @Throws(Exception::class)
+    fun downloadTo(context: Context, url: String, file: File, sync: Boolean = false) {
+        val downloaded = download(context, url)
+        try {
+            downloaded.copyTo(file, overwrite = true)
+        } finally {
+            downloaded.delete()
+        }
+    }
+
     /**
      * Download animation resource to byte array
      * @param url Resource URL
@@ -0,0 +1,52 @@
+package com.kernelflux.aniflux.load
+
+/**
+ * Animation drawable factory
+ *
+ * Loaders return an immutable parsed model (e.g. LottieComposition, SVGAVideoEntity), which is what
+ * the engine caches and shares between requests. Each request gets its own playable instance from
+ * this factory when the resource is delivered, so targets showing the same animation play independently
+ * without parsing it again.
+ *
+ * Types without a registered factory deliver the model itself.
+ *
+ * @param M Cached model type
+ * @param D Playable type delivered to targets
+ */
+interface AnimationDrawableFactory<M, D> {
+
+    /**
+     * Model class this factory handles
+     */
+    fun getModelClass(): Class<M>
+
+    /**
+     * Create playable instance for one target
+     * Called on main thread for every delivery, must be cheap (no parsing)
+     * @throws Exception Throws exception when creation fails
+     */
+    @Throws(Exception::class)
+    fun createDrawable(model: M): D
+
+    /**
+     * Create playable instance for a target expecting [targetClass]
+     * Factories offering more than one playable type for a model pick by target class, default ignores it
+     * @throws Exception Throws exception when creation fails
+     */
+    @Throws(Exception::class)
+    fun createDrawable(model: M, targetClass: Class<*>): D = createDrawable(model)
+
+    /**
+     * Free a model the engine dropped (evicted from memory cache, or released when not cacheable)
+     * For models that can't implement [com.kernelflux.aniflux.engine.AnimationResource.Recyclable]
+     * themselves (classes of the animation libraries). Drawables are cleared by then. Default does nothing
+     */
+    fun recycleModel(model: M) {}
+
+    /**
+     * Free a playable instance that was created but never reached its target
+     * (request cleared while loading, or the target expects another type).
+     * Needed when a drawable holds native memory or references into its model. Default does nothing
+     */
+    fun recycleDrawable(drawable: D) {}
+}
@@ -2,10 +2,12 @@ package com.kernelflux.aniflux.load
 
 import java.util.concurrent.ExecutorService
 import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.PriorityBlockingQueue
 import java.util.concurrent.ThreadFactory
 import java.util.concurrent.ThreadPoolExecutor
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
 
 /**
  * Animation loading thread pool manager, provides different types of thread pools
@@ -28,6 +30,9 @@ object AnimationExecutor {
     @Volatile
     private var animationExecutor: ExecutorService? = null
 
+    // Submission order of source tasks, breaks ties within a priority
+    private val taskSequence = AtomicLong()
+
     /**
      * Get source data loading thread pool (for network download and other IO operations)
      */
@@ -55,19 +60,88 @@ object AnimationExecutor {
         }
     }
 
+    /**
+     * Submit prioritized task to source thread pool
+     * @return Task, cancel it to drop it from the queue if it hasn't started yet
+     */
+    fun executeSource(priority: AnimationPriority, action: Runnable): PrioritizedTask {
+        val task = PrioritizedTask(priority, action)
+        getSourceExecutor().execute(task)
+        return task
+    }
+
     /**
      * Create source data loading thread pool
+     * Queue is ordered by [PrioritizedTask] instead of FIFO, so visible requests don't wait behind
+     * offscreen ones (plain runnables are queued as [AnimationPriority.VISIBLE])
      */
     private fun createSourceExecutor(): ExecutorService {
         val threadCount = calculateBestThreadCount()
-        return ThreadPoolExecutor(
+        return object : ThreadPoolExecutor(
             threadCount,
             threadCount,
             KEEP_ALIVE_TIME_MS,
             TimeUnit.SECONDS,
-            LinkedBlockingQueue(),
+            PriorityBlockingQueue<Runnable>(),
             createThreadFactory("aniflux-source-")
-        )
+        ) {
+            override fun execute(command: Runnable) {
+                super.execute(command as? PrioritizedTask ?: PrioritizedTask(AnimationPriority.VISIBLE, command))
+            }
+        }
+    }
+
+    /**
+     * Source task ordered by priority, then newest first (LIFO) within the same priority
+     * A cancelled task is removed from the queue, and skipped if a worker already took it
+     */
+    class PrioritizedTask internal constructor(
+        priority: AnimationPriority,
+        private val action: Runnable
+    ) : Runnable, Comparable<PrioritizedTask> {
+
+        private val sequence = taskSequence.getAndIncrement()
+
+        // Only changed while the task is out of the queue, see raisePriority
+        @Volatile
+        var priority: AnimationPriority = priority
+            private set
+
+        @Volatile
+        private var cancelled = false
+
+        override fun run() {
+            if (!cancelled) {
+                action.run()
+            }
+        }
+
+        override fun compareTo(other: PrioritizedTask): Int {
+            val byPriority = priority.compareTo(other.priority)
+            return if (byPriority != 0) byPriority else other.sequence.compareTo(sequence)
+        }
+
+        fun cancel() {
+            cancelled = true
+            (sourceExecutor as? ThreadPoolExecutor)?.remove(this)
+        }
+
+        fun isCancelled(): Boolean = cancelled
+
+        /**
+         * Move a queued task up to [newPriority], never down
+         * PriorityBlockingQueue doesn't reorder in place, so the task is taken out and queued again,
+         * keeping its sequence. A task a worker already took is left alone
+         */
+        @Synchronized
+        fun raisePriority(newPriority: AnimationPriority) {
+            if (cancelled || newPriority >= priority) return
+            val executor = sourceExecutor as? ThreadPoolExecutor ?: return
+            if (executor.remove(this)) {
+                priority = newPriority
+                executor.execute(this)
+            }
+        }
     }
 
     /**
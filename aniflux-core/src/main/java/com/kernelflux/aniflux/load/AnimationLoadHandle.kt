@@ -0,0 +1,149 @@
+package com.kernelflux.aniflux.load
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Completion handle of an asynchronous animation load
+ * Returned by [AsyncAnimationLoader], completed by the loader when parsing finishes
+ * (usually on the animation library's own thread), so no source thread is parked waiting for it
+ *
+ * Thread-safe, only the first complete/fail/cancel takes effect
+ */
+class AnimationLoadHandle<T> {
+
+    /**
+     * Completion listener
+     * Exactly one of result / error is non-null, unless the handle was cancelled (both null)
+     */
+    fun interface CompletionListener<T> {
+        fun onComplete(result: T?, error: Throwable?)
+    }
+
+    private var isDone = false
+    private var isCancelled = false
+    private var result: T? = null
+    private var error: Throwable? = null
+    private val listeners = mutableListOf<CompletionListener<T>>()
+    private var onCancel: (() -> Unit)? = null
+
+    /**
+     * Complete with loaded animation
+     * A null result is treated as failure
+     */
+    fun complete(result: T?) {
+        if (result == null) {
+            fail(IllegalStateException("Loader returned null"))
+            return
+        }
+        val toNotify = synchronized(this) {
+            if (isDone) return
+            this.result = result
+            isDone = true
+            drainListeners()
+        }
+        toNotify.forEach { it.onComplete(result, null) }
+    }
+
+    /**
+     * Complete with error
+     */
+    fun fail(error: Throwable) {
+        val toNotify = synchronized(this) {
+            if (isDone) return
+            this.error = error
+            isDone = true
+            drainListeners()
+        }
+        toNotify.forEach { it.onComplete(null, error) }
+    }
+
+    /**
+     * Cancel load, listeners are notified with (null, null)
+     * Runs the cancel action registered by the loader (e.g. detach from library task)
+     */
+    fun cancel() {
+        val (toNotify, action) = synchronized(this) {
+            if (isDone) return
+            isDone = true
+            isCancelled = true
+            drainListeners() to onCancel.also { onCancel = null }
+        }
+        action?.invoke()
+        toNotify.forEach { it.onComplete(null, null) }
+    }
+
+    /**
+     * Register action to run when handle is cancelled
+     */
+    fun setOnCancelListener(action: () -> Unit) {
+        synchronized(this) {
+            if (!isDone) {
+                onCancel = action
+                return
+            }
+        }
+        if (isCancelled) {
+            action()
+        }
+    }
+
+    /**
+     * Add completion listener
+     * If already complete, listener is invoked immediately on calling thread
+     */
+    fun whenComplete(listener: CompletionListener<T>) {
+        synchronized(this) {
+            if (!isDone) {
+                listeners.add(listener)
+                return
+            }
+        }
+        listener.onComplete(result, error)
+    }
+
+    @Synchronized
+    fun isDone(): Boolean = isDone
+
+    @Synchronized
+    fun isCancelled(): Boolean = isCancelled
+
+    /**
+     * Block until complete (bridge for synchronous callers)
+     * @return Loaded animation, returns null if failed, cancelled or timed out (handle is cancelled on timeout)
+     */
+    @Throws(InterruptedException::class)
+    fun await(timeout: Long, unit: TimeUnit): T? {
+        val latch = CountDownLatch(1)
+        whenComplete { _, _ -> latch.countDown() }
+        if (!latch.await(timeout, unit)) {
+            cancel()
+            return null
+        }
+        return synchronized(this) { result }
+    }
+
+    private fun drainListeners(): List<CompletionListener<T>> {
+        val copy = listeners.toList()
+        listeners.clear()
+        return copy
+    }
+
+    companion object {
+        /**
+         * Create already completed handle (for synchronous loaders)
+         */
+        @JvmStatic
+        fun <T> completed(result: T?): AnimationLoadHandle<T> {
+            return AnimationLoadHandle<T>().apply { complete(result) }
+        }
+
+        /**
+         * Create already failed handle
+         */
+        @JvmStatic
+        fun <T> failed(error: Throwable): AnimationLoadHandle<T> {
+            return AnimationLoadHandle<T>().apply { fail(error) }
+        }
+    }
+}
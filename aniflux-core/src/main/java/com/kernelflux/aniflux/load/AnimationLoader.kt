@@ -2,10 +2,12 @@ package com.kernelflux.aniflux.load
 
 import android.content.Context
 import android.graphics.drawable.Drawable
+import com.kernelflux.aniflux.cache.AnimationDiskCache
 import com.kernelflux.aniflux.engine.AnimationResource
 import com.kernelflux.aniflux.util.AnimationTypeDetector
 import java.io.File
 import java.io.InputStream
+import java.nio.ByteBuffer
 
 /**
  * Animation loader interface - references loading approaches of various animation libraries
@@ -38,6 +40,24 @@ interface AnimationLoader<T> {
      */
     fun loadFromInputStream(context: Context, inputStream: InputStream): T?
 
+    /**
+     * Whether loader can parse directly from [loadFromBuffer] without copying
+     * When true, file sources (e.g. disk cache hits) are memory-mapped and passed to [loadFromBuffer]
+     */
+    fun supportsBufferLoad(): Boolean = false
+
+    /**
+     * Load animation from byte buffer (usually a read-only memory-mapped file)
+     * Default implementation copies buffer to a byte array, override it together with [supportsBufferLoad]
+     * @param sourceKey Stable key of the buffer content (see [AnimationDiskCache.contentKey]),
+     * use it to name anything derived from the content and kept on disk
+     */
+    fun loadFromBuffer(context: Context, buffer: ByteBuffer, sourceKey: String): T? {
+        val bytes = ByteArray(buffer.remaining())
+        buffer.duplicate().get(bytes)
+        return loadFromBytes(context, bytes)
+    }
+
     /**
      * Load animation from network URL
      */
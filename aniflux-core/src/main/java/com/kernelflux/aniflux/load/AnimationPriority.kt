@@ -0,0 +1,25 @@
+package com.kernelflux.aniflux.load
+
+/**
+ * Animation load priority
+ * Source tasks run in priority order, newest request first within the same priority
+ *
+ * @author: kerneflux
+ * @date: 2026/10/16
+ */
+enum class AnimationPriority {
+    /**
+     * On screen now (default)
+     */
+    VISIBLE,
+
+    /**
+     * About to be shown (e.g. RecyclerView prefetch)
+     */
+    PREFETCH,
+
+    /**
+     * Not shown, warm-up only (e.g. preload)
+     */
+    BACKGROUND
+}
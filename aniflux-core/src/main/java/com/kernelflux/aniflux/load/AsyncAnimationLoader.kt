@@ -0,0 +1,51 @@
+package com.kernelflux.aniflux.load
+
+import android.content.Context
+import java.io.File
+import java.nio.ByteBuffer
+
+/**
+ * Non-blocking animation loader
+ * For formats whose library parses on its own thread pool (SVGA, Lottie),
+ * returns a completion handle instead of parking the calling source thread until parsing finishes
+ *
+ * Synchronous [AnimationLoader]s are adapted via [AsyncAnimationLoaders.from]
+ */
+interface AsyncAnimationLoader<T> : AnimationLoader<T> {
+
+    /**
+     * Load animation from file path
+     */
+    fun loadFromPathAsync(context: Context, path: String): AnimationLoadHandle<T>
+
+    /**
+     * Load animation from file
+     */
+    fun loadFromFileAsync(context: Context, file: File): AnimationLoadHandle<T>
+
+    /**
+     * Load animation from resource ID
+     */
+    fun loadFromResourceAsync(context: Context, resourceId: Int): AnimationLoadHandle<T>
+
+    /**
+     * Load animation from byte array
+     */
+    fun loadFromBytesAsync(context: Context, bytes: ByteArray): AnimationLoadHandle<T>
+
+    /**
+     * Load animation from Asset path
+     */
+    fun loadFromAssetPathAsync(context: Context, assetPath: String): AnimationLoadHandle<T>
+
+    /**
+     * Load animation from byte buffer (see [AnimationLoader.loadFromBuffer])
+     */
+    fun loadFromBufferAsync(context: Context, buffer: ByteBuffer, sourceKey: String): AnimationLoadHandle<T> {
+        return try {
+            AnimationLoadHandle.completed(loadFromBuffer(context, buffer, sourceKey))
+        } catch (e: Exception) {
+            AnimationLoadHandle.failed(e)
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.kernelflux.aniflux.load
+
+import android.content.Context
+import java.io.File
+import java.nio.ByteBuffer
+
+/**
+ * Adapts synchronous loaders to [AsyncAnimationLoader]
+ */
+object AsyncAnimationLoaders {
+
+    /**
+     * Get asynchronous view of a loader
+     * Async loaders are returned as is, synchronous loaders run on the calling thread
+     * and return an already completed handle
+     */
+    @JvmStatic
+    @Suppress("UNCHECKED_CAST")
+    fun <T> from(loader: AnimationLoader<T>): AsyncAnimationLoader<T> {
+        return loader as? AsyncAnimationLoader<T> ?: SyncLoaderAdapter(loader)
+    }
+
+    /**
+     * Synchronous loader adapter
+     */
+    private class SyncLoaderAdapter<T>(
+        private val delegate: AnimationLoader<T>
+    ) : AsyncAnimationLoader<T>, AnimationLoader<T> by delegate {
+
+        override fun loadFromPathAsync(context: Context, path: String): AnimationLoadHandle<T> {
+            return completeWith { delegate.loadFromPath(context, path) }
+        }
+
+        override fun loadFromFileAsync(context: Context, file: File): AnimationLoadHandle<T> {
+            return completeWith { delegate.loadFromFile(context, file) }
+        }
+
+        override fun loadFromResourceAsync(context: Context, resourceId: Int): AnimationLoadHandle<T> {
+            return completeWith { delegate.loadFromResource(context, resourceId) }
+        }
+
+        override fun loadFromBytesAsync(context: Context, bytes: ByteArray): AnimationLoadHandle<T> {
+            return completeWith { delegate.loadFromBytes(context, bytes) }
+        }
+
+        override fun loadFromAssetPathAsync(context: Context, assetPath: String): AnimationLoadHandle<T> {
+            return completeWith { delegate.loadFromAssetPath(context, assetPath) }
+        }
+
+        override fun loadFromBufferAsync(context: Context, buffer: ByteBuffer, sourceKey: String): AnimationLoadHandle<T> {
+            return completeWith { delegate.loadFromBuffer(context, buffer, sourceKey) }
+        }
+
+        private inline fun completeWith(block: () -> T?): AnimationLoadHandle<T> {
+            return try {
+                AnimationLoadHandle.completed(block())
+            } catch (e: Exception) {
+                AnimationLoadHandle.failed(e)
+            }
+        }
+    }
+}
@@ -9,6 +9,7 @@ import java.io.File
 import java.io.IOException
 import java.io.InputStream
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
 import androidx.core.net.toUri
 import java.io.FileOutputStream
 
@@ -20,6 +21,12 @@ class OkHttpAnimationDownloader(
     okHttpClient: OkHttpClient? = null
 ) : AnimationDownloader {
 
+    companion object {
+        private const val TEMP_FILE_MAX_AGE_MS = 24 * 60 * 60 * 1000L // 1 day
+
+        private val tempDirSwept = AtomicBoolean(false)
+    }
+
     private val client: OkHttpClient = okHttpClient ?: createDefaultClient()
 
     private fun createDefaultClient(): OkHttpClient {
@@ -33,18 +40,13 @@ class OkHttpAnimationDownloader(
 
     @Throws(Exception::class)
     override fun download(context: Context, url: String): File {
-        val request = Request.Builder()
-            .url(url)
-            .addHeader("User-Agent", "AniFlux/1.0")
-            .build()
-
-
         // Prepare temporary file directory (download to temp directory, caller decides whether to save to disk cache)
         val tempDirName = "aniflux_temp"
         val dir = File(context.cacheDir, tempDirName)
         if (!dir.exists() && !dir.mkdirs()) {
             throw IOException("Failed to create temp dir: ${dir.absolutePath}")
         }
+        sweepStaleTempFiles(dir)
 
         // Parse URL to determine filename and extension
         val lastSeg = url.toUri().lastPathSegment ?: ""
@@ -60,6 +62,18 @@ class OkHttpAnimationDownloader(
         }
         val fileName = "$baseName-${System.currentTimeMillis()}$ext"
         val outFile = File(dir, fileName)
+        // Temp file is only read back once, no need to sync it
+        downloadTo(context, url, outFile, sync = false)
+        return outFile
+    }
+
+    @Throws(Exception::class)
+    override fun downloadTo(context: Context, url: String, file: File, sync: Boolean) {
+        val request = Request.Builder()
+            .url(url)
+            .addHeader("User-Agent", "AniFlux/1.0")
+            .build()
+
         // Execute download and write to file
         client.newCall(request).execute().use { response ->
             if (!response.isSuccessful) {
@@ -68,23 +82,41 @@ class OkHttpAnimationDownloader(
             val body = response.body
             // Write network stream to file (streaming copy, avoid reading all into memory at once)
             try {
-                FileOutputStream(outFile).use { fos ->
+                FileOutputStream(file).use { fos ->
                     body.byteStream().use { input ->
                         val buffer = ByteArray(DEFAULT_BUFFER_SIZE) // 8K
                         var read: Int
                         while (input.read(buffer).also { read = it } != -1) {
                             fos.write(buffer, 0, read)
                         }
-                        fos.fd.sync() // Try to flush to disk (optional)
+                        if (sync) {
+                            fos.fd.sync() // Flush to storage before the file is published
+                        }
                     }
                 }
             } catch (e: Exception) {
                 // Clean up incomplete file on error
-                runCatching { outFile.delete() }
+                runCatching { file.delete() }
                 throw IOException("Failed to save file from $url", e)
             }
         }
-        return outFile
+    }
+
+    /**
+     * Delete temp downloads left behind by earlier runs
+     * Temp files can't be deleted right after loading (file-based players keep reading them), so they
+     * are swept once per process when older than [TEMP_FILE_MAX_AGE_MS]
+     */
+    private fun sweepStaleTempFiles(dir: File) {
+        if (!tempDirSwept.compareAndSet(false, true)) {
+            return
+        }
+        val expireTime = System.currentTimeMillis() - TEMP_FILE_MAX_AGE_MS
+        dir.listFiles()?.forEach { file ->
+            if (file.isFile && file.lastModified() < expireTime) {
+                file.delete()
+            }
+        }
     }
 
     @Throws(Exception::class)
@@ -1,5 +1,7 @@
 package com.kernelflux.aniflux.registry
 
+import com.kernelflux.aniflux.cache.ResourceSizeEstimator
+import com.kernelflux.aniflux.load.AnimationDrawableFactory
 import com.kernelflux.aniflux.load.AnimationLoader
 import com.kernelflux.aniflux.util.AnimationTypeDetector
 import java.util.concurrent.ConcurrentHashMap
@@ -23,6 +25,18 @@ object LoaderRegistry {
      * Uses ConcurrentHashMap to ensure thread safety
      */
     private val loaders = ConcurrentHashMap<AnimationTypeDetector.AnimationType, AnimationLoader<*>>()
+
+    /**
+     * Size estimator storage Map
+     */
+    private val sizeEstimators =
+        ConcurrentHashMap<AnimationTypeDetector.AnimationType, ResourceSizeEstimator<*>>()
+
+    /**
+     * Drawable factory storage Map
+     */
+    private val drawableFactories =
+        ConcurrentHashMap<AnimationTypeDetector.AnimationType, AnimationDrawableFactory<*, *>>()
     
     /**
      * Register Loader
@@ -79,6 +93,143 @@ object LoaderRegistry {
         return loaders.keys.toSet()
     }
     
+    /**
+     * Register size estimator
+     *
+     * @param type Animation type
+     * @param estimator Size estimator instance
+     * @return If previously registered, returns old estimator; otherwise returns null
+     */
+    @JvmStatic
+    fun registerSizeEstimator(
+        type: AnimationTypeDetector.AnimationType,
+        estimator: ResourceSizeEstimator<*>
+    ): ResourceSizeEstimator<*>? {
+        return sizeEstimators.put(type, estimator)
+    }
+
+    /**
+     * Get size estimator
+     *
+     * @param type Animation type
+     * @return Size estimator instance, returns null if not registered
+     */
+    @JvmStatic
+    fun getSizeEstimator(type: AnimationTypeDetector.AnimationType): ResourceSizeEstimator<*>? {
+        return sizeEstimators[type]
+    }
+
+    /**
+     * Estimate resource size with the estimator registered for its class
+     *
+     * @param resource Loaded resource
+     * @return Size in bytes, returns null if no estimator handles this resource
+     */
+    @JvmStatic
+    fun estimateSize(resource: Any): Long? {
+        for (estimator in sizeEstimators.values) {
+            if (estimator.getResourceClass().isInstance(resource)) {
+                @Suppress("UNCHECKED_CAST")
+                return (estimator as ResourceSizeEstimator<Any>).estimateSize(resource)
+            }
+        }
+        return null
+    }
+
+    /**
+     * Register drawable factory
+     *
+     * @param type Animation type
+     * @param factory Drawable factory instance
+     * @return If previously registered, returns old factory; otherwise returns null
+     */
+    @JvmStatic
+    fun registerDrawableFactory(
+        type: AnimationTypeDetector.AnimationType,
+        factory: AnimationDrawableFactory<*, *>
+    ): AnimationDrawableFactory<*, *>? {
+        return drawableFactories.put(type, factory)
+    }
+
+    /**
+     * Get drawable factory
+     *
+     * @param type Animation type
+     * @return Drawable factory instance, returns null if not registered
+     */
+    @JvmStatic
+    fun getDrawableFactory(type: AnimationTypeDetector.AnimationType): AnimationDrawableFactory<*, *>? {
+        return drawableFactories[type]
+    }
+
+    /**
+     * Unregister drawable factory
+     *
+     * @param type Animation type
+     * @return Removed factory, returns null if not registered
+     */
+    @JvmStatic
+    fun unregisterDrawableFactory(type: AnimationTypeDetector.AnimationType): AnimationDrawableFactory<*, *>? {
+        return drawableFactories.remove(type)
+    }
+
+    /**
+     * Create per-target playable instance with the factory registered for the model's class
+     *
+     * @param model Cached model
+     * @param targetClass Class the target expects, lets factories choose between playable types
+     * @return New playable instance, returns model itself if no factory handles it
+     * @throws Exception Throws exception when factory fails
+     */
+    @JvmStatic
+    @JvmOverloads
+    @Throws(Exception::class)
+    fun createDrawable(model: Any, targetClass: Class<*>? = null): Any {
+        for (factory in drawableFactories.values) {
+            if (factory.getModelClass().isInstance(model)) {
+                @Suppress("UNCHECKED_CAST")
+                val typed = factory as AnimationDrawableFactory<Any, Any>
+                return (if (targetClass != null) typed.createDrawable(model, targetClass)
+                else typed.createDrawable(model)) ?: model
+            }
+        }
+        return model
+    }
+
+    /**
+     * Free a dropped model with the factory registered for its class
+     *
+     * @param model Cached model
+     */
+    @JvmStatic
+    fun recycleModel(model: Any) {
+        for (factory in drawableFactories.values) {
+            if (factory.getModelClass().isInstance(model)) {
+                @Suppress("UNCHECKED_CAST")
+                (factory as AnimationDrawableFactory<Any, Any>).recycleModel(model)
+                return
+            }
+        }
+    }
+
+    /**
+     * Free a playable instance created by [createDrawable] that was never delivered
+     *
+     * @param model Cached model the drawable was created from
+     * @param drawable Playable instance, ignored if it is the model itself
+     */
+    @JvmStatic
+    fun recycleDrawable(model: Any, drawable: Any) {
+        if (drawable === model) return
+        for (factory in drawableFactories.values) {
+            if (factory.getModelClass().isInstance(model)) {
+                @Suppress("UNCHECKED_CAST")
+                (factory as AnimationDrawableFactory<Any, Any>).recycleDrawable(drawable)
+                return
+            }
+        }
+    }
+
     /**
      * Clear all registrations
      * Mainly used for testing
@@ -86,6 +237,8 @@ object LoaderRegistry {
     @JvmStatic
     fun clear() {
         loaders.clear()
+        sizeEstimators.clear()
+        drawableFactories.clear()
     }
     
     /**
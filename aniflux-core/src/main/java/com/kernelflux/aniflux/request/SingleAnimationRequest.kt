@@ -8,6 +8,7 @@ import com.kernelflux.aniflux.engine.AnimationEngine
 import com.kernelflux.aniflux.engine.AnimationResource
 import com.kernelflux.aniflux.engine.AnimationResourceCallback
 import com.kernelflux.aniflux.load.AnimationDataSource
+import com.kernelflux.aniflux.registry.LoaderRegistry
 import com.kernelflux.aniflux.request.listener.AnimationPlayListener
 import com.kernelflux.aniflux.request.target.AnimationSizeReadyCallback
 import com.kernelflux.aniflux.request.target.AnimationTarget
@@ -44,8 +45,8 @@ class SingleAnimationRequest<T>(
     // Save LoadStatus for cancel operation
     private var loadStatus: AnimationEngine.LoadStatus? = null
 
-    // Save loaded resource for reuse when request completes
-    private var resource: AnimationResource<T>? = null
+    // Shared cached model, the target gets its own drawable of type T created from it
+    private var resource: AnimationResource<*>? = null
 
     @Volatile
     private var status = Status.PENDING
@@ -187,7 +188,7 @@ class SingleAnimationRequest<T>(
 
 
     override fun clear() {
-        var toRelease: AnimationResource<T>? = null
+        var toRelease: AnimationResource<*>? = null
         synchronized(requestLock) {
             assertNotCallingCallbacks()
             
@@ -250,29 +251,44 @@ class SingleAnimationRequest<T>(
                 return
             }
 
-            val received = resource.get()
-            if (received == null || !transcodeClass.isAssignableFrom(received.javaClass)) {
+            // Check before creating the drawable, one nobody shows may hold native memory or shared frames
+            if (status == Status.CLEARED || status == Status.FAILED) {
+                return
+            }
+
+            // Cached resource is the shared model, each request plays its own instance
+            val animation = resource.get()
+            if (animation == null) {
+                onLoadFailed(
+                    IllegalArgumentException(
+                        "Expected to receive an object of ${transcodeClass.simpleName} but instead got null"
+                    )
+                )
+                return
+            }
+            val received = try {
+                LoaderRegistry.createDrawable(animation, transcodeClass)
+            } catch (e: Exception) {
+                onLoadFailed(IllegalStateException("Failed to create drawable from resource", e))
+                return
+            }
+            if (!transcodeClass.isAssignableFrom(received.javaClass)) {
+                LoaderRegistry.recycleDrawable(animation, received)
                 val exception = IllegalArgumentException(
                     "Expected to receive an object of ${transcodeClass.simpleName} but instead " +
-                            "got ${received?.javaClass?.simpleName ?: "null"}"
+                            "got ${received.javaClass.simpleName}"
                 )
                 onLoadFailed(exception)
                 return
             }
 
-            if (status == Status.CLEARED || status == Status.FAILED) {
-                return
-            }
-
             status = Status.COMPLETE
-            @Suppress("UNCHECKED_CAST")
-            val typedResource = resource as AnimationResource<T>
-            this.resource = typedResource
+            this.resource = resource
             // ✅ Acquire when setting resource to Target (Target holds resource)
-            typedResource.acquire()
+            resource.acquire()
             callbackExecutor.execute {
                 @Suppress("UNCHECKED_CAST")
-                onResourceReadyInternal(received as T, dataSource)
+                onResourceReadyInternal(received as T, animation, dataSource)
             }
         }
     }
@@ -282,10 +298,13 @@ class SingleAnimationRequest<T>(
      */
     private fun onResourceReadyInternal(
         result: T,
+        animation: Any,
         dataSource: AnimationDataSource
     ) {
         synchronized(requestLock) {
             if (status == Status.CLEARED || status == Status.FAILED) {
+                // Cleared before the drawable reached the target
+                LoaderRegistry.recycleDrawable(animation, result as Any)
                 return
             }
 
@@ -2,6 +2,7 @@ package com.kernelflux.aniflux.util
 
 import android.widget.ImageView
 import com.kernelflux.aniflux.cache.AnimationCacheStrategy
+import com.kernelflux.aniflux.load.AnimationPriority
 import com.kernelflux.aniflux.placeholder.PlaceholderReplacementMap
 
 /**
@@ -15,6 +16,8 @@ class AnimationOptions {
     var height: Int = 0
     var scaleType: ImageView.ScaleType? = null
     var cacheStrategy: AnimationCacheStrategy = AnimationCacheStrategy.BOTH
+    var priority: AnimationPriority = AnimationPriority.VISIBLE // Source queue priority, doesn't affect cache key
+    var syncDiskWrites: Boolean = false // Whether to fsync downloaded files before committing them to disk cache
     
     // Animation playback configuration
     var repeatCount: Int = -1 // -1 means infinite loop, 0 means no loop, >0 means loop count
@@ -45,6 +48,24 @@ class AnimationOptions {
         return this
     }
 
+    /**
+     * Set load priority
+     * Queued loads run visible first, then prefetch, then background; newest request first within a priority
+     */
+    fun priority(priority: AnimationPriority): AnimationOptions {
+        this.priority = priority
+        return this
+    }
+
+    /**
+     * Set whether downloaded files are flushed to storage (fsync) before being committed to disk cache
+     * Off by default: a torn entry after power loss is dropped on next start and simply re-downloaded
+     */
+    fun syncDiskWrites(sync: Boolean): AnimationOptions {
+        this.syncDiskWrites = sync
+        return this
+    }
+
     /**
      * Set animation repeat count
      * @param count -1 means infinite loop, 0 means no loop, >0 means loop count
@@ -0,0 +1,44 @@
+package com.kernelflux.aniflux.util
+
+import java.io.InputStream
+import java.nio.ByteBuffer
+
+/**
+ * InputStream view over a ByteBuffer (e.g. a memory-mapped cache file)
+ * Reads from a duplicate, so the source buffer's position is left untouched
+ */
+class ByteBufferInputStream(buffer: ByteBuffer) : InputStream() {
+
+    private val buffer: ByteBuffer = buffer.duplicate()
+
+    override fun read(): Int {
+        return if (buffer.hasRemaining()) buffer.get().toInt() and 0xFF else -1
+    }
+
+    override fun read(b: ByteArray, off: Int, len: Int): Int {
+        if (len == 0) return 0
+        if (!buffer.hasRemaining()) return -1
+        val count = minOf(len, buffer.remaining())
+        buffer.get(b, off, count)
+        return count
+    }
+
+    override fun skip(n: Long): Long {
+        if (n <= 0) return 0
+        val count = minOf(n, buffer.remaining().toLong()).toInt()
+        buffer.position(buffer.position() + count)
+        return count.toLong()
+    }
+
+    override fun available(): Int = buffer.remaining()
+
+    override fun markSupported(): Boolean = true
+
+    override fun mark(readlimit: Int) {
+        buffer.mark()
+    }
+
+    override fun reset() {
+        buffer.reset()
+    }
+}
@@ -0,0 +1,56 @@
+package com.kernelflux.aniflux.cache
+
+import android.os.Build
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertTrue
+import org.junit.Ignore
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.io.File
+import kotlin.random.Random
+
+/**
+ * Cache hit latency against the number of entries
+ * A hit appends one journal line, so it must not grow with the index the way rewriting index.json did
+ */
+@Ignore("Benchmark, run manually")
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.P])
+class DiskCacheHitBenchmark {
+
+    companion object {
+        private const val WARMUP_HITS = 2_000
+        private const val MEASURED_HITS = 20_000
+    }
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    @Test
+    fun hitLatencyDoesNotGrowWithEntryCount() {
+        val small = measureHitNanos(100)
+        val large = measureHitNanos(5_000)
+        assertTrue(
+            "Mean hit latency: 100 entries ${small}ns, 5000 entries ${large}ns",
+            large < small * 4
+        )
+    }
+
+    private fun measureHitNanos(entryCount: Int): Long {
+        val cache = LruAnimationDiskCache(folder.newFolder(), Long.MAX_VALUE)
+        val source = File(folder.newFolder(), "source.svga").apply { writeBytes(ByteArray(1024)) }
+        repeat(entryCount) { cache.put("key$it", source) }
+
+        val random = Random(entryCount)
+        repeat(WARMUP_HITS) { cache.get("key${random.nextInt(entryCount)}") }
+        val start = System.nanoTime()
+        repeat(MEASURED_HITS) {
+            assertNotNull(cache.get("key${random.nextInt(entryCount)}"))
+        }
+        return (System.nanoTime() - start) / MEASURED_HITS
+    }
+}
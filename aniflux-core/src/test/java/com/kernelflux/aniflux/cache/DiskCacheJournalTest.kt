@@ -0,0 +1,76 @@
+package com.kernelflux.aniflux.cache
+
+import android.os.Build
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.io.File
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.P])
+class DiskCacheJournalTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    @Test
+    fun linesAppendedDuringCompactionAreKept() {
+        val dir = folder.newFolder()
+        val journal = DiskCacheJournal(dir)
+        journal.rebuild(mapOf("a" to record("a"), "b" to record("b")))
+
+        val compaction = journal.beginCompaction()
+        val snapshot = mapOf("a" to record("a"), "b" to record("b"))
+        journal.appendRemove("a")
+        journal.appendClean("c", record("c"))
+        assertTrue(journal.writeCompaction(snapshot))
+        journal.appendRead("b")
+        journal.commitCompaction(compaction)
+        journal.close()
+
+        val entries = DiskCacheJournal(dir).read()!!.entries
+        assertEquals(listOf("c", "b"), entries.keys.toList())
+        assertFalse(File(dir, DiskCacheJournal.JOURNAL_FILE_COMPACT).exists())
+    }
+
+    @Test
+    fun rebuildDuringCompactionIsNotOverwritten() {
+        val dir = folder.newFolder()
+        val journal = DiskCacheJournal(dir)
+        journal.rebuild(mapOf("a" to record("a")))
+
+        val compaction = journal.beginCompaction()
+        // e.g. clear() while the snapshot is being written
+        journal.rebuild(emptyMap())
+        assertTrue(journal.writeCompaction(mapOf("a" to record("a"))))
+        journal.commitCompaction(compaction)
+        journal.close()
+
+        assertTrue(DiskCacheJournal(dir).read()!!.entries.isEmpty())
+        assertFalse(File(dir, DiskCacheJournal.JOURNAL_FILE_COMPACT).exists())
+    }
+
+    @Test
+    fun compactionOnlyDropsLinesCoveredBySnapshot() {
+        val dir = folder.newFolder()
+        val journal = DiskCacheJournal(dir)
+        journal.rebuild(mapOf("a" to record("a")))
+        repeat(3) { journal.appendRead("a") }
+
+        val compaction = journal.beginCompaction()
+        journal.appendRead("a")
+        assertTrue(journal.writeCompaction(mapOf("a" to record("a"))))
+        journal.commitCompaction(compaction)
+
+        assertEquals(1, journal.redundantOpCount)
+        journal.close()
+    }
+
+    private fun record(key: String) = DiskCacheJournal.Record("$key.svga", 10)
+}
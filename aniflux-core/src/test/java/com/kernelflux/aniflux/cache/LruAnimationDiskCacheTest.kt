@@ -0,0 +1,154 @@
+package com.kernelflux.aniflux.cache
+
+import android.os.Build
+import com.kernelflux.aniflux.load.AnimationExecutor
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.io.File
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.P])
+class LruAnimationDiskCacheTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    @Test
+    fun entriesSurviveReopen() {
+        val dir = folder.newFolder()
+        val cache = LruAnimationDiskCache(dir)
+        cache.put("a", source("a.svga", 10))
+        cache.put("b", source("b.json", 20))
+
+        val reopened = LruAnimationDiskCache(dir)
+        assertEquals(30L, reopened.getSize())
+        assertEquals("a.svga", reopened.get("a")?.name)
+        assertEquals("b.json", reopened.get("b")?.name)
+    }
+
+    @Test
+    fun hitAppendsToJournalInsteadOfRewritingIt() {
+        val dir = folder.newFolder()
+        val cache = LruAnimationDiskCache(dir)
+        cache.put("a", source("a.svga", 10))
+        val journal = File(dir, DiskCacheJournal.JOURNAL_FILE)
+        val linesBefore = journal.readLines().size
+
+        assertNotNull(cache.get("a"))
+        cache.put("b", source("b.svga", 10)) // flushes the buffered READ line
+
+        val lines = journal.readLines()
+        assertEquals(linesBefore + 3, lines.size)
+        assertEquals("READ a", lines[linesBefore])
+        assertFalse(File(dir, "index.json").exists())
+    }
+
+    @Test
+    fun removeSurvivesReopen() {
+        val dir = folder.newFolder()
+        val cache = LruAnimationDiskCache(dir)
+        cache.put("a", source("a.svga", 10))
+        cache.put("b", source("b.svga", 10))
+        cache.remove("a")
+
+        val reopened = LruAnimationDiskCache(dir)
+        assertNull(reopened.get("a"))
+        assertNotNull(reopened.get("b"))
+        assertEquals(10L, reopened.getSize())
+    }
+
+    @Test
+    fun interruptedWriteIsDiscardedOnReopen() {
+        val dir = folder.newFolder()
+        val cache = LruAnimationDiskCache(dir)
+        cache.put("a", source("a.svga", 10))
+        val editor = cache.edit("b", "svga")
+        editor.getFile().writeBytes(ByteArray(10))
+
+        // Never committed, as if the process died while downloading
+        val reopened = LruAnimationDiskCache(dir)
+        assertNull(reopened.get("b"))
+        assertFalse(editor.getFile().exists())
+        assertNotNull(reopened.get("a"))
+    }
+
+    @Test
+    fun legacyIndexIsMigrated() {
+        val dir = folder.newFolder()
+        File(dir, "a.svga").writeBytes(ByteArray(10))
+        File(dir, "index.json").writeText(
+            """{"a":{"filename":"a.svga","size":10,"lastAccessTime":1}}"""
+        )
+
+        val cache = LruAnimationDiskCache(dir)
+        assertEquals("a.svga", cache.get("a")?.name)
+        assertFalse(File(dir, "index.json").exists())
+        assertTrue(File(dir, DiskCacheJournal.JOURNAL_FILE).exists())
+    }
+
+    @Test
+    fun concurrentUseKeepsIndexInStepWithDirectory() {
+        val dir = folder.newFolder()
+        // Small enough to keep evicting, enough hits to compact the journal several times
+        val cache = LruAnimationDiskCache(dir, maxSize = 64 * 1024)
+        val sources = (1..4).map { source("s$it.svga", it * 1024) }
+        val keys = (0 until 64).map { "k$it" }
+        val threadCount = 8
+        val start = CountDownLatch(1)
+        val pool = Executors.newFixedThreadPool(threadCount)
+        val workers = (0 until threadCount).map { seed ->
+            pool.submit {
+                val random = Random(seed)
+                start.await()
+                repeat(3000) {
+                    val key = keys[random.nextInt(keys.size)]
+                    when (random.nextInt(10)) {
+                        in 0..3 -> cache.put(key, sources[random.nextInt(sources.size)])
+                        9 -> cache.remove(key)
+                        else -> cache.get(key)
+                    }
+                }
+            }
+        }
+        start.countDown()
+        workers.forEach { it.get(60, TimeUnit.SECONDS) }
+        pool.shutdown()
+        awaitDiskCacheThread()
+
+        val live = keys.mapNotNull { key -> cache.get(key)?.let { key to it } }.toMap()
+        awaitDiskCacheThread()
+
+        live.forEach { (key, file) -> assertEquals("$key.svga", file.name) }
+        assertEquals(live.values.sumOf { it.length() }, cache.getSize())
+        val files = dir.list()!!.filterNot { it.startsWith(DiskCacheJournal.JOURNAL_FILE) }.toSet()
+        assertEquals(live.values.map { it.name }.toSet(), files)
+
+        val reopened = LruAnimationDiskCache(dir, maxSize = 64 * 1024)
+        assertEquals(cache.getSize(), reopened.getSize())
+        assertEquals(live.keys, keys.filter { reopened.get(it) != null }.toSet())
+    }
+
+    /**
+     * Disk cache thread is single threaded, wait for evictions and compactions scheduled so far
+     */
+    private fun awaitDiskCacheThread() {
+        AnimationExecutor.getDiskCacheExecutor().submit {}.get(60, TimeUnit.SECONDS)
+    }
+
+    private fun source(name: String, size: Int): File {
+        return File(folder.newFolder(), name).apply { writeBytes(ByteArray(size)) }
+    }
+}
@@ -0,0 +1,135 @@
+package com.kernelflux.aniflux.engine
+
+import android.content.Context
+import android.os.Build
+import android.os.Looper
+import com.kernelflux.aniflux.load.AnimationDataSource
+import com.kernelflux.aniflux.load.AnimationDownloader
+import com.kernelflux.aniflux.load.AnimationLoader
+import com.kernelflux.aniflux.registry.LoaderRegistry
+import com.kernelflux.aniflux.request.target.CustomAnimationTarget
+import com.kernelflux.aniflux.util.AnimationOptions
+import com.kernelflux.aniflux.util.AnimationTypeDetector
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.Shadows.shadowOf
+import org.robolectric.annotation.Config
+import java.io.File
+import java.io.InputStream
+import java.util.Collections
+import java.util.IdentityHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.P])
+class AnimationEngineSingleFlightTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val loader = CountingLoader()
+    private var previousLoader: AnimationLoader<*>? = null
+
+    @Before
+    fun setUp() {
+        previousLoader = LoaderRegistry.register(AnimationTypeDetector.AnimationType.GIF, loader)
+    }
+
+    @After
+    fun tearDown() {
+        LoaderRegistry.unregister(AnimationTypeDetector.AnimationType.GIF)
+        previousLoader?.let { LoaderRegistry.register(AnimationTypeDetector.AnimationType.GIF, it) }
+    }
+
+    @Test
+    fun concurrentIdenticalLoadsInvokeLoaderOnce() {
+        val requestCount = 16
+        val engine = AnimationEngine()
+        val model = File(folder.root, "shared.gif")
+        val context = RuntimeEnvironment.getApplication()
+        val callbacks = (0 until requestCount).map { RecordingCallback() }
+
+        val start = CountDownLatch(1)
+        val pool = Executors.newFixedThreadPool(requestCount)
+        val requests = callbacks.map { cb ->
+            pool.submit {
+                start.await()
+                engine.load(context, model, NoOpTarget(), AnimationOptions.create(), null, cb)
+            }
+        }
+        start.countDown()
+        requests.forEach { it.get(10, TimeUnit.SECONDS) }
+        pool.shutdown()
+        // Every request has joined or started the job, let the single parse finish
+        loader.gate.countDown()
+
+        val deadline = System.currentTimeMillis() + 10_000
+        while (callbacks.any { it.resource == null } && System.currentTimeMillis() < deadline) {
+            shadowOf(Looper.getMainLooper()).idle()
+            Thread.sleep(5)
+        }
+
+        assertEquals(1, loader.calls.get())
+        assertTrue(
+            "Not every request got the resource",
+            callbacks.all { it.resource != null }
+        )
+        val distinct = Collections.newSetFromMap(IdentityHashMap<Any, Boolean>())
+        callbacks.forEach { distinct.add(it.resource!!) }
+        assertEquals(1, distinct.size)
+    }
+
+    /**
+     * Counts invocations, parsing blocks until [gate] opens so later requests find the job in flight
+     */
+    private class CountingLoader : AnimationLoader<Any> {
+        val calls = AtomicInteger()
+        val gate = CountDownLatch(1)
+
+        override fun loadFromFile(context: Context, file: File): Any? {
+            calls.incrementAndGet()
+            gate.await(10, TimeUnit.SECONDS)
+            return Any()
+        }
+
+        override fun loadFromPath(context: Context, path: String): Any? = null
+        override fun loadFromResource(context: Context, resourceId: Int): Any? = null
+        override fun loadFromBytes(context: Context, bytes: ByteArray): Any? = null
+        override fun loadFromInputStream(context: Context, inputStream: InputStream): Any? = null
+        override fun loadFromUrl(context: Context, url: String, downloader: AnimationDownloader): Any? = null
+        override fun loadFromAssetPath(context: Context, assetPath: String): Any? = null
+        override fun getAnimationType() = AnimationTypeDetector.AnimationType.GIF
+    }
+
+    private class RecordingCallback : AnimationResourceCallback {
+        @Volatile
+        var resource: AnimationResource<*>? = null
+
+        override fun onResourceReady(
+            resource: AnimationResource<*>?,
+            dataSource: AnimationDataSource,
+            isLoadedFromAlternateCacheKey: Boolean
+        ) {
+            this.resource = resource
+        }
+
+        override fun onLoadFailed(exception: Throwable) = Unit
+
+        override fun getLock(): Any = this
+    }
+
+    private class NoOpTarget : CustomAnimationTarget<Any>() {
+        override fun onResourceReady(resource: Any) = Unit
+    }
+}
@@ -0,0 +1,56 @@
+package com.kernelflux.aniflux.load
+
+import android.os.Build
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.P])
+class AnimationExecutorTest {
+
+    @Test
+    fun raisedTaskRunsBeforeTasksQueuedAboveItsOldPriority() {
+        val workers = (AnimationExecutor.getSourceExecutor() as ThreadPoolExecutor).corePoolSize
+        val started = CountDownLatch(workers)
+        val release = CountDownLatch(1)
+        // Keep every worker busy so the tasks below stay queued
+        repeat(workers) {
+            AnimationExecutor.executeSource(AnimationPriority.VISIBLE) {
+                started.countDown()
+                release.await(10, TimeUnit.SECONDS)
+            }
+        }
+        started.await(10, TimeUnit.SECONDS)
+
+        val order = Collections.synchronizedList(ArrayList<String>())
+        val done = CountDownLatch(2)
+        val preload = AnimationExecutor.executeSource(AnimationPriority.BACKGROUND) {
+            order.add("preload")
+            done.countDown()
+        }
+        AnimationExecutor.executeSource(AnimationPriority.PREFETCH) {
+            order.add("prefetch")
+            done.countDown()
+        }
+        preload.raisePriority(AnimationPriority.VISIBLE)
+        release.countDown()
+        done.await(10, TimeUnit.SECONDS)
+
+        assertEquals(AnimationPriority.VISIBLE, preload.priority)
+        assertEquals(listOf("preload", "prefetch"), order.take(2))
+    }
+
+    @Test
+    fun priorityIsNeverLowered() {
+        val task = AnimationExecutor.executeSource(AnimationPriority.VISIBLE) {}
+        task.raisePriority(AnimationPriority.BACKGROUND)
+        assertEquals(AnimationPriority.VISIBLE, task.priority)
+    }
+}
@@ -0,0 +1,145 @@
+package com.kernelflux.aniflux.request
+
+import android.os.Build
+import com.kernelflux.aniflux.engine.AnimationEngine
+import com.kernelflux.aniflux.engine.AnimationResource
+import com.kernelflux.aniflux.load.AnimationDataSource
+import com.kernelflux.aniflux.load.AnimationDrawableFactory
+import com.kernelflux.aniflux.registry.LoaderRegistry
+import com.kernelflux.aniflux.request.target.CustomAnimationTarget
+import com.kernelflux.aniflux.util.AnimationOptions
+import com.kernelflux.aniflux.util.AnimationTypeDetector
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import java.util.concurrent.Executor
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.P])
+class SingleAnimationRequestTest {
+
+    private val factory = RecordingFactory()
+    private val executor = QueueExecutor()
+    private var previousFactory: AnimationDrawableFactory<*, *>? = null
+
+    @Before
+    fun setUp() {
+        previousFactory = LoaderRegistry.registerDrawableFactory(AnimationTypeDetector.AnimationType.GIF, factory)
+    }
+
+    @After
+    fun tearDown() {
+        LoaderRegistry.unregisterDrawableFactory(AnimationTypeDetector.AnimationType.GIF)
+        previousFactory?.let { LoaderRegistry.registerDrawableFactory(AnimationTypeDetector.AnimationType.GIF, it) }
+    }
+
+    @Test
+    fun clearedRequestCreatesNoDrawable() {
+        val target = RecordingTarget<FakeDrawable>()
+        val request = newRequest(target, FakeDrawable::class.java)
+        request.clear()
+
+        request.onResourceReady(newResource(), AnimationDataSource.LOCAL, false)
+        executor.runAll()
+
+        assertTrue(factory.created.isEmpty())
+        assertTrue(target.delivered.isEmpty())
+    }
+
+    @Test
+    fun drawableOfWrongTypeIsRecycled() {
+        val target = RecordingTarget<String>()
+        val request = newRequest(target, String::class.java)
+
+        request.onResourceReady(newResource(), AnimationDataSource.LOCAL, false)
+        executor.runAll()
+
+        assertEquals(1, factory.created.size)
+        assertEquals(factory.created, factory.recycled)
+        assertTrue(target.delivered.isEmpty())
+    }
+
+    @Test
+    fun drawableClearedBeforeDeliveryIsRecycled() {
+        val target = RecordingTarget<FakeDrawable>()
+        val request = newRequest(target, FakeDrawable::class.java)
+
+        request.onResourceReady(newResource(), AnimationDataSource.LOCAL, false)
+        request.clear()
+        executor.runAll()
+
+        assertEquals(1, factory.created.size)
+        assertEquals(factory.created, factory.recycled)
+        assertTrue(target.delivered.isEmpty())
+    }
+
+    @Test
+    fun deliveredDrawableIsNotRecycled() {
+        val target = RecordingTarget<FakeDrawable>()
+        val request = newRequest(target, FakeDrawable::class.java)
+
+        request.onResourceReady(newResource(), AnimationDataSource.LOCAL, false)
+        executor.runAll()
+
+        assertEquals(factory.created, target.delivered)
+        assertTrue(factory.recycled.isEmpty())
+    }
+
+    private fun <T> newRequest(target: RecordingTarget<T>, transcodeClass: Class<T>): SingleAnimationRequest<T> {
+        return SingleAnimationRequest(
+            RuntimeEnvironment.getApplication(), Any(), "model", target, null, transcodeClass,
+            0, 0, AnimationEngine(), AnimationOptions.create(), executor
+        )
+    }
+
+    private fun newResource(): AnimationResource<FakeModel> {
+        return AnimationResource(FakeModel(), true, "key", object : AnimationResource.ResourceListener {
+            override fun onResourceReleased(key: String, resource: AnimationResource<*>) = Unit
+        })
+    }
+
+    private class FakeModel
+
+    private class FakeDrawable
+
+    private class RecordingFactory : AnimationDrawableFactory<FakeModel, FakeDrawable> {
+        val created = ArrayList<FakeDrawable>()
+        val recycled = ArrayList<FakeDrawable>()
+
+        override fun getModelClass() = FakeModel::class.java
+
+        override fun createDrawable(model: FakeModel): FakeDrawable = FakeDrawable().also { created.add(it) }
+
+        override fun recycleDrawable(drawable: FakeDrawable) {
+            recycled.add(drawable)
+        }
+    }
+
+    private class RecordingTarget<T> : CustomAnimationTarget<T>() {
+        val delivered = ArrayList<T>()
+
+        override fun onResourceReady(resource: T) {
+            delivered.add(resource)
+        }
+    }
+
+    private class QueueExecutor : Executor {
+        private val tasks = ArrayDeque<Runnable>()
+
+        override fun execute(command: Runnable) {
+            tasks.addLast(command)
+        }
+
+        fun runAll() {
+            while (tasks.isNotEmpty()) {
+                tasks.removeFirst().run()
+            }
+        }
+    }
+}
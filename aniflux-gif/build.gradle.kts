@@ -64,7 +64,8 @@ dependencies {
     releaseApi(libs.aniflux.core)
     releaseApi(libs.aniflux.annotations)
     kspRelease(libs.aniflux.compiler.ksp)
-    
 
+    testImplementation(libs.junit)
+    testImplementation(libs.robolectric)
 }
 apply(from = rootProject.file("gradle/maven-publish.gradle"))
@@ -1,5 +1,6 @@
 package com.kernelflux.aniflux.gif
 
+import android.widget.ImageView
 import androidx.annotation.CheckResult
 import com.kernelflux.aniflux.AnimationRequestBuilder
 import com.kernelflux.aniflux.AnimationRequestManager
@@ -22,6 +23,26 @@ fun AnimationRequestManager.asGif(): AnimationRequestBuilder<GifDrawable> {
     return AnimationRequestBuilder(aniFlux, this, context, GifDrawable::class.java)
 }
 
+/**
+ * Specify loading GIF animation played from frames shared by all views showing the same GIF
+ * One decoder and a few frame bitmaps per GIF instead of per view, for the same GIF shown many times
+ * (list items, emoticons)
+ */
+@CheckResult
+fun AnimationRequestManager.asSharedGif(): AnimationRequestBuilder<SharedGifDrawable> {
+    return AnimationRequestBuilder(aniFlux, this, context, SharedGifDrawable::class.java)
+}
+
+/**
+ * Load SharedGifDrawable to ImageView
+ */
+@JvmName("intoSharedGifView")
+fun AnimationRequestBuilder<SharedGifDrawable>.into(view: ImageView): SharedGifViewTarget {
+    val target = SharedGifViewTarget(view)
+    into(target as AnimationTarget<SharedGifDrawable>)
+    return target
+}
+
 /**
  * Load GifDrawable to GifImageView
  */
@@ -7,67 +7,98 @@ import com.kernelflux.aniflux.annotation.AutoRegisterLoader
 import com.kernelflux.aniflux.load.AnimationDownloader
 import com.kernelflux.aniflux.load.AnimationLoader
 import com.kernelflux.aniflux.util.AnimationTypeDetector
-import com.kernelflux.gif.GifDrawable
+import com.kernelflux.gif.GifRenderingScheduler
 import java.io.File
 import java.io.InputStream
+import java.nio.ByteBuffer
 
 /**
  * GIF animation loader
  * 
+ * Returns a [GifSource] (cached and shared by the engine), each target gets its own
+ * GifDrawable from [GifDrawableFactory]
+ * 
+ * Drawables render on [renderingScheduler], shared by all GIFs loaded through AniFlux
+ * 
  * Marked with @AutoRegisterLoader annotation, registration code will be automatically generated at compile time
  * 
  * @author: kernelflux
  * @date: 2025/01/XX
  */
 @AutoRegisterLoader(animationType = "GIF")
-class GifAnimationLoader : AnimationLoader<GifDrawable> {
+class GifAnimationLoader : AnimationLoader<GifSource> {
+
+    companion object {
+        /**
+         * Scheduler rendering frames of loaded GIFs, null for the library default
+         * (a few render threads shared by all drawables). Set it before loading, sources already cached keep theirs
+         */
+        @JvmStatic
+        @Volatile
+        var renderingScheduler: GifRenderingScheduler? = null
+    }
+
+    private fun GifSource.scheduled(): GifSource = withRenderingScheduler(renderingScheduler)
     
-    override fun loadFromPath(context: Context,path: String): GifDrawable? {
+    override fun loadFromPath(context: Context,path: String): GifSource? {
         return try {
-            GifDrawable(path)
+            GifSource.fromPath(path).scheduled()
         } catch (e: Exception) {
             AniFluxLog.e(AniFluxLogCategory.LOADER, "Failed to load GIF from path: $path", e)
             null
         }
     }
     
-    override fun loadFromFile(context: Context,file: File): GifDrawable? {
+    override fun loadFromFile(context: Context,file: File): GifSource? {
         return try {
-            GifDrawable(file)
+            GifSource.fromFile(file).scheduled()
         } catch (e: Exception) {
             AniFluxLog.e(AniFluxLogCategory.LOADER, "Failed to load GIF from file: ${file.absolutePath}", e)
             null
         }
     }
     
-    override fun loadFromResource(context: Context, resourceId: Int): GifDrawable? {
+    override fun loadFromResource(context: Context, resourceId: Int): GifSource? {
         return try {
-            GifDrawable(context.resources, resourceId)
+            GifSource.fromResource(context.resources, resourceId).scheduled()
         } catch (e: Exception) {
             AniFluxLog.e(AniFluxLogCategory.LOADER, "Failed to load GIF from resource: $resourceId", e)
             null
         }
     }
     
-    override fun loadFromBytes(context: Context,bytes: ByteArray): GifDrawable? {
+    override fun loadFromBytes(context: Context,bytes: ByteArray): GifSource? {
         return try {
-            GifDrawable(bytes)
+            GifSource.fromBytes(bytes).scheduled()
         } catch (e: Exception) {
             AniFluxLog.e(AniFluxLogCategory.LOADER, "Failed to load GIF from bytes", e)
             null
         }
     }
     
-    override fun loadFromInputStream(context: Context,inputStream: InputStream): GifDrawable? {
+    override fun supportsBufferLoad(): Boolean = true
+
+    override fun loadFromBuffer(context: Context, buffer: ByteBuffer, sourceKey: String): GifSource? {
+        return try {
+            // Decoders read directly from direct buffers (e.g. mapped files), heap buffers are copied
+            if (buffer.isDirect) GifSource.fromBuffer(buffer).scheduled() else super.loadFromBuffer(context, buffer, sourceKey)
+        } catch (e: Exception) {
+            AniFluxLog.e(AniFluxLogCategory.LOADER, "Failed to load GIF from buffer", e)
+            null
+        }
+    }
+    
+    override fun loadFromInputStream(context: Context,inputStream: InputStream): GifSource? {
         return try {
-            GifDrawable(inputStream)
+            // Stream can only be read once, keep its bytes so every target can decode them
+            GifSource.fromBytes(inputStream.readBytes()).scheduled()
         } catch (e: Exception) {
             AniFluxLog.e(AniFluxLogCategory.LOADER, "Failed to load GIF from input stream", e)
             null
         }
     }
     
-    override fun loadFromUrl(context: Context, url: String, downloader: AnimationDownloader): GifDrawable? {
+    override fun loadFromUrl(context: Context, url: String, downloader: AnimationDownloader): GifSource? {
         return try {
             val tempFile = downloader.download(context, url)
             loadFromFile(context, tempFile)
@@ -77,9 +108,9 @@ class GifAnimationLoader : AnimationLoader<GifDrawable> {
         }
     }
     
-    override fun loadFromAssetPath(context: Context, assetPath: String): GifDrawable? {
+    override fun loadFromAssetPath(context: Context, assetPath: String): GifSource? {
         return try {
-            GifDrawable(context.assets, assetPath)
+            GifSource.fromAsset(context.assets, assetPath).scheduled()
         } catch (e: Exception) {
             AniFluxLog.e(AniFluxLogCategory.LOADER, "Failed to load GIF from asset path: $assetPath", e)
             null
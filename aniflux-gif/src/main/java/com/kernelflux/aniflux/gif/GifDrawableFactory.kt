@@ -0,0 +1,39 @@
+package com.kernelflux.aniflux.gif
+
+import android.graphics.drawable.Drawable
+import com.kernelflux.aniflux.annotation.AutoRegisterDrawableFactory
+import com.kernelflux.aniflux.load.AnimationDrawableFactory
+import com.kernelflux.gif.GifDrawable
+
+/**
+ * GIF drawable factory
+ * One GifDrawable (own decoder and frame buffer) per target over the shared [GifSource],
+ * or a [SharedGifDrawable] over the source's shared frames when the target asks for one
+ */
+@AutoRegisterDrawableFactory(animationType = "GIF")
+class GifDrawableFactory : AnimationDrawableFactory<GifSource, Drawable> {
+
+    override fun getModelClass(): Class<GifSource> = GifSource::class.java
+
+    override fun createDrawable(model: GifSource): Drawable {
+        return model.newDrawable()
+    }
+
+    override fun createDrawable(model: GifSource, targetClass: Class<*>): Drawable {
+        if (SharedGifDrawable::class.java.isAssignableFrom(targetClass)) {
+            return model.newSharedDrawable()
+        }
+        return model.newDrawable()
+    }
+
+    /**
+     * Undelivered drawables hold a native decoder (GifDrawable) or a reference on the shared frames
+     * ([SharedGifDrawable]), free them now instead of waiting for finalization
+     */
+    override fun recycleDrawable(drawable: Drawable) {
+        when (drawable) {
+            is SharedGifDrawable -> drawable.recycle()
+            is GifDrawable -> drawable.recycle()
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.kernelflux.aniflux.gif
+
+import android.graphics.Bitmap
+import com.kernelflux.gif.GifDecoder
+
+/**
+ * Frame decoding used by [GifFrameProvider]
+ *
+ * Only [GifDecoderFrameDecoder] implements it, it exists so the provider can be tested without native code
+ */
+internal interface GifFrameDecoder {
+    val width: Int
+    val height: Int
+    val numberOfFrames: Int
+    val loopCount: Int
+
+    fun getFrameDuration(index: Int): Int
+
+    /**
+     * Render the given frame into [buffer], frames must be requested in order
+     */
+    fun seekToFrame(frameIndex: Int, buffer: Bitmap)
+
+    fun recycle()
+}
+
+/**
+ * [GifFrameDecoder] backed by android-gif-drawable's [GifDecoder]
+ */
+internal class GifDecoderFrameDecoder(private val decoder: GifDecoder) : GifFrameDecoder {
+    override val width: Int get() = decoder.width
+    override val height: Int get() = decoder.height
+    override val numberOfFrames: Int get() = decoder.numberOfFrames
+    override val loopCount: Int get() = decoder.loopCount
+
+    override fun getFrameDuration(index: Int): Int = decoder.getFrameDuration(index)
+
+    override fun seekToFrame(frameIndex: Int, buffer: Bitmap) = decoder.seekToFrame(frameIndex, buffer)
+
+    override fun recycle() = decoder.recycle()
+}
@@ -0,0 +1,273 @@
+package com.kernelflux.aniflux.gif
+
+import android.graphics.Bitmap
+import android.graphics.Canvas
+import android.graphics.Paint
+import android.graphics.PorterDuff
+import android.graphics.PorterDuffXfermode
+import android.graphics.Rect
+import android.os.Handler
+import android.os.Looper
+import com.kernelflux.aniflux.log.AniFluxLog
+import com.kernelflux.aniflux.log.AniFluxLogCategory
+import java.util.concurrent.Executor
+
+/**
+ * Decoded frames of one [GifSource], shared by all [SharedGifDrawable]s showing it
+ *
+ * A single decoder renders frames in order into a working buffer, each frame is copied into a bounded
+ * ring of [ringSize] bitmaps. Drawables pick the frame for their own playback position from the ring, so
+ * N views showing the same GIF cost one decoder and `ringSize + 2` bitmaps instead of N of each.
+ *
+ * GIF frames can only be decoded in order, so drawables play at their own positions as long as they stay
+ * within the ring; a drawable falling further behind is moved forward to the oldest frame still available.
+ *
+ * Reference counted: every drawable holds one reference, the decoder and bitmaps are freed with the last one.
+ *
+ * A frame that fails to decode stops decoding for good, drawables keep showing the newest frame decoded before
+ */
+class GifFrameProvider internal constructor(
+    private val decoder: GifFrameDecoder,
+    private val executor: Executor,
+    private val onFreed: (GifFrameProvider) -> Unit,
+    val ringSize: Int = DEFAULT_RING_SIZE
+) {
+
+    companion object {
+        /**
+         * Frame on screen plus the next one decoded ahead
+         */
+        const val DEFAULT_RING_SIZE = 2
+    }
+
+    val width = decoder.width
+    val height = decoder.height
+    val frameCount = maxOf(1, decoder.numberOfFrames)
+    val loopCount = decoder.loopCount
+
+    /**
+     * Start time of every frame within a loop, last entry is the loop duration
+     */
+    private val frameStarts = IntArray(frameCount + 1).also {
+        for (i in 0 until frameCount) {
+            it[i + 1] = it[i] + if (frameCount > 1) decoder.getFrameDuration(i) else 0
+        }
+    }
+    val duration = frameStarts[frameCount]
+
+    private val lock = Any()
+    private val mainHandler = Handler(Looper.getMainLooper())
+    private val copyPaint = Paint().apply {
+        xfermode = PorterDuffXfermode(PorterDuff.Mode.SRC)
+    }
+
+    // Guarded by lock
+    private var refCount = 0
+    private var freed = false
+    private val ring = Array(ringSize) { Slot() }
+    private var spare = Slot()
+    private var nextWrite = 0
+    private var decodedFrame = -1 // Newest frame in the ring
+    private var targetFrame = 0 // Decode up to this frame
+    private var decoding = false
+    private var failed = false // Decoding a frame threw, the data won't decode any better on retry
+    private val waiters = ArrayList<SharedGifDrawable>()
+
+    // Decoder thread only
+    private val workBuffer = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888)
+
+    private val decodeTask = Runnable { decodeFrames() }
+
+    init {
+        scheduleDecode()
+    }
+
+    /**
+     * Add a reference
+     * @return false if the provider is already freed, a new one must be created
+     */
+    internal fun acquire(): Boolean {
+        synchronized(lock) {
+            if (freed) return false
+            refCount++
+            return true
+        }
+    }
+
+    /**
+     * Drop a reference, the last one frees the decoder and the frame bitmaps
+     */
+    fun release() {
+        synchronized(lock) {
+            if (freed || --refCount > 0) return
+            freed = true
+            waiters.clear()
+            if (decoding) {
+                // Decoder thread frees them when it finishes the frame in progress
+                return
+            }
+        }
+        free()
+    }
+
+    private fun free() {
+        decoder.recycle()
+        workBuffer.recycle()
+        synchronized(lock) {
+            ring.forEach { it.recycle() }
+            spare.recycle()
+        }
+        onFreed(this)
+    }
+
+    /**
+     * Frame shown at the given position of a loop
+     */
+    fun frameAt(position: Long): Int {
+        if (duration <= 0) return 0
+        val inLoop = (position % duration).toInt()
+        var low = 0
+        var high = frameCount - 1
+        while (low < high) {
+            val mid = (low + high + 1) ushr 1
+            if (frameStarts[mid] <= inLoop) low = mid else high = mid - 1
+        }
+        return low
+    }
+
+    fun frameStart(frame: Int): Int = frameStarts[frame]
+
+    fun frameEnd(frame: Int): Int = frameStarts[frame + 1]
+
+    /**
+     * Draw the frame closest to [frame] that is decoded
+     *
+     * @return Frame drawn, -1 if none is decoded yet. When the frame isn't decoded yet, [drawable] is
+     * invalidated once it is, when it was already evicted [drawable] is moved to the frame drawn
+     */
+    internal fun draw(
+        canvas: Canvas, frame: Int, dst: Rect, paint: Paint, drawable: SharedGifDrawable
+    ): Int {
+        synchronized(lock) {
+            if (freed) return -1
+            var slot = findSlot(frame)
+            if (slot == null) {
+                if (decodedFrame < 0 || distance(decodedFrame, frame) <= ringSize) {
+                    // Frame is just ahead of the decoder, show the newest one until it is ready
+                    requestFrame(frame)
+                    if (!failed && !waiters.contains(drawable)) waiters.add(drawable)
+                    slot = findSlot(decodedFrame)
+                } else {
+                    // Drawable fell behind the ring, continue from the oldest frame available
+                    slot = oldestSlot()
+                    slot?.let { drawable.resyncTo(it.frame) }
+                }
+            } else if (frame == decodedFrame) {
+                // Decode ahead so the next frame is ready in time
+                requestFrame((frame + 1) % frameCount)
+            }
+            if (slot == null) return -1
+            canvas.drawBitmap(slot.bitmap, null, dst, paint)
+            return slot.frame
+        }
+    }
+
+    /**
+     * How many frames [to] is ahead of [from], looping
+     */
+    fun distance(from: Int, to: Int): Int {
+        return (to - from + frameCount) % frameCount
+    }
+
+    private fun findSlot(frame: Int): Slot? {
+        if (frame < 0) return null
+        for (slot in ring) {
+            if (slot.frame == frame) return slot
+        }
+        return null
+    }
+
+    private fun oldestSlot(): Slot? {
+        for (i in 0 until ringSize) {
+            val slot = ring[(nextWrite + i) % ringSize]
+            if (slot.frame >= 0) return slot
+        }
+        return null
+    }
+
+    /**
+     * Must hold lock
+     */
+    private fun requestFrame(frame: Int) {
+        if (frameCount <= 1) return
+        // Only move the target forward, never make the decoder loop around for a frame it just evicted
+        if (distance(decodedFrame, frame) > distance(decodedFrame, targetFrame)) {
+            targetFrame = frame
+        }
+        if (decodedFrame != targetFrame) scheduleDecode()
+    }
+
+    private fun scheduleDecode() {
+        if (decoding || failed) return
+        decoding = true
+        executor.execute(decodeTask)
+    }
+
+    private fun decodeFrames() {
+        while (true) {
+            val frame = synchronized(lock) {
+                if (freed || (decodedFrame >= 0 && decodedFrame == targetFrame)) {
+                    decoding = false
+                    if (freed) null else return
+                } else {
+                    (decodedFrame + 1) % frameCount
+                }
+            } ?: break
+            try {
+                decoder.seekToFrame(frame, workBuffer)
+            } catch (e: Exception) {
+                AniFluxLog.e(AniFluxLogCategory.ENGINE, "Failed to decode shared GIF frame $frame", e)
+                val released = synchronized(lock) {
+                    decoding = false
+                    failed = true
+                    waiters.clear()
+                    freed
+                }
+                if (released) break else return
+            }
+            val waiting = synchronized(lock) {
+                if (freed) {
+                    decoding = false
+                    null
+                } else {
+                    // Copy into the spare bitmap, nobody draws it, then swap it into the ring
+                    spare.canvas.drawBitmap(workBuffer, 0f, 0f, copyPaint)
+                    spare.frame = frame
+                    val evicted = ring[nextWrite]
+                    ring[nextWrite] = spare
+                    spare = evicted
+                    spare.frame = -1
+                    nextWrite = (nextWrite + 1) % ringSize
+                    decodedFrame = frame
+                    if (waiters.isEmpty()) emptyList() else ArrayList(waiters).also { waiters.clear() }
+                }
+            } ?: break
+            if (waiting.isNotEmpty()) {
+                mainHandler.post { waiting.forEach { it.invalidateSelf() } }
+            }
+        }
+        // Released while decoding
+        free()
+    }
+
+    private inner class Slot {
+        val bitmap: Bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888)
+        val canvas = Canvas(bitmap)
+        var frame = -1
+
+        fun recycle() {
+            frame = -1
+            bitmap.recycle()
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.kernelflux.aniflux.gif
+
+import com.kernelflux.aniflux.annotation.AutoRegisterSizeEstimator
+import com.kernelflux.aniflux.cache.ResourceSizeEstimator
+
+/**
+ * GIF resource size estimator
+ * Uses bytes retained by the source plus native metadata, frame buffers belong to per-target drawables
+ */
+@AutoRegisterSizeEstimator(animationType = "GIF")
+class GifSizeEstimator : ResourceSizeEstimator<GifSource> {
+
+    override fun getResourceClass(): Class<GifSource> = GifSource::class.java
+
+    override fun estimateSize(resource: GifSource): Long {
+        return resource.retainedByteCount + resource.metaData.metadataAllocationByteCount
+    }
+}
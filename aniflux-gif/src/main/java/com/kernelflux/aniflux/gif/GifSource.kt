@@ -0,0 +1,147 @@
+package com.kernelflux.aniflux.gif
+
+import android.content.res.AssetManager
+import android.content.res.Resources
+import com.kernelflux.aniflux.engine.AnimationResource
+import com.kernelflux.gif.GifAnimationMetaData
+import com.kernelflux.gif.GifDecoder
+import com.kernelflux.gif.GifDrawable
+import com.kernelflux.gif.GifDrawableBuilder
+import com.kernelflux.gif.GifRenderingScheduler
+import java.io.File
+import java.io.IOException
+import java.nio.ByteBuffer
+
+/**
+ * Parsed GIF source - the model cached and shared by the engine
+ *
+ * GifDrawable owns its decoder and frame buffer, so it can't be shared between views.
+ * GifSource only keeps where the data lives (plus the header metadata read while validating it),
+ * [GifDrawableFactory] creates a new GifDrawable from it for every target.
+ *
+ * Targets asking for [SharedGifDrawable] instead share one [GifFrameProvider] per source, which lives
+ * while any of them does
+ */
+class GifSource private constructor(
+    private val applySource: (GifDrawableBuilder) -> GifDrawableBuilder,
+    val metaData: GifAnimationMetaData,
+    /**
+     * Bytes retained on heap by this source (in-memory data only, file based sources retain none)
+     */
+    val retainedByteCount: Long,
+    /**
+     * Scheduler rendering frames of drawables created from this source, null for the library default
+     */
+    val renderingScheduler: GifRenderingScheduler? = null
+) : AnimationResource.Recyclable {
+
+    private var frameProvider: GifFrameProvider? = null
+    private var isRecycled = false
+
+    /**
+     * Create a new drawable with its own decoder
+     */
+    @Throws(IOException::class)
+    fun newDrawable(): GifDrawable {
+        return applySource(GifDrawableBuilder())
+            .renderingScheduler(renderingScheduler)
+            .build()
+    }
+
+    /**
+     * Create a drawable playing from the decoded frames shared by all drawables of this source
+     */
+    @Throws(IOException::class)
+    fun newSharedDrawable(): SharedGifDrawable {
+        return SharedGifDrawable(acquireFrameProvider())
+    }
+
+    /**
+     * Shared frame provider with one reference added, the caller must [GifFrameProvider.release] it
+     * @throws IllegalStateException if the engine already recycled this source
+     */
+    @Synchronized
+    @Throws(IOException::class)
+    fun acquireFrameProvider(): GifFrameProvider {
+        check(!isRecycled) { "GifSource has been recycled" }
+        frameProvider?.let { if (it.acquire()) return it }
+        val inputSource = applySource(GifDrawableBuilder()).inputSource
+            ?: throw IOException("GIF source has no input")
+        val provider = GifFrameProvider(
+            GifDecoderFrameDecoder(GifDecoder(inputSource)),
+            renderingScheduler ?: GifRenderingScheduler.getInstance(),
+            ::onFrameProviderFreed
+        )
+        provider.acquire()
+        frameProvider = provider
+        return provider
+    }
+
+    @Synchronized
+    private fun onFrameProviderFreed(provider: GifFrameProvider) {
+        if (frameProvider === provider) frameProvider = null
+    }
+
+    /**
+     * Engine dropped this source, drawables still showing it keep the provider until they are recycled
+     */
+    @Synchronized
+    override fun onRecycled() {
+        isRecycled = true
+    }
+
+    /**
+     * Same source, drawables render on the given scheduler
+     */
+    fun withRenderingScheduler(scheduler: GifRenderingScheduler?): GifSource {
+        if (scheduler === renderingScheduler) return this
+        return GifSource(applySource, metaData, retainedByteCount, scheduler)
+    }
+
+    companion object {
+
+        @JvmStatic
+        @Throws(IOException::class)
+        fun fromBytes(bytes: ByteArray): GifSource {
+            return GifSource({ it.from(bytes) }, GifAnimationMetaData(bytes), bytes.size.toLong())
+        }
+
+        /**
+         * @param buffer Direct buffer (e.g. mapped file), decoders read it without copying
+         */
+        @JvmStatic
+        @Throws(IOException::class)
+        fun fromBuffer(buffer: ByteBuffer): GifSource {
+            // Every drawable reads from its own view of the shared buffer
+            return GifSource({ it.from(buffer.duplicate()) }, GifAnimationMetaData(buffer.duplicate()), 0L)
+        }
+
+        @JvmStatic
+        @Throws(IOException::class)
+        fun fromFile(file: File): GifSource {
+            return GifSource({ it.from(file) }, GifAnimationMetaData(file), 0L)
+        }
+
+        @JvmStatic
+        @Throws(IOException::class)
+        fun fromPath(path: String): GifSource {
+            return GifSource({ it.from(path) }, GifAnimationMetaData(path), 0L)
+        }
+
+        @JvmStatic
+        @Throws(IOException::class)
+        fun fromResource(resources: Resources, resourceId: Int): GifSource {
+            return GifSource(
+                { it.from(resources, resourceId) },
+                GifAnimationMetaData(resources, resourceId),
+                0L
+            )
+        }
+
+        @JvmStatic
+        @Throws(IOException::class)
+        fun fromAsset(assets: AssetManager, assetName: String): GifSource {
+            return GifSource({ it.from(assets, assetName) }, GifAnimationMetaData(assets, assetName), 0L)
+        }
+    }
+}
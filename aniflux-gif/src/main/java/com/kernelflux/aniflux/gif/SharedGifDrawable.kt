@@ -0,0 +1,194 @@
+package com.kernelflux.aniflux.gif
+
+import android.graphics.Canvas
+import android.graphics.ColorFilter
+import android.graphics.Paint
+import android.graphics.PixelFormat
+import android.graphics.drawable.Animatable
+import android.graphics.drawable.Drawable
+import android.os.SystemClock
+import com.kernelflux.gif.AnimationListener
+import java.util.concurrent.CopyOnWriteArrayList
+
+/**
+ * GIF drawable without its own decoder
+ *
+ * Draws frames decoded by the [GifFrameProvider] of its source, so many views showing the same GIF
+ * (list items, emoticons) decode it once. Every drawable keeps its own playback position, start/stop
+ * and loop count, frames are picked by elapsed time on the main thread.
+ *
+ * Holds a provider reference until [recycle]
+ */
+class SharedGifDrawable internal constructor(
+    private val provider: GifFrameProvider
+) : Drawable(), Animatable {
+
+    private val paint = Paint(Paint.FILTER_BITMAP_FLAG or Paint.DITHER_FLAG)
+    private val listeners = CopyOnWriteArrayList<AnimationListener>()
+    private val nextFrameRunnable = Runnable { invalidateSelf() }
+
+    // Main thread only
+    private var isRunning = false
+    private var isRecycled = false
+    private var startTime = 0L
+    private var pausedPosition = 0L
+    private var completedLoops = 0
+
+    /**
+     * Number of loops to play, 0 = infinite. Defaults to the loop count of the GIF
+     */
+    var loopCount: Int = provider.loopCount
+
+    init {
+        start()
+    }
+
+    override fun start() {
+        if (isRunning || isRecycled) return
+        if (isFinished(pausedPosition)) {
+            pausedPosition = 0L
+            completedLoops = 0
+        }
+        isRunning = true
+        startTime = SystemClock.uptimeMillis() - pausedPosition
+        invalidateSelf()
+    }
+
+    override fun stop() {
+        if (!isRunning) return
+        pausedPosition = position()
+        isRunning = false
+        unscheduleSelf(nextFrameRunnable)
+    }
+
+    override fun isRunning(): Boolean = isRunning
+
+    /**
+     * Restart from the first frame
+     */
+    fun reset() {
+        pausedPosition = 0L
+        completedLoops = 0
+        startTime = SystemClock.uptimeMillis()
+        invalidateSelf()
+    }
+
+    /**
+     * Release the shared frames, the drawable draws nothing afterwards
+     */
+    fun recycle() {
+        if (isRecycled) return
+        stop()
+        isRecycled = true
+        listeners.clear()
+        provider.release()
+    }
+
+    fun isRecycled(): Boolean = isRecycled
+
+    fun addAnimationListener(listener: AnimationListener) {
+        listeners.add(listener)
+    }
+
+    fun removeAnimationListener(listener: AnimationListener): Boolean {
+        return listeners.remove(listener)
+    }
+
+    val numberOfFrames: Int
+        get() = provider.frameCount
+
+    val duration: Int
+        get() = provider.duration
+
+    override fun draw(canvas: Canvas) {
+        if (isRecycled) return
+        var position = position()
+        if (isFinished(position)) {
+            // Stay on the last frame
+            position = loopCount.toLong() * provider.duration - 1
+            if (isRunning) {
+                isRunning = false
+                pausedPosition = position
+            }
+        }
+        notifyCompletedLoops(position)
+        val frame = provider.frameAt(position)
+        val drawn = provider.draw(canvas, frame, bounds, paint, this)
+        if (isRunning && drawn >= 0 && provider.frameCount > 1 && provider.duration > 0) {
+            val inLoop = position() % provider.duration
+            val delay = maxOf(0L, provider.frameEnd(provider.frameAt(inLoop)) - inLoop)
+            scheduleSelf(nextFrameRunnable, SystemClock.uptimeMillis() + delay)
+        }
+    }
+
+    /**
+     * Provider evicted the frame for the current position, continue from [frame] in the same loop
+     */
+    internal fun resyncTo(frame: Int) {
+        if (provider.duration <= 0) return
+        val position = position()
+        val loopStart = position - position % provider.duration
+        val target = loopStart + provider.frameStart(frame) +
+                if (frame < provider.frameAt(position)) provider.duration else 0
+        if (isRunning) {
+            startTime = SystemClock.uptimeMillis() - target
+        } else {
+            pausedPosition = target
+        }
+    }
+
+    private fun position(): Long {
+        return if (isRunning) SystemClock.uptimeMillis() - startTime else pausedPosition
+    }
+
+    private fun isFinished(position: Long): Boolean {
+        return loopCount > 0 && provider.duration > 0 && position >= loopCount.toLong() * provider.duration
+    }
+
+    private fun notifyCompletedLoops(position: Long) {
+        if (provider.duration <= 0) return
+        val loops = (position / provider.duration).toInt() + if (isFinished(position + 1)) 1 else 0
+        while (completedLoops < loops) {
+            // Same numbering as GifDrawable, 0 for infinite animations
+            val loopNumber = if (loopCount == 0) 0 else completedLoops
+            completedLoops++
+            for (listener in listeners) {
+                listener.onAnimationCompleted(loopNumber)
+            }
+        }
+    }
+
+    override fun setVisible(visible: Boolean, restart: Boolean): Boolean {
+        val changed = super.setVisible(visible, restart)
+        if (visible) {
+            if (restart) {
+                reset()
+            }
+            if (changed) {
+                start()
+            }
+        } else if (changed) {
+            stop()
+        }
+        return changed
+    }
+
+    override fun getIntrinsicWidth(): Int = provider.width
+
+    override fun getIntrinsicHeight(): Int = provider.height
+
+    override fun setAlpha(alpha: Int) {
+        paint.alpha = alpha
+        invalidateSelf()
+    }
+
+    override fun getAlpha(): Int = paint.alpha
+
+    override fun setColorFilter(colorFilter: ColorFilter?) {
+        paint.colorFilter = colorFilter
+        invalidateSelf()
+    }
+
+    @Deprecated("Deprecated in Java")
+    override fun getOpacity(): Int = PixelFormat.TRANSPARENT
+}
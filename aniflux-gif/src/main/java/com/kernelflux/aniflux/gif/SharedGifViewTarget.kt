@@ -0,0 +1,55 @@
+package com.kernelflux.aniflux.gif
+
+import android.graphics.drawable.Drawable
+import android.widget.ImageView
+import com.kernelflux.aniflux.log.AniFluxLog
+import com.kernelflux.aniflux.log.AniFluxLogCategory
+import com.kernelflux.aniflux.log.AniFluxLogLevel
+import com.kernelflux.aniflux.request.target.CustomViewAnimationTarget
+
+/**
+ * ViewTarget for GIFs shown through shared frames
+ * Any ImageView works, SharedGifDrawable draws the frames decoded once for all views showing the same GIF
+ */
+class SharedGifViewTarget(view: ImageView) : CustomViewAnimationTarget<ImageView, SharedGifDrawable>(view) {
+
+    override fun onResourceReady(resource: SharedGifDrawable) {
+        val repeatCount = animationOptions?.repeatCount ?: -1
+        // Same semantics as GifViewTarget: repeatCount <= 0 = infinite loop, N = play N times total
+        resource.loopCount = when {
+            repeatCount <= 0 -> 0
+            else -> repeatCount
+        }
+        setupPlayListeners(resource, view)
+        view.setImageDrawable(resource)
+    }
+
+    override fun onLoadFailed(errorDrawable: Drawable?) {
+        view.setImageDrawable(errorDrawable)
+    }
+
+    override fun onResourceCleared(placeholder: Drawable?) {
+        clearAnimationFromView()
+        view.setImageDrawable(placeholder)
+    }
+
+    override fun stopAnimation() {
+        (view.drawable as? SharedGifDrawable)?.stop()
+    }
+
+    override fun resumeAnimation() {
+        (view.drawable as? SharedGifDrawable)?.start()
+    }
+
+    override fun clearAnimationFromView() {
+        if (AniFluxLog.isLoggable(CustomViewAnimationTarget.TAG, AniFluxLogLevel.DEBUG)) {
+            AniFluxLog.d(AniFluxLogCategory.TARGET, "SharedGifViewTarget.clearAnimationFromView() - releasing shared GIF frames")
+        }
+        try {
+            // Drops this view's reference, frames are freed with the last view showing the GIF
+            (view.drawable as? SharedGifDrawable)?.recycle()
+        } catch (e: Exception) {
+            AniFluxLog.e(AniFluxLogCategory.TARGET, "SharedGifViewTarget.clearAnimationFromView() - error during cleanup", e)
+        }
+    }
+}
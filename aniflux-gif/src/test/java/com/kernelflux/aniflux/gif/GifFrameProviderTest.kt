@@ -0,0 +1,152 @@
+package com.kernelflux.aniflux.gif
+
+import android.graphics.Bitmap
+import android.graphics.Canvas
+import android.graphics.Paint
+import android.graphics.Rect
+import android.os.Build
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.util.concurrent.Executor
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.P])
+class GifFrameProviderTest {
+
+    private val executor = QueueExecutor()
+    private val canvas = Canvas(Bitmap.createBitmap(4, 4, Bitmap.Config.ARGB_8888))
+    private val dst = Rect(0, 0, 4, 4)
+    private val paint = Paint()
+    private var freedCount = 0
+
+    @Test
+    fun lastReleaseFreesDecoder() {
+        val decoder = FakeDecoder()
+        val provider = newProvider(decoder)
+        assertTrue(provider.acquire())
+        assertTrue(provider.acquire())
+        executor.runAll()
+
+        provider.release()
+        assertFalse(decoder.recycled)
+
+        provider.release()
+        assertTrue(decoder.recycled)
+        assertEquals(1, freedCount)
+        assertFalse(provider.acquire())
+    }
+
+    @Test
+    fun lastReleaseDuringDecodeFreesAfterFrame() {
+        val decoder = FakeDecoder()
+        val provider = newProvider(decoder)
+        provider.acquire()
+        decoder.onSeek = {
+            provider.release()
+            // The decoder thread still uses the decoder and the work buffer
+            assertFalse(decoder.recycled)
+            assertEquals(0, freedCount)
+        }
+
+        executor.runAll()
+
+        assertTrue(decoder.recycled)
+        assertEquals(1, freedCount)
+    }
+
+    @Test
+    fun decodesAheadOfDrawnFrame() {
+        val decoder = FakeDecoder()
+        val provider = newProvider(decoder)
+        provider.acquire()
+        val drawable = SharedGifDrawable(provider)
+        executor.runAll()
+
+        assertEquals(0, provider.draw(canvas, 0, dst, paint, drawable))
+        executor.runAll()
+
+        assertEquals(listOf(0, 1), decoder.seeks)
+        assertEquals(1, provider.draw(canvas, 1, dst, paint, drawable))
+    }
+
+    @Test
+    fun decodeErrorIsNotRetried() {
+        val decoder = FakeDecoder(failFrom = 1)
+        val provider = newProvider(decoder)
+        provider.acquire()
+        val drawable = SharedGifDrawable(provider)
+        executor.runAll()
+
+        // Drawing frame 0 asks for frame 1, which fails
+        assertEquals(0, provider.draw(canvas, 0, dst, paint, drawable))
+        executor.runAll()
+        repeat(5) {
+            assertEquals(0, provider.draw(canvas, 1, dst, paint, drawable))
+            assertEquals(0, provider.draw(canvas, 2, dst, paint, drawable))
+        }
+
+        assertTrue(executor.isEmpty())
+        assertEquals(listOf(0, 1), decoder.seeks)
+    }
+
+    @Test
+    fun releaseAfterDecodeErrorFreesDecoder() {
+        val decoder = FakeDecoder(failFrom = 0)
+        val provider = newProvider(decoder)
+        provider.acquire()
+        executor.runAll()
+
+        provider.release()
+
+        assertTrue(decoder.recycled)
+        assertEquals(1, freedCount)
+    }
+
+    private fun newProvider(decoder: FakeDecoder): GifFrameProvider {
+        return GifFrameProvider(decoder, executor, { freedCount++ })
+    }
+
+    private class QueueExecutor : Executor {
+        private val tasks = ArrayDeque<Runnable>()
+
+        override fun execute(command: Runnable) {
+            tasks.addLast(command)
+        }
+
+        fun runAll() {
+            while (tasks.isNotEmpty()) {
+                tasks.removeFirst().run()
+            }
+        }
+
+        fun isEmpty() = tasks.isEmpty()
+    }
+
+    private class FakeDecoder(private val failFrom: Int = Int.MAX_VALUE) : GifFrameDecoder {
+        override val width = 4
+        override val height = 4
+        override val numberOfFrames = 3
+        override val loopCount = 0
+
+        val seeks = ArrayList<Int>()
+        var onSeek: (() -> Unit)? = null
+        var recycled = false
+
+        override fun getFrameDuration(index: Int) = 100
+
+        override fun seekToFrame(frameIndex: Int, buffer: Bitmap) {
+            seeks.add(frameIndex)
+            onSeek?.invoke()
+            if (frameIndex >= failFrom) throw IllegalStateException("Broken frame $frameIndex")
+        }
+
+        override fun recycle() {
+            recycled = true
+        }
+    }
+}
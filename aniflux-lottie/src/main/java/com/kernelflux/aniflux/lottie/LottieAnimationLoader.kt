@@ -4,84 +4,114 @@ import android.content.Context
 import com.kernelflux.aniflux.log.AniFluxLog
 import com.kernelflux.aniflux.log.AniFluxLogCategory
 import com.kernelflux.aniflux.annotation.AutoRegisterLoader
+import com.kernelflux.aniflux.cache.AnimationDiskCache
 import com.kernelflux.aniflux.load.AnimationDownloader
-import com.kernelflux.aniflux.load.AnimationLoader
+import com.kernelflux.aniflux.load.AnimationLoadHandle
+import com.kernelflux.aniflux.load.AsyncAnimationLoader
 import com.kernelflux.aniflux.util.AnimationTypeDetector
+import com.kernelflux.aniflux.util.ByteBufferInputStream
+import com.kernelflux.lottie.Lottie
 import com.kernelflux.lottie.LottieComposition
 import com.kernelflux.lottie.LottieCompositionFactory
-import com.kernelflux.lottie.LottieDrawable
+import com.kernelflux.lottie.LottieListener
+import com.kernelflux.lottie.LottieTask
 import java.io.File
 import java.io.InputStream
-import java.util.concurrent.CountDownLatch
+import java.nio.ByteBuffer
 import java.util.concurrent.TimeUnit
 import java.util.zip.ZipInputStream
 
 /**
  * Lottie animation loader - references lottie-android library's loading approach
  * Supports loading Lottie from file path, file, resource ID, byte array, input stream, network URL
+ *
+ * LottieCompositionFactory parses on LottieTask's executor, so the async variants just hand the
+ * task result over to [AnimationLoadHandle]; synchronous variants block on the handle for compatibility
+ *
+ * Returns the immutable [LottieComposition] (cached and shared by the engine),
+ * each target gets its own LottieDrawable from [LottieDrawableFactory]
  */
 @AutoRegisterLoader(animationType = "LOTTIE")
-class LottieAnimationLoader : AnimationLoader<LottieDrawable> {
+class LottieAnimationLoader : AsyncAnimationLoader<LottieComposition> {
 
-    override fun loadFromPath(context: Context, path: String): LottieDrawable? {
-        return try {
-            val composition = loadLottieCompositionFromPath(context, path)
-            composition?.let { createLottieDrawable(it) }
-        } catch (e: Exception) {
-            AniFluxLog.e(AniFluxLogCategory.LOADER, "Failed to load Lottie from path: $path", e)
-            null
-        }
+    companion object {
+        private const val LOAD_TIMEOUT_SECONDS = 10L
+
+        // Local file header signature of ZIP ("PK\u0003\u0004")
+        private val ZIP_MAGIC = byteArrayOf(0x50, 0x4B, 0x03, 0x04)
     }
 
-    override fun loadFromFile(context: Context, file: File): LottieDrawable? {
-        return try {
-            val composition = loadLottieCompositionFromFile(file)
-            composition?.let { createLottieDrawable(it) }
-        } catch (e: Exception) {
-            AniFluxLog.e(
-                AniFluxLogCategory.LOADER,
-                "Failed to load Lottie from file: ${file.absolutePath}",
-                e
-            )
-            null
-        }
+    override fun loadFromPathAsync(context: Context, path: String): AnimationLoadHandle<LottieComposition> {
+        return handleOf(LottieCompositionFactory.fromAsset(context, path), "path: $path")
     }
 
-    override fun loadFromResource(context: Context, resourceId: Int): LottieDrawable? {
-        return try {
-            val composition = loadLottieCompositionFromResource(context, resourceId)
-            composition?.let { createLottieDrawable(it) }
-        } catch (e: Exception) {
-            AniFluxLog.e(
-                AniFluxLogCategory.LOADER,
-                "Failed to load Lottie from resource: $resourceId",
-                e
-            )
-            null
+    override fun loadFromFileAsync(context: Context, file: File): AnimationLoadHandle<LottieComposition> {
+        // Determine if it's JSON or ZIP format based on file extension
+        val fileName = file.name.lowercase()
+        val task = if (fileName.endsWith(".zip") || fileName.endsWith(".lottie")) {
+            // ZIP format Lottie file
+            LottieCompositionFactory.fromZipStream(ZipInputStream(file.inputStream()), null)
+        } else {
+            // JSON format Lottie file, stream is read and closed on Lottie's executor
+            val cacheKey = snapshotKey { AnimationDiskCache.contentKey(file) }
+            LottieCompositionFactory.fromJsonInputStream(file.inputStream(), cacheKey)
         }
+        return handleOf(task, "file: ${file.absolutePath}")
     }
 
-    override fun loadFromBytes(context: Context, bytes: ByteArray): LottieDrawable? {
-        return try {
-            val composition = loadLottieCompositionFromBytes(bytes)
-            composition?.let { createLottieDrawable(it) }
-        } catch (e: Exception) {
-            AniFluxLog.e(AniFluxLogCategory.LOADER, "Failed to load Lottie from bytes", e)
-            null
+    override fun loadFromResourceAsync(context: Context, resourceId: Int): AnimationLoadHandle<LottieComposition> {
+        return handleOf(LottieCompositionFactory.fromRawRes(context, resourceId), "resource: $resourceId")
+    }
+
+    override fun loadFromBytesAsync(context: Context, bytes: ByteArray): AnimationLoadHandle<LottieComposition> {
+        return handleOf(LottieCompositionFactory.fromJsonInputStream(bytes.inputStream(), null), "bytes")
+    }
+
+    override fun supportsBufferLoad(): Boolean = true
+
+    override fun loadFromBufferAsync(
+        context: Context,
+        buffer: ByteBuffer,
+        sourceKey: String
+    ): AnimationLoadHandle<LottieComposition> {
+        // Cache files have no reliable extension, sniff ZIP magic instead
+        val task = if (isZip(buffer)) {
+            LottieCompositionFactory.fromZipStream(ZipInputStream(ByteBufferInputStream(buffer)), null)
+        } else {
+            LottieCompositionFactory.fromJsonInputStream(ByteBufferInputStream(buffer), snapshotKey { sourceKey })
         }
+        return handleOf(task, "buffer")
     }
 
-    override fun loadFromInputStream(context: Context, inputStream: InputStream): LottieDrawable? {
-        return try {
-            val composition = loadLottieCompositionFromInputStream(inputStream)
-            composition?.let { createLottieDrawable(it) }
-        } catch (e: Exception) {
-            AniFluxLog.e(
-                AniFluxLogCategory.LOADER,
-                "Failed to load Lottie from input stream",
-                e
-            )
-            null
+    override fun loadFromAssetPathAsync(context: Context, assetPath: String): AnimationLoadHandle<LottieComposition> {
+        return handleOf(LottieCompositionFactory.fromAsset(context, assetPath), "asset path: $assetPath")
+    }
+
+    override fun loadFromPath(context: Context, path: String): LottieComposition? {
+        return awaitLoad("path: $path") { loadFromPathAsync(context, path) }
+    }
+
+    override fun loadFromFile(context: Context, file: File): LottieComposition? {
+        return awaitLoad("file: ${file.absolutePath}") { loadFromFileAsync(context, file) }
+    }
+
+    override fun loadFromResource(context: Context, resourceId: Int): LottieComposition? {
+        return awaitLoad("resource: $resourceId") { loadFromResourceAsync(context, resourceId) }
+    }
+
+    override fun loadFromBytes(context: Context, bytes: ByteArray): LottieComposition? {
+        return awaitLoad("bytes") { loadFromBytesAsync(context, bytes) }
+    }
+
+    override fun loadFromBuffer(context: Context, buffer: ByteBuffer, sourceKey: String): LottieComposition? {
+        return awaitLoad("buffer") { loadFromBufferAsync(context, buffer, sourceKey) }
+    }
+
+    override fun loadFromInputStream(context: Context, inputStream: InputStream): LottieComposition? {
+        return awaitLoad("input stream") {
+            // Read input stream content to byte array first to avoid stream closing issues
+            val bytes = inputStream.readBytes()
+            handleOf(LottieCompositionFactory.fromJsonInputStream(bytes.inputStream(), null), "input stream")
         }
     }
 
@@ -89,7 +119,7 @@ class LottieAnimationLoader : AnimationLoader<LottieDrawable> {
         context: Context,
         url: String,
         downloader: AnimationDownloader
-    ): LottieDrawable? {
+    ): LottieComposition? {
         return try {
             // Download file
             val tempFile = downloader.download(context, url)
@@ -102,50 +132,8 @@ class LottieAnimationLoader : AnimationLoader<LottieDrawable> {
         }
     }
 
-    override fun loadFromAssetPath(context: Context, assetPath: String): LottieDrawable? {
-        return try {
-            val composition = loadLottieCompositionFromAssetPath(context, assetPath)
-            composition?.let { createLottieDrawable(it) }
-        } catch (e: Exception) {
-            AniFluxLog.e(
-                AniFluxLogCategory.LOADER,
-                "Failed to load Lottie from asset path: $assetPath",
-                e
-            )
-            null
-        }
-    }
-
-    /**
-     * Load LottieComposition from Asset path
-     */
-    private fun loadLottieCompositionFromAssetPath(
-        context: Context,
-        assetPath: String
-    ): LottieComposition? {
-        val latch = CountDownLatch(1)
-        var result: LottieComposition? = null
-
-        LottieCompositionFactory.fromAsset(context, assetPath)
-            .addListener { composition ->
-                result = composition
-                latch.countDown()
-            }
-            .addFailureListener {
-                latch.countDown()
-            }
-
-        return try {
-            latch.await(10, TimeUnit.SECONDS)
-            result
-        } catch (e: InterruptedException) {
-            AniFluxLog.e(
-                AniFluxLogCategory.LOADER,
-                "Interrupted while loading Lottie from asset path",
-                e
-            )
-            null
-        }
+    override fun loadFromAssetPath(context: Context, assetPath: String): LottieComposition? {
+        return awaitLoad("asset path: $assetPath") { loadFromAssetPathAsync(context, assetPath) }
     }
 
     override fun getAnimationType(): AnimationTypeDetector.AnimationType {
@@ -153,186 +141,61 @@ class LottieAnimationLoader : AnimationLoader<LottieDrawable> {
     }
 
     /**
-     * Load LottieComposition from file path
+     * Cache key for a json composition, only when Lottie snapshots are enabled
+     *
+     * A key lets a later parse of the same source read the snapshot instead of the json. Without snapshots
+     * it would only duplicate the engine memory cache in LottieCompositionCache, so none is passed then.
+     * ZIPs are not snapshotted, they keep passing none
      */
-    private fun loadLottieCompositionFromPath(context: Context, path: String): LottieComposition? {
-        val latch = CountDownLatch(1)
-        var result: LottieComposition? = null
-
-        LottieCompositionFactory.fromAsset(context, path)
-            .addListener { composition ->
-                result = composition
-                latch.countDown()
-            }
-            .addFailureListener {
-                latch.countDown()
-            }
+    private inline fun snapshotKey(sourceKey: () -> String): String? {
+        return if (Lottie.isSnapshotCacheEnabled()) "lottie-${sourceKey()}" else null
+    }
 
-        return try {
-            latch.await(10, TimeUnit.SECONDS)
-            result
-        } catch (e: InterruptedException) {
-            AniFluxLog.e(
-                AniFluxLogCategory.LOADER,
-                "Interrupted while loading Lottie from path",
-                e
-            )
-            null
-        }
+    private fun isZip(buffer: ByteBuffer): Boolean {
+        if (buffer.remaining() < ZIP_MAGIC.size) return false
+        val start = buffer.position()
+        return ZIP_MAGIC.indices.all { buffer.get(start + it) == ZIP_MAGIC[it] }
     }
 
     /**
-     * Load LottieComposition from file
+     * Bridge LottieTask result to load handle
+     * Listeners are detached from the task when handle is cancelled
      */
-    private fun loadLottieCompositionFromFile(file: File): LottieComposition? {
-        val latch = CountDownLatch(1)
-        var result: LottieComposition? = null
-
-        // Read file content to byte array first to avoid stream closing issues
-        val bytes = file.readBytes()
-        
-        // Determine if it's JSON or ZIP format based on file extension
-        val fileName = file.name.lowercase()
-        if (fileName.endsWith(".zip") || fileName.endsWith(".lottie")) {
-            // ZIP format Lottie file
-            val zis = ZipInputStream(bytes.inputStream())
-            LottieCompositionFactory.fromZipStream(zis, null)
-                .addListener { comp ->
-                    result = comp
-                    latch.countDown()
-                }
-                .addFailureListener { e -> 
-                    e.printStackTrace()
-                    latch.countDown()
-                }
-        } else {
-            // JSON format Lottie file
-            val jsonString = String(bytes)
-            LottieCompositionFactory.fromJsonString(jsonString, null)
-                .addListener { comp ->
-                    result = comp
-                    latch.countDown()
-                }
-                .addFailureListener { e -> 
-                    e.printStackTrace()
-                    latch.countDown()
-                }
+    private fun handleOf(
+        task: LottieTask<LottieComposition>,
+        source: String
+    ): AnimationLoadHandle<LottieComposition> {
+        val handle = AnimationLoadHandle<LottieComposition>()
+        val successListener = LottieListener<LottieComposition> { composition ->
+            handle.complete(composition)
         }
-
-        return try {
-            latch.await(10, TimeUnit.SECONDS)
-            result
-        } catch (e: InterruptedException) {
-            AniFluxLog.e(
-                AniFluxLogCategory.LOADER,
-                "Interrupted while loading Lottie from file",
-                e
-            )
-            null
+        val failureListener = LottieListener<Throwable> { error ->
+            handle.fail(IllegalStateException("Failed to parse Lottie from $source", error))
         }
-    }
-
-    /**
-     * Load LottieComposition from resource ID
-     */
-    private fun loadLottieCompositionFromResource(
-        context: Context,
-        resourceId: Int
-    ): LottieComposition? {
-        val latch = CountDownLatch(1)
-        var result: LottieComposition? = null
-
-        LottieCompositionFactory.fromRawRes(context, resourceId)
-            .addListener { composition ->
-                result = composition
-                latch.countDown()
-            }
-            .addFailureListener {
-                latch.countDown()
-            }
-
-        return try {
-            latch.await(10, TimeUnit.SECONDS)
-            result
-        } catch (e: InterruptedException) {
-            AniFluxLog.e(
-                AniFluxLogCategory.LOADER,
-                "Interrupted while loading Lottie from resource",
-                e
-            )
-            null
+        handle.setOnCancelListener {
+            task.removeListener(successListener)
+            task.removeFailureListener(failureListener)
         }
+        task.addListener(successListener)
+        task.addFailureListener(failureListener)
+        return handle
     }
 
     /**
-     * Load LottieComposition from byte array
+     * Block until load completes (synchronous API)
      */
-    private fun loadLottieCompositionFromBytes(bytes: ByteArray): LottieComposition? {
-        val latch = CountDownLatch(1)
-        var result: LottieComposition? = null
-
-        LottieCompositionFactory.fromJsonString(String(bytes), null)
-            .addListener { composition ->
-                result = composition
-                latch.countDown()
-            }
-            .addFailureListener {
-                latch.countDown()
-            }
-
+    private inline fun awaitLoad(
+        source: String,
+        start: () -> AnimationLoadHandle<LottieComposition>
+    ): LottieComposition? {
         return try {
-            latch.await(10, TimeUnit.SECONDS)
-            result
+            start().await(LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS)
         } catch (e: InterruptedException) {
-            AniFluxLog.e(
-                AniFluxLogCategory.LOADER,
-                "Interrupted while loading Lottie from bytes",
-                e
-            )
+            AniFluxLog.e(AniFluxLogCategory.LOADER, "Interrupted while loading Lottie from $source", e)
             null
-        }
-    }
-
-    /**
-     * Load LottieComposition from input stream
-     */
-    private fun loadLottieCompositionFromInputStream(inputStream: InputStream): LottieComposition? {
-        val latch = CountDownLatch(1)
-        var result: LottieComposition? = null
-
-        // Read input stream content to byte array first to avoid stream closing issues
-        val bytes = inputStream.readBytes()
-        val jsonInputStream = bytes.inputStream()
-
-        LottieCompositionFactory.fromJsonInputStream(jsonInputStream, null)
-            .addListener { composition ->
-                result = composition
-                latch.countDown()
-            }
-            .addFailureListener {
-                latch.countDown()
-            }
-
-        return try {
-            latch.await(10, TimeUnit.SECONDS)
-            result
-        } catch (e: InterruptedException) {
-            AniFluxLog.e(
-                AniFluxLogCategory.LOADER,
-                "Interrupted while loading Lottie from input stream",
-                e
-            )
+        } catch (e: Exception) {
+            AniFluxLog.e(AniFluxLogCategory.LOADER, "Failed to load Lottie from $source", e)
             null
         }
     }
-
-    /**
-     * Create LottieDrawable
-     */
-    private fun createLottieDrawable(composition: LottieComposition): LottieDrawable {
-        val drawable = LottieDrawable()
-        drawable.setComposition(composition)
-        return drawable
-    }
 }
-
@@ -0,0 +1,22 @@
+package com.kernelflux.aniflux.lottie
+
+import com.kernelflux.aniflux.annotation.AutoRegisterDrawableFactory
+import com.kernelflux.aniflux.load.AnimationDrawableFactory
+import com.kernelflux.lottie.LottieComposition
+import com.kernelflux.lottie.LottieDrawable
+
+/**
+ * Lottie drawable factory
+ * One LottieDrawable per target over the shared composition, so progress isn't shared between views
+ */
+@AutoRegisterDrawableFactory(animationType = "LOTTIE")
+class LottieDrawableFactory : AnimationDrawableFactory<LottieComposition, LottieDrawable> {
+
+    override fun getModelClass(): Class<LottieComposition> = LottieComposition::class.java
+
+    override fun createDrawable(model: LottieComposition): LottieDrawable {
+        val drawable = LottieDrawable()
+        drawable.setComposition(model)
+        return drawable
+    }
+}
@@ -0,0 +1,21 @@
+package com.kernelflux.aniflux.lottie
+
+import com.kernelflux.aniflux.annotation.AutoRegisterSizeEstimator
+import com.kernelflux.aniflux.cache.ResourceSizeEstimator
+import com.kernelflux.lottie.LottieComposition
+import com.kernelflux.lottie.model.LottieCompositionWeigher
+
+/**
+ * Lottie resource size estimator
+ * Delegates to [LottieCompositionWeigher]: image asset bitmaps, plus layers, keyframes and path vertices
+ * counted while parsing
+ */
+@AutoRegisterSizeEstimator(animationType = "LOTTIE")
+class LottieSizeEstimator : ResourceSizeEstimator<LottieComposition> {
+
+    override fun getResourceClass(): Class<LottieComposition> = LottieComposition::class.java
+
+    override fun estimateSize(resource: LottieComposition): Long {
+        return LottieCompositionWeigher.weigh(resource)
+    }
+}
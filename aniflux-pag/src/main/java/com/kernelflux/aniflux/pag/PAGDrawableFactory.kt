@@ -0,0 +1,20 @@
+package com.kernelflux.aniflux.pag
+
+import com.kernelflux.aniflux.annotation.AutoRegisterDrawableFactory
+import com.kernelflux.aniflux.load.AnimationDrawableFactory
+import com.kernelflux.pag.PAGFile
+
+/**
+ * PAG drawable factory
+ * PAGFile is mutable (layers, replaced texts/images, progress), each target gets its own copy
+ * of the cached file, the parsed data underneath is shared natively
+ */
+@AutoRegisterDrawableFactory(animationType = "PAG")
+class PAGDrawableFactory : AnimationDrawableFactory<PAGFile, PAGFile> {
+
+    override fun getModelClass(): Class<PAGFile> = PAGFile::class.java
+
+    override fun createDrawable(model: PAGFile): PAGFile {
+        return model.copyOriginal()
+    }
+}
@@ -0,0 +1,25 @@
+package com.kernelflux.aniflux.pag
+
+import com.kernelflux.aniflux.annotation.AutoRegisterSizeEstimator
+import com.kernelflux.aniflux.cache.ResourceSizeEstimator
+import com.kernelflux.pag.PAGFile
+
+/**
+ * PAG resource size estimator
+ * PAGFile data lives in native memory and isn't exposed, so estimate one ARGB frame
+ * for the composition plus one per embedded image
+ */
+@AutoRegisterSizeEstimator(animationType = "PAG")
+class PAGSizeEstimator : ResourceSizeEstimator<PAGFile> {
+
+    companion object {
+        private const val BYTES_PER_PIXEL = 4L
+    }
+
+    override fun getResourceClass(): Class<PAGFile> = PAGFile::class.java
+
+    override fun estimateSize(resource: PAGFile): Long {
+        val frameBytes = resource.width().toLong() * resource.height().toLong() * BYTES_PER_PIXEL
+        return frameBytes * (resource.numImages() + 1)
+    }
+}
@@ -2,96 +2,139 @@ package com.kernelflux.aniflux.svga
 
 import android.content.Context
 import com.kernelflux.aniflux.annotation.AutoRegisterLoader
+import com.kernelflux.aniflux.cache.AnimationDiskCache
 import com.kernelflux.aniflux.load.AnimationDownloader
-import com.kernelflux.aniflux.load.AnimationLoader
+import com.kernelflux.aniflux.load.AnimationLoadHandle
+import com.kernelflux.aniflux.load.AsyncAnimationLoader
 import com.kernelflux.aniflux.log.AniFluxLog
 import com.kernelflux.aniflux.log.AniFluxLogCategory
 import com.kernelflux.aniflux.util.AnimationTypeDetector
-import com.kernelflux.svga.SVGADrawable
+import com.kernelflux.aniflux.util.ByteBufferInputStream
 import com.kernelflux.svga.SVGAParser
 import com.kernelflux.svga.SVGAVideoEntity
 import java.io.ByteArrayInputStream
 import java.io.File
 import java.io.InputStream
-import java.util.concurrent.CountDownLatch
+import java.nio.ByteBuffer
 import java.util.concurrent.TimeUnit
 
 /**
  * SVGA animation loader - references SVGAPlayer-Android library's loading approach
  * Supports loading SVGA from file path, file, resource ID, byte array, input stream, network URL
+ *
+ * SVGAParser decodes on its own thread pool, so the async variants just hand the completion
+ * over to [AnimationLoadHandle]; synchronous variants block on the handle for compatibility
+ *
+ * Returns the parsed [SVGAVideoEntity] (cached and shared by the engine),
+ * each target gets its own SVGADrawable from [SVGADrawableFactory]
  */
 @AutoRegisterLoader(animationType = "SVGA")
-class SVGAAnimationLoader : AnimationLoader<SVGADrawable> {
+class SVGAAnimationLoader : AsyncAnimationLoader<SVGAVideoEntity> {
 
-    private var context: Context? = null
+    companion object {
+        private const val LOAD_TIMEOUT_SECONDS = 10L
+    }
 
-    fun setContext(context: Context) {
-        this.context = context
+    override fun loadFromPathAsync(context: Context, path: String): AnimationLoadHandle<SVGAVideoEntity> {
+        val handle = AnimationLoadHandle<SVGAVideoEntity>()
+        SVGAParser(context).decodeFromAssets(path, completionOf(handle, "path: $path"))
+        return handle
     }
 
-    override fun loadFromPath(context: Context, path: String): SVGADrawable? {
-        // Set context for use in private methods
-        setContext(context)
-        return try {
-            val videoEntity = loadSvgaVideoEntityFromPath(path)
-            videoEntity?.let { createSvgaDrawable(it) }
-        } catch (e: Exception) {
-            AniFluxLog.e(AniFluxLogCategory.LOADER, "Failed to load SVGA from path: $path", e)
-            null
-        }
+    override fun loadFromFileAsync(context: Context, file: File): AnimationLoadHandle<SVGAVideoEntity> {
+        val handle = AnimationLoadHandle<SVGAVideoEntity>()
+        val cacheKey = "svga-${AnimationDiskCache.contentKey(file)}"
+        // Stream is read and closed on parser thread, avoid reading the file on the calling thread
+        SVGAParser(context).decodeFromInputStream(
+            file.inputStream(),
+            cacheKey,
+            completionOf(handle, "file: ${file.absolutePath}"),
+            closeInputStream = true
+        )
+        return handle
     }
 
-    override fun loadFromFile(context: Context, file: File): SVGADrawable? {
-        // Set context for use in private methods
-        setContext(context)
-        return try {
-            val videoEntity = loadSvgaVideoEntityFromFile(file)
-            videoEntity?.let { createSvgaDrawable(it) }
-        } catch (e: Exception) {
-            AniFluxLog.e(
-                AniFluxLogCategory.LOADER,
-                "Failed to load SVGA from file: ${file.absolutePath}",
-                e
-            )
-            null
-        }
+    override fun loadFromResourceAsync(context: Context, resourceId: Int): AnimationLoadHandle<SVGAVideoEntity> {
+        val handle = AnimationLoadHandle<SVGAVideoEntity>()
+        val cacheKey = "svga-from-file-${resourceId.hashCode()}"
+        SVGAParser(context).decodeFromInputStream(
+            context.resources.openRawResource(resourceId),
+            cacheKey,
+            completionOf(handle, "resource: $resourceId"),
+            closeInputStream = true
+        )
+        return handle
     }
 
-    override fun loadFromResource(context: Context, resourceId: Int): SVGADrawable? {
-        return try {
-            val videoEntity = loadSvgaVideoEntityFromResource(context, resourceId)
-            videoEntity?.let { createSvgaDrawable(it) }
-        } catch (e: Exception) {
-            AniFluxLog.e(
-                AniFluxLogCategory.LOADER,
-                "Failed to load SVGA from resource: $resourceId",
-                e
-            )
-            null
-        }
+    override fun loadFromBytesAsync(context: Context, bytes: ByteArray): AnimationLoadHandle<SVGAVideoEntity> {
+        val handle = AnimationLoadHandle<SVGAVideoEntity>()
+        val cacheKey = "svga-from-file-${bytes.hashCode()}"
+        SVGAParser(context).decodeFromInputStream(
+            ByteArrayInputStream(bytes),
+            cacheKey,
+            completionOf(handle, "bytes")
+        )
+        return handle
     }
 
-    override fun loadFromBytes(context: Context, bytes: ByteArray): SVGADrawable? {
-        // Set context for use in private methods
-        setContext(context)
-        return try {
-            val videoEntity = loadSvgaVideoEntityFromBytes(bytes)
-            videoEntity?.let { createSvgaDrawable(it) }
-        } catch (e: Exception) {
-            AniFluxLog.e(AniFluxLogCategory.LOADER, "Failed to load SVGA from bytes", e)
-            null
-        }
+    override fun supportsBufferLoad(): Boolean = true
+
+    override fun loadFromBufferAsync(
+        context: Context,
+        buffer: ByteBuffer,
+        sourceKey: String
+    ): AnimationLoadHandle<SVGAVideoEntity> {
+        val handle = AnimationLoadHandle<SVGAVideoEntity>()
+        // Unpack dir is named by the content key, loading the same file again reuses it instead of
+        // leaving one more directory behind, a rewritten file never picks up the stale one
+        val cacheKey = "svga-$sourceKey"
+        // Parser streams straight out of the (mapped) buffer, no heap copy of the file
+        SVGAParser(context).decodeFromInputStream(
+            ByteBufferInputStream(buffer),
+            cacheKey,
+            completionOf(handle, "buffer"),
+            closeInputStream = true
+        )
+        return handle
     }
 
-    override fun loadFromInputStream(context: Context, inputStream: InputStream): SVGADrawable? {
-        // Set context for use in private methods
-        setContext(context)
-        return try {
-            val videoEntity = loadSvgaVideoEntityFromInputStream(inputStream)
-            videoEntity?.let { createSvgaDrawable(it) }
-        } catch (e: Exception) {
-            AniFluxLog.e(AniFluxLogCategory.LOADER, "Failed to load SVGA from input stream", e)
-            null
+    override fun loadFromAssetPathAsync(context: Context, assetPath: String): AnimationLoadHandle<SVGAVideoEntity> {
+        val handle = AnimationLoadHandle<SVGAVideoEntity>()
+        SVGAParser(context).decodeFromAssets(assetPath, completionOf(handle, "asset path: $assetPath"))
+        return handle
+    }
+
+    override fun loadFromPath(context: Context, path: String): SVGAVideoEntity? {
+        return awaitLoad("path: $path") { loadFromPathAsync(context, path) }
+    }
+
+    override fun loadFromFile(context: Context, file: File): SVGAVideoEntity? {
+        return awaitLoad("file: ${file.absolutePath}") { loadFromFileAsync(context, file) }
+    }
+
+    override fun loadFromResource(context: Context, resourceId: Int): SVGAVideoEntity? {
+        return awaitLoad("resource: $resourceId") { loadFromResourceAsync(context, resourceId) }
+    }
+
+    override fun loadFromBytes(context: Context, bytes: ByteArray): SVGAVideoEntity? {
+        return awaitLoad("bytes") { loadFromBytesAsync(context, bytes) }
+    }
+
+    override fun loadFromBuffer(context: Context, buffer: ByteBuffer, sourceKey: String): SVGAVideoEntity? {
+        return awaitLoad("buffer") { loadFromBufferAsync(context, buffer, sourceKey) }
+    }
+
+    override fun loadFromInputStream(context: Context, inputStream: InputStream): SVGAVideoEntity? {
+        return awaitLoad("input stream") {
+            val handle = AnimationLoadHandle<SVGAVideoEntity>()
+            // Read input stream content to byte array first to avoid stream closing issues
+            val bytes = inputStream.readBytes()
+            SVGAParser(context).decodeFromInputStream(
+                ByteArrayInputStream(bytes),
+                "svga-from-file-${bytes.hashCode()}",
+                completionOf(handle, "input stream")
+            )
+            handle
         }
     }
 
@@ -99,7 +142,7 @@ class SVGAAnimationLoader : AnimationLoader<SVGADrawable> {
         context: Context,
         url: String,
         downloader: AnimationDownloader
-    ): SVGADrawable? {
+    ): SVGAVideoEntity? {
         return try {
             // Download file
             val tempFile = downloader.download(context, url)
@@ -112,53 +155,8 @@ class SVGAAnimationLoader : AnimationLoader<SVGADrawable> {
         }
     }
 
-    override fun loadFromAssetPath(context: Context, assetPath: String): SVGADrawable? {
-        return try {
-            val videoEntity = loadSvgaVideoEntityFromAssetPath(context, assetPath)
-            videoEntity?.let { createSvgaDrawable(it) }
-        } catch (e: Exception) {
-            AniFluxLog.e(
-                AniFluxLogCategory.LOADER,
-                "Failed to load SVGA from asset path: $assetPath",
-                e
-            )
-            null
-        }
-    }
-
-    /**
-     * Load SVGAVideoEntity from Asset path
-     */
-    private fun loadSvgaVideoEntityFromAssetPath(
-        context: Context,
-        assetPath: String
-    ): SVGAVideoEntity? {
-        val parser = SVGAParser(context)
-        val latch = CountDownLatch(1)
-        var result: SVGAVideoEntity? = null
-
-        parser.decodeFromAssets(assetPath, object : SVGAParser.ParseCompletion {
-            override fun onComplete(videoItem: SVGAVideoEntity) {
-                result = videoItem
-                latch.countDown()
-            }
-
-            override fun onError() {
-                latch.countDown()
-            }
-        })
-
-        return try {
-            latch.await(10, TimeUnit.SECONDS)
-            result
-        } catch (e: InterruptedException) {
-            AniFluxLog.e(
-                AniFluxLogCategory.LOADER,
-                "Interrupted while loading SVGA from asset path",
-                e
-            )
-            null
-        }
+    override fun loadFromAssetPath(context: Context, assetPath: String): SVGAVideoEntity? {
+        return awaitLoad("asset path: $assetPath") { loadFromAssetPathAsync(context, assetPath) }
     }
 
     override fun getAnimationType(): AnimationTypeDetector.AnimationType {
@@ -166,194 +164,42 @@ class SVGAAnimationLoader : AnimationLoader<SVGADrawable> {
     }
 
     /**
-     * Load SVGAVideoEntity from file path
+     * Bridge parser callback to load handle
      */
-    private fun loadSvgaVideoEntityFromPath(path: String): SVGAVideoEntity? {
-        val context = this.context ?: return null
-        val parser = SVGAParser(context)
-        val latch = CountDownLatch(1)
-        var result: SVGAVideoEntity? = null
-
-        parser.decodeFromAssets(path, object : SVGAParser.ParseCompletion {
+    private fun completionOf(
+        handle: AnimationLoadHandle<SVGAVideoEntity>,
+        source: String
+    ): SVGAParser.ParseCompletion {
+        return object : SVGAParser.ParseCompletion {
             override fun onComplete(videoItem: SVGAVideoEntity) {
-                result = videoItem
-                latch.countDown()
+                if (handle.isCancelled()) {
+                    videoItem.clear()
+                    return
+                }
+                handle.complete(videoItem)
             }
 
             override fun onError() {
-                latch.countDown()
-            }
-        })
-
-        return try {
-            latch.await(10, TimeUnit.SECONDS)
-            result
-        } catch (e: InterruptedException) {
-            AniFluxLog.e(AniFluxLogCategory.LOADER, "Interrupted while loading SVGA from path", e)
-            null
-        }
-    }
-
-    /**
-     * Load SVGAVideoEntity from file
-     */
-    private fun loadSvgaVideoEntityFromFile(file: File): SVGAVideoEntity? {
-        val context = this.context ?: return null
-        val parser = SVGAParser(context)
-        val latch = CountDownLatch(1)
-        var result: SVGAVideoEntity? = null
-
-        val bytes = file.readBytes()
-        val cacheKey = "svga-from-file-${file.hashCode()}"
-        parser.decodeFromInputStream(
-            ByteArrayInputStream(bytes),
-            cacheKey,
-            object : SVGAParser.ParseCompletion {
-                override fun onComplete(videoItem: SVGAVideoEntity) {
-                    result = videoItem
-                    latch.countDown()
-                }
-
-                override fun onError() {
-                    latch.countDown()
-                }
+                handle.fail(IllegalStateException("Failed to parse SVGA from $source"))
             }
-        )
-        return try {
-            latch.await(10, TimeUnit.SECONDS)
-            result
-        } catch (e: InterruptedException) {
-            AniFluxLog.e(AniFluxLogCategory.LOADER, "Interrupted while loading SVGA from file", e)
-            null
         }
     }
 
     /**
-     * Load SVGAVideoEntity from resource ID
+     * Block until load completes (synchronous API)
      */
-    private fun loadSvgaVideoEntityFromResource(
-        context: Context,
-        resourceId: Int
+    private inline fun awaitLoad(
+        source: String,
+        start: () -> AnimationLoadHandle<SVGAVideoEntity>
     ): SVGAVideoEntity? {
-        val parser = SVGAParser(context)
-        val latch = CountDownLatch(1)
-        var result: SVGAVideoEntity? = null
-
-        // Read resource content to byte array first to avoid stream closing issues
-        val bytes = context.resources.openRawResource(resourceId).readBytes()
-        val cacheKey = "svga-from-file-${resourceId.hashCode()}"
-        parser.decodeFromInputStream(
-            ByteArrayInputStream(bytes),
-            cacheKey,
-            object : SVGAParser.ParseCompletion {
-                override fun onComplete(videoItem: SVGAVideoEntity) {
-                    result = videoItem
-                    latch.countDown()
-                }
-
-                override fun onError() {
-                    latch.countDown()
-                }
-            }
-        )
-
         return try {
-            latch.await(10, TimeUnit.SECONDS)
-            result
+            start().await(LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS)
         } catch (e: InterruptedException) {
-            AniFluxLog.e(
-                AniFluxLogCategory.LOADER,
-                "Interrupted while loading SVGA from resource",
-                e
-            )
+            AniFluxLog.e(AniFluxLogCategory.LOADER, "Interrupted while loading SVGA from $source", e)
             null
-        }
-    }
-
-    /**
-     * Load SVGAVideoEntity from byte array
-     */
-    private fun loadSvgaVideoEntityFromBytes(bytes: ByteArray): SVGAVideoEntity? {
-        val context = this.context ?: return null
-        val parser = SVGAParser(context)
-        val latch = CountDownLatch(1)
-        var result: SVGAVideoEntity? = null
-
-        val input = java.io.ByteArrayInputStream(bytes)
-        val cacheKey = "svga-from-file-${bytes.hashCode()}"
-        parser.decodeFromInputStream(
-            input,
-            cacheKey,
-            object : SVGAParser.ParseCompletion {
-                override fun onComplete(videoItem: SVGAVideoEntity) {
-                    result = videoItem
-                    latch.countDown()
-                }
-
-                override fun onError() {
-                    latch.countDown()
-                }
-            }
-        )
-
-        return try {
-            latch.await(10, TimeUnit.SECONDS)
-            result
-        } catch (e: InterruptedException) {
-            AniFluxLog.e(
-                AniFluxLogCategory.LOADER,
-                "Interrupted while loading SVGA from bytes",
-                e
-            )
-            null
-        }
-    }
-
-    /**
-     * Load SVGAVideoEntity from input stream
-     */
-    private fun loadSvgaVideoEntityFromInputStream(inputStream: InputStream): SVGAVideoEntity? {
-        val context = this.context ?: return null
-        val parser = SVGAParser(context)
-        val latch = CountDownLatch(1)
-        var result: SVGAVideoEntity? = null
-
-        // Read input stream content to byte array first to avoid stream closing issues
-        val bytes = inputStream.readBytes()
-        val cacheKey = "svga-from-file-${bytes.hashCode()}"
-        parser.decodeFromInputStream(
-            ByteArrayInputStream(bytes),
-            cacheKey,
-            object : SVGAParser.ParseCompletion {
-                override fun onComplete(videoItem: SVGAVideoEntity) {
-                    result = videoItem
-                    latch.countDown()
-                }
-
-                override fun onError() {
-                    latch.countDown()
-                }
-            }
-        )
-
-        return try {
-            latch.await(10, TimeUnit.SECONDS)
-            result
-        } catch (e: InterruptedException) {
-            AniFluxLog.e(
-                AniFluxLogCategory.LOADER,
-                "Interrupted while loading SVGA from input stream",
-                e
-            )
+        } catch (e: Exception) {
+            AniFluxLog.e(AniFluxLogCategory.LOADER, "Failed to load SVGA from $source", e)
             null
         }
     }
-
-    /**
-     * Create SVGADrawable
-     */
-    private fun createSvgaDrawable(videoEntity: SVGAVideoEntity): SVGADrawable {
-        return SVGADrawable(videoEntity)
-    }
 }
-
@@ -0,0 +1,25 @@
+package com.kernelflux.aniflux.svga
+
+import com.kernelflux.aniflux.annotation.AutoRegisterDrawableFactory
+import com.kernelflux.aniflux.load.AnimationDrawableFactory
+import com.kernelflux.svga.SVGADrawable
+import com.kernelflux.svga.SVGAVideoEntity
+
+/**
+ * SVGA drawable factory
+ * One SVGADrawable (own frame index, playing and audio state) per target over the shared video entity,
+ * the entity's bitmaps and sound pool are freed once the engine drops it
+ */
+@AutoRegisterDrawableFactory(animationType = "SVGA")
+class SVGADrawableFactory : AnimationDrawableFactory<SVGAVideoEntity, SVGADrawable> {
+
+    override fun getModelClass(): Class<SVGAVideoEntity> = SVGAVideoEntity::class.java
+
+    override fun createDrawable(model: SVGAVideoEntity): SVGADrawable {
+        return SVGADrawable(model)
+    }
+
+    override fun recycleModel(model: SVGAVideoEntity) {
+        model.clear()
+    }
+}
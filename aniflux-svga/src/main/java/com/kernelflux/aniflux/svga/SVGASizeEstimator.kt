@@ -0,0 +1,19 @@
+package com.kernelflux.aniflux.svga
+
+import com.kernelflux.aniflux.annotation.AutoRegisterSizeEstimator
+import com.kernelflux.aniflux.cache.ResourceSizeEstimator
+import com.kernelflux.svga.SVGAVideoEntity
+
+/**
+ * SVGA resource size estimator
+ * Decoded sprite bitmaps dominate SVGA heap usage, so the estimate is the sum of their byte counts
+ */
+@AutoRegisterSizeEstimator(animationType = "SVGA")
+class SVGASizeEstimator : ResourceSizeEstimator<SVGAVideoEntity> {
+
+    override fun getResourceClass(): Class<SVGAVideoEntity> = SVGAVideoEntity::class.java
+
+    override fun estimateSize(resource: SVGAVideoEntity): Long {
+        return resource.getImageByteCount()
+    }
+}
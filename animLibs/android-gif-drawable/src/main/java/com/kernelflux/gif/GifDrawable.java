@@ -229,7 +229,7 @@ public class GifDrawable extends Drawable implements Animatable, MediaPlayerCont
 
 	GifDrawable(GifInfoHandle gifInfoHandle, final GifDrawable oldDrawable, ScheduledThreadPoolExecutor executor, boolean isRenderingTriggeredOnDraw) {
 		mIsRenderingTriggeredOnDraw = isRenderingTriggeredOnDraw;
-		mExecutor = executor != null ? executor : GifRenderingExecutor.getInstance();
+		mExecutor = executor != null ? executor : GifRenderingScheduler.getInstance();
 		mNativeInfoHandle = gifInfoHandle;
 		Bitmap oldBitmap = null;
 		if (oldDrawable != null) {
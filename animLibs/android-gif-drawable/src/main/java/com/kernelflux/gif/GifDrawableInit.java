@@ -88,6 +88,18 @@ public abstract class GifDrawableInit<T extends GifDrawableInit<T>> {
         return self();
     }
 
+    /**
+     * Sets scheduler for rendering tasks, e.g. one with more render threads than the default shared scheduler.
+     * Same as {@link #taskExecutor(java.util.concurrent.ScheduledThreadPoolExecutor)}.
+     *
+     * @param scheduler scheduler to be used or null for default
+     * @return this builder instance, to chain calls
+     */
+    public T renderingScheduler(@Nullable GifRenderingScheduler scheduler) {
+        mExecutor = scheduler;
+        return self();
+    }
+
     /**
      * Sets or resets executor for rendering tasks.
      * Warning: value set by {@link #threadPoolSize(int)} will not be taken into account after setting executor
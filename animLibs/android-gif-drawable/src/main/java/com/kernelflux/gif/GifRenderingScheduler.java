@@ -0,0 +1,387 @@
+package com.kernelflux.gif;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor for rendering tasks, used by every {@link GifDrawable} unless another one is set with
+ * {@link GifDrawableBuilder#renderingScheduler(GifRenderingScheduler)} or {@link GifDrawableBuilder#taskExecutor(ScheduledThreadPoolExecutor)}.
+ * <p>
+ * Drawables are sharded across a small pool of render threads. All tasks of one drawable run on the same thread,
+ * in order, while different drawables render in parallel.
+ * Delayed tasks wait in a timing wheel driven by a single timer thread. Frames which become due within the same
+ * tick are handed over together, instead of waking a thread per frame.
+ * A frame rendered more than the drop threshold after it was due is counted as dropped and reported to the
+ * {@link FrameDropListener}.
+ * <p>
+ * It extends {@link ScheduledThreadPoolExecutor} only because {@link GifDrawable} and
+ * {@link GifDrawableBuilder#taskExecutor(ScheduledThreadPoolExecutor)} take that type. Execute, submit and schedule
+ * calls never reach the inherited pool. Its single worker thread is started only by
+ * {@link #scheduleAtFixedRate(Runnable, long, long, TimeUnit)} and
+ * {@link #scheduleWithFixedDelay(Runnable, long, long, TimeUnit)}, which drawables do not use, and exits when idle.
+ */
+public class GifRenderingScheduler extends ScheduledThreadPoolExecutor {
+
+	/**
+	 * Tick of the timing wheel, GIF frame delays are in hundredths of a second.
+	 */
+	public static final long DEFAULT_TICK_MILLIS = 10;
+	public static final long DEFAULT_DROP_THRESHOLD_MILLIS = 40;
+	private static final int WHEEL_SIZE = 256;
+	private static final long KEEP_ALIVE_SECONDS = 10;
+
+	/**
+	 * Receives frames which were rendered too late, called on the render thread.
+	 */
+	public interface FrameDropListener {
+		/**
+		 * @param drawable   drawable which rendered the frame
+		 * @param lateMillis how long after its due time the frame was rendered, or -1 if the frame was discarded
+		 *                   because the scheduler is shut down
+		 */
+		void onFrameDropped(@NonNull GifDrawable drawable, long lateMillis);
+	}
+
+	// Lazy initialization via inner-class holder
+	private static final class InstanceHolder {
+		private static final GifRenderingScheduler INSTANCE = new GifRenderingScheduler(defaultThreadCount());
+	}
+
+	/**
+	 * @return scheduler used by drawables which were not given one explicitly
+	 */
+	@NonNull
+	public static GifRenderingScheduler getInstance() {
+		return InstanceHolder.INSTANCE;
+	}
+
+	private static int defaultThreadCount() {
+		return Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+	}
+
+	private final ThreadPoolExecutor[] mShards;
+	private final long mTickMillis;
+	private final long mDropThresholdMillis;
+	private final AtomicLong mDroppedFrameCount = new AtomicLong();
+	private volatile FrameDropListener mFrameDropListener;
+
+	/**
+	 * Latest pending task of each runnable, immediate or delayed, for {@link #remove(Runnable)}.
+	 */
+	private final ConcurrentHashMap<Runnable, WheelTask> mPendingTasks = new ConcurrentHashMap<>();
+
+	private final Object mWheelLock = new Object();
+	private final WheelTask[] mSlotHeads = new WheelTask[WHEEL_SIZE];
+	private final WheelTask[] mSlotTails = new WheelTask[WHEEL_SIZE];
+	private final long mStartTime = SystemClock.uptimeMillis();
+	private long mCurrentTick;
+	private int mWheelTaskCount;
+	private Thread mTimerThread;
+	private boolean mIsShutdown;
+
+	/**
+	 * @param threadCount number of render threads, drawables are distributed among them
+	 */
+	public GifRenderingScheduler(int threadCount) {
+		this(threadCount, DEFAULT_TICK_MILLIS, DEFAULT_DROP_THRESHOLD_MILLIS);
+	}
+
+	/**
+	 * @param threadCount         number of render threads, drawables are distributed among them
+	 * @param tickMillis          resolution of the timing wheel, frames are rendered at most this late because of it
+	 * @param dropThresholdMillis frames rendered later than this are reported as dropped
+	 */
+	public GifRenderingScheduler(int threadCount, long tickMillis, long dropThresholdMillis) {
+		super(1, new DiscardPolicy());
+		setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+		allowCoreThreadTimeOut(true);
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("Thread count must be positive");
+		}
+		if (tickMillis < 1) {
+			throw new IllegalArgumentException("Tick must be positive");
+		}
+		mTickMillis = tickMillis;
+		mDropThresholdMillis = dropThresholdMillis;
+		mShards = new ThreadPoolExecutor[threadCount];
+		final RenderThreadFactory threadFactory = new RenderThreadFactory();
+		for (int i = 0; i < threadCount; i++) {
+			mShards[i] = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), threadFactory, new DiscardPolicy());
+			mShards[i].allowCoreThreadTimeOut(true);
+		}
+	}
+
+	/**
+	 * Sets listener notified about dropped frames.
+	 *
+	 * @param listener listener or null to remove it
+	 */
+	public void setFrameDropListener(@Nullable FrameDropListener listener) {
+		mFrameDropListener = listener;
+	}
+
+	/**
+	 * @return number of frames dropped since this scheduler was created
+	 */
+	public long getDroppedFrameCount() {
+		return mDroppedFrameCount.get();
+	}
+
+	/**
+	 * @return number of render threads
+	 */
+	public int getThreadCount() {
+		return mShards.length;
+	}
+
+	@Override
+	public void execute(@NonNull Runnable command) {
+		schedule(command, 0, TimeUnit.MILLISECONDS);
+	}
+
+	@NonNull
+	@Override
+	public ScheduledFuture<?> schedule(@NonNull Runnable command, long delay, @NonNull TimeUnit unit) {
+		final long now = SystemClock.uptimeMillis();
+		final WheelTask task = new WheelTask(command, now + Math.max(0, unit.toMillis(delay)));
+		// A runnable scheduled twice runs twice, only the latest one can be removed
+		mPendingTasks.put(command, task);
+		if (delay <= 0) {
+			dispatch(task);
+			return task;
+		}
+		synchronized (mWheelLock) {
+			if (mIsShutdown) {
+				reject(task);
+				return task;
+			}
+			if (mWheelTaskCount == 0) {
+				// Wheel was idle, don't replay the ticks that passed meanwhile
+				mCurrentTick = Math.max(mCurrentTick, (now - mStartTime) / mTickMillis);
+			}
+			final long deadlineTick = (task.mDeadline - mStartTime + mTickMillis - 1) / mTickMillis;
+			if (deadlineTick < mCurrentTick) {
+				dispatch(task);
+				return task;
+			}
+			task.mRounds = (deadlineTick - mCurrentTick) / WHEEL_SIZE;
+			final int slot = (int) (deadlineTick % WHEEL_SIZE);
+			if (mSlotTails[slot] == null) {
+				mSlotHeads[slot] = task;
+			} else {
+				mSlotTails[slot].mNext = task;
+			}
+			mSlotTails[slot] = task;
+			mWheelTaskCount++;
+			if (mTimerThread == null) {
+				mTimerThread = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						runTimer();
+					}
+				}, "GifRenderTimer");
+				mTimerThread.setDaemon(true);
+				mTimerThread.start();
+			} else {
+				mWheelLock.notifyAll();
+			}
+		}
+		return task;
+	}
+
+	@Override
+	public boolean remove(Runnable task) {
+		final WheelTask pending = mPendingTasks.remove(task);
+		if (pending != null) {
+			// Already dispatched tasks wait in their shard, cancelled ones left in the wheel are dropped on expiry
+			shardOf(pending).remove(pending);
+			return pending.cancel(false);
+		}
+		return super.remove(task);
+	}
+
+	@Override
+	public void shutdown() {
+		stopTimer();
+		for (ThreadPoolExecutor shard : mShards) {
+			shard.shutdown();
+		}
+		super.shutdown();
+	}
+
+	@NonNull
+	@Override
+	public List<Runnable> shutdownNow() {
+		stopTimer();
+		final List<Runnable> tasks = new ArrayList<>();
+		for (ThreadPoolExecutor shard : mShards) {
+			tasks.addAll(shard.shutdownNow());
+		}
+		tasks.addAll(super.shutdownNow());
+		return tasks;
+	}
+
+	private void stopTimer() {
+		synchronized (mWheelLock) {
+			mIsShutdown = true;
+			mWheelLock.notifyAll();
+		}
+	}
+
+	private void runTimer() {
+		synchronized (mWheelLock) {
+			while (!mIsShutdown) {
+				if (mWheelTaskCount == 0) {
+					waitForTasks(0);
+					continue;
+				}
+				final long now = SystemClock.uptimeMillis();
+				final long nowTick = (now - mStartTime) / mTickMillis;
+				while (mCurrentTick <= nowTick && mWheelTaskCount > 0) {
+					expireSlot((int) (mCurrentTick % WHEEL_SIZE));
+					mCurrentTick++;
+				}
+				if (mWheelTaskCount > 0) {
+					waitForTasks(Math.max(1, mStartTime + mCurrentTick * mTickMillis - SystemClock.uptimeMillis()));
+				}
+			}
+		}
+	}
+
+	private void waitForTasks(long timeoutMillis) {
+		try {
+			mWheelLock.wait(timeoutMillis);
+		} catch (InterruptedException ignored) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Dispatches due tasks of the slot, tasks for later rounds stay.
+	 */
+	private void expireSlot(int slot) {
+		WheelTask task = mSlotHeads[slot];
+		WheelTask kept = null;
+		mSlotHeads[slot] = null;
+		mSlotTails[slot] = null;
+		while (task != null) {
+			final WheelTask next = task.mNext;
+			task.mNext = null;
+			if (task.isCancelled()) {
+				mWheelTaskCount--;
+			} else if (task.mRounds > 0) {
+				task.mRounds--;
+				if (kept == null) {
+					mSlotHeads[slot] = task;
+				} else {
+					kept.mNext = task;
+				}
+				kept = task;
+			} else {
+				mWheelTaskCount--;
+				dispatch(task);
+			}
+			task = next;
+		}
+		mSlotTails[slot] = kept;
+	}
+
+	private ThreadPoolExecutor shardOf(WheelTask task) {
+		final Object key = task.mDrawable != null ? task.mDrawable : task.mCommand;
+		return mShards[(System.identityHashCode(key) & Integer.MAX_VALUE) % mShards.length];
+	}
+
+	private void dispatch(WheelTask task) {
+		final ThreadPoolExecutor shard = shardOf(task);
+		if (shard.isShutdown()) {
+			reject(task);
+		} else {
+			shard.execute(task);
+		}
+	}
+
+	private void reject(WheelTask task) {
+		mPendingTasks.remove(task.mCommand, task);
+		task.cancel(false);
+		if (task.mIsFrame) {
+			onFrameDropped(task.mDrawable, -1);
+		}
+	}
+
+	private void onFrameDropped(GifDrawable drawable, long lateMillis) {
+		mDroppedFrameCount.incrementAndGet();
+		final FrameDropListener listener = mFrameDropListener;
+		if (listener != null) {
+			listener.onFrameDropped(drawable, lateMillis);
+		}
+	}
+
+	private final class WheelTask extends FutureTask<Void> implements ScheduledFuture<Void> {
+		final Runnable mCommand;
+		@Nullable
+		final GifDrawable mDrawable;
+		final boolean mIsFrame;
+		final long mDeadline;
+		long mRounds;
+		WheelTask mNext;
+
+		WheelTask(Runnable command, long deadline) {
+			super(command, null);
+			mCommand = command;
+			mDrawable = command instanceof SafeRunnable ? ((SafeRunnable) command).mGifDrawable : null;
+			mIsFrame = command instanceof RenderTask;
+			mDeadline = deadline;
+		}
+
+		@Override
+		public void run() {
+			mPendingTasks.remove(mCommand, this);
+			if (mIsFrame && !isCancelled()) {
+				final long lateMillis = SystemClock.uptimeMillis() - mDeadline;
+				if (lateMillis > mDropThresholdMillis) {
+					onFrameDropped(mDrawable, lateMillis);
+				}
+			}
+			super.run();
+		}
+
+		@Override
+		public long getDelay(@NonNull TimeUnit unit) {
+			return unit.convert(mDeadline - SystemClock.uptimeMillis(), TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public int compareTo(@NonNull Delayed other) {
+			final long diff = getDelay(TimeUnit.MILLISECONDS) - other.getDelay(TimeUnit.MILLISECONDS);
+			return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+		}
+	}
+
+	private static final class RenderThreadFactory implements ThreadFactory {
+		private final AtomicInteger mCount = new AtomicInteger();
+
+		@Override
+		public Thread newThread(@NonNull Runnable runnable) {
+			final Thread thread = new Thread(runnable, "GifRender-" + mCount.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
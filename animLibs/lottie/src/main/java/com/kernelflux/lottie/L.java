@@ -6,6 +6,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 
+import com.kernelflux.lottie.model.LottieSnapshotCache;
 import com.kernelflux.lottie.reducemotion.ReducedMotionOption;
 import com.kernelflux.lottie.reducemotion.SystemReducedMotionOption;
 import com.kernelflux.lottie.network.DefaultLottieNetworkFetcher;
@@ -26,6 +27,8 @@ public class L {
   private static boolean traceEnabled = false;
   private static boolean networkCacheEnabled = true;
   private static boolean disablePathInterpolatorCache = false;
+  private static boolean lazyPrecompsEnabled = false;
+  private static boolean parallelParsingEnabled = false;
   private static AsyncUpdates defaultAsyncUpdates = AsyncUpdates.AUTOMATIC;
 
   private static LottieNetworkFetcher fetcher;
@@ -33,6 +36,7 @@ public class L {
 
   private static volatile NetworkFetcher networkFetcher;
   private static volatile NetworkCache networkCache;
+  @Nullable private static volatile LottieSnapshotCache snapshotCache;
   private static ThreadLocal<LottieTrace> lottieTrace;
   private static ReducedMotionOption reducedMotionOption = new SystemReducedMotionOption();
 
@@ -131,6 +135,22 @@ public class L {
     return local;
   }
 
+  public static void setSnapshotCacheDir(@Nullable File dir) {
+    LottieSnapshotCache local = snapshotCache;
+    if (local == null ? dir == null : dir != null && dir.equals(local.getDir())) {
+      return;
+    }
+    snapshotCache = dir == null ? null : new LottieSnapshotCache(dir);
+  }
+
+  /**
+   * Null unless snapshots were enabled with {@link LottieConfig.Builder#setSnapshotCacheDir(File)}.
+   */
+  @Nullable
+  public static LottieSnapshotCache snapshotCache() {
+    return snapshotCache;
+  }
+
   public static void setDisablePathInterpolatorCache(boolean disablePathInterpolatorCache) {
     L.disablePathInterpolatorCache = disablePathInterpolatorCache;
   }
@@ -139,6 +159,22 @@ public class L {
     return disablePathInterpolatorCache;
   }
 
+  public static void setLazyPrecompsEnabled(boolean enabled) {
+    lazyPrecompsEnabled = enabled;
+  }
+
+  public static boolean isLazyPrecompsEnabled() {
+    return lazyPrecompsEnabled;
+  }
+
+  public static void setParallelParsingEnabled(boolean enabled) {
+    parallelParsingEnabled = enabled;
+  }
+
+  public static boolean isParallelParsingEnabled() {
+    return parallelParsingEnabled;
+  }
+
   public static void setDefaultAsyncUpdates(AsyncUpdates asyncUpdates) {
     L.defaultAsyncUpdates = asyncUpdates;
   }
@@ -23,5 +23,17 @@ public class Lottie {
     L.setDisablePathInterpolatorCache(lottieConfig.disablePathInterpolatorCache);
     L.setDefaultAsyncUpdates(lottieConfig.defaultAsyncUpdates);
     L.setReducedMotionOption(lottieConfig.reducedMotionOption);
+    L.setSnapshotCacheDir(lottieConfig.snapshotCacheDir);
+    L.setLazyPrecompsEnabled(lottieConfig.enableLazyPrecomps);
+    L.setParallelParsingEnabled(lottieConfig.enableParallelParsing);
+  }
+
+  /**
+   * True if json compositions loaded with a cache key are snapshotted to disk.
+   *
+   * @see LottieConfig.Builder#setSnapshotCacheDir(java.io.File)
+   */
+  public static boolean isSnapshotCacheEnabled() {
+    return L.snapshotCache() != null;
   }
 }
@@ -247,7 +247,7 @@ import java.util.zip.ZipInputStream;
 
     if (ta.hasValue(R.styleable.LottieAnimationView_lottie_asyncUpdates)) {
       int asyncUpdatesOrdinal = ta.getInt(R.styleable.LottieAnimationView_lottie_asyncUpdates, AsyncUpdates.AUTOMATIC.ordinal());
-      if (asyncUpdatesOrdinal >= RenderMode.values().length) {
+      if (asyncUpdatesOrdinal >= AsyncUpdates.values().length) {
         asyncUpdatesOrdinal = AsyncUpdates.AUTOMATIC.ordinal();
       }
       setAsyncUpdates(AsyncUpdates.values()[asyncUpdatesOrdinal]);
@@ -1212,6 +1212,17 @@ import java.util.zip.ZipInputStream;
     return lottieDrawable.getRenderMode();
   }
 
+  /**
+   * @see LottieDrawable#setCachedFrameConfig(Bitmap.Config)
+   */
+  public void setCachedFrameConfig(Bitmap.Config config) {
+    lottieDrawable.setCachedFrameConfig(config);
+  }
+
+  public Bitmap.Config getCachedFrameConfig() {
+    return lottieDrawable.getCachedFrameConfig();
+  }
+
   /**
    * Returns the current value of {@link AsyncUpdates}. Refer to the docs for {@link AsyncUpdates} for more info.
    */
@@ -2,6 +2,7 @@ package com.kernelflux.lottie;
 
 import android.content.Context;
 import android.content.res.Resources;
+import android.graphics.Bitmap;
 import android.graphics.Rect;
 
 import androidx.annotation.NonNull;
@@ -12,10 +13,12 @@ import androidx.annotation.WorkerThread;
 import androidx.collection.LongSparseArray;
 import androidx.collection.SparseArrayCompat;
 
+import com.kernelflux.lottie.manager.LottieBitmapPool;
 import com.kernelflux.lottie.model.Font;
 import com.kernelflux.lottie.model.FontCharacter;
 import com.kernelflux.lottie.model.Marker;
 import com.kernelflux.lottie.model.layer.Layer;
+import com.kernelflux.lottie.parser.DeferredPrecomps;
 import com.kernelflux.lottie.parser.moshi.JsonReader;
 import com.kernelflux.lottie.utils.Logger;
 import com.kernelflux.lottie.utils.MiscUtils;
@@ -30,6 +33,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * After Effects/Bodymovin composition model. This is the serialized model from which the
@@ -45,6 +49,7 @@ public class LottieComposition {
   private final PerformanceTracker performanceTracker = new PerformanceTracker();
   private final HashSet<String> warnings = new HashSet<>();
   private Map<String, List<Layer>> precomps;
+  @Nullable private DeferredPrecomps deferredPrecomps;
   private Map<String, LottieImageAsset> images;
   private float imagesDpScale;
   /**
@@ -63,17 +68,32 @@ public class LottieComposition {
   /**
    * Used to determine if an animation can be drawn with hardware acceleration.
    */
-  private boolean hasDashPattern;
+  private volatile boolean hasDashPattern;
   /**
    * Counts the number of mattes and masks. Before Android switched to SKIA
    * for drawing in Oreo (API 28), using hardware acceleration with mattes and masks
    * was only faster until you had ~4 masks after which it would actually become slower.
    */
-  private int maskAndMatteCount = 0;
+  private final AtomicInteger maskAndMatteCount = new AtomicInteger();
+  /**
+   * Parsed keyframes and path vertices, used to estimate the retained size of the composition.
+   * <p>
+   * These counters are atomic because parts of a composition may be parsed in parallel or on first use.
+   */
+  private final AtomicInteger keyframeCount = new AtomicInteger();
+  private final AtomicInteger pathVertexCount = new AtomicInteger();
 
   private int unscaledWidth;
   private int unscaledHeight;
 
+  /**
+   * Drawables this composition is set on and whether the composition cache dropped it, guarded by
+   * {@link #drawablesLock}. Decoded images go back to the bitmap pool once both say it won't be drawn again.
+   */
+  private final Object drawablesLock = new Object();
+  private int drawableCount;
+  private boolean evictedFromCache;
+
   @RestrictTo(RestrictTo.Scope.LIBRARY)
   public void init(Rect bounds, float startFrame, float endFrame, float frameRate,
       List<Layer> layers, LongSparseArray<Layer> layerMap, Map<String,
@@ -96,10 +116,26 @@ public class LottieComposition {
     this.unscaledHeight = unscaledHeight;
   }
 
+  /**
+   * Precomps to parse on first use, in addition to the parsed ones passed to {@link #init}.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public void setDeferredPrecomps(@Nullable DeferredPrecomps deferredPrecomps) {
+    this.deferredPrecomps = deferredPrecomps;
+  }
+
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @Nullable
+  public DeferredPrecomps getDeferredPrecomps() {
+    return deferredPrecomps;
+  }
+
   @RestrictTo(RestrictTo.Scope.LIBRARY)
   public void addWarning(String warning) {
     Logger.warning(warning);
-    warnings.add(warning);
+    synchronized (warnings) {
+      warnings.add(warning);
+    }
   }
 
   @RestrictTo(RestrictTo.Scope.LIBRARY)
@@ -109,7 +145,17 @@ public class LottieComposition {
 
   @RestrictTo(RestrictTo.Scope.LIBRARY)
   public void incrementMatteOrMaskCount(int amount) {
-    maskAndMatteCount += amount;
+    maskAndMatteCount.addAndGet(amount);
+  }
+
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public void incrementKeyframeCount(int amount) {
+    keyframeCount.addAndGet(amount);
+  }
+
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public void incrementPathVertexCount(int amount) {
+    pathVertexCount.addAndGet(amount);
   }
 
   /**
@@ -125,11 +171,44 @@ public class LottieComposition {
    */
   @RestrictTo(RestrictTo.Scope.LIBRARY)
   public int getMaskAndMatteCount() {
-    return maskAndMatteCount;
+    return maskAndMatteCount.get();
+  }
+
+  /**
+   * Number of keyframes parsed for this composition.
+   */
+  public int getKeyframeCount() {
+    return keyframeCount.get();
+  }
+
+  /**
+   * Number of path vertices parsed for this composition, across all path keyframes.
+   */
+  public int getPathVertexCount() {
+    return pathVertexCount.get();
+  }
+
+  /**
+   * Number of layers, including the layers of precomps parsed so far.
+   */
+  public int getLayerCount() {
+    int count = layerMap == null ? 0 : layerMap.size();
+    if (precomps != null) {
+      for (List<Layer> precompLayers : precomps.values()) {
+        count += precompLayers.size();
+      }
+    }
+    DeferredPrecomps deferredPrecomps = this.deferredPrecomps;
+    if (deferredPrecomps != null) {
+      count += deferredPrecomps.getLayerCount();
+    }
+    return count;
   }
 
   public ArrayList<String> getWarnings() {
-    return new ArrayList<>(Arrays.asList(warnings.toArray(new String[warnings.size()])));
+    synchronized (warnings) {
+      return new ArrayList<>(Arrays.asList(warnings.toArray(new String[warnings.size()])));
+    }
   }
 
   @SuppressWarnings("WeakerAccess") public void setPerformanceTrackingEnabled(boolean enabled) {
@@ -182,7 +261,12 @@ public class LottieComposition {
   @RestrictTo(RestrictTo.Scope.LIBRARY)
   @Nullable
   public List<Layer> getPrecomps(String id) {
-    return precomps.get(id);
+    List<Layer> layers = precomps.get(id);
+    DeferredPrecomps deferredPrecomps = this.deferredPrecomps;
+    if (layers == null && deferredPrecomps != null) {
+      layers = deferredPrecomps.get(id, this);
+    }
+    return layers;
   }
 
   public SparseArrayCompat<FontCharacter> getCharacters() {
@@ -233,6 +317,56 @@ public class LottieComposition {
     return images;
   }
 
+  /**
+   * Image assets as parsed, without applying {@link #getImages()}'s dp scaling (which copies the assets).
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public Map<String, LottieImageAsset> getUnscaledImages() {
+    return images;
+  }
+
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public void onAttachedToDrawable() {
+    synchronized (drawablesLock) {
+      drawableCount++;
+    }
+  }
+
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public void onDetachedFromDrawable() {
+    synchronized (drawablesLock) {
+      drawableCount--;
+      if (drawableCount <= 0 && evictedFromCache) {
+        releaseDecodedImages();
+      }
+    }
+  }
+
+  /**
+   * The composition cache dropped this composition, it can't be handed to a new drawable from there anymore.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public void onEvictedFromCache() {
+    synchronized (drawablesLock) {
+      evictedFromCache = true;
+      if (drawableCount <= 0) {
+        releaseDecodedImages();
+      }
+    }
+  }
+
+  private void releaseDecodedImages() {
+    if (images == null) {
+      return;
+    }
+    for (LottieImageAsset asset : images.values()) {
+      Bitmap bitmap = asset.releaseDecodedBitmap();
+      if (bitmap != null) {
+        LottieBitmapPool.getInstance().put(bitmap);
+      }
+    }
+  }
+
   public float getDurationFrames() {
     return endFrame - startFrame;
   }
@@ -16,11 +16,17 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RawRes;
 import androidx.annotation.WorkerThread;
 
+import com.kernelflux.lottie.manager.LottieBitmapPool;
 import com.kernelflux.lottie.model.Font;
 import com.kernelflux.lottie.model.LottieCompositionCache;
+import com.kernelflux.lottie.model.LottieCompositionCacheStats;
+import com.kernelflux.lottie.model.LottieCompositionWeigher;
+import com.kernelflux.lottie.model.LottieSnapshotCache;
 import com.kernelflux.lottie.network.NetworkCache;
 import com.kernelflux.lottie.parser.LottieCompositionMoshiParser;
 import com.kernelflux.lottie.parser.moshi.JsonReader;
+import com.kernelflux.lottie.parser.moshi.JsonSnapshotReader;
+import com.kernelflux.lottie.parser.moshi.JsonSnapshotWriter;
 import com.kernelflux.lottie.utils.Logger;
 import com.kernelflux.lottie.utils.Utils;
 
@@ -33,6 +39,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -86,6 +93,22 @@ public class LottieCompositionFactory {
     LottieCompositionCache.getInstance().resize(size);
   }
 
+  /**
+   * Set the maximum estimated size, in bytes, of compositions to keep cached in memory.
+   * Compositions are weighed by {@link LottieCompositionWeigher}. Defaults to 1/16 of the max heap.
+   * This must be {@literal >} 0.
+   */
+  public static void setMaxCacheSizeBytes(long maxBytes) {
+    LottieCompositionCache.getInstance().resizeBytes(maxBytes);
+  }
+
+  /**
+   * Hit, miss and eviction counters of the in-memory composition cache.
+   */
+  public static LottieCompositionCacheStats getCacheStats() {
+    return LottieCompositionCache.getInstance().getStats();
+  }
+
   /**
    * Like {@link #clearCache(Context, boolean)} but defaults to clearing the network cache.
    *
@@ -96,12 +119,17 @@ public class LottieCompositionFactory {
   }
 
   /**
-   * Clears any pending animations, animations that are parsed and in-memory, and
+   * Clears any pending animations, animations that are parsed and in-memory, their snapshots if enabled, and
    * optionally, any animations loaded from the network that are cached to disk.
    */
   public static void clearCache(Context context, boolean includeNetwork) {
     taskCache.clear();
     LottieCompositionCache.getInstance().clear();
+    LottieBitmapPool.getInstance().clear();
+    LottieSnapshotCache snapshotCache = L.snapshotCache();
+    if (snapshotCache != null) {
+      snapshotCache.clear();
+    }
     if (includeNetwork) {
       final NetworkCache networkCache = L.networkCache(context);
       if (networkCache != null) {
@@ -239,6 +267,7 @@ public class LottieCompositionFactory {
     if (cachedComposition != null) {
       return new LottieResult<>(cachedComposition);
     }
+    checkSnapshotAppVersion(context, cacheKey);
     try {
       return fromInputStreamSync(context, context.getAssets().open(fileName), cacheKey);
     } catch (IOException e) {
@@ -348,6 +377,7 @@ public class LottieCompositionFactory {
     if (cachedComposition != null) {
       return new LottieResult<>(cachedComposition);
     }
+    checkSnapshotAppVersion(context, cacheKey);
     try {
       BufferedSource source = Okio.buffer(source(context.getResources().openRawResource(rawRes)));
       if (isZipCompressed(source)) {
@@ -366,6 +396,17 @@ public class LottieCompositionFactory {
     }
   }
 
+  /**
+   * Asset and raw resource keys name a file or a resource id, not their content, so their snapshots are dropped
+   * when the app is updated.
+   */
+  private static void checkSnapshotAppVersion(Context context, @Nullable String cacheKey) {
+    LottieSnapshotCache snapshotCache = cacheKey == null ? null : L.snapshotCache();
+    if (snapshotCache != null) {
+      snapshotCache.checkAppVersion(context);
+    }
+  }
+
   private static String rawResCacheKey(Context context, @RawRes int resId) {
     return "rawRes" + (isNightMode(context) ? "_night_" : "_day_") + resId;
   }
@@ -490,7 +531,9 @@ public class LottieCompositionFactory {
       if (cachedComposition != null) {
         return new LottieResult<>(cachedComposition);
       }
-      LottieComposition composition = LottieCompositionMoshiParser.parse(reader);
+      LottieSnapshotCache snapshotCache = cacheKey == null ? null : L.snapshotCache();
+      LottieComposition composition = snapshotCache == null ?
+          LottieCompositionMoshiParser.parse(reader) : parseWithSnapshot(snapshotCache, reader, cacheKey);
       if (cacheKey != null) {
         LottieCompositionCache.getInstance().put(cacheKey, composition);
       }
@@ -504,6 +547,27 @@ public class LottieCompositionFactory {
     }
   }
 
+  /**
+   * Parses from the snapshot of the cache key if there is one, without reading the json at all. Otherwise
+   * transcodes the json into a snapshot, stores it and parses from it.
+   */
+  private static LottieComposition parseWithSnapshot(LottieSnapshotCache snapshotCache, JsonReader reader,
+      String cacheKey) throws IOException {
+    ByteBuffer snapshot = snapshotCache.get(cacheKey);
+    if (snapshot != null) {
+      try {
+        return LottieCompositionMoshiParser.parse(JsonSnapshotReader.of(snapshot));
+      } catch (Exception e) {
+        Logger.warning("Unable to parse snapshot for " + cacheKey + ", parsing json instead.", e);
+        snapshotCache.remove(cacheKey);
+      }
+    }
+    byte[] bytes = JsonSnapshotWriter.write(reader);
+    LottieComposition composition = LottieCompositionMoshiParser.parse(JsonSnapshotReader.of(ByteBuffer.wrap(bytes)));
+    snapshotCache.put(cacheKey, bytes);
+    return composition;
+  }
+
   /**
    * In this overload, embedded fonts will NOT be parsed. If your zip file has custom fonts, use the overload
    * that takes Context as the first parameter.
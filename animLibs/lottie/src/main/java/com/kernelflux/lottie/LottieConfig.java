@@ -24,10 +24,14 @@ public class LottieConfig {
   final boolean disablePathInterpolatorCache;
   final AsyncUpdates defaultAsyncUpdates;
   final ReducedMotionOption reducedMotionOption;
+  @Nullable final File snapshotCacheDir;
+  final boolean enableLazyPrecomps;
+  final boolean enableParallelParsing;
 
   private LottieConfig(@Nullable LottieNetworkFetcher networkFetcher, @Nullable LottieNetworkCacheProvider cacheProvider,
       boolean enableSystraceMarkers, boolean enableNetworkCache, boolean disablePathInterpolatorCache,
-      AsyncUpdates defaultAsyncUpdates, ReducedMotionOption reducedMotionOption) {
+      AsyncUpdates defaultAsyncUpdates, ReducedMotionOption reducedMotionOption, @Nullable File snapshotCacheDir,
+      boolean enableLazyPrecomps, boolean enableParallelParsing) {
     this.networkFetcher = networkFetcher;
     this.cacheProvider = cacheProvider;
     this.enableSystraceMarkers = enableSystraceMarkers;
@@ -35,6 +39,9 @@ public class LottieConfig {
     this.disablePathInterpolatorCache = disablePathInterpolatorCache;
     this.defaultAsyncUpdates = defaultAsyncUpdates;
     this.reducedMotionOption = reducedMotionOption;
+    this.snapshotCacheDir = snapshotCacheDir;
+    this.enableLazyPrecomps = enableLazyPrecomps;
+    this.enableParallelParsing = enableParallelParsing;
   }
 
   public static final class Builder {
@@ -48,6 +55,10 @@ public class LottieConfig {
     private boolean disablePathInterpolatorCache = false;
     private AsyncUpdates defaultAsyncUpdates = AsyncUpdates.AUTOMATIC;
     private ReducedMotionOption reducedMotionOption = new SystemReducedMotionOption();
+    @Nullable
+    private File snapshotCacheDir;
+    private boolean enableLazyPrecomps = false;
+    private boolean enableParallelParsing = false;
 
     /**
      * Lottie has a default network fetching stack built on {@link java.net.HttpURLConnection}. However, if you would like to hook into your own
@@ -162,10 +173,56 @@ public class LottieConfig {
       return this;
     }
 
+    /**
+     * Enable binary snapshots of parsed animations, stored in this directory (e.g. cacheDir/lottie_snapshot_cache).
+     * <p>
+     * The first time an animation with a cache key is parsed, its json is also saved as a compact binary snapshot.
+     * Later loads of the same cache key, including after a process restart, memory-map the snapshot instead of
+     * tokenizing the json again. Snapshots are keyed by cache key only: if the animation behind a key can change
+     * (e.g. a url serving new content, or a custom key), clear the cache with {@link LottieCompositionFactory#clearCache}
+     * when it does. Asset and raw resource snapshots are cleared automatically after an app install or update, since
+     * their default keys only name the file or resource id.
+     * <p>
+     * Snapshots are disabled by default, pass null to disable them again.
+     */
+    @NonNull
+    public Builder setSnapshotCacheDir(@Nullable File dir) {
+      snapshotCacheDir = dir;
+      return this;
+    }
+
+    /**
+     * Enable this to skip parsing the precomps that no layer refers to. Their json is captured while loading and
+     * only parsed if {@link LottieComposition#getPrecomps(String)} asks for them.
+     * <p>
+     * Precomps that layers refer to, directly or through other precomps, are still parsed on the loading thread, so
+     * {@link LottieDrawable#setComposition(LottieComposition)} does no parsing. It is off by default and works best
+     * together with {@link #setSnapshotCacheDir(File)}, which makes capturing a precomp free.
+     */
+    @NonNull
+    public Builder setEnableLazyPrecomps(boolean enable) {
+      enableLazyPrecomps = enable;
+      return this;
+    }
+
+    /**
+     * Enable this to parse the precomps, fonts and font characters of an animation, and decode its embedded base64
+     * images, on a small shared fork-join pool while the rest of the json is read. The parsed composition is the
+     * same as with a serial parse.
+     * <p>
+     * This helps large animations with many precomps or glyphs on multi-core devices. It is off by default.
+     */
+    @NonNull
+    public Builder setEnableParallelParsing(boolean enable) {
+      enableParallelParsing = enable;
+      return this;
+    }
+
     @NonNull
     public LottieConfig build() {
       return new LottieConfig(networkFetcher, cacheProvider, enableSystraceMarkers, enableNetworkCache, disablePathInterpolatorCache,
-          defaultAsyncUpdates, reducedMotionOption);
+          defaultAsyncUpdates, reducedMotionOption, snapshotCacheDir, enableLazyPrecomps,
+          enableParallelParsing);
     }
   }
 }
@@ -38,6 +38,7 @@ import com.kernelflux.lottie.manager.FontAssetManager;
 import com.kernelflux.lottie.manager.ImageAssetManager;
 import com.kernelflux.lottie.model.Font;
 import com.kernelflux.lottie.model.KeyPath;
+import com.kernelflux.lottie.model.LottieFrameCache;
 import com.kernelflux.lottie.model.Marker;
 import com.kernelflux.lottie.model.layer.CompositionLayer;
 import com.kernelflux.lottie.parser.LayerParser;
@@ -181,6 +182,20 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
   private Matrix softwareRenderingOriginalCanvasMatrix;
   private float[] softwareRenderingOriginalCanvasMatrixElements = new float[9];
   private Matrix softwareRenderingOriginalCanvasMatrixInverse;
+  /**
+   * Frames shared with other drawables in {@link RenderMode#CACHED_FRAMES}, null when not in use.
+   */
+  @Nullable private LottieFrameCache.FrameStrip cachedFrames;
+  /**
+   * True once this drawable renders something the composition alone doesn't (value callbacks, delegates, font map,
+   * images folder or updated bitmaps). Its frames can't be shared then, {@link RenderMode#CACHED_FRAMES} renders normally.
+   * Stays true when they are cleared again: layers and image assets may still hold what they set.
+   */
+  private boolean hasOwnContent = false;
+  private Bitmap.Config cachedFrameConfig = Bitmap.Config.ARGB_8888;
+  private Canvas cachedFrameCanvas;
+  private Paint cachedFramePaint;
+  private Rect cachedFrameDstRect;
 
   /**
    * True if the drawable has not been drawn since the last invalidateSelf.
@@ -200,6 +215,9 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
       // draw straight away and then enqueue a background setProgress immediately after draw
       // finishes.
       invalidateSelf();
+    } else if (cachedFrames != null) {
+      // Frames are blitted from the cache, layers are only evaluated when a frame is missing.
+      invalidateSelf();
     } else if (compositionLayer != null) {
       compositionLayer.setProgress(animator.getAnimatedValueAbsolute());
     }
@@ -388,6 +406,9 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
    */
   public void setImagesAssetsFolder(@Nullable String imageAssetsFolder) {
     this.imageAssetsFolder = imageAssetsFolder;
+    if (imageAssetsFolder != null) {
+      onOwnContentChanged();
+    }
   }
 
   @Nullable
@@ -428,6 +449,7 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     isDirty = true;
     clearComposition();
     this.composition = composition;
+    composition.onAttachedToDrawable();
     buildCompositionLayer();
     animator.setComposition(composition);
     setProgress(animator.getAnimatedFraction());
@@ -448,6 +470,7 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
 
     composition.setPerformanceTrackingEnabled(performanceTrackingEnabled);
     computeRenderMode();
+    preloadImages();
 
     // Ensure that ImageView updates the drawable width/height so it can
     // properly calculate its drawable matrix.
@@ -478,9 +501,53 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
    */
   public void setRenderMode(RenderMode renderMode) {
     this.renderMode = renderMode;
+    if (renderMode != RenderMode.CACHED_FRAMES) {
+      releaseCachedFrames();
+    }
     computeRenderMode();
   }
 
+  /**
+   * Bitmap config of frames rendered in {@link RenderMode#CACHED_FRAMES}. Defaults to ARGB_8888.
+   * RGB_565 halves the memory of animations that fully cover their bounds with opaque content, ALPHA_8 suits
+   * single-color animations (e.g. masks), which are then tinted with the color filter.
+   */
+  public void setCachedFrameConfig(Bitmap.Config config) {
+    if (cachedFrameConfig == config) {
+      return;
+    }
+    cachedFrameConfig = config;
+    cachedFrames = null;
+    invalidateSelf();
+  }
+
+  public Bitmap.Config getCachedFrameConfig() {
+    return cachedFrameConfig;
+  }
+
+  /**
+   * Stop blitting shared frames and bring the layers back to the current progress.
+   */
+  private void releaseCachedFrames() {
+    if (cachedFrames == null) {
+      return;
+    }
+    cachedFrames = null;
+    // Layers were not updated while frames came from the cache.
+    if (compositionLayer != null) {
+      compositionLayer.setProgress(animator.getAnimatedValueAbsolute());
+    }
+  }
+
+  /**
+   * Called when this drawable starts rendering content that other drawables of the composition don't, its frames
+   * can't come from or go into the shared {@link LottieFrameCache} anymore.
+   */
+  private void onOwnContentChanged() {
+    hasOwnContent = true;
+    releaseCachedFrames();
+  }
+
   /**
    * Returns the current value of {@link AsyncUpdates}. Refer to the docs for {@link AsyncUpdates} for more info.
    */
@@ -645,9 +712,13 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
         onVisibleAction = OnVisibleAction.NONE;
       }
     }
+    if (composition != null) {
+      composition.onDetachedFromDrawable();
+    }
     composition = null;
     compositionLayer = null;
     imageAssetManager = null;
+    cachedFrames = null;
     lastDrawnProgress = -Float.MAX_VALUE;
     animator.clearComposition();
     invalidateSelf();
@@ -748,20 +819,12 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
 
       if (safeMode) {
         try {
-          if (useSoftwareRendering) {
-            renderAndDrawAsBitmap(canvas, compositionLayer);
-          } else {
-            drawDirectlyToCanvas(canvas);
-          }
+          drawFrame(canvas, compositionLayer);
         } catch (Throwable e) {
           Logger.error("Lottie crashed in draw!", e);
         }
       } else {
-        if (useSoftwareRendering) {
-          renderAndDrawAsBitmap(canvas, compositionLayer);
-        } else {
-          drawDirectlyToCanvas(canvas);
-        }
+        drawFrame(canvas, compositionLayer);
       }
 
       isDirty = false;
@@ -1360,6 +1423,9 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     if (imageAssetManager != null) {
       imageAssetManager.setDelegate(assetDelegate);
     }
+    if (assetDelegate != null) {
+      onOwnContentChanged();
+    }
   }
 
   /**
@@ -1370,6 +1436,9 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     if (fontAssetManager != null) {
       fontAssetManager.setDelegate(assetDelegate);
     }
+    if (assetDelegate != null) {
+      onOwnContentChanged();
+    }
   }
 
   /**
@@ -1388,11 +1457,17 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
       return;
     }
     this.fontMap = fontMap;
+    if (fontMap != null) {
+      onOwnContentChanged();
+    }
     invalidateSelf();
   }
 
   public void setTextDelegate(@SuppressWarnings("NullableProblems") TextDelegate textDelegate) {
     this.textDelegate = textDelegate;
+    if (textDelegate != null) {
+      onOwnContentChanged();
+    }
   }
 
   @Nullable
@@ -1468,6 +1543,9 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
    */
   public <T> void addValueCallback(
       final KeyPath keyPath, final T property, @Nullable final LottieValueCallback<T> callback) {
+    if (callback != null) {
+      onOwnContentChanged();
+    }
     if (compositionLayer == null) {
       lazyCompositionTasks.add(c -> addValueCallback(keyPath, property, callback));
       return;
@@ -1530,6 +1608,7 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
       return null;
     }
     Bitmap ret = bm.updateBitmap(id, bitmap);
+    onOwnContentChanged();
     invalidateSelf();
     return ret;
   }
@@ -1591,6 +1670,20 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     return composition.getImages().get(id);
   }
 
+  /**
+   * Decodes the image assets in the background so they are ready, at their drawn size, for the first frames.
+   */
+  private void preloadImages() {
+    if (composition == null || !composition.hasImages() || getContext() == null) {
+      // Images are loaded with the view's context, the draw path loads them once the drawable has one.
+      return;
+    }
+    ImageAssetManager bm = getImageAssetManager();
+    if (bm != null) {
+      bm.preloadBitmaps(LottieTask.EXECUTOR);
+    }
+  }
+
   private ImageAssetManager getImageAssetManager() {
     if (imageAssetManager != null && !imageAssetManager.hasSameContext(getContext())) {
       imageAssetManager = null;
@@ -1733,6 +1826,79 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     callback.unscheduleDrawable(this, what);
   }
 
+  private void drawFrame(Canvas canvas, CompositionLayer compositionLayer) {
+    if (renderMode == RenderMode.CACHED_FRAMES && !hasOwnContent && drawCachedFrame(canvas, compositionLayer)) {
+      return;
+    }
+    if (useSoftwareRendering) {
+      renderAndDrawAsBitmap(canvas, compositionLayer);
+    } else {
+      drawDirectlyToCanvas(canvas);
+    }
+  }
+
+  /**
+   * Cached frames render path.
+   * <p>
+   * Blits the current frame from the shared {@link LottieFrameCache}, rendering it into the cache first if no
+   * drawable has reached it yet.
+   *
+   * @return False if frames of this size can't be cached, the caller should render normally.
+   */
+  private boolean drawCachedFrame(Canvas canvas, CompositionLayer compositionLayer) {
+    LottieComposition composition = this.composition;
+    Rect bounds = getBounds();
+    if (composition == null || bounds.isEmpty()) {
+      return false;
+    }
+    int width = bounds.width();
+    int height = bounds.height();
+    LottieFrameCache.FrameStrip frames = cachedFrames;
+    if (frames == null || !frames.matches(composition, width, height, cachedFrameConfig)) {
+      frames = LottieFrameCache.getInstance().obtain(composition, width, height, cachedFrameConfig);
+      if (frames == null) {
+        releaseCachedFrames();
+        return false;
+      }
+      cachedFrames = frames;
+    }
+
+    int frameIndex = Math.round(animator.getFrame() - composition.getStartFrame());
+    frameIndex = MiscUtils.clamp(frameIndex, 0, frames.getFrameCount() - 1);
+    Bitmap frame = frames.getFrame(frameIndex);
+    if (frame == null) {
+      frame = renderCachedFrame(composition, compositionLayer, frameIndex, width, height);
+      frames.putFrame(frameIndex, frame);
+    }
+
+    if (cachedFramePaint == null) {
+      cachedFramePaint = new LPaint();
+      cachedFrameDstRect = new Rect();
+    }
+    cachedFramePaint.setAlpha(alpha);
+    cachedFrameDstRect.set(bounds);
+    canvas.drawBitmap(frame, null, cachedFrameDstRect, cachedFramePaint);
+    return true;
+  }
+
+  private Bitmap renderCachedFrame(LottieComposition composition, CompositionLayer compositionLayer, int frameIndex,
+      int width, int height) {
+    Bitmap frame = Bitmap.createBitmap(width, height, cachedFrameConfig);
+    if (cachedFrameCanvas == null) {
+      cachedFrameCanvas = new Canvas();
+    }
+    cachedFrameCanvas.setBitmap(frame);
+    float progress = Math.min(1f, frameIndex / composition.getDurationFrames());
+    compositionLayer.setProgress(progress);
+    renderingMatrix.reset();
+    renderingMatrix.preScale(width / (float) composition.getBounds().width(),
+        height / (float) composition.getBounds().height());
+    // Frames are shared, drawable alpha is applied when blitting.
+    compositionLayer.draw(cachedFrameCanvas, renderingMatrix, 255, null);
+    cachedFrameCanvas.setBitmap(null);
+    return frame;
+  }
+
   /**
    * Hardware accelerated render path.
    */
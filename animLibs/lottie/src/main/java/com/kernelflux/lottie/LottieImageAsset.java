@@ -17,7 +17,11 @@ public class LottieImageAsset {
   /**
    * Pre-set a bitmap for this asset
    */
-  @Nullable private Bitmap bitmap;
+  @Nullable private volatile Bitmap bitmap;
+  /**
+   * Whether {@link #bitmap} was decoded by Lottie, only those are handed over to the bitmap pool once unused.
+   */
+  private boolean decodedBitmap;
 
   @RestrictTo(RestrictTo.Scope.LIBRARY)
   public LottieImageAsset(int width, int height, String id, String fileName, String dirName) {
@@ -68,6 +72,31 @@ public class LottieImageAsset {
    */
   public void setBitmap(@Nullable Bitmap bitmap) {
     this.bitmap = bitmap;
+    decodedBitmap = false;
+  }
+
+  /**
+   * Sets a bitmap that Lottie decoded itself and may reuse once no drawable draws this asset anymore.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public void setDecodedBitmap(@Nullable Bitmap bitmap) {
+    this.bitmap = bitmap;
+    decodedBitmap = bitmap != null;
+  }
+
+  /**
+   * Clears and returns the bitmap if it was set with {@link #setDecodedBitmap(Bitmap)}, a bitmap set by the app is
+   * left alone and null is returned.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @Nullable public Bitmap releaseDecodedBitmap() {
+    if (!decodedBitmap) {
+      return null;
+    }
+    Bitmap released = bitmap;
+    bitmap = null;
+    decodedBitmap = false;
+    return released;
   }
 
   /**
@@ -11,7 +11,20 @@ import android.os.Build;
 public enum RenderMode {
   AUTOMATIC,
   HARDWARE,
-  SOFTWARE;
+  SOFTWARE,
+  /**
+   * Render each frame of the composition once into a bitmap and only blit it afterwards.
+   * Frames are shared by every drawable showing the same composition at the same size, which suits short
+   * looping animations shown many times at once (e.g. stickers in a list).
+   * <p>
+   * Frames are rendered at whole composition frames and from the composition only. Falls back to
+   * {@link #AUTOMATIC} when the frames don't fit in {@link com.kernelflux.lottie.model.LottieFrameCache} and for
+   * drawables with content of their own: value callbacks, text, image or font delegates, a font map, an
+   * images folder or updated bitmaps.
+   *
+   * @see LottieDrawable#setCachedFrameConfig(android.graphics.Bitmap.Config)
+   */
+  CACHED_FRAMES;
 
   public boolean useSoftwareRendering(int sdkInt, boolean hasDashPattern, int numMasksAndMattes) {
     switch (this) {
@@ -19,6 +32,7 @@ public enum RenderMode {
         return false;
       case SOFTWARE:
         return true;
+      case CACHED_FRAMES:
       case AUTOMATIC:
       default:
         if (hasDashPattern && sdkInt < Build.VERSION_CODES.P) {
@@ -319,14 +319,30 @@ public abstract class BaseKeyframeAnimation<K, A> {
   private static final class KeyframesWrapperImpl<T> implements KeyframesWrapper<T> {
 
     private final List<? extends Keyframe<T>> keyframes;
+    /**
+     * Start/end progress of each keyframe, in keyframe order (sorted by start). Resolved once so lookups
+     * don't go through {@link Keyframe#getStartProgress()} for every probed keyframe.
+     */
+    private final float[] startProgresses;
+    private final float[] endProgresses;
     @NonNull
     private Keyframe<T> currentKeyframe;
+    private int currentIndex;
     private Keyframe<T> cachedCurrentKeyframe = null;
     private float cachedInterpolatedProgress = -1f;
 
     KeyframesWrapperImpl(List<? extends Keyframe<T>> keyframes) {
       this.keyframes = keyframes;
-      currentKeyframe = findKeyframe(0);
+      int size = keyframes.size();
+      startProgresses = new float[size];
+      endProgresses = new float[size];
+      for (int i = 0; i < size; i++) {
+        Keyframe<T> keyframe = keyframes.get(i);
+        startProgresses[i] = keyframe.getStartProgress();
+        endProgresses[i] = keyframe.getEndProgress();
+      }
+      currentIndex = findKeyframeIndex(0);
+      currentKeyframe = keyframes.get(currentIndex);
     }
 
     @Override
@@ -336,28 +352,49 @@ public abstract class BaseKeyframeAnimation<K, A> {
 
     @Override
     public boolean isValueChanged(float progress) {
-      if (currentKeyframe.containsProgress(progress)) {
+      if (containsProgress(currentIndex, progress)) {
         return !currentKeyframe.isStatic();
       }
-      currentKeyframe = findKeyframe(progress);
+      currentIndex = findKeyframeIndex(progress);
+      currentKeyframe = keyframes.get(currentIndex);
       return true;
     }
 
-    private Keyframe<T> findKeyframe(float progress) {
-      Keyframe<T> keyframe = keyframes.get(keyframes.size() - 1);
-      if (progress >= keyframe.getStartProgress()) {
-        return keyframe;
+    private boolean containsProgress(int index, float progress) {
+      return progress >= startProgresses[index] && progress < endProgresses[index];
+    }
+
+    /**
+     * Same result as scanning backwards for the last keyframe containing progress (falling back to the
+     * first keyframe), in O(log n). During playback progress usually just moved into the next keyframe,
+     * which is checked before searching.
+     */
+    private int findKeyframeIndex(float progress) {
+      int last = startProgresses.length - 1;
+      if (progress >= startProgresses[last]) {
+        return last;
       }
-      for (int i = keyframes.size() - 2; i >= 1; i--) {
-        keyframe = keyframes.get(i);
-        if (currentKeyframe == keyframe) {
-          continue;
-        }
-        if (keyframe.containsProgress(progress)) {
-          return keyframe;
+      int next = currentIndex + 1;
+      if (next < last && containsProgress(next, progress)) {
+        return next;
+      }
+      // Last keyframe before the final one whose start <= progress.
+      int low = 0;
+      int high = last - 1;
+      int found = -1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        if (startProgresses[mid] <= progress) {
+          found = mid;
+          low = mid + 1;
+        } else {
+          high = mid - 1;
         }
       }
-      return keyframes.get(0);
+      if (found >= 1 && progress < endProgresses[found]) {
+        return found;
+      }
+      return 0;
     }
 
     @Override
@@ -3,10 +3,8 @@ package com.kernelflux.lottie.manager;
 import android.app.Application;
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.drawable.Drawable;
 import android.text.TextUtils;
-import android.util.Base64;
 import android.view.View;
 
 import androidx.annotation.Nullable;
@@ -14,11 +12,10 @@ import androidx.annotation.Nullable;
 import com.kernelflux.lottie.ImageAssetDelegate;
 import com.kernelflux.lottie.LottieImageAsset;
 import com.kernelflux.lottie.utils.Logger;
-import com.kernelflux.lottie.utils.Utils;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 public class ImageAssetManager {
   private static final Object bitmapHashLock = new Object();
@@ -78,6 +75,44 @@ public class ImageAssetManager {
       return bitmap;
     }
 
+    // The asset may be decoding on a preload thread, wait for it rather than decoding it twice.
+    synchronized (asset) {
+      bitmap = asset.getBitmap();
+      if (bitmap != null) {
+        return bitmap;
+      }
+      return loadBitmap(id, asset);
+    }
+  }
+
+  /**
+   * Decodes every image asset that isn't loaded yet on the executor, so that the first frames don't have to.
+   * Images provided by an {@link ImageAssetDelegate} are still fetched when drawn, delegates may expect
+   * to be called on the main thread.
+   */
+  public void preloadBitmaps(Executor executor) {
+    if (delegate != null || context == null) {
+      return;
+    }
+    for (Map.Entry<String, LottieImageAsset> entry : imageAssets.entrySet()) {
+      LottieImageAsset asset = entry.getValue();
+      if (asset.getBitmap() != null || (!asset.hasBitmap() && TextUtils.isEmpty(imagesFolder))) {
+        // Already loaded, or the images folder is missing which is reported when drawn.
+        continue;
+      }
+      final String id = entry.getKey();
+      executor.execute(() -> {
+        try {
+          bitmapForId(id);
+        } catch (RuntimeException e) {
+          Logger.warning("Unable to preload image `" + id + "`.", e);
+        }
+      });
+    }
+  }
+
+  @Nullable private Bitmap loadBitmap(String id, LottieImageAsset asset) {
+    Bitmap bitmap;
     if (delegate != null) {
       bitmap = delegate.fetchBitmap(asset);
       if (bitmap != null) {
@@ -93,60 +128,24 @@ public class ImageAssetManager {
     }
 
     String filename = asset.getFileName();
-    BitmapFactory.Options opts = new BitmapFactory.Options();
-    opts.inScaled = true;
-    opts.inDensity = 160;
-
     if (filename.startsWith("data:") && filename.indexOf("base64,") > 0) {
       // Contents look like a base64 data URI, with the format data:image/png;base64,<data>.
-      byte[] data;
-      try {
-        data = Base64.decode(filename.substring(filename.indexOf(',') + 1), Base64.DEFAULT);
-      } catch (IllegalArgumentException e) {
-        Logger.warning("data URL did not have correct base64 format.", e);
-        return null;
-      }
-
-      try {
-        bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, opts);
-      } catch (IllegalArgumentException e) {
-        Logger.warning("Unable to decode image `" + id + "`.", e);
-        return null;
-      }
-
-      if (bitmap == null) {
-        Logger.warning("Decoded image `" + id + "` is null.");
-        return null;
-      }
-
-      Bitmap resizedBitmap = Utils.resizeBitmapIfNeeded(bitmap, asset.getWidth(), asset.getHeight());
-      return putBitmap(id, resizedBitmap);
+      bitmap = LottieBitmapDecoder.decodeBase64(id, filename, asset.getWidth(), asset.getHeight());
+      return bitmap == null ? null : putDecodedBitmap(id, bitmap);
     }
 
-    InputStream is;
     try {
       if (TextUtils.isEmpty(imagesFolder)) {
         throw new IllegalStateException("You must set an images folder before loading an image." +
             " Set it with LottieComposition#setImagesFolder or LottieDrawable#setImagesFolder");
       }
-      is = context.getAssets().open(imagesFolder + filename);
+      bitmap = LottieBitmapDecoder.decodeAsset(id, context.getAssets(), imagesFolder + filename,
+          asset.getWidth(), asset.getHeight());
     } catch (IOException e) {
       Logger.warning("Unable to open asset.", e);
       return null;
     }
-
-    try {
-      bitmap = BitmapFactory.decodeStream(is, null, opts);
-    } catch (IllegalArgumentException e) {
-      Logger.warning("Unable to decode image `" + id + "`.", e);
-      return null;
-    }
-    if (bitmap == null) {
-      Logger.warning("Decoded image `" + id + "` is null.");
-      return null;
-    }
-    bitmap = Utils.resizeBitmapIfNeeded(bitmap, asset.getWidth(), asset.getHeight());
-    return putBitmap(id, bitmap);
+    return bitmap == null ? null : putDecodedBitmap(id, bitmap);
   }
 
   public boolean hasSameContext(Context context) {
@@ -163,4 +162,11 @@ public class ImageAssetManager {
       return bitmap;
     }
   }
+
+  private Bitmap putDecodedBitmap(String key, Bitmap bitmap) {
+    synchronized (bitmapHashLock) {
+      imageAssets.get(key).setDecodedBitmap(bitmap);
+      return bitmap;
+    }
+  }
 }
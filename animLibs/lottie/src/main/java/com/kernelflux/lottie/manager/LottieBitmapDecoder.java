@@ -0,0 +1,141 @@
+package com.kernelflux.lottie.manager;
+
+import android.content.res.AssetManager;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Base64;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.kernelflux.lottie.utils.Logger;
+import com.kernelflux.lottie.utils.Utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes image assets straight to their target size.
+ * <p>
+ * The image is subsampled with {@link BitmapFactory.Options#inSampleSize} by the largest power of two that keeps it
+ * at least as large as the target, then scaled to the target width by the decoder itself through
+ * {@link BitmapFactory.Options#inDensity}/{@link BitmapFactory.Options#inTargetDensity}. Only one bitmap of the
+ * target size is allocated, or none if {@link LottieBitmapPool} has one to reuse. Images whose aspect ratio doesn't
+ * match their asset are still resized afterwards.
+ */
+public final class LottieBitmapDecoder {
+
+  private LottieBitmapDecoder() {
+  }
+
+  private interface Decoder {
+    @Nullable
+    Bitmap decode(BitmapFactory.Options opts) throws IOException;
+  }
+
+  /**
+   * @param dataUrl Contents of a base64 data URI, with the format data:image/png;base64,&lt;data&gt;.
+   */
+  @Nullable
+  public static Bitmap decodeBase64(String id, String dataUrl, int width, int height) {
+    final byte[] data;
+    try {
+      data = Base64.decode(dataUrl.substring(dataUrl.indexOf(',') + 1), Base64.DEFAULT);
+    } catch (IllegalArgumentException e) {
+      Logger.warning("data URL did not have correct base64 format.", e);
+      return null;
+    }
+    try {
+      return decode(id, opts -> BitmapFactory.decodeByteArray(data, 0, data.length, opts), width, height);
+    } catch (IOException e) {
+      // Not thrown when decoding from memory.
+      Logger.warning("Unable to decode image `" + id + "`.", e);
+      return null;
+    }
+  }
+
+  /**
+   * Decodes a file of the app's assets. The file is opened twice, once to read its size.
+   */
+  @Nullable
+  public static Bitmap decodeAsset(String id, final AssetManager assets, final String path, int width, int height)
+      throws IOException {
+    return decode(id, opts -> {
+      InputStream is = assets.open(path);
+      try {
+        return BitmapFactory.decodeStream(is, null, opts);
+      } finally {
+        is.close();
+      }
+    }, width, height);
+  }
+
+  @Nullable
+  private static Bitmap decode(String id, Decoder decoder, int width, int height) throws IOException {
+    BitmapFactory.Options opts = new BitmapFactory.Options();
+    opts.inJustDecodeBounds = true;
+    decoder.decode(opts);
+    if (opts.outWidth <= 0 || opts.outHeight <= 0) {
+      Logger.warning("Decoded image `" + id + "` is null.");
+      return null;
+    }
+    if (width <= 0 || height <= 0) {
+      width = opts.outWidth;
+      height = opts.outHeight;
+    }
+
+    opts.inJustDecodeBounds = false;
+    opts.inSampleSize = calculateInSampleSize(opts.outWidth, opts.outHeight, width, height);
+    int sampledWidth = opts.outWidth / opts.inSampleSize;
+    if (sampledWidth != width) {
+      opts.inScaled = true;
+      opts.inDensity = sampledWidth;
+      opts.inTargetDensity = width;
+    } else {
+      opts.inScaled = false;
+    }
+    opts.inMutable = true;
+    opts.inPreferredConfig = Bitmap.Config.ARGB_8888;
+
+    LottieBitmapPool pool = LottieBitmapPool.getInstance();
+    Bitmap reusable = pool.get(width, height, Bitmap.Config.ARGB_8888);
+    opts.inBitmap = reusable;
+    Bitmap bitmap;
+    try {
+      bitmap = decoder.decode(opts);
+    } catch (IllegalArgumentException e) {
+      if (reusable == null) {
+        Logger.warning("Unable to decode image `" + id + "`.", e);
+        return null;
+      }
+      // The image can't be decoded into this bitmap (e.g. its format doesn't support it), decode it on its own.
+      opts.inBitmap = null;
+      try {
+        bitmap = decoder.decode(opts);
+      } catch (IllegalArgumentException e2) {
+        Logger.warning("Unable to decode image `" + id + "`.", e2);
+        bitmap = null;
+      }
+    }
+    if (reusable != null && bitmap != reusable) {
+      pool.put(reusable);
+    }
+    if (bitmap == null) {
+      Logger.warning("Decoded image `" + id + "` is null.");
+      return null;
+    }
+    return Utils.resizeBitmapIfNeeded(bitmap, width, height);
+  }
+
+  /**
+   * Largest power of two that subsamples the source to at least the target size.
+   */
+  @VisibleForTesting
+  static int calculateInSampleSize(int sourceWidth, int sourceHeight, int targetWidth, int targetHeight) {
+    int sampleSize = 1;
+    while (sourceWidth / (sampleSize * 2) >= targetWidth && sourceHeight / (sampleSize * 2) >= targetHeight) {
+      sampleSize *= 2;
+    }
+    return sampleSize;
+  }
+}
@@ -0,0 +1,101 @@
+package com.kernelflux.lottie.manager;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * Mutable bitmaps of image assets that are no longer drawn, reused by {@link LottieBitmapDecoder} as
+ * {@link android.graphics.BitmapFactory.Options#inBitmap} to decode the next image of the same size.
+ * <p>
+ * Shared by every drawable. Bounded by bytes: the least recently pooled bitmaps are recycled first.
+ */
+public class LottieBitmapPool {
+
+  private static final LottieBitmapPool INSTANCE = new LottieBitmapPool(defaultMaxBytes());
+
+  public static LottieBitmapPool getInstance() {
+    return INSTANCE;
+  }
+
+  private static long defaultMaxBytes() {
+    return Runtime.getRuntime().maxMemory() / 32;
+  }
+
+  /**
+   * Least recently pooled first.
+   */
+  private final LinkedList<Bitmap> bitmaps = new LinkedList<>();
+  private long maxBytes;
+  private long sizeBytes;
+
+  @VisibleForTesting LottieBitmapPool(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Removes and returns a pooled bitmap of exactly this size and config, or null.
+   */
+  @Nullable
+  public synchronized Bitmap get(int width, int height, Bitmap.Config config) {
+    Iterator<Bitmap> it = bitmaps.descendingIterator();
+    while (it.hasNext()) {
+      Bitmap bitmap = it.next();
+      if (bitmap.getWidth() == width && bitmap.getHeight() == height && bitmap.getConfig() == config) {
+        it.remove();
+        sizeBytes -= bitmap.getAllocationByteCount();
+        return bitmap;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Hands a bitmap over to the pool, it must not be drawn anymore. Bitmaps that can't be reused are recycled.
+   */
+  public synchronized void put(Bitmap bitmap) {
+    if (bitmap.isRecycled()) {
+      return;
+    }
+    long byteCount = bitmap.getAllocationByteCount();
+    if (!bitmap.isMutable() || byteCount > maxBytes / 2) {
+      bitmap.recycle();
+      return;
+    }
+    bitmaps.addLast(bitmap);
+    sizeBytes += byteCount;
+    trimToSize(maxBytes);
+  }
+
+  public synchronized void clear() {
+    trimToSize(0);
+  }
+
+  /**
+   * Set the maximum number of bytes of bitmaps to keep pooled.
+   * This must be {@literal >} 0.
+   */
+  public synchronized void resize(long maxBytes) {
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("maxBytes <= 0");
+    }
+    this.maxBytes = maxBytes;
+    trimToSize(maxBytes);
+  }
+
+  public synchronized long sizeBytes() {
+    return sizeBytes;
+  }
+
+  private void trimToSize(long maxBytes) {
+    while (sizeBytes > maxBytes && !bitmaps.isEmpty()) {
+      Bitmap bitmap = bitmaps.removeFirst();
+      sizeBytes -= bitmap.getAllocationByteCount();
+      bitmap.recycle();
+    }
+  }
+}
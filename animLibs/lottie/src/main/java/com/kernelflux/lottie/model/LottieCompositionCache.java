@@ -1,5 +1,6 @@
 package com.kernelflux.lottie.model;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.VisibleForTesting;
@@ -7,18 +8,57 @@ import androidx.collection.LruCache;
 
 import com.kernelflux.lottie.LottieComposition;
 
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory cache of parsed compositions.
+ * <p>
+ * Bounded by the estimated retained size of the compositions ({@link LottieCompositionWeigher}) and by a number
+ * of compositions. A composition is weighed once when it is put: image assets decoded later are accounted at
+ * their declared size up front.
+ */
 @RestrictTo(RestrictTo.Scope.LIBRARY)
 public class LottieCompositionCache {
 
+  private static final int DEFAULT_MAX_ENTRIES = 20;
+
   private static final LottieCompositionCache INSTANCE = new LottieCompositionCache();
 
   public static LottieCompositionCache getInstance() {
     return INSTANCE;
   }
 
-  private final LruCache<String, LottieComposition> cache = new LruCache<>(20);
+  private static long defaultMaxBytes() {
+    return Runtime.getRuntime().maxMemory() / 16;
+  }
+
+  private final LruCache<String, Entry> cache;
+  private volatile int maxEntries = DEFAULT_MAX_ENTRIES;
+  /**
+   * Removals to stay within {@link #maxEntries}, which {@link LruCache#evictionCount()} does not count.
+   */
+  private final AtomicInteger entryLimitEvictionCount = new AtomicInteger();
 
   @VisibleForTesting LottieCompositionCache() {
+    this(defaultMaxBytes());
+  }
+
+  @VisibleForTesting LottieCompositionCache(long maxBytes) {
+    cache = new LruCache<String, Entry>(toCacheSize(maxBytes)) {
+      @Override protected int sizeOf(@NonNull String key, @NonNull Entry value) {
+        return value.size;
+      }
+
+      @Override protected void entryRemoved(boolean evicted, @NonNull String key, @NonNull Entry oldValue,
+          @Nullable Entry newValue) {
+        if (newValue == null || oldValue.composition != newValue.composition) {
+          // Pre-rendered frames of a composition go with it.
+          LottieFrameCache.getInstance().remove(oldValue.composition);
+          oldValue.composition.onEvictedFromCache();
+        }
+      }
+    };
   }
 
   @Nullable
@@ -26,14 +66,16 @@ public class LottieCompositionCache {
     if (cacheKey == null) {
       return null;
     }
-    return cache.get(cacheKey);
+    Entry entry = cache.get(cacheKey);
+    return entry == null ? null : entry.composition;
   }
 
   public void put(@Nullable String cacheKey, LottieComposition composition) {
     if (cacheKey == null) {
       return;
     }
-    cache.put(cacheKey, composition);
+    cache.put(cacheKey, new Entry(composition, toCacheSize(LottieCompositionWeigher.weigh(composition))));
+    trimToMaxEntries();
   }
 
   public void clear() {
@@ -45,6 +87,62 @@ public class LottieCompositionCache {
    * This must be {@literal >} 0.
    */
   public void resize(int size) {
-    cache.resize(size);
+    if (size <= 0) {
+      throw new IllegalArgumentException("maxSize <= 0");
+    }
+    maxEntries = size;
+    trimToMaxEntries();
+  }
+
+  /**
+   * Set the maximum estimated size, in bytes, of compositions to keep cached in memory.
+   * This must be {@literal >} 0.
+   */
+  public void resizeBytes(long maxBytes) {
+    cache.resize(toCacheSize(maxBytes));
+  }
+
+  /**
+   * Estimated size, in bytes, of the cached compositions.
+   */
+  public long sizeBytes() {
+    return cache.size();
+  }
+
+  public long maxSizeBytes() {
+    return cache.maxSize();
+  }
+
+  public LottieCompositionCacheStats getStats() {
+    return new LottieCompositionCacheStats(cache.hitCount(), cache.missCount(),
+        cache.evictionCount() + entryLimitEvictionCount.get(), cache.putCount(), cache.snapshot().size(), cache.size(),
+        cache.maxSize());
+  }
+
+  private void trimToMaxEntries() {
+    while (true) {
+      // Snapshot is ordered from least to most recently used.
+      Map<String, Entry> snapshot = cache.snapshot();
+      if (snapshot.size() <= maxEntries) {
+        return;
+      }
+      if (cache.remove(snapshot.keySet().iterator().next()) != null) {
+        entryLimitEvictionCount.incrementAndGet();
+      }
+    }
+  }
+
+  private static int toCacheSize(long bytes) {
+    return (int) Math.max(1, Math.min(Integer.MAX_VALUE, bytes));
+  }
+
+  private static final class Entry {
+    final LottieComposition composition;
+    final int size;
+
+    Entry(LottieComposition composition, int size) {
+      this.composition = composition;
+      this.size = size;
+    }
   }
 }
@@ -0,0 +1,65 @@
+package com.kernelflux.lottie.model;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Snapshot of {@link LottieCompositionCache} counters, for sizing the cache per device class.
+ */
+public final class LottieCompositionCacheStats {
+  private final int hitCount;
+  private final int missCount;
+  private final int evictionCount;
+  private final int putCount;
+  private final int entryCount;
+  private final long sizeBytes;
+  private final long maxSizeBytes;
+
+  LottieCompositionCacheStats(int hitCount, int missCount, int evictionCount, int putCount, int entryCount, long sizeBytes,
+      long maxSizeBytes) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.evictionCount = evictionCount;
+    this.putCount = putCount;
+    this.entryCount = entryCount;
+    this.sizeBytes = sizeBytes;
+    this.maxSizeBytes = maxSizeBytes;
+  }
+
+  public int getHitCount() {
+    return hitCount;
+  }
+
+  public int getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Compositions dropped to stay within the byte bound or the entry limit.
+   */
+  public int getEvictionCount() {
+    return evictionCount;
+  }
+
+  public int getPutCount() {
+    return putCount;
+  }
+
+  public int getEntryCount() {
+    return entryCount;
+  }
+
+  public long getSizeBytes() {
+    return sizeBytes;
+  }
+
+  public long getMaxSizeBytes() {
+    return maxSizeBytes;
+  }
+
+  @NonNull
+  @Override
+  public String toString() {
+    return "LottieCompositionCacheStats{hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount
+        + ", puts=" + putCount + ", entries=" + entryCount + ", size=" + sizeBytes + "/" + maxSizeBytes + "}";
+  }
+}
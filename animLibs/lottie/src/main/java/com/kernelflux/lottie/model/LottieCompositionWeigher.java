@@ -0,0 +1,72 @@
+package com.kernelflux.lottie.model;
+
+import android.graphics.Bitmap;
+
+import com.kernelflux.lottie.LottieComposition;
+import com.kernelflux.lottie.LottieImageAsset;
+import com.kernelflux.lottie.parser.DeferredPrecomps;
+
+import java.util.Map;
+
+/**
+ * Estimates the retained size of a {@link LottieComposition} in bytes.
+ * <p>
+ * Image assets dominate compositions that embed them and are counted exactly when decoded (or at their declared
+ * size otherwise). The object graph of layers, keyframes and paths is estimated from the counts recorded while
+ * parsing, precomps that are not parsed yet are counted by the size of their captured json.
+ */
+public final class LottieCompositionWeigher {
+
+  /**
+   * Composition object, maps and markers.
+   */
+  private static final long BASE_BYTES = 2 * 1024;
+  /**
+   * Layer model with its transform and effects.
+   */
+  private static final long LAYER_BYTES = 1024;
+  /**
+   * Keyframe object, boxed start/end values and interpolators.
+   */
+  private static final long KEYFRAME_BYTES = 96;
+  /**
+   * Vertex and its two control points (CubicCurveData + PointFs), plus its share of the keyframe's Path.
+   */
+  private static final long PATH_VERTEX_BYTES = 112;
+  private static final long BYTES_PER_PIXEL = 4;
+
+  private LottieCompositionWeigher() {
+  }
+
+  public static long weigh(LottieComposition composition) {
+    return BASE_BYTES
+        + composition.getLayerCount() * LAYER_BYTES
+        + composition.getKeyframeCount() * KEYFRAME_BYTES
+        + composition.getPathVertexCount() * PATH_VERTEX_BYTES
+        + weighDeferredPrecomps(composition)
+        + weighImages(composition);
+  }
+
+  private static long weighDeferredPrecomps(LottieComposition composition) {
+    DeferredPrecomps deferredPrecomps = composition.getDeferredPrecomps();
+    return deferredPrecomps == null ? 0 : deferredPrecomps.getByteCount();
+  }
+
+  private static long weighImages(LottieComposition composition) {
+    Map<String, LottieImageAsset> images = composition.getUnscaledImages();
+    if (images == null) {
+      return 0;
+    }
+    long byteCount = 0;
+    for (LottieImageAsset asset : images.values()) {
+      Bitmap bitmap = asset.getBitmap();
+      if (bitmap != null && !bitmap.isRecycled()) {
+        byteCount += bitmap.getAllocationByteCount();
+      } else {
+        // Not decoded yet, will be decoded at asset size (and kept on the asset) when drawn.
+        byteCount += (long) asset.getWidth() * asset.getHeight() * BYTES_PER_PIXEL;
+      }
+    }
+    return byteCount;
+  }
+}
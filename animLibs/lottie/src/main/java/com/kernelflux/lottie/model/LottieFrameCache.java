@@ -0,0 +1,206 @@
+package com.kernelflux.lottie.model;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
+import androidx.collection.LruCache;
+
+import com.kernelflux.lottie.LottieComposition;
+import com.kernelflux.lottie.RenderMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-rendered frames for {@link RenderMode#CACHED_FRAMES}.
+ * <p>
+ * Frames are keyed by composition, output size and bitmap config, so every drawable showing the same
+ * composition at the same size blits the same bitmaps. The cache is bounded by bytes: a strip reserves
+ * the size of all of its frames when it is created, frames themselves are rendered lazily the first
+ * time any drawable reaches them.
+ * <p>
+ * Strips of a composition are dropped when {@link LottieCompositionCache} evicts that composition.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public class LottieFrameCache {
+
+  private static final LottieFrameCache INSTANCE = new LottieFrameCache(defaultMaxBytes());
+
+  public static LottieFrameCache getInstance() {
+    return INSTANCE;
+  }
+
+  private static int defaultMaxBytes() {
+    return (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 16);
+  }
+
+  private final LruCache<Key, FrameStrip> cache;
+
+  @VisibleForTesting LottieFrameCache(int maxBytes) {
+    cache = new LruCache<Key, FrameStrip>(maxBytes) {
+      @Override protected int sizeOf(@NonNull Key key, @NonNull FrameStrip value) {
+        return value.byteCount;
+      }
+    };
+  }
+
+  /**
+   * Returns the strip for the composition at the given size, creating it if needed.
+   * Returns null if the strip would take more than half of the cache, callers should render normally then.
+   */
+  @Nullable
+  public FrameStrip obtain(LottieComposition composition, int width, int height, Bitmap.Config config) {
+    if (width <= 0 || height <= 0) {
+      return null;
+    }
+    int frameCount = (int) composition.getDurationFrames() + 1;
+    long byteCount = (long) width * height * bytesPerPixel(config) * frameCount;
+    if (byteCount > cache.maxSize() / 2) {
+      return null;
+    }
+    Key key = new Key(composition, width, height, config);
+    synchronized (cache) {
+      FrameStrip strip = cache.get(key);
+      if (strip == null) {
+        strip = new FrameStrip(composition, width, height, config, frameCount, (int) byteCount);
+        cache.put(key, strip);
+      }
+      return strip;
+    }
+  }
+
+  /**
+   * Drop every strip rendered from the composition.
+   */
+  public void remove(LottieComposition composition) {
+    synchronized (cache) {
+      List<Key> keys = new ArrayList<>();
+      for (Map.Entry<Key, FrameStrip> entry : cache.snapshot().entrySet()) {
+        if (entry.getKey().composition == composition) {
+          keys.add(entry.getKey());
+        }
+      }
+      for (Key key : keys) {
+        cache.remove(key);
+      }
+    }
+  }
+
+  public void clear() {
+    cache.evictAll();
+  }
+
+  /**
+   * Set the maximum number of bytes of frames to keep cached in memory.
+   * This must be {@literal >} 0.
+   */
+  public void resize(int maxBytes) {
+    cache.resize(maxBytes);
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  private static int bytesPerPixel(Bitmap.Config config) {
+    switch (config) {
+      case ALPHA_8:
+        return 1;
+      case RGB_565:
+      case ARGB_4444:
+        return 2;
+      default:
+        return 4;
+    }
+  }
+
+  /**
+   * Rendered frames of one composition at one output size, indexed by composition frame.
+   * <p>
+   * Evicted strips are not recycled: a drawable may still be blitting from them, they are released
+   * with the last drawable holding them.
+   */
+  public static final class FrameStrip {
+    private final LottieComposition composition;
+    private final int width;
+    private final int height;
+    private final Bitmap.Config config;
+    private final Bitmap[] frames;
+    private final int byteCount;
+
+    FrameStrip(LottieComposition composition, int width, int height, Bitmap.Config config, int frameCount, int byteCount) {
+      this.composition = composition;
+      this.width = width;
+      this.height = height;
+      this.config = config;
+      this.frames = new Bitmap[frameCount];
+      this.byteCount = byteCount;
+    }
+
+    public boolean matches(LottieComposition composition, int width, int height, Bitmap.Config config) {
+      return this.composition == composition && this.width == width && this.height == height && this.config == config;
+    }
+
+    public int getFrameCount() {
+      return frames.length;
+    }
+
+    public int getWidth() {
+      return width;
+    }
+
+    public int getHeight() {
+      return height;
+    }
+
+    public Bitmap.Config getConfig() {
+      return config;
+    }
+
+    @Nullable
+    public synchronized Bitmap getFrame(int index) {
+      return frames[index];
+    }
+
+    public synchronized void putFrame(int index, Bitmap frame) {
+      frames[index] = frame;
+    }
+  }
+
+  private static final class Key {
+    final LottieComposition composition;
+    final int width;
+    final int height;
+    final Bitmap.Config config;
+
+    Key(LottieComposition composition, int width, int height, Bitmap.Config config) {
+      this.composition = composition;
+      this.width = width;
+      this.height = height;
+      this.config = config;
+    }
+
+    @Override public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return composition == key.composition && width == key.width && height == key.height && config == key.config;
+    }
+
+    @Override public int hashCode() {
+      int result = System.identityHashCode(composition);
+      result = 31 * result + width;
+      result = 31 * result + height;
+      result = 31 * result + config.hashCode();
+      return result;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package com.kernelflux.lottie.model;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.WorkerThread;
+
+import com.kernelflux.lottie.parser.moshi.JsonSnapshotReader;
+import com.kernelflux.lottie.utils.Logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Disk cache of binary snapshots ({@link com.kernelflux.lottie.parser.moshi.JsonSnapshotWriter}) of animation json,
+ * keyed by composition cache key.
+ * <p>
+ * A snapshot is written after the first parse of a key and memory-mapped on later loads, which skips json
+ * tokenizing and number parsing. Snapshots are never invalidated by content: if the animation behind a cache key
+ * can change, {@link #clear()} the cache when it does. Snapshots of an older format version are deleted on read.
+ * <p>
+ * Asset and raw resource keys name a file or a resource id, whose content changes with app updates:
+ * {@link #checkAppVersion(Context)} clears the cache once after every install or update of the app.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public class LottieSnapshotCache {
+
+  private static final String PREFIX = "lottie_snapshot_";
+  private static final String SUFFIX = ".bin";
+  private static final String TEMP_SUFFIX = ".temp";
+  /**
+   * Not under {@link #PREFIX}, so {@link #clear()} keeps it.
+   */
+  private static final String APP_VERSION_FILE = "lottie_snapshots.version";
+
+  @NonNull
+  private final File dir;
+  private volatile boolean appVersionChecked = false;
+
+  public LottieSnapshotCache(@NonNull File dir) {
+    this.dir = dir;
+  }
+
+  @NonNull
+  public File getDir() {
+    return dir;
+  }
+
+  /**
+   * Returns the mapped snapshot for the key, or null if there is no valid one.
+   */
+  @Nullable
+  @WorkerThread
+  public ByteBuffer get(String cacheKey) {
+    File file = fileForKey(cacheKey);
+    if (!file.exists()) {
+      return null;
+    }
+    ByteBuffer snapshot;
+    try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+      FileChannel channel = input.getChannel();
+      // The mapping stays valid after the channel is closed.
+      snapshot = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (IOException e) {
+      Logger.warning("Unable to read snapshot " + file.getAbsolutePath(), e);
+      return null;
+    }
+    if (!JsonSnapshotReader.isValid(snapshot)) {
+      Logger.debug("Deleting outdated snapshot " + file.getAbsolutePath());
+      file.delete();
+      return null;
+    }
+    return snapshot;
+  }
+
+  /**
+   * Stores the snapshot for the key. The file is written under a unique temporary name and renamed once
+   * complete, so concurrent or interrupted writes never leave a partial snapshot behind.
+   */
+  @WorkerThread
+  public void put(String cacheKey, byte[] snapshot) {
+    File file = fileForKey(cacheKey);
+    File temp = null;
+    try {
+      temp = File.createTempFile(PREFIX, TEMP_SUFFIX, dir);
+      try (FileOutputStream output = new FileOutputStream(temp)) {
+        output.write(snapshot);
+      }
+      if (!temp.renameTo(file)) {
+        Logger.warning("Unable to rename snapshot " + temp.getAbsolutePath() + " to " + file.getAbsolutePath() + ".");
+        temp.delete();
+      }
+    } catch (IOException e) {
+      Logger.warning("Unable to write snapshot " + file.getAbsolutePath(), e);
+      if (temp != null) {
+        temp.delete();
+      }
+    }
+  }
+
+  /**
+   * Clears every snapshot if the app was installed or updated since the last check, before asset and raw resource
+   * snapshots are read. Only checks once per cache.
+   */
+  @WorkerThread
+  public void checkAppVersion(Context context) {
+    if (appVersionChecked) {
+      return;
+    }
+    synchronized (this) {
+      if (appVersionChecked) {
+        return;
+      }
+      String version = appVersion(context);
+      File file = new File(dir, APP_VERSION_FILE);
+      if (version == null || !version.equals(readVersion(file))) {
+        clear();
+        if (version != null) {
+          writeVersion(file, version);
+        }
+      }
+      appVersionChecked = true;
+    }
+  }
+
+  @Nullable
+  private static String appVersion(Context context) {
+    try {
+      return String.valueOf(context.getPackageManager().getPackageInfo(context.getPackageName(), 0).lastUpdateTime);
+    } catch (PackageManager.NameNotFoundException e) {
+      return null;
+    }
+  }
+
+  @Nullable
+  private static String readVersion(File file) {
+    if (!file.exists()) {
+      return null;
+    }
+    try (FileInputStream input = new FileInputStream(file)) {
+      byte[] bytes = new byte[(int) file.length()];
+      int read = input.read(bytes);
+      return read == bytes.length ? new String(bytes, "UTF-8") : null;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private void writeVersion(File file, String version) {
+    if (!dir.exists()) {
+      dir.mkdirs();
+    }
+    try (FileOutputStream output = new FileOutputStream(file)) {
+      output.write(version.getBytes("UTF-8"));
+    } catch (IOException e) {
+      Logger.warning("Unable to write snapshot version " + file.getAbsolutePath(), e);
+    }
+  }
+
+  public void remove(String cacheKey) {
+    fileForKey(cacheKey).delete();
+  }
+
+  public void clear() {
+    File[] files = dir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (file.getName().startsWith(PREFIX)) {
+          file.delete();
+        }
+      }
+    }
+  }
+
+  private File fileForKey(String cacheKey) {
+    if (dir.isFile()) {
+      dir.delete();
+    }
+    if (!dir.exists()) {
+      dir.mkdirs();
+    }
+    return new File(dir, PREFIX + getMD5(cacheKey) + SUFFIX);
+  }
+
+  /**
+   * Cache keys embed urls, paths and resource names, hash them into a bounded file name.
+   */
+  private static String getMD5(String input) {
+    MessageDigest md;
+    try {
+      md = MessageDigest.getInstance("MD5");
+    } catch (NoSuchAlgorithmException e) {
+      // This should never happen.
+      return Integer.toHexString(input.hashCode());
+    }
+    byte[] messageDigest = md.digest(input.getBytes());
+    StringBuilder sb = new StringBuilder();
+    for (byte b : messageDigest) {
+      sb.append(String.format("%02x", b));
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,87 @@
+package com.kernelflux.lottie.parser;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import com.kernelflux.lottie.LottieComposition;
+import com.kernelflux.lottie.model.layer.Layer;
+import com.kernelflux.lottie.parser.moshi.DeferredJsonValue;
+import com.kernelflux.lottie.parser.moshi.JsonReader;
+import com.kernelflux.lottie.utils.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomp layer lists whose json was captured but not parsed, see
+ * {@link LottieCompositionMoshiParser#parse(JsonReader, boolean)}.
+ * <p>
+ * Only holds precomps no layer refers to, the parser resolves the referenced ones while loading. A precomp is parsed
+ * the first time it is requested and its captured json is released.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public class DeferredPrecomps {
+
+  private final Map<String, DeferredJsonValue> values;
+  private final Map<String, List<Layer>> precomps = new HashMap<>();
+
+  DeferredPrecomps(Map<String, DeferredJsonValue> values) {
+    this.values = values;
+  }
+
+  /**
+   * Returns the layers of the precomp, parsing them on first use. Null if there is no such precomp.
+   */
+  @Nullable
+  public synchronized List<Layer> get(String id, LottieComposition composition) {
+    List<Layer> layers = precomps.get(id);
+    if (layers != null) {
+      return layers;
+    }
+    DeferredJsonValue value = values.remove(id);
+    if (value == null) {
+      return null;
+    }
+    layers = new ArrayList<>();
+    JsonReader reader = value.newReader();
+    try {
+      reader.beginArray();
+      while (reader.hasNext()) {
+        layers.add(LayerParser.parse(reader, composition));
+      }
+      reader.endArray();
+    } catch (IOException | RuntimeException e) {
+      Logger.warning("Unable to parse precomp " + id, e);
+      composition.addWarning("Unable to parse precomp " + id);
+      layers = Collections.emptyList();
+    }
+    precomps.put(id, layers);
+    return layers;
+  }
+
+  /**
+   * Number of layers of the precomps parsed so far.
+   */
+  public synchronized int getLayerCount() {
+    int count = 0;
+    for (List<Layer> layers : precomps.values()) {
+      count += layers.size();
+    }
+    return count;
+  }
+
+  /**
+   * Size of the json captured for precomps not parsed yet.
+   */
+  public synchronized long getByteCount() {
+    long byteCount = 0;
+    for (DeferredJsonValue value : values.values()) {
+      byteCount += value.getByteCount();
+    }
+    return byteCount;
+  }
+}
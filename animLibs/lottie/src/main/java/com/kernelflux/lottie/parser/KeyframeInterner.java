@@ -0,0 +1,172 @@
+package com.kernelflux.lottie.parser;
+
+import android.graphics.PointF;
+import android.view.animation.Interpolator;
+
+import androidx.annotation.Nullable;
+
+import com.kernelflux.lottie.model.CubicCurveData;
+import com.kernelflux.lottie.model.content.ShapeData;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process wide, weakly referenced instances of the parsed data that animations exported from the same templates
+ * repeat: easing interpolators and shapes. Equal data is stored once across every composition that is alive.
+ * <p>
+ * Boxed floats and ints are not interned: the weak reference and map entry needed to share one cost more than the
+ * box itself. Mutable values other than shapes (points, scales, gradients...) are not interned, they are not
+ * guaranteed to stay unmodified once parsed.
+ */
+class KeyframeInterner {
+
+  private static final ConcurrentHashMap<ControlPoints, InterpolatorRef> interpolators = new ConcurrentHashMap<>();
+  private static final ReferenceQueue<Interpolator> interpolatorQueue = new ReferenceQueue<>();
+
+  private static final WeakInterner<ShapeData> shapes = new WeakInterner<ShapeData>() {
+    @Override boolean equivalent(ShapeData a, ShapeData b) {
+      if (a.isClosed() != b.isClosed() || !pointEquals(a.getInitialPoint(), b.getInitialPoint())) {
+        return false;
+      }
+      List<CubicCurveData> curvesA = a.getCurves();
+      List<CubicCurveData> curvesB = b.getCurves();
+      if (curvesA.size() != curvesB.size()) {
+        return false;
+      }
+      for (int i = 0; i < curvesA.size(); i++) {
+        CubicCurveData curveA = curvesA.get(i);
+        CubicCurveData curveB = curvesB.get(i);
+        if (!pointEquals(curveA.getControlPoint1(), curveB.getControlPoint1()) ||
+            !pointEquals(curveA.getControlPoint2(), curveB.getControlPoint2()) ||
+            !pointEquals(curveA.getVertex(), curveB.getVertex())) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override int hash(ShapeData value) {
+      int hash = value.isClosed() ? 1 : 0;
+      hash = 31 * hash + pointHash(value.getInitialPoint());
+      for (CubicCurveData curve : value.getCurves()) {
+        hash = 31 * hash + pointHash(curve.getControlPoint1());
+        hash = 31 * hash + pointHash(curve.getControlPoint2());
+        hash = 31 * hash + pointHash(curve.getVertex());
+      }
+      return hash;
+    }
+  };
+
+  private KeyframeInterner() {
+  }
+
+  @Nullable
+  static Interpolator getInterpolator(float cp1x, float cp1y, float cp2x, float cp2y) {
+    expungeClearedInterpolators();
+    InterpolatorRef ref = interpolators.get(new ControlPoints(cp1x, cp1y, cp2x, cp2y));
+    return ref == null ? null : ref.get();
+  }
+
+  /**
+   * Returns the interpolator interned for these control points, which is this one unless another thread interned
+   * one first.
+   */
+  static Interpolator putInterpolator(float cp1x, float cp1y, float cp2x, float cp2y, Interpolator interpolator) {
+    ControlPoints key = new ControlPoints(cp1x, cp1y, cp2x, cp2y);
+    InterpolatorRef ref = new InterpolatorRef(key, interpolator, interpolatorQueue);
+    while (true) {
+      InterpolatorRef existing = interpolators.putIfAbsent(key, ref);
+      if (existing == null) {
+        return interpolator;
+      }
+      Interpolator interned = existing.get();
+      if (interned != null) {
+        return interned;
+      }
+      if (interpolators.replace(key, existing, ref)) {
+        return interpolator;
+      }
+    }
+  }
+
+  /**
+   * Returns the shared instance of a parsed keyframe value, or the value itself if values of its type aren't
+   * interned.
+   */
+  @SuppressWarnings("unchecked")
+  @Nullable
+  static <T> T intern(@Nullable T value) {
+    if (value instanceof ShapeData) {
+      return (T) shapes.intern((ShapeData) value);
+    }
+    return value;
+  }
+
+  private static void expungeClearedInterpolators() {
+    Reference<? extends Interpolator> cleared;
+    while ((cleared = interpolatorQueue.poll()) != null) {
+      InterpolatorRef ref = (InterpolatorRef) cleared;
+      interpolators.remove(ref.key, ref);
+    }
+  }
+
+  private static boolean pointEquals(@Nullable PointF a, @Nullable PointF b) {
+    if (a == null || b == null) {
+      return a == b;
+    }
+    return Float.compare(a.x, b.x) == 0 && Float.compare(a.y, b.y) == 0;
+  }
+
+  private static int pointHash(@Nullable PointF point) {
+    return point == null ? 0 : 31 * Float.floatToIntBits(point.x) + Float.floatToIntBits(point.y);
+  }
+
+  /**
+   * Compared by value rather than by hash, so that two curves never share an interpolator by accident.
+   */
+  private static final class ControlPoints {
+    private final float cp1x;
+    private final float cp1y;
+    private final float cp2x;
+    private final float cp2y;
+
+    ControlPoints(float cp1x, float cp1y, float cp2x, float cp2y) {
+      this.cp1x = cp1x;
+      this.cp1y = cp1y;
+      this.cp2x = cp2x;
+      this.cp2y = cp2y;
+    }
+
+    @Override public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ControlPoints)) {
+        return false;
+      }
+      ControlPoints that = (ControlPoints) o;
+      return Float.compare(cp1x, that.cp1x) == 0 && Float.compare(cp1y, that.cp1y) == 0 &&
+          Float.compare(cp2x, that.cp2x) == 0 && Float.compare(cp2y, that.cp2y) == 0;
+    }
+
+    @Override public int hashCode() {
+      int result = Float.floatToIntBits(cp1x);
+      result = 31 * result + Float.floatToIntBits(cp1y);
+      result = 31 * result + Float.floatToIntBits(cp2x);
+      return 31 * result + Float.floatToIntBits(cp2y);
+    }
+  }
+
+  private static final class InterpolatorRef extends WeakReference<Interpolator> {
+    private final ControlPoints key;
+
+    InterpolatorRef(ControlPoints key, Interpolator interpolator, ReferenceQueue<Interpolator> queue) {
+      super(interpolator, queue);
+      this.key = key;
+    }
+  }
+}
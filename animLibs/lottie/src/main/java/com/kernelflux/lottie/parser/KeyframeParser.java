@@ -5,18 +5,15 @@ import android.view.animation.Interpolator;
 import android.view.animation.LinearInterpolator;
 
 import androidx.annotation.Nullable;
-import androidx.collection.SparseArrayCompat;
 import androidx.core.view.animation.PathInterpolatorCompat;
 
 import com.kernelflux.lottie.L;
 import com.kernelflux.lottie.LottieComposition;
 import com.kernelflux.lottie.parser.moshi.JsonReader;
 import com.kernelflux.lottie.utils.MiscUtils;
-import com.kernelflux.lottie.utils.Utils;
 import com.kernelflux.lottie.value.Keyframe;
 
 import java.io.IOException;
-import java.lang.ref.WeakReference;
 
 class KeyframeParser {
   /**
@@ -26,7 +23,6 @@ class KeyframeParser {
    */
   private static final float MAX_CP_VALUE = 100;
   private static final Interpolator LINEAR_INTERPOLATOR = new LinearInterpolator();
-  private static SparseArrayCompat<WeakReference<Interpolator>> pathInterpolatorCache;
 
   static JsonReader.Options NAMES = JsonReader.Options.of(
       "t",  // 1
@@ -43,31 +39,6 @@ class KeyframeParser {
       "y"   // 2
   );
 
-  // https://github.com/airbnb/lottie-android/issues/464
-  private static SparseArrayCompat<WeakReference<Interpolator>> pathInterpolatorCache() {
-    if (pathInterpolatorCache == null) {
-      pathInterpolatorCache = new SparseArrayCompat<>();
-    }
-    return pathInterpolatorCache;
-  }
-
-  @Nullable
-  private static WeakReference<Interpolator> getInterpolator(int hash) {
-    // This must be synchronized because get and put isn't thread safe because
-    // SparseArrayCompat has to create new sized arrays sometimes.
-    synchronized (KeyframeParser.class) {
-      return pathInterpolatorCache().get(hash);
-    }
-  }
-
-  private static void putInterpolator(int hash, WeakReference<Interpolator> interpolator) {
-    // This must be synchronized because get and put isn't thread safe because
-    // SparseArrayCompat has to create new sized arrays sometimes.
-    synchronized (KeyframeParser.class) {
-      pathInterpolatorCache.put(hash, interpolator);
-    }
-  }
-
   /**
    * @param multiDimensional When true, the keyframe interpolators can be independent for the X and Y axis.
    */
@@ -109,10 +80,10 @@ class KeyframeParser {
           startFrame = (float) reader.nextDouble();
           break;
         case 1: // s
-          startValue = valueParser.parse(reader, scale);
+          startValue = KeyframeInterner.intern(valueParser.parse(reader, scale));
           break;
         case 2: // e
-          endValue = valueParser.parse(reader, scale);
+          endValue = KeyframeInterner.intern(valueParser.parse(reader, scale));
           break;
         case 3: // o
           cp1 = JsonUtils.jsonToPoint(reader, 1f);
@@ -181,10 +152,10 @@ class KeyframeParser {
           startFrame = (float) reader.nextDouble();
           break;
         case 1: // s
-          startValue = valueParser.parse(reader, scale);
+          startValue = KeyframeInterner.intern(valueParser.parse(reader, scale));
           break;
         case 2: // e
-          endValue = valueParser.parse(reader, scale);
+          endValue = KeyframeInterner.intern(valueParser.parse(reader, scale));
           break;
         case 3: // o
           if (reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
@@ -332,12 +303,12 @@ class KeyframeParser {
     cp1.y = MiscUtils.clamp(cp1.y, -MAX_CP_VALUE, MAX_CP_VALUE);
     cp2.x = MiscUtils.clamp(cp2.x, -1f, 1f);
     cp2.y = MiscUtils.clamp(cp2.y, -MAX_CP_VALUE, MAX_CP_VALUE);
-    int hash = Utils.hashFor(cp1.x, cp1.y, cp2.x, cp2.y);
-    WeakReference<Interpolator> interpolatorRef = L.getDisablePathInterpolatorCache() ? null : getInterpolator(hash);
-    if (interpolatorRef != null) {
-      interpolator = interpolatorRef.get();
+    // https://github.com/airbnb/lottie-android/issues/464
+    boolean cacheEnabled = !L.getDisablePathInterpolatorCache();
+    if (cacheEnabled) {
+      interpolator = KeyframeInterner.getInterpolator(cp1.x, cp1.y, cp2.x, cp2.y);
     }
-    if (interpolatorRef == null || interpolator == null) {
+    if (interpolator == null) {
       try {
         interpolator = PathInterpolatorCompat.create(cp1.x, cp1.y, cp2.x, cp2.y);
       } catch (IllegalArgumentException e) {
@@ -351,15 +322,8 @@ class KeyframeParser {
           interpolator = new LinearInterpolator();
         }
       }
-      if (!L.getDisablePathInterpolatorCache()) {
-        try {
-          putInterpolator(hash, new WeakReference<>(interpolator));
-        } catch (ArrayIndexOutOfBoundsException e) {
-          // It is not clear why but SparseArrayCompat sometimes fails with this:
-          //     https://github.com/airbnb/lottie-android/issues/452
-          // Because this is not a critical operation, we can safely just ignore it.
-          // I was unable to repro this to attempt a proper fix.
-        }
+      if (cacheEnabled) {
+        interpolator = KeyframeInterner.putInterpolator(cp1.x, cp1.y, cp2.x, cp2.y, interpolator);
       }
     }
     return interpolator;
@@ -367,7 +331,7 @@ class KeyframeParser {
 
   private static <T> Keyframe<T> parseStaticValue(JsonReader reader,
       float scale, ValueParser<T> valueParser) throws IOException {
-    T value = valueParser.parse(reader, scale);
+    T value = KeyframeInterner.intern(valueParser.parse(reader, scale));
     return new Keyframe<>(value);
   }
 }
@@ -2,6 +2,7 @@ package com.kernelflux.lottie.parser;
 
 import com.kernelflux.lottie.LottieComposition;
 import com.kernelflux.lottie.animation.keyframe.PathKeyframe;
+import com.kernelflux.lottie.model.content.ShapeData;
 import com.kernelflux.lottie.parser.moshi.JsonReader;
 import com.kernelflux.lottie.value.Keyframe;
 
@@ -52,9 +53,24 @@ class KeyframesParser {
     reader.endObject();
 
     setEndFrames(keyframes);
+    countKeyframes(composition, keyframes);
     return keyframes;
   }
 
+  private static <T> void countKeyframes(LottieComposition composition, List<Keyframe<T>> keyframes) {
+    composition.incrementKeyframeCount(keyframes.size());
+    int vertexCount = 0;
+    for (int i = 0; i < keyframes.size(); i++) {
+      Object value = keyframes.get(i).startValue;
+      if (value instanceof ShapeData) {
+        vertexCount += ((ShapeData) value).getCurves().size() + 1;
+      }
+    }
+    if (vertexCount > 0) {
+      composition.incrementPathVertexCount(vertexCount);
+    }
+  }
+
   /**
    * The json doesn't include end frames. The data can be taken from the start frame of the next
    * keyframe though.
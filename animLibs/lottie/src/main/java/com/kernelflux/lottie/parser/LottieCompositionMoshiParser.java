@@ -2,15 +2,18 @@ package com.kernelflux.lottie.parser;
 
 import android.graphics.Rect;
 
+import androidx.annotation.Nullable;
 import androidx.collection.LongSparseArray;
 import androidx.collection.SparseArrayCompat;
 
+import com.kernelflux.lottie.L;
 import com.kernelflux.lottie.LottieComposition;
 import com.kernelflux.lottie.LottieImageAsset;
 import com.kernelflux.lottie.model.Font;
 import com.kernelflux.lottie.model.FontCharacter;
 import com.kernelflux.lottie.model.Marker;
 import com.kernelflux.lottie.model.layer.Layer;
+import com.kernelflux.lottie.parser.moshi.DeferredJsonValue;
 import com.kernelflux.lottie.parser.moshi.JsonReader;
 import com.kernelflux.lottie.utils.Logger;
 import com.kernelflux.lottie.utils.Utils;
@@ -38,6 +41,38 @@ public class LottieCompositionMoshiParser {
   );
 
   public static LottieComposition parse(JsonReader reader) throws IOException {
+    return parse(reader, L.isLazyPrecompsEnabled());
+  }
+
+  public static LottieComposition parse(JsonReader reader, boolean lazyPrecomps) throws IOException {
+    return parse(reader, lazyPrecomps, L.isParallelParsingEnabled());
+  }
+
+  /**
+   * @param lazyPrecomps If true, the layers of precomps are captured as they are read. Precomps the layers refer to
+   *                     are parsed once the layers are read, the others only when
+   *                     {@link LottieComposition#getPrecomps(String)} first asks for them. This is cheapest when
+   *                     the reader is a {@link com.kernelflux.lottie.parser.moshi.JsonSnapshotReader}, whose
+   *                     values are captured without copying.
+   * @param parallel     If true, precomp layers (unless lazy), fonts, font characters and embedded images are parsed
+   *                     on a shared fork-join pool while the reader moves on. The result is the same composition.
+   */
+  public static LottieComposition parse(JsonReader reader, boolean lazyPrecomps, boolean parallel)
+      throws IOException {
+    if (!parallel) {
+      return parseInternal(reader, lazyPrecomps, null);
+    }
+    ParallelParse parallelParse = new ParallelParse();
+    try {
+      return parseInternal(reader, lazyPrecomps, parallelParse);
+    } catch (IOException | RuntimeException e) {
+      parallelParse.cancel();
+      throw e;
+    }
+  }
+
+  private static LottieComposition parseInternal(JsonReader reader, boolean lazyPrecomps,
+      @Nullable ParallelParse parallelParse) throws IOException {
     float scale = Utils.dpScale();
     float startFrame = 0f;
     float endFrame = 0f;
@@ -47,6 +82,7 @@ public class LottieCompositionMoshiParser {
     int unscaledWidth = 0;
     int unscaledHeight = 0;
     Map<String, List<Layer>> precomps = new HashMap<>();
+    Map<String, DeferredJsonValue> deferredPrecomps = lazyPrecomps ? new HashMap<>() : null;
     Map<String, LottieImageAsset> images = new HashMap<>();
     Map<String, Font> fonts = new HashMap<>();
     List<Marker> markers = new ArrayList<>();
@@ -89,13 +125,21 @@ public class LottieCompositionMoshiParser {
           parseLayers(reader, composition, layers, layerMap);
           break;
         case 7:
-          parseAssets(reader, composition, precomps, images);
+          parseAssets(reader, composition, precomps, deferredPrecomps, parallelParse, images);
           break;
         case 8:
-          parseFonts(reader, fonts);
+          if (parallelParse != null) {
+            parallelParse.forkFonts(DeferredJsonValue.capture(reader));
+          } else {
+            parseFonts(reader, fonts);
+          }
           break;
         case 9:
-          parseChars(reader, composition, characters);
+          if (parallelParse != null) {
+            parallelParse.forkCharacters(reader, composition);
+          } else {
+            parseChars(reader, composition, characters);
+          }
           break;
         case 10:
           parseMarkers(reader, markers);
@@ -105,16 +149,53 @@ public class LottieCompositionMoshiParser {
           reader.skipValue();
       }
     }
+    if (parallelParse != null) {
+      parallelParse.join(precomps, fonts, characters);
+    }
+    if (deferredPrecomps != null) {
+      parseReferencedPrecomps(composition, layers, precomps, deferredPrecomps);
+    }
     int scaledWidth = (int) (unscaledWidth * scale);
     int scaledHeight = (int) (unscaledHeight * scale);
     Rect bounds = new Rect(0, 0, scaledWidth, scaledHeight);
 
     composition.init(bounds, startFrame, endFrame, frameRate, layers, layerMap, precomps,
         images, Utils.dpScale(), characters, fonts, markers, unscaledWidth, unscaledHeight);
+    if (deferredPrecomps != null && !deferredPrecomps.isEmpty()) {
+      composition.setDeferredPrecomps(new DeferredPrecomps(deferredPrecomps));
+    }
 
     return composition;
   }
 
+  /**
+   * Parses the captured precomps that the layers refer to, directly or through other precomps, so that building the
+   * layers of a drawable never parses json. Only precomps no layer refers to stay deferred.
+   */
+  private static void parseReferencedPrecomps(LottieComposition composition, List<Layer> layers,
+      Map<String, List<Layer>> precomps, Map<String, DeferredJsonValue> deferredPrecomps) throws IOException {
+    List<Layer> pending = new ArrayList<>(layers);
+    while (!pending.isEmpty() && !deferredPrecomps.isEmpty()) {
+      Layer layer = pending.remove(pending.size() - 1);
+      if (layer.getLayerType() != Layer.LayerType.PRE_COMP || layer.getRefId() == null) {
+        continue;
+      }
+      DeferredJsonValue value = deferredPrecomps.remove(layer.getRefId());
+      if (value == null) {
+        continue;
+      }
+      List<Layer> precompLayers = new ArrayList<>();
+      JsonReader precompReader = value.newReader();
+      precompReader.beginArray();
+      while (precompReader.hasNext()) {
+        precompLayers.add(LayerParser.parse(precompReader, composition));
+      }
+      precompReader.endArray();
+      precomps.put(layer.getRefId(), precompLayers);
+      pending.addAll(precompLayers);
+    }
+  }
+
   private static void parseLayers(JsonReader reader, LottieComposition composition,
       List<Layer> layers, LongSparseArray<Layer> layerMap) throws IOException {
     int imageCount = 0;
@@ -146,14 +227,20 @@ public class LottieCompositionMoshiParser {
       "u" // 5
   );
 
+  /**
+   * @param deferredPrecomps If not null, precomp layers are captured in it instead of being parsed.
+   * @param parallelParse    If not null (and precomps are not deferred), precomp layers are parsed on its pool.
+   */
   private static void parseAssets(JsonReader reader, LottieComposition composition,
-      Map<String, List<Layer>> precomps, Map<String, LottieImageAsset> images) throws IOException {
+      Map<String, List<Layer>> precomps, @Nullable Map<String, DeferredJsonValue> deferredPrecomps,
+      @Nullable ParallelParse parallelParse, Map<String, LottieImageAsset> images) throws IOException {
     reader.beginArray();
     while (reader.hasNext()) {
       String id = null;
       // For precomps
       List<Layer> layers = new ArrayList<>();
       LongSparseArray<Layer> layerMap = new LongSparseArray<>();
+      DeferredJsonValue deferredLayers = null;
       // For images
       int width = 0;
       int height = 0;
@@ -166,6 +253,10 @@ public class LottieCompositionMoshiParser {
             id = reader.nextString();
             break;
           case 1:
+            if (deferredPrecomps != null || parallelParse != null) {
+              deferredLayers = DeferredJsonValue.capture(reader);
+              break;
+            }
             reader.beginArray();
             while (reader.hasNext()) {
               Layer layer = LayerParser.parse(reader, composition);
@@ -196,6 +287,13 @@ public class LottieCompositionMoshiParser {
         LottieImageAsset image =
             new LottieImageAsset(width, height, id, imageFileName, relativeFolder);
         images.put(image.getId(), image);
+        if (parallelParse != null) {
+          parallelParse.forkImageDecode(image);
+        }
+      } else if (deferredPrecomps != null && deferredLayers != null) {
+        deferredPrecomps.put(id, deferredLayers);
+      } else if (parallelParse != null && deferredLayers != null) {
+        parallelParse.forkPrecomp(id, deferredLayers, composition);
       } else {
         precomps.put(id, layers);
       }
@@ -205,7 +303,7 @@ public class LottieCompositionMoshiParser {
 
   private static final JsonReader.Options FONT_NAMES = JsonReader.Options.of("list");
 
-  private static void parseFonts(JsonReader reader, Map<String, Font> fonts) throws IOException {
+  static void parseFonts(JsonReader reader, Map<String, Font> fonts) throws IOException {
     reader.beginObject();
     while (reader.hasNext()) {
       switch (reader.selectName(FONT_NAMES)) {
@@ -0,0 +1,189 @@
+package com.kernelflux.lottie.parser;
+
+import android.graphics.Bitmap;
+
+import androidx.collection.SparseArrayCompat;
+
+import com.kernelflux.lottie.LottieComposition;
+import com.kernelflux.lottie.LottieImageAsset;
+import com.kernelflux.lottie.manager.LottieBitmapDecoder;
+import com.kernelflux.lottie.model.Font;
+import com.kernelflux.lottie.model.FontCharacter;
+import com.kernelflux.lottie.model.layer.Layer;
+import com.kernelflux.lottie.parser.moshi.DeferredJsonValue;
+import com.kernelflux.lottie.parser.moshi.JsonReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Independent parts of a composition parsed on a shared, bounded fork-join pool while the reader moves on:
+ * precomp layers, fonts, font characters and embedded (base64) images.
+ * <p>
+ * Each part is captured with {@link DeferredJsonValue} and parsed from its own reader. Results are merged back in
+ * document order, so the composition is the same as the one a serial parse builds.
+ */
+class ParallelParse {
+
+  private static final int MAX_PARALLELISM = 4;
+
+  private static volatile ForkJoinPool pool;
+
+  static ForkJoinPool pool() {
+    ForkJoinPool local = pool;
+    if (local == null) {
+      synchronized (ParallelParse.class) {
+        local = pool;
+        if (local == null) {
+          int parallelism = Math.max(2, Math.min(MAX_PARALLELISM, Runtime.getRuntime().availableProcessors()));
+          pool = local = new ForkJoinPool(parallelism);
+        }
+      }
+    }
+    return local;
+  }
+
+  private final Map<String, ForkJoinTask<List<Layer>>> precompTasks = new LinkedHashMap<>();
+  private final List<ForkJoinTask<Map<String, Font>>> fontTasks = new ArrayList<>();
+  private final List<ForkJoinTask<FontCharacter>> characterTasks = new ArrayList<>();
+  private final List<ForkJoinTask<Void>> imageTasks = new ArrayList<>();
+
+  void forkPrecomp(String id, DeferredJsonValue layers, final LottieComposition composition) {
+    ForkJoinTask<List<Layer>> previous = precompTasks.put(id, pool().submit(new ParseTask<List<Layer>>(layers) {
+      @Override List<Layer> parse(JsonReader reader) throws IOException {
+        List<Layer> precompLayers = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+          precompLayers.add(LayerParser.parse(reader, composition));
+        }
+        reader.endArray();
+        return precompLayers;
+      }
+    }));
+    if (previous != null) {
+      // A later asset with the same id replaces it, as in a serial parse.
+      previous.cancel(false);
+    }
+  }
+
+  void forkFonts(DeferredJsonValue fonts) {
+    fontTasks.add(pool().submit(new ParseTask<Map<String, Font>>(fonts) {
+      @Override Map<String, Font> parse(JsonReader reader) throws IOException {
+        Map<String, Font> parsedFonts = new HashMap<>();
+        LottieCompositionMoshiParser.parseFonts(reader, parsedFonts);
+        return parsedFonts;
+      }
+    }));
+  }
+
+  /**
+   * Reads the "chars" array, forking one task per character.
+   */
+  void forkCharacters(JsonReader reader, final LottieComposition composition) throws IOException {
+    reader.beginArray();
+    while (reader.hasNext()) {
+      characterTasks.add(pool().submit(new ParseTask<FontCharacter>(DeferredJsonValue.capture(reader)) {
+        @Override FontCharacter parse(JsonReader reader) throws IOException {
+          return FontCharacterParser.parse(reader, composition);
+        }
+      }));
+    }
+    reader.endArray();
+  }
+
+  /**
+   * Decodes the image if it is embedded as a base64 data url, it is then ready before the first draw.
+   */
+  void forkImageDecode(final LottieImageAsset asset) {
+    final String fileName = asset.getFileName();
+    if (!fileName.startsWith("data:") || fileName.indexOf("base64,") <= 0) {
+      return;
+    }
+    imageTasks.add(pool().submit(new RecursiveAction() {
+      @Override protected void compute() {
+        Bitmap bitmap = LottieBitmapDecoder.decodeBase64(asset.getId(), fileName, asset.getWidth(), asset.getHeight());
+        if (bitmap != null) {
+          asset.setDecodedBitmap(bitmap);
+        }
+      }
+    }));
+  }
+
+  /**
+   * Waits for every task and merges the results, in the order their json was read.
+   */
+  void join(Map<String, List<Layer>> precomps, Map<String, Font> fonts,
+      SparseArrayCompat<FontCharacter> characters) throws IOException {
+    for (Map.Entry<String, ForkJoinTask<List<Layer>>> entry : precompTasks.entrySet()) {
+      precomps.put(entry.getKey(), join(entry.getValue()));
+    }
+    for (ForkJoinTask<Map<String, Font>> task : fontTasks) {
+      fonts.putAll(join(task));
+    }
+    for (ForkJoinTask<FontCharacter> task : characterTasks) {
+      FontCharacter character = join(task);
+      characters.put(character.hashCode(), character);
+    }
+    for (ForkJoinTask<Void> task : imageTasks) {
+      join(task);
+    }
+  }
+
+  /**
+   * Cancels the tasks that have not started, after the parse failed.
+   */
+  void cancel() {
+    for (ForkJoinTask<?> task : precompTasks.values()) {
+      task.cancel(false);
+    }
+    for (ForkJoinTask<?> task : fontTasks) {
+      task.cancel(false);
+    }
+    for (ForkJoinTask<?> task : characterTasks) {
+      task.cancel(false);
+    }
+    for (ForkJoinTask<?> task : imageTasks) {
+      task.cancel(false);
+    }
+  }
+
+  private static <T> T join(ForkJoinTask<T> task) throws IOException {
+    try {
+      return task.join();
+    } catch (RuntimeException e) {
+      // Tasks wrap the IOException of their reader, the pool may wrap it again when rethrowing on this thread.
+      for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        }
+      }
+      throw e;
+    }
+  }
+
+  private abstract static class ParseTask<T> extends RecursiveTask<T> {
+    private final DeferredJsonValue value;
+
+    ParseTask(DeferredJsonValue value) {
+      this.value = value;
+    }
+
+    abstract T parse(JsonReader reader) throws IOException;
+
+    @Override protected T compute() {
+      try {
+        return parse(value.newReader());
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package com.kernelflux.lottie.parser;
+
+import androidx.annotation.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Returns one shared instance for equivalent values, without keeping them alive: an instance is dropped once no
+ * composition references it anymore.
+ * <p>
+ * Lookups don't lock, the map is a {@link ConcurrentHashMap} and cleared references are removed as they are queued.
+ */
+abstract class WeakInterner<T> {
+
+  private final ConcurrentHashMap<Ref<T>, Ref<T>> map = new ConcurrentHashMap<>();
+  private final ReferenceQueue<T> queue = new ReferenceQueue<>();
+
+  /**
+   * Values must not be modified once interned.
+   */
+  abstract boolean equivalent(T a, T b);
+
+  abstract int hash(T value);
+
+  /**
+   * Returns the interned instance equivalent to this value, interning the value if there is none.
+   */
+  T intern(T value) {
+    expungeClearedRefs();
+    Ref<T> ref = new Ref<>(value, hash(value), this, queue);
+    while (true) {
+      Ref<T> existing = map.putIfAbsent(ref, ref);
+      if (existing == null) {
+        return value;
+      }
+      T interned = existing.get();
+      if (interned != null) {
+        return interned;
+      }
+      // Cleared after the lookup matched it, replace it.
+      if (map.replace(existing, existing, ref)) {
+        return value;
+      }
+    }
+  }
+
+  private void expungeClearedRefs() {
+    Reference<? extends T> cleared;
+    while ((cleared = queue.poll()) != null) {
+      map.remove(cleared, cleared);
+    }
+  }
+
+  private static final class Ref<T> extends WeakReference<T> {
+    private final int hash;
+    private final WeakInterner<T> interner;
+
+    Ref(T value, int hash, WeakInterner<T> interner, ReferenceQueue<T> queue) {
+      super(value, queue);
+      this.hash = hash;
+      this.interner = interner;
+    }
+
+    @Override public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Ref)) {
+        return false;
+      }
+      @SuppressWarnings("unchecked") Ref<T> other = (Ref<T>) o;
+      if (hash != other.hash) {
+        return false;
+      }
+      T value = get();
+      T otherValue = other.get();
+      // A cleared reference only equals itself, so that it can still be removed.
+      return value != null && otherValue != null && interner.equivalent(value, otherValue);
+    }
+
+    @Override public int hashCode() {
+      return hash;
+    }
+  }
+}
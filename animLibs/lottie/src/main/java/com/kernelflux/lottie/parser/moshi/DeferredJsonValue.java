@@ -0,0 +1,54 @@
+package com.kernelflux.lottie.parser.moshi;
+
+import androidx.annotation.RestrictTo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A json value consumed from a reader, kept in snapshot form to be parsed later, possibly several times.
+ * <p>
+ * Values captured from a {@link JsonSnapshotReader} are a range of its snapshot and cost nothing to capture. Values
+ * captured from any other reader are transcoded into a snapshot of their own, which still skips building any model.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class DeferredJsonValue {
+
+  private final ByteBuffer buffer;
+  private final int[] stringOffsets;
+  private final String[] strings;
+  private final int start;
+  private final int end;
+
+  DeferredJsonValue(ByteBuffer buffer, int[] stringOffsets, String[] strings, int start, int end) {
+    this.buffer = buffer;
+    this.stringOffsets = stringOffsets;
+    this.strings = strings;
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Consumes the next value of the reader.
+   */
+  public static DeferredJsonValue capture(JsonReader reader) throws IOException {
+    JsonSnapshotReader snapshotReader = reader instanceof JsonSnapshotReader ?
+        (JsonSnapshotReader) reader :
+        (JsonSnapshotReader) JsonSnapshotReader.of(ByteBuffer.wrap(JsonSnapshotWriter.write(reader)));
+    return snapshotReader.captureValue();
+  }
+
+  /**
+   * A new reader positioned on the value. Readers are independent, they may be used from different threads.
+   */
+  public JsonReader newReader() {
+    return new JsonSnapshotReader(buffer, stringOffsets, strings, start, end);
+  }
+
+  /**
+   * Size of the value in snapshot form, excluding its strings.
+   */
+  public int getByteCount() {
+    return end - start;
+  }
+}
@@ -0,0 +1,415 @@
+package com.kernelflux.lottie.parser.moshi;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Reads a document written by {@link JsonSnapshotWriter}, typically from a memory-mapped file.
+ * <p>
+ * Behaves like {@link JsonUtf8Reader} for everything the parsers use, but there is nothing to tokenize: numbers are
+ * stored as binary values, names are matched against {@link Options} once per distinct name, and skipping an object
+ * or array jumps straight past it.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class JsonSnapshotReader extends JsonReader {
+
+  /**
+   * "LTSS"
+   */
+  static final int MAGIC = 0x4C545353;
+  /**
+   * Bump whenever the layout changes, older snapshots are then rejected by {@link #isValid(ByteBuffer)}.
+   */
+  static final int VERSION = 1;
+  private static final int HEADER_SIZE = 12;
+
+  static final byte TAG_BEGIN_OBJECT = 1;
+  static final byte TAG_END_OBJECT = 2;
+  static final byte TAG_BEGIN_ARRAY = 3;
+  static final byte TAG_END_ARRAY = 4;
+  static final byte TAG_NAME = 5;
+  static final byte TAG_STRING = 6;
+  static final byte TAG_INT = 7;
+  static final byte TAG_DOUBLE = 8;
+  static final byte TAG_TRUE = 9;
+  static final byte TAG_FALSE = 10;
+  static final byte TAG_NULL = 11;
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final int UNMATCHED = -2;
+
+  private final ByteBuffer buffer;
+  private final int tokensEnd;
+  private final int[] stringOffsets;
+  private final String[] strings;
+  /**
+   * Per {@link Options}: option index of each string of the string table, resolved on first lookup.
+   */
+  private final Map<Options, int[]> selectedNames = new IdentityHashMap<>();
+  private int pos;
+  /**
+   * Value of the last varint read by {@link #readVarint(int)}.
+   */
+  private int varint;
+
+  private JsonSnapshotReader(ByteBuffer buffer) {
+    this.buffer = buffer;
+    tokensEnd = buffer.getInt(8);
+    pos = HEADER_SIZE;
+
+    int offset = readVarint(tokensEnd);
+    int count = varint;
+    stringOffsets = new int[count];
+    for (int i = 0; i < count; i++) {
+      stringOffsets[i] = offset;
+      offset = readVarint(offset) + varint;
+    }
+    strings = new String[count];
+    pushScope(JsonScope.EMPTY_DOCUMENT);
+  }
+
+  /**
+   * Reads the single value between start and end, sharing the string table of the snapshot it was captured from.
+   */
+  JsonSnapshotReader(ByteBuffer buffer, int[] stringOffsets, String[] strings, int start, int end) {
+    this.buffer = buffer;
+    this.stringOffsets = stringOffsets;
+    this.strings = strings;
+    tokensEnd = end;
+    pos = start;
+    pushScope(JsonScope.EMPTY_DOCUMENT);
+  }
+
+  /**
+   * @param snapshot Snapshot bytes, read from its position. Must be valid, see {@link #isValid(ByteBuffer)}.
+   */
+  public static JsonReader of(ByteBuffer snapshot) {
+    return new JsonSnapshotReader(snapshot.slice());
+  }
+
+  /**
+   * Whether the buffer holds a snapshot of the current format version.
+   */
+  public static boolean isValid(@Nullable ByteBuffer snapshot) {
+    if (snapshot == null || snapshot.remaining() < HEADER_SIZE) {
+      return false;
+    }
+    int start = snapshot.position();
+    if (snapshot.getInt(start) != MAGIC || snapshot.getInt(start + 4) != VERSION) {
+      return false;
+    }
+    int stringTableOffset = snapshot.getInt(start + 8);
+    return stringTableOffset >= HEADER_SIZE && stringTableOffset < snapshot.remaining();
+  }
+
+  @Override public void beginArray() throws IOException {
+    expect(TAG_BEGIN_ARRAY, Token.BEGIN_ARRAY);
+    pos += 5;
+    pushScope(JsonScope.EMPTY_ARRAY);
+    pathIndices[stackSize - 1] = 0;
+  }
+
+  @Override public void endArray() throws IOException {
+    expect(TAG_END_ARRAY, Token.END_ARRAY);
+    pos++;
+    stackSize--;
+    pathIndices[stackSize - 1]++;
+  }
+
+  @Override public void beginObject() throws IOException {
+    expect(TAG_BEGIN_OBJECT, Token.BEGIN_OBJECT);
+    pos += 5;
+    pushScope(JsonScope.EMPTY_OBJECT);
+  }
+
+  @Override public void endObject() throws IOException {
+    expect(TAG_END_OBJECT, Token.END_OBJECT);
+    pos++;
+    stackSize--;
+    pathNames[stackSize] = null;
+    pathIndices[stackSize - 1]++;
+  }
+
+  @Override public boolean hasNext() throws IOException {
+    if (pos >= tokensEnd) {
+      return false;
+    }
+    byte tag = buffer.get(pos);
+    return tag != TAG_END_OBJECT && tag != TAG_END_ARRAY;
+  }
+
+  @Override public Token peek() throws IOException {
+    if (pos >= tokensEnd) {
+      return Token.END_DOCUMENT;
+    }
+    switch (buffer.get(pos)) {
+      case TAG_BEGIN_OBJECT:
+        return Token.BEGIN_OBJECT;
+      case TAG_END_OBJECT:
+        return Token.END_OBJECT;
+      case TAG_BEGIN_ARRAY:
+        return Token.BEGIN_ARRAY;
+      case TAG_END_ARRAY:
+        return Token.END_ARRAY;
+      case TAG_NAME:
+        return Token.NAME;
+      case TAG_STRING:
+        return Token.STRING;
+      case TAG_INT:
+      case TAG_DOUBLE:
+        return Token.NUMBER;
+      case TAG_TRUE:
+      case TAG_FALSE:
+        return Token.BOOLEAN;
+      case TAG_NULL:
+        return Token.NULL;
+      default:
+        throw syntaxError("Corrupt snapshot");
+    }
+  }
+
+  @Override public String nextName() throws IOException {
+    expect(TAG_NAME, Token.NAME);
+    pos++;
+    String name = string(readStringIndex());
+    pathNames[stackSize - 1] = name;
+    return name;
+  }
+
+  @Override public int selectName(Options options) throws IOException {
+    if (pos >= tokensEnd || buffer.get(pos) != TAG_NAME) {
+      return -1;
+    }
+    int next = readVarint(pos + 1);
+    int stringIndex = varint;
+
+    int[] optionIndices = selectedNames.get(options);
+    if (optionIndices == null) {
+      optionIndices = new int[strings.length];
+      Arrays.fill(optionIndices, UNMATCHED);
+      selectedNames.put(options, optionIndices);
+    }
+    int result = optionIndices[stringIndex];
+    if (result == UNMATCHED) {
+      result = -1;
+      String name = string(stringIndex);
+      for (int i = 0; i < options.strings.length; i++) {
+        if (options.strings[i].equals(name)) {
+          result = i;
+          break;
+        }
+      }
+      optionIndices[stringIndex] = result;
+    }
+    if (result != -1) {
+      pos = next;
+      pathNames[stackSize - 1] = options.strings[result];
+    }
+    return result;
+  }
+
+  @Override public void skipName() throws IOException {
+    if (failOnUnknown) {
+      throw new JsonDataException("Cannot skip unexpected " + peek() + " at " + getPath());
+    }
+    expect(TAG_NAME, Token.NAME);
+    pos++;
+    readStringIndex();
+    pathNames[stackSize - 1] = "null";
+  }
+
+  @Override public String nextString() throws IOException {
+    String result;
+    switch (tagOrEnd()) {
+      case TAG_STRING:
+        pos++;
+        result = string(readStringIndex());
+        break;
+      case TAG_INT:
+        result = Integer.toString(buffer.getInt(pos + 1));
+        pos += 5;
+        break;
+      case TAG_DOUBLE:
+        result = Double.toString(buffer.getDouble(pos + 1));
+        pos += 9;
+        break;
+      default:
+        throw new JsonDataException("Expected a string but was " + peek() + " at path " + getPath());
+    }
+    pathIndices[stackSize - 1]++;
+    return result;
+  }
+
+  @Override public boolean nextBoolean() throws IOException {
+    byte tag = tagOrEnd();
+    if (tag != TAG_TRUE && tag != TAG_FALSE) {
+      throw new JsonDataException("Expected a boolean but was " + peek() + " at path " + getPath());
+    }
+    pos++;
+    pathIndices[stackSize - 1]++;
+    return tag == TAG_TRUE;
+  }
+
+  @Override public double nextDouble() throws IOException {
+    double result;
+    switch (tagOrEnd()) {
+      case TAG_INT:
+        result = buffer.getInt(pos + 1);
+        pos += 5;
+        break;
+      case TAG_DOUBLE:
+        result = buffer.getDouble(pos + 1);
+        pos += 9;
+        break;
+      case TAG_STRING: {
+        int start = pos;
+        pos++;
+        String value = string(readStringIndex());
+        try {
+          result = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+          pos = start;
+          throw new JsonDataException("Expected a double but was " + value + " at path " + getPath());
+        }
+        break;
+      }
+      default:
+        throw new JsonDataException("Expected a double but was " + peek() + " at path " + getPath());
+    }
+    if (!lenient && (Double.isNaN(result) || Double.isInfinite(result))) {
+      throw new JsonEncodingException("JSON forbids NaN and infinities: " + result + " at path " + getPath());
+    }
+    pathIndices[stackSize - 1]++;
+    return result;
+  }
+
+  @Override public int nextInt() throws IOException {
+    int result;
+    switch (tagOrEnd()) {
+      case TAG_INT:
+        result = buffer.getInt(pos + 1);
+        pos += 5;
+        break;
+      case TAG_DOUBLE:
+      case TAG_STRING: {
+        int start = pos;
+        double value = nextDouble();
+        result = (int) value;
+        if (result != value) {
+          pos = start;
+          pathIndices[stackSize - 1]--;
+          throw new JsonDataException("Expected an int but was " + value + " at path " + getPath());
+        }
+        // nextDouble already advanced the path.
+        return result;
+      }
+      default:
+        throw new JsonDataException("Expected an int but was " + peek() + " at path " + getPath());
+    }
+    pathIndices[stackSize - 1]++;
+    return result;
+  }
+
+  @Override public void skipValue() throws IOException {
+    if (failOnUnknown) {
+      throw new JsonDataException("Cannot skip unexpected " + peek() + " at " + getPath());
+    }
+    switch (tagOrEnd()) {
+      case TAG_BEGIN_OBJECT:
+      case TAG_BEGIN_ARRAY:
+        // Jump right after the matching end tag.
+        pos = buffer.getInt(pos + 1);
+        break;
+      case TAG_NAME:
+      case TAG_STRING:
+        pos++;
+        readStringIndex();
+        break;
+      case TAG_INT:
+        pos += 5;
+        break;
+      case TAG_DOUBLE:
+        pos += 9;
+        break;
+      case TAG_TRUE:
+      case TAG_FALSE:
+      case TAG_NULL:
+        pos++;
+        break;
+      default:
+        throw new JsonDataException("Expected a value but was " + peek() + " at path " + getPath());
+    }
+    pathIndices[stackSize - 1]++;
+    pathNames[stackSize - 1] = "null";
+  }
+
+  /**
+   * Consumes the next value and returns a handle to read it again later, without copying it.
+   */
+  DeferredJsonValue captureValue() throws IOException {
+    int start = pos;
+    skipValue();
+    return new DeferredJsonValue(buffer, stringOffsets, strings, start, pos);
+  }
+
+  @Override public void close() throws IOException {
+    scopes[0] = JsonScope.CLOSED;
+    stackSize = 1;
+    pos = tokensEnd;
+  }
+
+  private byte tagOrEnd() {
+    return pos < tokensEnd ? buffer.get(pos) : 0;
+  }
+
+  private void expect(byte tag, Token token) throws IOException {
+    if (tagOrEnd() != tag) {
+      throw new JsonDataException("Expected " + token + " but was " + peek() + " at path " + getPath());
+    }
+  }
+
+  /**
+   * Reads the string table index following an already consumed tag.
+   */
+  private int readStringIndex() {
+    pos = readVarint(pos);
+    return varint;
+  }
+
+  private String string(int index) {
+    String string = strings[index];
+    if (string == null) {
+      int offset = readVarint(stringOffsets[index]);
+      byte[] bytes = new byte[varint];
+      for (int i = 0; i < bytes.length; i++) {
+        bytes[i] = buffer.get(offset + i);
+      }
+      string = new String(bytes, UTF_8);
+      strings[index] = string;
+    }
+    return string;
+  }
+
+  /**
+   * @return Offset right after the varint, its value goes in {@link #varint}.
+   */
+  private int readVarint(int offset) {
+    int result = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = buffer.get(offset++);
+      result |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    varint = result;
+    return offset;
+  }
+}
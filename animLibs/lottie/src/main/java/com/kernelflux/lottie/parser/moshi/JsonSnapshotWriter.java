@@ -0,0 +1,180 @@
+package com.kernelflux.lottie.parser.moshi;
+
+import androidx.annotation.RestrictTo;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transcodes a JSON document into the binary snapshot format read by {@link JsonSnapshotReader}.
+ * <p>
+ * Layout (big endian):
+ * <pre>
+ *   int magic, int version, int stringTableOffset
+ *   tokens...
+ *   string table: varint count, then per string varint byte length + UTF-8 bytes
+ * </pre>
+ * Tokens are a one byte tag followed by its payload:
+ * <ul>
+ *   <li>begin object/array: int offset right after the matching end tag, so skipping a value is O(1)</li>
+ *   <li>name/string: varint index into the string table (every distinct string is stored once)</li>
+ *   <li>number: int if the value is integral and fits, otherwise the double bits</li>
+ * </ul>
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class JsonSnapshotWriter {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private byte[] data = new byte[16 * 1024];
+  private int size;
+  private final Map<String, Integer> stringIndices = new HashMap<>();
+  private final List<String> strings = new ArrayList<>();
+
+  private JsonSnapshotWriter() {
+  }
+
+  /**
+   * Reads the whole document from the reader (without closing it) and returns its snapshot.
+   */
+  public static byte[] write(JsonReader reader) throws IOException {
+    JsonSnapshotWriter writer = new JsonSnapshotWriter();
+    writer.writeInt(JsonSnapshotReader.MAGIC);
+    writer.writeInt(JsonSnapshotReader.VERSION);
+    // String table offset, patched below.
+    writer.writeInt(0);
+    writer.copyValue(reader);
+    int stringTableOffset = writer.size;
+    writer.writeStringTable();
+    writer.putInt(8, stringTableOffset);
+    return Arrays.copyOf(writer.data, writer.size);
+  }
+
+  private void copyValue(JsonReader reader) throws IOException {
+    switch (reader.peek()) {
+      case BEGIN_OBJECT: {
+        reader.beginObject();
+        int endOffsetPosition = beginContainer(JsonSnapshotReader.TAG_BEGIN_OBJECT);
+        while (reader.hasNext()) {
+          writeByte(JsonSnapshotReader.TAG_NAME);
+          writeVarint(indexOf(reader.nextName()));
+          copyValue(reader);
+        }
+        reader.endObject();
+        endContainer(JsonSnapshotReader.TAG_END_OBJECT, endOffsetPosition);
+        break;
+      }
+      case BEGIN_ARRAY: {
+        reader.beginArray();
+        int endOffsetPosition = beginContainer(JsonSnapshotReader.TAG_BEGIN_ARRAY);
+        while (reader.hasNext()) {
+          copyValue(reader);
+        }
+        reader.endArray();
+        endContainer(JsonSnapshotReader.TAG_END_ARRAY, endOffsetPosition);
+        break;
+      }
+      case STRING:
+        writeByte(JsonSnapshotReader.TAG_STRING);
+        writeVarint(indexOf(reader.nextString()));
+        break;
+      case NUMBER:
+        writeNumber(reader.nextDouble());
+        break;
+      case BOOLEAN:
+        writeByte(reader.nextBoolean() ? JsonSnapshotReader.TAG_TRUE : JsonSnapshotReader.TAG_FALSE);
+        break;
+      case NULL:
+        reader.skipValue();
+        writeByte(JsonSnapshotReader.TAG_NULL);
+        break;
+      default:
+        throw new JsonDataException("Unexpected " + reader.peek() + " at " + reader.getPath());
+    }
+  }
+
+  private int beginContainer(byte tag) {
+    writeByte(tag);
+    int endOffsetPosition = size;
+    writeInt(0);
+    return endOffsetPosition;
+  }
+
+  private void endContainer(byte tag, int endOffsetPosition) {
+    writeByte(tag);
+    putInt(endOffsetPosition, size);
+  }
+
+  private void writeNumber(double value) {
+    int intValue = (int) value;
+    // Keep -0.0 as a double, it would read back as 0.
+    if (intValue == value && Double.doubleToRawLongBits(value) != Double.doubleToRawLongBits(-0.0)) {
+      writeByte(JsonSnapshotReader.TAG_INT);
+      writeInt(intValue);
+    } else {
+      writeByte(JsonSnapshotReader.TAG_DOUBLE);
+      long bits = Double.doubleToRawLongBits(value);
+      writeInt((int) (bits >>> 32));
+      writeInt((int) bits);
+    }
+  }
+
+  private int indexOf(String string) {
+    Integer index = stringIndices.get(string);
+    if (index == null) {
+      index = strings.size();
+      strings.add(string);
+      stringIndices.put(string, index);
+    }
+    return index;
+  }
+
+  private void writeStringTable() {
+    writeVarint(strings.size());
+    for (int i = 0; i < strings.size(); i++) {
+      byte[] bytes = strings.get(i).getBytes(UTF_8);
+      writeVarint(bytes.length);
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, data, size, bytes.length);
+      size += bytes.length;
+    }
+  }
+
+  private void writeByte(byte value) {
+    ensureCapacity(1);
+    data[size++] = value;
+  }
+
+  private void writeInt(int value) {
+    ensureCapacity(4);
+    putInt(size, value);
+    size += 4;
+  }
+
+  private void putInt(int position, int value) {
+    data[position] = (byte) (value >>> 24);
+    data[position + 1] = (byte) (value >>> 16);
+    data[position + 2] = (byte) (value >>> 8);
+    data[position + 3] = (byte) value;
+  }
+
+  private void writeVarint(int value) {
+    ensureCapacity(5);
+    while ((value & ~0x7F) != 0) {
+      data[size++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    data[size++] = (byte) value;
+  }
+
+  private void ensureCapacity(int extra) {
+    if (size + extra > data.length) {
+      data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+    }
+  }
+}
@@ -1,6 +1,8 @@
 package com.airbnb.lottie;
 
 import android.animation.Animator;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
 import android.graphics.Rect;
 import androidx.collection.LongSparseArray;
 import androidx.collection.SparseArrayCompat;
@@ -9,7 +11,12 @@ import com.kernelflux.lottie.Lottie;
 import com.kernelflux.lottie.LottieComposition;
 import com.kernelflux.lottie.LottieConfig;
 import com.kernelflux.lottie.LottieDrawable;
+import com.kernelflux.lottie.LottieProperty;
+import com.kernelflux.lottie.RenderMode;
+import com.kernelflux.lottie.model.KeyPath;
+import com.kernelflux.lottie.model.LottieFrameCache;
 import com.kernelflux.lottie.reducemotion.ReducedMotionMode;
+import com.kernelflux.lottie.value.LottieValueCallback;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -130,6 +137,40 @@ public class LottieDrawableTest extends BaseTest {
     verify(animatorListener, atLeastOnce()).onAnimationEnd(any(Animator.class), eq(false));
   }
 
+  @Test
+  public void testCachedFramesShared() {
+    LottieFrameCache.getInstance().clear();
+    drawCachedFrame(createCachedFramesDrawable());
+    // 10 frames of 10x10 ARGB_8888
+    assertEquals(4000, LottieFrameCache.getInstance().size());
+  }
+
+  @Test
+  public void testCachedFramesSkippedWithValueCallback() {
+    LottieFrameCache.getInstance().clear();
+    LottieDrawable drawable = createCachedFramesDrawable();
+    drawable.addValueCallback(new KeyPath("**"), LottieProperty.OPACITY, new LottieValueCallback<>(50));
+    drawCachedFrame(drawable);
+    assertEquals(0, LottieFrameCache.getInstance().size());
+  }
+
+  private LottieDrawable createCachedFramesDrawable() {
+    LottieComposition composition = new LottieComposition();
+    composition.init(new Rect(0, 0, 10, 10), 0, 9, 30, new ArrayList<>(),
+        new LongSparseArray<>(0), new HashMap<>(0),
+        new HashMap<>(0), 1f, new SparseArrayCompat<>(0),
+        new HashMap<>(0), new ArrayList<>(), 0, 0);
+    LottieDrawable drawable = new LottieDrawable();
+    drawable.setComposition(composition);
+    drawable.setRenderMode(RenderMode.CACHED_FRAMES);
+    drawable.setBounds(0, 0, 10, 10);
+    return drawable;
+  }
+
+  private void drawCachedFrame(LottieDrawable drawable) {
+    drawable.draw(new Canvas(Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888)));
+  }
+
   private void disableSystemAnimation() {
     Lottie.initialize(new LottieConfig.Builder().setReducedMotionOption(
         context -> ReducedMotionMode.REDUCED_MOTION
@@ -0,0 +1,42 @@
+package com.airbnb.lottie;
+
+import static org.junit.Assert.assertTrue;
+
+import com.kernelflux.lottie.LottieComposition;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * Parse time of a composition from json against from its binary snapshot.
+ */
+@Ignore("Benchmark, run manually")
+public class LottieSnapshotBenchmark extends BaseTest {
+
+  private static final int WARMUP_ITERATIONS = 20;
+  private static final int ITERATIONS = 100;
+
+  @Test
+  public void testSnapshotParsesFasterThanJson() throws IOException {
+    String json = LottieSnapshotTest.readResource("test1.json");
+    byte[] snapshot = LottieSnapshotTest.snapshot(json);
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      LottieSnapshotTest.parseJson(json);
+      LottieSnapshotTest.parseSnapshot(snapshot);
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      LottieSnapshotTest.parseJson(json);
+    }
+    long jsonMicros = (System.nanoTime() - start) / ITERATIONS / 1000;
+    start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      LottieSnapshotTest.parseSnapshot(snapshot);
+    }
+    long snapshotMicros = (System.nanoTime() - start) / ITERATIONS / 1000;
+    assertTrue("Mean parse: json " + json.length() + " bytes " + jsonMicros + "us, snapshot "
+        + snapshot.length + " bytes " + snapshotMicros + "us", snapshotMicros < jsonMicros);
+  }
+}
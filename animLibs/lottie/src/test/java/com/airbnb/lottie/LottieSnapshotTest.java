@@ -0,0 +1,183 @@
+package com.airbnb.lottie;
+
+import static okio.Okio.buffer;
+import static okio.Okio.source;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.kernelflux.lottie.L;
+import com.kernelflux.lottie.LottieComposition;
+import com.kernelflux.lottie.LottieCompositionFactory;
+import com.kernelflux.lottie.LottieResult;
+import com.kernelflux.lottie.model.LottieCompositionCache;
+import com.kernelflux.lottie.model.LottieSnapshotCache;
+import com.kernelflux.lottie.parser.LottieCompositionMoshiParser;
+import com.kernelflux.lottie.parser.moshi.JsonReader;
+import com.kernelflux.lottie.parser.moshi.JsonSnapshotReader;
+import com.kernelflux.lottie.parser.moshi.JsonSnapshotWriter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+public class LottieSnapshotTest extends BaseTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File snapshotDir;
+
+  @Before
+  public void setup() throws IOException {
+    LottieCompositionCache.getInstance().clear();
+    snapshotDir = temporaryFolder.newFolder("snapshots");
+  }
+
+  @After
+  public void tearDown() {
+    L.setSnapshotCacheDir(null);
+    LottieCompositionCache.getInstance().clear();
+  }
+
+  @Test
+  public void testSnapshotParsesLikeJson() throws IOException {
+    for (String json : new String[]{Fixtures.SQUARES, readResource("test1.json")}) {
+      LottieComposition fromJson = parseJson(json);
+      LottieComposition fromSnapshot = parseSnapshot(snapshot(json));
+      assertEquals(fromJson.getBounds(), fromSnapshot.getBounds());
+      assertEquals(fromJson.getStartFrame(), fromSnapshot.getStartFrame(), 0f);
+      assertEquals(fromJson.getEndFrame(), fromSnapshot.getEndFrame(), 0f);
+      assertEquals(fromJson.getFrameRate(), fromSnapshot.getFrameRate(), 0f);
+      assertEquals(fromJson.getLayerCount(), fromSnapshot.getLayerCount());
+      assertEquals(fromJson.getKeyframeCount(), fromSnapshot.getKeyframeCount());
+      assertEquals(fromJson.getPathVertexCount(), fromSnapshot.getPathVertexCount());
+      assertEquals(fromJson.getMarkers().size(), fromSnapshot.getMarkers().size());
+      assertEquals(fromJson.getImages().keySet(), fromSnapshot.getImages().keySet());
+      assertEquals(fromJson.toString(), fromSnapshot.toString());
+    }
+  }
+
+  @Test
+  public void testSnapshotIsSmallerThanJson() throws IOException {
+    String json = readResource("test1.json");
+    assertTrue(snapshot(json).length < json.getBytes("UTF-8").length);
+  }
+
+  @Test
+  public void testOutdatedSnapshotIsInvalid() throws IOException {
+    byte[] snapshot = snapshot(Fixtures.SQUARES);
+    assertTrue(JsonSnapshotReader.isValid(ByteBuffer.wrap(snapshot)));
+    // Version follows the magic.
+    snapshot[7]++;
+    assertFalse(JsonSnapshotReader.isValid(ByteBuffer.wrap(snapshot)));
+    assertFalse(JsonSnapshotReader.isValid(ByteBuffer.wrap(Fixtures.SQUARES.getBytes("UTF-8"))));
+  }
+
+  @Test
+  public void testSnapshotCacheRoundTrip() throws IOException {
+    LottieSnapshotCache cache = new LottieSnapshotCache(snapshotDir);
+    assertNull(cache.get("squares"));
+    byte[] snapshot = snapshot(Fixtures.SQUARES);
+    cache.put("squares", snapshot);
+    ByteBuffer mapped = cache.get("squares");
+    assertNotNull(mapped);
+    assertEquals(ByteBuffer.wrap(snapshot), mapped);
+    cache.remove("squares");
+    assertNull(cache.get("squares"));
+  }
+
+  @Test
+  public void testSnapshotCacheClearedOnAppUpdate() throws IOException {
+    byte[] snapshot = snapshot(Fixtures.SQUARES);
+    LottieSnapshotCache cache = new LottieSnapshotCache(snapshotDir);
+    cache.put("squares", snapshot);
+    // No version stamp yet, so snapshots of an unknown app version are dropped.
+    cache.checkAppVersion(RuntimeEnvironment.application);
+    assertNull(cache.get("squares"));
+
+    cache.put("squares", snapshot);
+    LottieSnapshotCache sameVersion = new LottieSnapshotCache(snapshotDir);
+    sameVersion.checkAppVersion(RuntimeEnvironment.application);
+    assertNotNull(sameVersion.get("squares"));
+
+    File stamp = new File(snapshotDir, "lottie_snapshots.version");
+    assertTrue(stamp.exists());
+    try (FileOutputStream output = new FileOutputStream(stamp)) {
+      output.write("-1".getBytes("UTF-8"));
+    }
+    LottieSnapshotCache updated = new LottieSnapshotCache(snapshotDir);
+    updated.checkAppVersion(RuntimeEnvironment.application);
+    assertNull(updated.get("squares"));
+  }
+
+  @Test
+  public void testFactoryLoadsFromSnapshot() {
+    L.setSnapshotCacheDir(snapshotDir);
+    LottieResult<LottieComposition> first = LottieCompositionFactory.fromJsonStringSync(Fixtures.SQUARES, "squares");
+    assertNull(first.getException());
+    assertNotNull(L.snapshotCache().get("squares"));
+
+    // With the in-memory cache cleared, the json is not read at all anymore.
+    LottieCompositionCache.getInstance().clear();
+    LottieResult<LottieComposition> second = LottieCompositionFactory.fromJsonStringSync("not json", "squares");
+    assertNull(second.getException());
+    assertEquals(first.getValue().toString(), second.getValue().toString());
+    assertSame(second.getValue(), LottieCompositionFactory.fromJsonStringSync(Fixtures.SQUARES, "squares").getValue());
+
+    LottieCompositionFactory.clearCache(RuntimeEnvironment.application, false);
+    assertNull(L.snapshotCache().get("squares"));
+  }
+
+  @Test
+  public void testFactoryWithoutCacheKeyDoesNotWriteSnapshot() {
+    L.setSnapshotCacheDir(snapshotDir);
+    assertNull(LottieCompositionFactory.fromJsonStringSync(Fixtures.SQUARES, null).getException());
+    String[] files = snapshotDir.list();
+    assertTrue(files == null || files.length == 0);
+  }
+
+  static LottieComposition parseJson(String json) throws IOException {
+    return LottieCompositionMoshiParser.parse(jsonReader(json));
+  }
+
+  static LottieComposition parseSnapshot(byte[] snapshot) throws IOException {
+    return LottieCompositionMoshiParser.parse(JsonSnapshotReader.of(ByteBuffer.wrap(snapshot)));
+  }
+
+  static byte[] snapshot(String json) throws IOException {
+    return JsonSnapshotWriter.write(jsonReader(json));
+  }
+
+  private static JsonReader jsonReader(String json) throws IOException {
+    return JsonReader.of(buffer(source(new ByteArrayInputStream(json.getBytes("UTF-8")))));
+  }
+
+  static String readResource(String name) throws IOException {
+    InputStream input = LottieSnapshotTest.class.getClassLoader().getResourceAsStream(name);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4096];
+    int read;
+    try {
+      while ((read = input.read(buffer)) != -1) {
+        output.write(buffer, 0, read);
+      }
+    } finally {
+      input.close();
+    }
+    return output.toString("UTF-8");
+  }
+}
@@ -0,0 +1,46 @@
+package com.kernelflux.lottie.animation.keyframe;
+
+import static org.junit.Assert.assertTrue;
+
+import com.airbnb.lottie.BaseTest;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Random seek cost against the number of keyframes. Lookup is a binary search, so going from 8 to 512
+ * keyframes must cost far less than the 64x a linear scan would.
+ */
+@Ignore("Benchmark, run manually")
+public class KeyframeLookupBenchmark extends BaseTest {
+
+  private static final int WARMUP_ITERATIONS = 20_000;
+  private static final int ITERATIONS = 200_000;
+
+  @Test
+  public void testSeekCostGrowsLogarithmically() {
+    long small = measureSeekNanos(8);
+    long large = measureSeekNanos(512);
+    assertTrue("Mean seek: 8 keyframes " + small + "ns, 512 keyframes " + large + "ns",
+        large < small * 4);
+  }
+
+  private static long measureSeekNanos(int keyframeCount) {
+    FloatKeyframeAnimation animation = KeyframeLookupTest.linearAnimation(keyframeCount);
+    Random random = new Random(7);
+    float[] progresses = new float[1024];
+    for (int i = 0; i < progresses.length; i++) {
+      progresses[i] = random.nextFloat();
+    }
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      animation.setProgress(progresses[i & (progresses.length - 1)]);
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      animation.setProgress(progresses[i & (progresses.length - 1)]);
+    }
+    return (System.nanoTime() - start) / ITERATIONS;
+  }
+}
@@ -0,0 +1,104 @@
+package com.kernelflux.lottie.animation.keyframe;
+
+import static org.junit.Assert.assertEquals;
+
+import android.graphics.Rect;
+import android.view.animation.LinearInterpolator;
+import androidx.collection.LongSparseArray;
+import androidx.collection.SparseArrayCompat;
+
+import com.airbnb.lottie.BaseTest;
+import com.kernelflux.lottie.LottieComposition;
+import com.kernelflux.lottie.value.Keyframe;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Keyframe lookup over a long keyframe list: every keyframe spans {@link #FRAMES_PER_KEYFRAME} frames and
+ * interpolates linearly from its index to the next one, so the expected value at any frame is
+ * frame / FRAMES_PER_KEYFRAME.
+ */
+public class KeyframeLookupTest extends BaseTest {
+
+  private static final int KEYFRAME_COUNT = 500;
+  private static final int FRAMES_PER_KEYFRAME = 2;
+  private static final float DURATION_FRAMES = KEYFRAME_COUNT * FRAMES_PER_KEYFRAME;
+
+  private FloatKeyframeAnimation animation;
+
+  @Before
+  public void setup() {
+    animation = linearAnimation(KEYFRAME_COUNT);
+  }
+
+  /**
+   * Keyframe i spans FRAMES_PER_KEYFRAME frames and goes linearly from i to i + 1.
+   */
+  static FloatKeyframeAnimation linearAnimation(int keyframeCount) {
+    LottieComposition composition = new LottieComposition();
+    composition.init(
+        new Rect(),
+        0f,
+        keyframeCount * FRAMES_PER_KEYFRAME,
+        60f,
+        new ArrayList<>(),
+        new LongSparseArray<>(),
+        new HashMap<>(),
+        new HashMap<>(),
+        1f,
+        new SparseArrayCompat<>(),
+        new HashMap<>(),
+        new ArrayList<>(),
+        0,
+        0
+    );
+    List<Keyframe<Float>> keyframes = new ArrayList<>(keyframeCount);
+    LinearInterpolator interpolator = new LinearInterpolator();
+    for (int i = 0; i < keyframeCount; i++) {
+      float startFrame = i * FRAMES_PER_KEYFRAME;
+      keyframes.add(new Keyframe<>(composition, (float) i, (float) (i + 1), interpolator, startFrame,
+          startFrame + FRAMES_PER_KEYFRAME));
+    }
+    return new FloatKeyframeAnimation(keyframes);
+  }
+
+  @Test
+  public void testSequentialPlayback() {
+    for (int frame = 0; frame <= DURATION_FRAMES; frame++) {
+      assertValueAtFrame(frame);
+    }
+  }
+
+  @Test
+  public void testReversePlayback() {
+    for (int frame = (int) DURATION_FRAMES; frame >= 0; frame--) {
+      assertValueAtFrame(frame);
+    }
+  }
+
+  @Test
+  public void testRandomSeek() {
+    Random random = new Random(42);
+    for (int i = 0; i < 10_000; i++) {
+      assertValueAtFrame(random.nextFloat() * DURATION_FRAMES);
+    }
+  }
+
+  @Test
+  public void testKeyframeBoundaries() {
+    for (int i = 0; i <= KEYFRAME_COUNT; i++) {
+      assertValueAtFrame(i * FRAMES_PER_KEYFRAME);
+    }
+  }
+
+  private void assertValueAtFrame(float frame) {
+    animation.setProgress(frame / DURATION_FRAMES);
+    assertEquals("frame " + frame, frame / FRAMES_PER_KEYFRAME, animation.getValue(), 0.01f);
+  }
+}
@@ -0,0 +1,116 @@
+package com.kernelflux.lottie.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import androidx.collection.LongSparseArray;
+import androidx.collection.SparseArrayCompat;
+
+import com.airbnb.lottie.BaseTest;
+import com.kernelflux.lottie.LottieComposition;
+import com.kernelflux.lottie.LottieImageAsset;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+public class LottieBitmapPoolTest extends BaseTest {
+
+  private static final int BYTES = 10 * 10 * 4;
+
+  private LottieBitmapPool pool;
+
+  @Before
+  public void setup() {
+    pool = new LottieBitmapPool(3 * BYTES);
+    LottieBitmapPool.getInstance().clear();
+  }
+
+  @After
+  public void tearDown() {
+    LottieBitmapPool.getInstance().clear();
+  }
+
+  @Test
+  public void testGetReturnsPooledBitmapOfSameSize() {
+    Bitmap bitmap = bitmap(10, 10);
+    pool.put(bitmap);
+    assertEquals(BYTES, pool.sizeBytes());
+    assertNull(pool.get(10, 12, Bitmap.Config.ARGB_8888));
+    assertSame(bitmap, pool.get(10, 10, Bitmap.Config.ARGB_8888));
+    assertEquals(0, pool.sizeBytes());
+    assertNull(pool.get(10, 10, Bitmap.Config.ARGB_8888));
+  }
+
+  @Test
+  public void testLeastRecentlyPooledIsRecycledFirst() {
+    Bitmap first = bitmap(10, 10);
+    pool.put(first);
+    pool.put(bitmap(10, 10));
+    pool.put(bitmap(10, 10));
+    pool.put(bitmap(10, 10));
+    assertTrue(first.isRecycled());
+    assertEquals(3 * BYTES, pool.sizeBytes());
+
+    pool.clear();
+    assertEquals(0, pool.sizeBytes());
+  }
+
+  @Test
+  public void testImmutableBitmapIsNotPooled() {
+    Bitmap bitmap = bitmap(10, 10).copy(Bitmap.Config.ARGB_8888, false);
+    pool.put(bitmap);
+    assertEquals(0, pool.sizeBytes());
+    assertTrue(bitmap.isRecycled());
+  }
+
+  @Test
+  public void testInSampleSize() {
+    assertEquals(1, LottieBitmapDecoder.calculateInSampleSize(100, 100, 100, 100));
+    assertEquals(1, LottieBitmapDecoder.calculateInSampleSize(100, 100, 60, 60));
+    assertEquals(2, LottieBitmapDecoder.calculateInSampleSize(100, 100, 50, 50));
+    assertEquals(4, LottieBitmapDecoder.calculateInSampleSize(400, 300, 90, 70));
+    // Both dimensions have to stay at least the target size.
+    assertEquals(2, LottieBitmapDecoder.calculateInSampleSize(400, 100, 90, 50));
+    assertEquals(1, LottieBitmapDecoder.calculateInSampleSize(50, 50, 100, 100));
+  }
+
+  @Test
+  public void testDecodedImagesArePooledOnceUnused() {
+    LottieImageAsset decoded = new LottieImageAsset(10, 10, "decoded", "decoded.png", "images/");
+    LottieImageAsset provided = new LottieImageAsset(10, 10, "provided", "provided.png", "images/");
+    Bitmap providedBitmap = bitmap(10, 10);
+    decoded.setDecodedBitmap(bitmap(10, 10));
+    provided.setBitmap(providedBitmap);
+    Map<String, LottieImageAsset> images = new HashMap<>();
+    images.put(decoded.getId(), decoded);
+    images.put(provided.getId(), provided);
+    LottieComposition composition = new LottieComposition();
+    composition.init(new Rect(0, 0, 10, 10), 0, 60, 30, new ArrayList<>(), new LongSparseArray<>(),
+        new HashMap<>(), images, 1f, new SparseArrayCompat<>(), new HashMap<>(), new ArrayList<>(), 10, 10);
+
+    composition.onAttachedToDrawable();
+    composition.onEvictedFromCache();
+    // Still drawn.
+    assertNotNull(decoded.getBitmap());
+
+    composition.onDetachedFromDrawable();
+    assertNull(decoded.getBitmap());
+    assertSame(providedBitmap, provided.getBitmap());
+    assertEquals(BYTES, LottieBitmapPool.getInstance().sizeBytes());
+  }
+
+  private static Bitmap bitmap(int width, int height) {
+    return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+  }
+}
@@ -37,4 +37,48 @@ public class LottieCompositionCacheTest extends BaseTest  {
     cache.put("foo", composition);
     assertEquals(composition, cache.get("foo"));
   }
+
+  @Test
+  public void testBoundedByBytes() {
+    // 2 KB base + 1 KB per layer
+    LottieCompositionCache cache = new LottieCompositionCache(10 * 1024);
+    cache.put("small", compositionWithLayers(2));
+    cache.put("large", compositionWithLayers(4));
+    assertEquals(10 * 1024, cache.sizeBytes());
+    cache.get("small");
+    cache.put("other", compositionWithLayers(1));
+    assertNull(cache.get("large"));
+    assertEquals(7 * 1024, cache.sizeBytes());
+  }
+
+  @Test
+  public void testEntryLimit() {
+    cache.resize(1);
+    cache.put("foo", composition);
+    cache.put("bar", compositionWithLayers(1));
+    assertNull(cache.get("foo"));
+    assertEquals(1, cache.getStats().getEvictionCount());
+  }
+
+  @Test
+  public void testStats() {
+    LottieCompositionCache cache = new LottieCompositionCache(10 * 1024);
+    cache.put("foo", compositionWithLayers(6));
+    cache.get("foo");
+    cache.get("bar");
+    cache.put("baz", compositionWithLayers(6));
+    LottieCompositionCacheStats stats = cache.getStats();
+    assertEquals(1, stats.getHitCount());
+    assertEquals(1, stats.getMissCount());
+    assertEquals(1, stats.getEvictionCount());
+    assertEquals(2, stats.getPutCount());
+    assertEquals(1, stats.getEntryCount());
+    assertEquals(8 * 1024, stats.getSizeBytes());
+  }
+
+  private static LottieComposition compositionWithLayers(int layerCount) {
+    LottieComposition composition = Mockito.mock(LottieComposition.class);
+    Mockito.when(composition.getLayerCount()).thenReturn(layerCount);
+    return composition;
+  }
 }
@@ -0,0 +1,60 @@
+package com.kernelflux.lottie.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import android.graphics.Bitmap;
+
+import com.airbnb.lottie.BaseTest;
+import com.kernelflux.lottie.LottieComposition;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class LottieFrameCacheTest extends BaseTest {
+
+  private LottieComposition composition;
+  private LottieFrameCache cache;
+
+  @Before
+  public void setup() {
+    composition = Mockito.mock(LottieComposition.class);
+    // 10 frames of 10x10 ARGB_8888: 4000 bytes
+    Mockito.when(composition.getDurationFrames()).thenReturn(9f);
+    cache = new LottieFrameCache(10_000);
+  }
+
+  @Test
+  public void testSharedBySize() {
+    LottieFrameCache.FrameStrip strip = cache.obtain(composition, 10, 10, Bitmap.Config.ARGB_8888);
+    assertSame(strip, cache.obtain(composition, 10, 10, Bitmap.Config.ARGB_8888));
+    assertEquals(10, strip.getFrameCount());
+    assertNotSame(strip, cache.obtain(composition, 10, 10, Bitmap.Config.RGB_565));
+  }
+
+  @Test
+  public void testTooLarge() {
+    assertNull(cache.obtain(composition, 20, 20, Bitmap.Config.ARGB_8888));
+  }
+
+  @Test
+  public void testBoundedByBytes() {
+    cache.obtain(composition, 10, 10, Bitmap.Config.ARGB_8888);
+    cache.obtain(composition, 10, 11, Bitmap.Config.ARGB_8888);
+    cache.obtain(composition, 10, 12, Bitmap.Config.ARGB_8888);
+    assertEquals(4000 + 4400, cache.size());
+  }
+
+  @Test
+  public void testRemoveComposition() {
+    LottieComposition other = Mockito.mock(LottieComposition.class);
+    Mockito.when(other.getDurationFrames()).thenReturn(9f);
+    cache.obtain(composition, 10, 10, Bitmap.Config.ARGB_8888);
+    cache.obtain(other, 10, 10, Bitmap.Config.ALPHA_8);
+    cache.remove(composition);
+    assertEquals(1000, cache.size());
+  }
+}
@@ -0,0 +1,80 @@
+package com.kernelflux.lottie.parser;
+
+import static okio.Okio.buffer;
+import static okio.Okio.source;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import android.graphics.PointF;
+import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
+
+import com.airbnb.lottie.BaseTest;
+import com.kernelflux.lottie.LottieComposition;
+import com.kernelflux.lottie.model.animatable.AnimatableFloatValue;
+import com.kernelflux.lottie.model.animatable.AnimatableShapeValue;
+import com.kernelflux.lottie.model.content.ShapeData;
+import com.kernelflux.lottie.parser.moshi.JsonReader;
+import com.kernelflux.lottie.value.Keyframe;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+public class KeyframeInternerTest extends BaseTest {
+
+  private static final String EASED_FLOAT = "{\"a\":1,\"k\":[" +
+      "{\"t\":0,\"s\":[0],\"e\":[100],\"i\":{\"x\":[0.41],\"y\":[0.93]},\"o\":{\"x\":[0.17],\"y\":[0.08]}},{\"t\":30}]}";
+
+  private static final String STATIC_SHAPE = "{\"a\":0,\"k\":{\"c\":true,\"v\":[[0,0],[10,0],[10,10]]," +
+      "\"i\":[[0,0],[0,0],[0,0]],\"o\":[[0,0],[0,0],[0,0]]}}";
+
+  @Test
+  public void testCompositionsShareInterpolators() throws IOException {
+    AnimatableFloatValue first = AnimatableValueParser.parseFloat(reader(EASED_FLOAT), new LottieComposition(), false);
+    AnimatableFloatValue second = AnimatableValueParser.parseFloat(reader(EASED_FLOAT), new LottieComposition(), false);
+    Keyframe<Float> firstKeyframe = first.getKeyframes().get(0);
+    Keyframe<Float> secondKeyframe = second.getKeyframes().get(0);
+    assertSame(firstKeyframe.interpolator, secondKeyframe.interpolator);
+    assertEquals(firstKeyframe.endValue, secondKeyframe.endValue);
+  }
+
+  @Test
+  public void testCompositionsShareShapes() throws IOException {
+    AnimatableShapeValue first = AnimatableValueParser.parseShapeData(reader(STATIC_SHAPE), new LottieComposition());
+    AnimatableShapeValue second = AnimatableValueParser.parseShapeData(reader(STATIC_SHAPE), new LottieComposition());
+    AnimatableShapeValue other = AnimatableValueParser.parseShapeData(
+        reader(STATIC_SHAPE.replace("[10,10]", "[10,20]")), new LottieComposition());
+    ShapeData shape = first.getKeyframes().get(0).startValue;
+    assertSame(shape, second.getKeyframes().get(0).startValue);
+    assertNotSame(shape, other.getKeyframes().get(0).startValue);
+    assertEquals(3, shape.getCurves().size());
+  }
+
+  @Test
+  public void testInterpolatorsAreKeyedByControlPoints() {
+    Interpolator interpolator = new LinearInterpolator();
+    Interpolator other = new LinearInterpolator();
+    assertSame(interpolator, KeyframeInterner.putInterpolator(0.1f, 0.2f, 0.3f, 0.4f, interpolator));
+    assertSame(interpolator, KeyframeInterner.putInterpolator(0.1f, 0.2f, 0.3f, 0.4f, other));
+    assertSame(interpolator, KeyframeInterner.getInterpolator(0.1f, 0.2f, 0.3f, 0.4f));
+    assertSame(other, KeyframeInterner.putInterpolator(0.1f, 0.2f, 0.3f, 0.5f, other));
+  }
+
+  @Test
+  public void testMutableValuesAreNotInterned() throws IOException {
+    String point = "{\"a\":0,\"k\":[5,5]}";
+    List<Keyframe<PointF>> first =
+        AnimatableValueParser.parsePoint(reader(point), new LottieComposition()).getKeyframes();
+    List<Keyframe<PointF>> second =
+        AnimatableValueParser.parsePoint(reader(point), new LottieComposition()).getKeyframes();
+    assertNotSame(first.get(0).startValue, second.get(0).startValue);
+  }
+
+  private static JsonReader reader(String json) throws IOException {
+    return JsonReader.of(buffer(source(new ByteArrayInputStream(json.getBytes("UTF-8")))));
+  }
+}
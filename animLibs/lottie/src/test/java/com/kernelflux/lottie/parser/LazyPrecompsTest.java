@@ -0,0 +1,122 @@
+package com.kernelflux.lottie.parser;
+
+import static okio.Okio.buffer;
+import static okio.Okio.source;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.airbnb.lottie.BaseTest;
+import com.kernelflux.lottie.LottieComposition;
+import com.kernelflux.lottie.LottieDrawable;
+import com.kernelflux.lottie.model.layer.Layer;
+import com.kernelflux.lottie.parser.moshi.JsonReader;
+import com.kernelflux.lottie.parser.moshi.JsonSnapshotReader;
+import com.kernelflux.lottie.parser.moshi.JsonSnapshotWriter;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * {@link #JSON} has one precomp referenced by its only layer and one precomp nothing refers to.
+ */
+public class LazyPrecompsTest extends BaseTest {
+
+  private static final String PRECOMP_LAYERS = "[" +
+      "{\"ty\":3,\"nm\":\"Null\",\"ind\":1,\"ip\":0,\"op\":60,\"st\":0,\"ks\":{}}," +
+      "{\"ty\":4,\"nm\":\"Shape\",\"ind\":2,\"parent\":1,\"ip\":0,\"op\":60,\"st\":0,\"shapes\":[]," +
+      "\"ks\":{\"o\":{\"a\":1,\"k\":[{\"t\":0,\"s\":[0],\"e\":[100],\"i\":{\"x\":[0.5],\"y\":[0.5]}," +
+      "\"o\":{\"x\":[0.5],\"y\":[0.5]}},{\"t\":60}]}}}]";
+
+  private static final String JSON = "{\"v\":\"5.5.0\",\"fr\":30,\"ip\":0,\"op\":60,\"w\":100,\"h\":100," +
+      "\"assets\":[" +
+      "{\"id\":\"used\",\"layers\":" + PRECOMP_LAYERS + "}," +
+      "{\"id\":\"unused\",\"layers\":" + PRECOMP_LAYERS + "}]," +
+      "\"layers\":[{\"ty\":0,\"nm\":\"Precomp\",\"refId\":\"used\",\"ind\":1,\"ip\":0,\"op\":60,\"st\":0," +
+      "\"w\":100,\"h\":100,\"ks\":{}}]}";
+
+  /**
+   * The only layer refers to "outer", whose first layer refers to "inner".
+   */
+  private static final String NESTED_JSON = "{\"v\":\"5.5.0\",\"fr\":30,\"ip\":0,\"op\":60,\"w\":100,\"h\":100," +
+      "\"assets\":[" +
+      "{\"id\":\"outer\",\"layers\":[{\"ty\":0,\"nm\":\"Inner\",\"refId\":\"inner\",\"ind\":1,\"ip\":0," +
+      "\"op\":60,\"st\":0,\"w\":100,\"h\":100,\"ks\":{}}]}," +
+      "{\"id\":\"inner\",\"layers\":" + PRECOMP_LAYERS + "}]," +
+      "\"layers\":[{\"ty\":0,\"nm\":\"Outer\",\"refId\":\"outer\",\"ind\":1,\"ip\":0,\"op\":60,\"st\":0," +
+      "\"w\":100,\"h\":100,\"ks\":{}}]}";
+
+  @Test
+  public void testUnreferencedPrecompsAreParsedOnFirstUse() throws IOException {
+    LottieComposition eager = LottieCompositionMoshiParser.parse(jsonReader(JSON), false);
+    LottieComposition lazy = LottieCompositionMoshiParser.parse(jsonReader(JSON), true);
+    assertNull(eager.getDeferredPrecomps());
+    DeferredPrecomps deferredPrecomps = lazy.getDeferredPrecomps();
+    assertNotNull(deferredPrecomps);
+
+    // The referenced precomp was parsed while loading.
+    assertEquals(3, lazy.getLayerCount());
+    assertTrue(lazy.getKeyframeCount() < eager.getKeyframeCount());
+    assertLayersEqual(eager.getPrecomps("used"), lazy.getPrecomps("used"));
+    assertTrue(deferredPrecomps.getByteCount() > 0);
+
+    List<Layer> layers = lazy.getPrecomps("unused");
+    assertNotNull(layers);
+    assertSame(layers, lazy.getPrecomps("unused"));
+    assertLayersEqual(eager.getPrecomps("unused"), layers);
+    assertEquals(5, lazy.getLayerCount());
+    assertEquals(0, deferredPrecomps.getByteCount());
+
+    assertNull(lazy.getPrecomps("missing"));
+  }
+
+  @Test
+  public void testNestedReferencedPrecompsAreParsedWhileLoading() throws IOException {
+    LottieComposition eager = LottieCompositionMoshiParser.parse(jsonReader(NESTED_JSON), false);
+    LottieComposition lazy = LottieCompositionMoshiParser.parse(jsonReader(NESTED_JSON), true);
+    assertNull(lazy.getDeferredPrecomps());
+    assertEquals(eager.getLayerCount(), lazy.getLayerCount());
+    assertLayersEqual(eager.getPrecomps("outer"), lazy.getPrecomps("outer"));
+    assertLayersEqual(eager.getPrecomps("inner"), lazy.getPrecomps("inner"));
+  }
+
+  @Test
+  public void testPrecompsFromSnapshot() throws IOException {
+    byte[] snapshot = JsonSnapshotWriter.write(jsonReader(JSON));
+    LottieComposition lazy = LottieCompositionMoshiParser.parse(JsonSnapshotReader.of(ByteBuffer.wrap(snapshot)), true);
+    LottieComposition eager = LottieCompositionMoshiParser.parse(jsonReader(JSON), false);
+    assertLayersEqual(eager.getPrecomps("unused"), lazy.getPrecomps("unused"));
+    assertLayersEqual(eager.getPrecomps("used"), lazy.getPrecomps("used"));
+    assertEquals(eager.getLayerCount(), lazy.getLayerCount());
+    assertEquals(eager.getKeyframeCount(), lazy.getKeyframeCount());
+  }
+
+  @Test
+  public void testDrawableDoesNotParsePrecomps() throws IOException {
+    LottieComposition lazy = LottieCompositionMoshiParser.parse(jsonReader(JSON), true);
+    long capturedByteCount = lazy.getDeferredPrecomps().getByteCount();
+    LottieDrawable drawable = new LottieDrawable();
+    drawable.setComposition(lazy);
+    // "used" was already parsed while loading, "unused" is still captured.
+    assertEquals(3, lazy.getLayerCount());
+    assertEquals(capturedByteCount, lazy.getDeferredPrecomps().getByteCount());
+  }
+
+  private static void assertLayersEqual(List<Layer> expected, List<Layer> actual) {
+    assertNotNull(actual);
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).toString(), actual.get(i).toString());
+    }
+  }
+
+  private static JsonReader jsonReader(String json) throws IOException {
+    return JsonReader.of(buffer(source(new ByteArrayInputStream(json.getBytes("UTF-8")))));
+  }
+}
@@ -0,0 +1,186 @@
+package com.kernelflux.lottie.parser;
+
+import static okio.Okio.buffer;
+import static okio.Okio.source;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import com.airbnb.lottie.BaseTest;
+import com.kernelflux.lottie.LottieComposition;
+import com.kernelflux.lottie.model.Font;
+import com.kernelflux.lottie.model.FontCharacter;
+import com.kernelflux.lottie.model.layer.Layer;
+import com.kernelflux.lottie.parser.moshi.JsonReader;
+import com.kernelflux.lottie.parser.moshi.JsonSnapshotReader;
+import com.kernelflux.lottie.parser.moshi.JsonSnapshotWriter;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parallel parses must build the same composition as a serial parse.
+ */
+public class ParallelParseTest extends BaseTest {
+
+  private static final int PRECOMP_COUNT = 12;
+  private static final int CHARACTER_COUNT = 26;
+  private static final int ITERATIONS = 20;
+
+  @Test
+  public void testParallelParseMatchesSerialParse() throws IOException {
+    String json = composition();
+    LottieComposition serial = parse(json, false);
+    for (int i = 0; i < ITERATIONS; i++) {
+      assertSameComposition(serial, parse(json, true));
+    }
+  }
+
+  @Test
+  public void testParallelParseFromSnapshotMatchesSerialParse() throws IOException {
+    String json = composition();
+    byte[] snapshot = JsonSnapshotWriter.write(jsonReader(json));
+    LottieComposition serial = parse(json, false);
+    for (int i = 0; i < ITERATIONS; i++) {
+      LottieComposition parallel =
+          LottieCompositionMoshiParser.parse(JsonSnapshotReader.of(ByteBuffer.wrap(snapshot)), false, true);
+      assertSameComposition(serial, parallel);
+    }
+  }
+
+  @Test
+  public void testParallelParseFailsLikeSerialParse() throws IOException {
+    String json = composition().replace("{\"id\":\"comp_3\",\"layers\":[", "{\"id\":\"comp_3\",\"layers\":[\"oops\",");
+    try {
+      parse(json, false);
+      fail();
+    } catch (Exception expected) {
+      // Expected.
+    }
+    try {
+      parse(json, true);
+      fail();
+    } catch (Exception expected) {
+      // Expected.
+    }
+  }
+
+  private static void assertSameComposition(LottieComposition expected, LottieComposition actual) {
+    assertEquals(expected.toString(), actual.toString());
+    for (int i = 0; i < PRECOMP_COUNT; i++) {
+      List<Layer> expectedLayers = expected.getPrecomps("comp_" + i);
+      List<Layer> actualLayers = actual.getPrecomps("comp_" + i);
+      assertNotNull(actualLayers);
+      assertEquals(expectedLayers.size(), actualLayers.size());
+      for (int j = 0; j < expectedLayers.size(); j++) {
+        assertEquals(expectedLayers.get(j).toString(), actualLayers.get(j).toString());
+      }
+    }
+    assertEquals(expected.getFonts().keySet(), actual.getFonts().keySet());
+    for (Font font : expected.getFonts().values()) {
+      Font actualFont = actual.getFonts().get(font.getName());
+      assertEquals(font.getFamily(), actualFont.getFamily());
+      assertEquals(font.getStyle(), actualFont.getStyle());
+    }
+    assertEquals(expected.getCharacters().size(), actual.getCharacters().size());
+    for (int i = 0; i < expected.getCharacters().size(); i++) {
+      assertEquals(expected.getCharacters().keyAt(i), actual.getCharacters().keyAt(i));
+      FontCharacter expectedCharacter = expected.getCharacters().valueAt(i);
+      FontCharacter actualCharacter = actual.getCharacters().valueAt(i);
+      assertEquals(expectedCharacter.getWidth(), actualCharacter.getWidth(), 0);
+      assertEquals(expectedCharacter.getShapes().size(), actualCharacter.getShapes().size());
+    }
+    assertEquals(expected.getMarkers().size(), actual.getMarkers().size());
+    assertEquals(expected.getLayerCount(), actual.getLayerCount());
+    assertEquals(expected.getKeyframeCount(), actual.getKeyframeCount());
+    assertEquals(expected.getPathVertexCount(), actual.getPathVertexCount());
+    assertEquals(expected.getMaskAndMatteCount(), actual.getMaskAndMatteCount());
+    assertEquals(expected.hasDashPattern(), actual.hasDashPattern());
+    List<String> expectedWarnings = expected.getWarnings();
+    List<String> actualWarnings = actual.getWarnings();
+    Collections.sort(expectedWarnings);
+    Collections.sort(actualWarnings);
+    assertEquals(expectedWarnings, actualWarnings);
+  }
+
+  private static LottieComposition parse(String json, boolean parallel) throws IOException {
+    return LottieCompositionMoshiParser.parse(jsonReader(json), false, parallel);
+  }
+
+  private static JsonReader jsonReader(String json) throws IOException {
+    return JsonReader.of(buffer(source(new ByteArrayInputStream(json.getBytes("UTF-8")))));
+  }
+
+  /**
+   * Precomps of increasing size (animated shape paths, dashed strokes and masks), glyphs, fonts and a marker.
+   */
+  private static String composition() {
+    List<String> assets = new ArrayList<>();
+    List<String> layers = new ArrayList<>();
+    for (int i = 0; i < PRECOMP_COUNT; i++) {
+      List<String> precompLayers = new ArrayList<>();
+      for (int j = 0; j <= i; j++) {
+        precompLayers.add(shapeLayer(j + 1, i % 3 == 0));
+      }
+      assets.add("{\"id\":\"comp_" + i + "\",\"layers\":[" + join(precompLayers) + "]}");
+      layers.add("{\"ty\":0,\"nm\":\"Precomp " + i + "\",\"refId\":\"comp_" + i + "\",\"ind\":" + (i + 1) +
+          ",\"ip\":0,\"op\":60,\"st\":0,\"w\":100,\"h\":100,\"ks\":{}}");
+    }
+    List<String> characters = new ArrayList<>();
+    for (int i = 0; i < CHARACTER_COUNT; i++) {
+      characters.add("{\"ch\":\"" + (char) ('a' + i) + "\",\"size\":12,\"w\":" + (50 + i) +
+          ",\"style\":\"Regular\",\"fFamily\":\"Sans\",\"data\":{\"shapes\":[{\"ty\":\"gr\",\"nm\":\"" +
+          (char) ('a' + i) + "\",\"it\":[" + path(i % 4 + 3) + "]}]}}");
+    }
+    return "{\"v\":\"5.5.0\",\"fr\":30,\"ip\":0,\"op\":60,\"w\":100,\"h\":100," +
+        "\"assets\":[" + join(assets) + "]," +
+        "\"fonts\":{\"list\":[{\"fName\":\"Sans-Regular\",\"fFamily\":\"Sans\",\"fStyle\":\"Regular\",\"ascent\":70}," +
+        "{\"fName\":\"Sans-Bold\",\"fFamily\":\"Sans\",\"fStyle\":\"Bold\",\"ascent\":72}]}," +
+        "\"chars\":[" + join(characters) + "]," +
+        "\"markers\":[{\"cm\":\"intro\",\"tm\":0,\"dr\":30}]," +
+        "\"layers\":[" + join(layers) + "]}";
+  }
+
+  private static String shapeLayer(int index, boolean dashed) {
+    String stroke = "{\"ty\":\"st\",\"c\":{\"a\":0,\"k\":[1,0,0,1]},\"o\":{\"a\":0,\"k\":100},\"w\":{\"a\":0,\"k\":2}," +
+        "\"lc\":1,\"lj\":1" + (dashed ? ",\"d\":[{\"n\":\"d\",\"nm\":\"dash\",\"v\":{\"a\":0,\"k\":4}}]" : "") + "}";
+    return "{\"ty\":4,\"nm\":\"Shape " + index + "\",\"ind\":" + index + ",\"ip\":0,\"op\":60,\"st\":0," +
+        "\"masksProperties\":[{\"mode\":\"a\",\"inv\":false,\"pt\":{\"a\":0,\"k\":" + pathValue(4) + "}," +
+        "\"o\":{\"a\":0,\"k\":100}}]," +
+        "\"ks\":{\"o\":{\"a\":1,\"k\":[{\"t\":0,\"s\":[0],\"e\":[100],\"i\":{\"x\":[0.5],\"y\":[0.5]}," +
+        "\"o\":{\"x\":[0.5],\"y\":[0.5]}},{\"t\":60}]}}," +
+        "\"shapes\":[" + path(index + 2) + "," + stroke + "]}";
+  }
+
+  private static String path(int vertexCount) {
+    return "{\"ty\":\"sh\",\"ks\":{\"a\":1,\"k\":[{\"t\":0,\"s\":[" + pathValue(vertexCount) + "],\"e\":[" +
+        pathValue(vertexCount) + "],\"i\":{\"x\":0.5,\"y\":0.5},\"o\":{\"x\":0.5,\"y\":0.5}},{\"t\":60}]}}";
+  }
+
+  private static String pathValue(int vertexCount) {
+    List<String> vertices = new ArrayList<>();
+    List<String> tangents = new ArrayList<>();
+    for (int i = 0; i < vertexCount; i++) {
+      vertices.add("[" + i * 10 + "," + (i % 2) * 10 + "]");
+      tangents.add("[0,0]");
+    }
+    return "{\"c\":true,\"v\":[" + join(vertices) + "],\"i\":[" + join(tangents) + "],\"o\":[" + join(tangents) + "]}";
+  }
+
+  private static String join(List<String> parts) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < parts.size(); i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append(parts.get(i));
+    }
+    return sb.toString();
+  }
+}
@@ -6,6 +6,7 @@ import android.graphics.PixelFormat
 import android.graphics.drawable.Drawable
 import android.widget.ImageView
 import com.kernelflux.svga.drawer.SVGACanvasDrawer
+import com.kernelflux.svga.entities.SVGAAudioEntity
 import kotlin.collections.forEach
 
 class SVGADrawable(val videoItem: SVGAVideoEntity, val dynamicItem: SVGADynamicEntity): Drawable() {
@@ -31,9 +32,16 @@ class SVGADrawable(val videoItem: SVGAVideoEntity, val dynamicItem: SVGADynamicE
         }
 
     var scaleType: ImageView.ScaleType = ImageView.ScaleType.MATRIX
-    
-    // 维护所有正在播放的音频流 ID，防止 playID 丢失导致无法停止
-    private val activePlayIds = mutableSetOf<Int>()
+
+    /**
+     * 是否处于播放状态（控制音频播放）
+     * videoItem 可能被多个 drawable 共享，播放状态与音频流都属于各自的 drawable
+     */
+    var isPlaying = false
+        internal set
+
+    // 本 drawable 正在播放的音频流：音频实体 -> playID
+    private val playIds = HashMap<SVGAAudioEntity, Int>()
 
     private val drawer = SVGACanvasDrawer(videoItem, dynamicItem, this)
 
@@ -59,75 +67,77 @@ class SVGADrawable(val videoItem: SVGAVideoEntity, val dynamicItem: SVGADynamicE
     }
 
     fun resume() {
-        videoItem.isPlaying = true
-        videoItem.audioList.forEach { audio ->
-            audio.playID?.let {
-                if (SVGASoundManager.isInit()){
-                    SVGASoundManager.resume(it)
-                }else{
-                    videoItem.soundPool?.resume(it)
-                }
+        isPlaying = true
+        playIds.values.forEach { playId ->
+            if (SVGASoundManager.isInit()) {
+                SVGASoundManager.resume(playId)
+            } else {
+                videoItem.soundPool?.resume(playId)
             }
         }
     }
 
     fun pause() {
-        videoItem.isPlaying = false
-        videoItem.audioList.forEach { audio ->
-            audio.playID?.let {
-                if (SVGASoundManager.isInit()){
-                    SVGASoundManager.pause(it)
-                }else{
-                    videoItem.soundPool?.pause(it)
-                }
+        isPlaying = false
+        playIds.values.forEach { playId ->
+            if (SVGASoundManager.isInit()) {
+                SVGASoundManager.pause(playId)
+            } else {
+                videoItem.soundPool?.pause(playId)
             }
         }
     }
 
     fun stop() {
-        videoItem.isPlaying = false
-        // 停止所有记录的 playID（防止 playID 丢失导致无法停止）
-        activePlayIds.forEach { playId ->
-            if (SVGASoundManager.isInit()){
-                SVGASoundManager.stop(playId)
-            }else{
-                videoItem.soundPool?.stop(playId)
-            }
-        }
-        activePlayIds.clear()
-        
-        // 也停止 audioList 中的
-        videoItem.audioList.forEach { audio ->
-            audio.playID?.let { playId ->
-                if (SVGASoundManager.isInit()){
-                    SVGASoundManager.stop(playId)
-                }else{
-                    videoItem.soundPool?.stop(playId)
-                }
-                activePlayIds.remove(playId)
-            }
-            audio.playID = null
-        }
+        isPlaying = false
+        playIds.values.forEach { stopStream(it) }
+        playIds.clear()
+        SVGASoundManager.unregisterPlaying(this)
     }
 
+    /**
+     * 只释放本 drawable 的播放状态与音频流
+     * videoItem 由其持有者释放（如缓存回收），其他 drawable 可能仍在使用
+     */
     fun clear() {
-        videoItem.isPlaying = false
-        // 停止所有音频
         stop()
-        videoItem.clear()
     }
-    
+
     /**
-     * 记录音频播放 ID，用于后续停止
+     * 音频播放到起始帧，开始播放
      */
-    internal fun recordPlayId(playId: Int) {
-        activePlayIds.add(playId)
+    internal fun playAudio(audio: SVGAAudioEntity) {
+        val soundID = audio.soundID ?: return
+        val playId = if (SVGASoundManager.isInit()) {
+            SVGASoundManager.play(soundID)
+        } else {
+            videoItem.soundPool?.play(soundID, 1.0f, 1.0f, 1, 0, 1.0f)
+        } ?: return
+        // 同一段音频重新开始时停掉上一次的流，防止 playID 丢失导致无法停止
+        playIds.put(audio, playId)?.let { stopStream(it) }
+        SVGASoundManager.registerPlaying(this)
     }
-    
+
     /**
-     * 移除音频播放 ID
+     * 音频播放到结束帧，停止播放
      */
-    internal fun removePlayId(playId: Int) {
-        activePlayIds.remove(playId)
+    internal fun stopAudio(audio: SVGAAudioEntity) {
+        playIds.remove(audio)?.let { stopStream(it) }
+        if (playIds.isEmpty()) {
+            SVGASoundManager.unregisterPlaying(this)
+        }
+    }
+
+    /**
+     * 正在播放的音频流 ID（用于设置音量）
+     */
+    internal fun activePlayIds(): List<Int> = playIds.values.toList()
+
+    private fun stopStream(playId: Int) {
+        if (SVGASoundManager.isInit()) {
+            SVGASoundManager.stop(playId)
+        } else {
+            videoItem.soundPool?.stop(playId)
+        }
     }
-}
\ No newline at end of file
+}
@@ -172,7 +172,7 @@ open class SVGAImageView @JvmOverloads constructor(
 
         // ✅ 设置播放状态（在创建 animator 前设置，确保 callback 检查时能正确判断）
         isAnimating = true
-        drawable.videoItem.isPlaying = true
+        drawable.isPlaying = true
 
         mStartFrame = 0.coerceAtLeast(range?.location ?: 0)
         val videoItem = drawable.videoItem
@@ -261,7 +261,7 @@ open class SVGAImageView @JvmOverloads constructor(
         // 3. ✅ 额外的安全检查：确保动画还在播放且处于播放状态
         // 这可以防止在暂停过程中（isVisible 可能还未及时更新）的 callback
         // 注意：这个检查比 PAG 更严格，因为 ValueAnimator.cancel() 后可能还有排队的回调
-        if (!isAnimating || !drawable.videoItem.isPlaying) {
+        if (!isAnimating || !drawable.isPlaying) {
             return
         }
 
@@ -281,7 +281,7 @@ open class SVGAImageView @JvmOverloads constructor(
         }
         
         isAnimating = false
-        getSVGADrawable()?.videoItem?.isPlaying = false
+        getSVGADrawable()?.isPlaying = false
 
         val drawable = getSVGADrawable()
 
@@ -315,6 +315,10 @@ open class SVGAImageView @JvmOverloads constructor(
         callback?.onFinished()
     }
 
+    /**
+     * 停止并移除当前 drawable
+     * 不释放 SVGAVideoEntity（可能被其他 view 共享），不再使用时由持有者调用 SVGAVideoEntity.clear()
+     */
     fun clear() {
         getSVGADrawable()?.cleared = true
         getSVGADrawable()?.clear()
@@ -550,7 +554,7 @@ open class SVGAImageView @JvmOverloads constructor(
                     // ✅ 使用 cancel() 而不是 pause()，真正停止动画执行，提升性能
                     // cancel() 只会触发 onAnimationCancel，不会触发 onAnimationEnd
                     mAnimator?.cancel()
-                    drawable.videoItem.isPlaying = false
+                    drawable.isPlaying = false
                     drawable.pause()
                     // isAnimating 会在 onAnimationCancel 中设置，但由于 mPausedAnimationState 不为 null，
                     // 我们会在 onAnimationCancel 中保留状态，所以这里不设置 isAnimating = false
@@ -583,7 +587,7 @@ open class SVGAImageView @JvmOverloads constructor(
                 // 如果是因为可见性变化而取消（mPausedAnimationState 不为 null），
                 // 状态已经保存，恢复可见时会从保存的状态继续播放
                 isAnimating = false
-                getSVGADrawable()?.videoItem?.isPlaying = false
+                getSVGADrawable()?.isPlaying = false
                 if (mPausedAnimationState != null) {
                     LogUtils.info(TAG, "Animation canceled due to visibility, state saved for resume")
                 }
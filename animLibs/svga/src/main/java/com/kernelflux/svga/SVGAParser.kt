@@ -6,6 +6,10 @@ import android.os.Handler
 import android.os.Looper
 import com.kernelflux.svga.proto.MovieEntity
 import com.kernelflux.svga.utils.log.LogUtils
+import okio.BufferedSource
+import okio.ByteString
+import okio.InflaterSource
+import okio.Okio
 import org.json.JSONObject
 import java.io.*
 import java.net.HttpURLConnection
@@ -108,6 +112,8 @@ class SVGAParser(context: Context?) {
     companion object {
         private const val TAG = "SVGAParser"
 
+        private val ZIP_MAGIC = ByteString.of(80, 75, 3, 4)
+
         private val threadNum = AtomicInteger(0)
         private var mShareParser = SVGAParser(null)
 
@@ -218,37 +224,22 @@ class SVGAParser(context: Context?) {
         threadPoolExecutor.execute {
             try {
                 LogUtils.info(TAG, "================ decode $alias from svga cachel file to entity ================")
-                FileInputStream(SVGACache.buildSvgaFile(cacheKey)).use { inputStream ->
-                    readAsBytes(inputStream)?.let { bytes ->
-                        if (isZipFile(bytes)) {
-                            this.decodeFromCacheKey(cacheKey, callback, alias)
-                        } else {
-                            LogUtils.info(TAG, "inflate start")
-                            inflate(bytes)?.let {
-                                LogUtils.info(TAG, "inflate complete")
-                                val videoItem = SVGAVideoEntity(
-                                    MovieEntity.ADAPTER.decode(it),
-                                    File(cacheKey),
-                                    mFrameWidth,
-                                    mFrameHeight
-                                )
-                                LogUtils.info(TAG, "SVGAVideoEntity prepare start")
-                                videoItem.prepare({
-                                    LogUtils.info(TAG, "SVGAVideoEntity prepare success")
-                                    this.invokeCompleteCallback(videoItem, callback, alias)
-                                },playCallback)
-
-                            } ?: this.invokeErrorCallback(
-                                Exception("inflate(bytes) cause exception"),
-                                callback,
-                                alias
-                            )
-                        }
-                    } ?: this.invokeErrorCallback(
-                        Exception("readAsBytes(inputStream) cause exception"),
-                        callback,
-                        alias
-                    )
+                Okio.buffer(Okio.source(SVGACache.buildSvgaFile(cacheKey))).use { source ->
+                    if (isZipSource(source)) {
+                        this.decodeFromCacheKey(cacheKey, callback, alias)
+                    } else {
+                        val videoItem = SVGAVideoEntity(
+                            decodeMovieEntity(source),
+                            File(cacheKey),
+                            mFrameWidth,
+                            mFrameHeight
+                        )
+                        LogUtils.info(TAG, "SVGAVideoEntity prepare start")
+                        videoItem.prepare({
+                            LogUtils.info(TAG, "SVGAVideoEntity prepare success")
+                            this.invokeCompleteCallback(videoItem, callback, alias)
+                        },playCallback)
+                    }
                 }
             } catch (e: java.lang.Exception) {
                 this.invokeErrorCallback(e, callback, alias)
@@ -273,64 +264,49 @@ class SVGAParser(context: Context?) {
         LogUtils.info(TAG, "================ decode $alias from input stream ================")
         threadPoolExecutor.execute {
             try {
-                readAsBytes(inputStream)?.let { bytes ->
-                    if (isZipFile(bytes)) {
-                        LogUtils.info(TAG, "decode from zip file")
-                        if (!SVGACache.buildCacheDir(cacheKey).exists() || isUnzipping) {
-                            synchronized(fileLock) {
-                                if (!SVGACache.buildCacheDir(cacheKey).exists()) {
-                                    isUnzipping = true
-                                    LogUtils.info(TAG, "no cached, prepare to unzip")
-                                    ByteArrayInputStream(bytes).use {
-                                        unzip(it, cacheKey)
-                                        isUnzipping = false
-                                        LogUtils.info(TAG, "unzip success")
-                                    }
-                                }
+                // 流式读取：只窥探文件头判断是否为 zip，不再把整个流读入内存
+                val source = Okio.buffer(Okio.source(inputStream))
+                if (isZipSource(source)) {
+                    LogUtils.info(TAG, "decode from zip file")
+                    if (!SVGACache.buildCacheDir(cacheKey).exists() || isUnzipping) {
+                        synchronized(fileLock) {
+                            if (!SVGACache.buildCacheDir(cacheKey).exists()) {
+                                isUnzipping = true
+                                LogUtils.info(TAG, "no cached, prepare to unzip")
+                                unzip(source.inputStream(), cacheKey)
+                                isUnzipping = false
+                                LogUtils.info(TAG, "unzip success")
                             }
                         }
-                        this.decodeFromCacheKey(cacheKey, callback, alias)
-                    } else {
-                        if (!SVGACache.isDefaultCache()) {
-                            // 如果 SVGACache 设置类型为 FILE
-                            threadPoolExecutor.execute {
-                                SVGACache.buildSvgaFile(cacheKey).let { cacheFile ->
-                                    try {
-                                        cacheFile.takeIf { !it.exists() }?.createNewFile()
-                                        FileOutputStream(cacheFile).write(bytes)
-                                    } catch (e: Exception) {
-                                        LogUtils.error(TAG, "create cache file fail.", e)
-                                        cacheFile.delete()
-                                    }
-                                }
-                            }
+                    }
+                    this.decodeFromCacheKey(cacheKey, callback, alias)
+                } else {
+                    val movieEntity = if (!SVGACache.isDefaultCache()) {
+                        // 如果 SVGACache 设置类型为 FILE，先把原始数据写入缓存文件，再从文件流式解析
+                        val cacheFile = SVGACache.buildSvgaFile(cacheKey)
+                        try {
+                            Okio.buffer(Okio.sink(cacheFile)).use { it.writeAll(source) }
+                        } catch (e: Exception) {
+                            LogUtils.error(TAG, "create cache file fail.", e)
+                            cacheFile.delete()
+                            throw e
                         }
-                        LogUtils.info(TAG, "inflate start")
-                        inflate(bytes)?.let {
-                            LogUtils.info(TAG, "inflate complete")
-                            val videoItem = SVGAVideoEntity(
-                                MovieEntity.ADAPTER.decode(it),
-                                File(cacheKey),
-                                mFrameWidth,
-                                mFrameHeight
-                            )
-                            LogUtils.info(TAG, "SVGAVideoEntity prepare start")
-                            videoItem.prepare({
-                                LogUtils.info(TAG, "SVGAVideoEntity prepare success")
-                                this.invokeCompleteCallback(videoItem, callback, alias)
-                            },playCallback)
-
-                        } ?: this.invokeErrorCallback(
-                            Exception("inflate(bytes) cause exception"),
-                            callback,
-                            alias
-                        )
+                        Okio.buffer(Okio.source(cacheFile)).use { decodeMovieEntity(it) }
+                    } else {
+                        decodeMovieEntity(source)
                     }
-                } ?: this.invokeErrorCallback(
-                    Exception("readAsBytes(inputStream) cause exception"),
-                    callback,
-                    alias
-                )
+                    val videoItem = SVGAVideoEntity(
+                        movieEntity,
+                        File(cacheKey),
+                        mFrameWidth,
+                        mFrameHeight
+                    )
+                    LogUtils.info(TAG, "SVGAVideoEntity prepare start")
+                    videoItem.prepare({
+                        LogUtils.info(TAG, "SVGAVideoEntity prepare success")
+                        this.invokeCompleteCallback(videoItem, callback, alias)
+                    },playCallback)
+                }
             } catch (e: java.lang.Exception) {
                 this.invokeErrorCallback(e, callback, alias)
             } finally {
@@ -474,42 +450,26 @@ class SVGAParser(context: Context?) {
         }
     }
 
-    private fun readAsBytes(inputStream: InputStream): ByteArray? {
-        ByteArrayOutputStream().use { byteArrayOutputStream ->
-            val byteArray = ByteArray(2048)
-            while (true) {
-                val count = inputStream.read(byteArray, 0, 2048)
-                if (count <= 0) {
-                    break
-                } else {
-                    byteArrayOutputStream.write(byteArray, 0, count)
-                }
-            }
-            return byteArrayOutputStream.toByteArray()
-        }
-    }
-
-    private fun inflate(byteArray: ByteArray): ByteArray? {
+    /**
+     * 流式解压并解析 MovieEntity
+     * InflaterSource 直接接入 Wire 的 ProtoReader，避免 readAsBytes + inflate 产生的多份完整拷贝
+     * 注意：数据被截断时抛出 EOFException 走解析失败回调，不再像原先那样用截断前解压出的部分数据解析
+     */
+    internal fun decodeMovieEntity(source: BufferedSource): MovieEntity {
+        LogUtils.info(TAG, "inflate start")
         val inflater = Inflater()
-        inflater.setInput(byteArray, 0, byteArray.size)
-        val inflatedBytes = ByteArray(2048)
-        ByteArrayOutputStream().use { inflatedOutputStream ->
-            while (true) {
-                val count = inflater.inflate(inflatedBytes, 0, 2048)
-                if (count <= 0) {
-                    break
-                } else {
-                    inflatedOutputStream.write(inflatedBytes, 0, count)
-                }
-            }
+        try {
+            val movieEntity = MovieEntity.ADAPTER.decode(Okio.buffer(InflaterSource(source, inflater)))
+            LogUtils.info(TAG, "inflate complete")
+            return movieEntity
+        } finally {
             inflater.end()
-            return inflatedOutputStream.toByteArray()
         }
     }
 
-    // 是否是 zip 文件
-    private fun isZipFile(bytes: ByteArray): Boolean {
-        return bytes.size > 4 && bytes[0].toInt() == 80 && bytes[1].toInt() == 75 && bytes[2].toInt() == 3 && bytes[3].toInt() == 4
+    // 是否是 zip 文件（只窥探文件头，不消费数据）
+    internal fun isZipSource(source: BufferedSource): Boolean {
+        return source.request(ZIP_MAGIC.size.toLong() + 1) && source.rangeEquals(0, ZIP_MAGIC)
     }
 
     // 解压
@@ -11,6 +11,8 @@ import android.media.SoundPool
 import android.os.Build
 import com.kernelflux.svga.utils.log.LogUtils
 import java.io.FileDescriptor
+import java.util.Collections
+import java.util.WeakHashMap
 import kotlin.collections.forEach
 
 /**
@@ -32,6 +34,10 @@ object SVGASoundManager {
 
     private val soundCallBackMap: MutableMap<Int, SVGASoundCallBack> = mutableMapOf()
 
+    // 正在播放音频的 drawable，按 entity 设置音量时从这里找音频流（playID 记录在各自的 drawable 上）
+    private val playingDrawables: MutableSet<SVGADrawable> =
+        Collections.newSetFromMap(WeakHashMap<SVGADrawable, Boolean>())
+
     /**
      * 音量设置，范围在 [0, 1] 之间
      */
@@ -111,9 +117,25 @@ object SVGASoundManager {
 
         val soundPool = soundPool ?: return
 
-        entity.audioList.forEach { audio ->
-            val streamId = audio.playID ?: return
-            soundPool.setVolume(streamId, volume, volume)
+        val drawables = synchronized(playingDrawables) {
+            playingDrawables.filter { it.videoItem === entity }
+        }
+        drawables.forEach { drawable ->
+            drawable.activePlayIds().forEach { streamId ->
+                soundPool.setVolume(streamId, volume, volume)
+            }
+        }
+    }
+
+    internal fun registerPlaying(drawable: SVGADrawable) {
+        synchronized(playingDrawables) {
+            playingDrawables.add(drawable)
+        }
+    }
+
+    internal fun unregisterPlaying(drawable: SVGADrawable) {
+        synchronized(playingDrawables) {
+            playingDrawables.remove(drawable)
         }
     }
 
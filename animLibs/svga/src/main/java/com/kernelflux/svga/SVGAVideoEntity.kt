@@ -43,9 +43,6 @@ class SVGAVideoEntity {
     internal var spriteList: List<SVGAVideoSpriteEntity> = emptyList()
     internal var audioList: List<SVGAAudioEntity> = emptyList()
     internal var soundPool: SoundPool? = null
-    
-    // 播放状态标志，用于控制音频播放（drawer 需要访问）
-    internal var isPlaying: Boolean = false
     private var soundCallback: SVGASoundManager.SVGASoundCallBack? = null
     internal var imageMap = HashMap<String, Bitmap>()
     private var mCacheDir: File
@@ -333,10 +330,24 @@ class SVGAVideoEntity {
         }
     }
 
+    /**
+     * 已解码图片占用的字节数（用于内存缓存按字节计算大小）
+     */
+    fun getImageByteCount(): Long {
+        var byteCount = 0L
+        imageMap.values.forEach { bitmap ->
+            if (!bitmap.isRecycled) {
+                byteCount += bitmap.allocationByteCount
+            }
+        }
+        return byteCount
+    }
+
+    /**
+     * 释放图片与音频资源
+     * entity 可能被多个 SVGADrawable 共享，只能在不再有 drawable 使用它时调用（如缓存回收时）
+     */
     fun clear() {
-        // ✅ 重置播放状态
-        isPlaying = false
-        
         if (SVGASoundManager.isInit()) {
             this.audioList.forEach {
                 it.soundID?.let { id -> SVGASoundManager.unload(id) }
@@ -9,9 +9,7 @@ import android.text.TextUtils
 import android.widget.ImageView
 import com.kernelflux.svga.SVGADrawable
 import com.kernelflux.svga.SVGADynamicEntity
-import com.kernelflux.svga.SVGASoundManager
 import com.kernelflux.svga.SVGAVideoEntity
-import com.kernelflux.svga.entities.SVGAVideoShapeEntity
 import kotlin.math.abs
 import kotlin.math.sqrt
 
@@ -27,7 +25,6 @@ internal class SVGACanvasDrawer(
 
     private val sharedValues = ShareValues()
     private val drawTextCache: HashMap<String, Bitmap> = hashMapOf()
-    private val pathCache = PathCache()
 
     private var beginIndexList: Array<Boolean>? = null
     private var endIndexList: Array<Boolean>? = null
@@ -36,10 +33,9 @@ internal class SVGACanvasDrawer(
     override fun drawFrame(canvas: Canvas, frameIndex: Int, scaleType: ImageView.ScaleType) {
         super.drawFrame(canvas, frameIndex, scaleType)
         // 只有播放中才处理音频，防止停止后重新播放
-        if (videoItem.isPlaying) {
+        if (drawable?.isPlaying == true) {
             playAudio(frameIndex)
         }
-        this.pathCache.onSizeChanged(canvas)
         val sprites = requestFrameSprites(frameIndex)
         // Filter null sprites
         if (sprites.count() <= 0) return
@@ -183,36 +179,14 @@ internal class SVGACanvasDrawer(
     }
 
     private fun playAudio(frameIndex: Int) {
+        // 播放流 ID 记录在 drawable 上，共享同一 entity 的 drawable 互不影响
+        val drawable = drawable ?: return
         this.videoItem.audioList.forEach { audio ->
             if (audio.startFrame == frameIndex) {
-                var playId: Int? = null
-                if (SVGASoundManager.isInit()) {
-                    audio.soundID?.let { soundID ->
-                        playId = SVGASoundManager.play(soundID)
-                        audio.playID = playId
-                    }
-                } else {
-                    this.videoItem.soundPool?.let { soundPool ->
-                        audio.soundID?.let { soundID ->
-                            playId = soundPool.play(soundID, 1.0f, 1.0f, 1, 0, 1.0f)
-                            audio.playID = playId
-                        }
-                    }
-                }
-                // 记录 playID 到 drawable，防止丢失
-                playId?.let { drawable?.recordPlayId(it) }
+                drawable.playAudio(audio)
             }
             if (audio.endFrame <= frameIndex) {
-                audio.playID?.let { playId ->
-                    if (SVGASoundManager.isInit()) {
-                        SVGASoundManager.stop(playId)
-                    } else {
-                        this.videoItem.soundPool?.stop(playId)
-                    }
-                    // 从 drawable 中移除 playID
-                    drawable?.removePlayId(playId)
-                }
-                audio.playID = null
+                drawable.stopAudio(audio)
             }
         }
     }
@@ -424,21 +398,21 @@ internal class SVGACanvasDrawer(
         val frameMatrix = shareFrameMatrix(sprite.frameEntity.transform)
         sprite.frameEntity.shapes.forEach { shape ->
             shape.buildPath()
-            shape.shapePath?.let {
+            shape.shapePath?.let { shapePath ->
                 val paint = this.sharedValues.sharedPaint()
                 paint.reset()
                 paint.isAntiAlias = videoItem.antiAlias
                 paint.alpha = (sprite.frameEntity.alpha * 255).toInt()
-                val path = this.sharedValues.sharedPath()
-                path.reset()
-                path.addPath(this.pathCache.buildPath(shape))
                 val shapeMatrix = this.sharedValues.sharedMatrix2()
                 shapeMatrix.reset()
                 shape.transform?.let {
                     shapeMatrix.postConcat(it)
                 }
                 shapeMatrix.postConcat(frameMatrix)
-                path.transform(shapeMatrix)
+                // shapePath 是形状自身坐标系下的路径，画布尺寸变化只影响 frameMatrix，缓存无需清空
+                val path = this.sharedValues.sharedPath()
+                path.reset()
+                path.addPath(shapePath, shapeMatrix)
                 shape.styles?.fill?.let {
                     if (it != 0x00000000) {
                         paint.style = Paint.Style.FILL
@@ -633,29 +607,4 @@ internal class SVGACanvasDrawer(
         }
     }
 
-    class PathCache {
-
-        private var canvasWidth: Int = 0
-        private var canvasHeight: Int = 0
-        private val cache = HashMap<SVGAVideoShapeEntity, Path>()
-
-        fun onSizeChanged(canvas: Canvas) {
-            if (this.canvasWidth != canvas.width || this.canvasHeight != canvas.height) {
-                this.cache.clear()
-            }
-            this.canvasWidth = canvas.width
-            this.canvasHeight = canvas.height
-        }
-
-        fun buildPath(shape: SVGAVideoShapeEntity): Path {
-            if (!this.cache.containsKey(shape)) {
-                val path = Path()
-                shape.shapePath?.apply { path.set(this) }
-                this.cache[shape] = path
-            }
-            return this.cache[shape]!!
-        }
-
-    }
-
 }
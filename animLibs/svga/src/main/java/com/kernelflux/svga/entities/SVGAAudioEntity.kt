@@ -10,7 +10,6 @@ internal class SVGAAudioEntity {
     val startTime: Int
     val totalTime: Int
     var soundID: Int? = null
-    var playID: Int? = null
 
     constructor(audioItem: AudioEntity) {
         this.audioKey = audioItem.audioKey
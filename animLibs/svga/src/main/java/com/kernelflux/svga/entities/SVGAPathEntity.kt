@@ -1,99 +1,160 @@
 package com.kernelflux.svga.entities
 
 import android.graphics.Path
-import com.kernelflux.svga.utils.SVGAPoint
-import java.util.*
 
-private val VALID_METHODS: Set<String> = setOf("M", "L", "H", "V", "C", "S", "Q", "R", "A", "Z", "m", "l", "h", "v", "c", "s", "q", "r", "a", "z")
+private const val OP_MOVE: Byte = 0
+private const val OP_R_MOVE: Byte = 1
+private const val OP_LINE: Byte = 2
+private const val OP_R_LINE: Byte = 3
+private const val OP_CUBIC: Byte = 4
+private const val OP_R_CUBIC: Byte = 5
+private const val OP_QUAD: Byte = 6
+private const val OP_R_QUAD: Byte = 7
+private const val OP_CLOSE: Byte = 8
 
+private const val METHODS = "MLHVCSQRAZmlhvcsqraz"
+
+/**
+ * SVG 路径 "d" 在构造时（解析线程上）解析为操作码数组和坐标数组，
+ * 绘制时按数组重放到 [Path]，不再在 UI 线程上切分字符串、解析浮点数。
+ */
 class SVGAPathEntity(originValue: String) {
 
-    private val replacedValue: String = if (originValue.contains(",")) originValue.replace(",", " ") else originValue
+    private var ops = ByteArray(16)
+    private var opCount = 0
+    private var coords = FloatArray(64)
+    private var coordCount = 0
 
     private var cachedPath: Path? = null
 
+    init {
+        parse(if (originValue.contains(",")) originValue.replace(",", " ") else originValue)
+        ops = ops.copyOf(opCount)
+        coords = coords.copyOf(coordCount)
+    }
+
     fun buildPath(toPath: Path) {
         cachedPath?.let {
             toPath.set(it)
             return
         }
         val cachedPath = Path()
-        val segments = StringTokenizer(this.replacedValue, "MLHVCSQRAZmlhvcsqraz", true)
-        var currentMethod = ""
-        while (segments.hasMoreTokens()) {
-            val segment = segments.nextToken()
-            if (segment.isEmpty()) { continue }
-            if (VALID_METHODS.contains(segment)) {
-                currentMethod = segment
-                if (currentMethod == "Z" || currentMethod == "z") { operate(cachedPath, currentMethod, StringTokenizer("", "")) }
-            }
-            else {
-                operate(cachedPath, currentMethod, StringTokenizer(segment, " "))
-            }
-        }
+        replay(cachedPath)
         this.cachedPath = cachedPath
         toPath.set(cachedPath)
     }
 
-    private fun operate(finalPath: Path, method: String, args: StringTokenizer) {
-        var x0 = 0.0f
-        var y0 = 0.0f
-        var x1 = 0.0f
-        var y1 = 0.0f
-        var x2 = 0.0f
-        var y2 = 0.0f
-        try {
-            var index = 0
-            while (args.hasMoreTokens()) {
-                val s = args.nextToken()
-                if (s.isEmpty()) {continue}
-                if (index == 0) { x0 = s.toFloat() }
-                if (index == 1) { y0 = s.toFloat() }
-                if (index == 2) { x1 = s.toFloat() }
-                if (index == 3) { y1 = s.toFloat() }
-                if (index == 4) { x2 = s.toFloat() }
-                if (index == 5) { y2 = s.toFloat() }
-                index++
+    /**
+     * 按操作码重放到 [path]，测试中用于对比原先的解析结果
+     */
+    internal fun replay(path: Path) {
+        val coords = coords
+        var c = 0
+        for (i in 0 until opCount) {
+            when (ops[i]) {
+                OP_MOVE -> path.moveTo(coords[c++], coords[c++])
+                OP_R_MOVE -> path.rMoveTo(coords[c++], coords[c++])
+                OP_LINE -> path.lineTo(coords[c++], coords[c++])
+                OP_R_LINE -> path.rLineTo(coords[c++], coords[c++])
+                OP_CUBIC -> path.cubicTo(coords[c++], coords[c++], coords[c++], coords[c++], coords[c++], coords[c++])
+                OP_R_CUBIC -> path.rCubicTo(coords[c++], coords[c++], coords[c++], coords[c++], coords[c++], coords[c++])
+                OP_QUAD -> path.quadTo(coords[c++], coords[c++], coords[c++], coords[c++])
+                OP_R_QUAD -> path.rQuadTo(coords[c++], coords[c++], coords[c++], coords[c++])
+                OP_CLOSE -> path.close()
             }
-        } catch (e: Exception) {}
-        var currentPoint = SVGAPoint(0.0f, 0.0f, 0.0f)
-        if (method == "M") {
-            finalPath.moveTo(x0, y0)
-            currentPoint = SVGAPoint(x0, y0, 0.0f)
-        } else if (method == "m") {
-            finalPath.rMoveTo(x0, y0)
-            currentPoint = SVGAPoint(currentPoint.x + x0, currentPoint.y + y0, 0.0f)
-        }
-        if (method == "L") {
-            finalPath.lineTo(x0, y0)
-        } else if (method == "l") {
-            finalPath.rLineTo(x0, y0)
         }
-        if (method == "C") {
-            finalPath.cubicTo(x0, y0, x1, y1, x2, y2)
-        } else if (method == "c") {
-            finalPath.rCubicTo(x0, y0, x1, y1, x2, y2)
-        }
-        if (method == "Q") {
-            finalPath.quadTo(x0, y0, x1, y1)
-        } else if (method == "q") {
-            finalPath.rQuadTo(x0, y0, x1, y1)
+    }
+
+    /**
+     * 与原先基于 StringTokenizer 的实现保持一致：每个命令最多读取 6 个数值，解析失败时其余参数为 0，
+     * H / V 相对于 (0, 0)，S、R、A 不绘制。
+     */
+    private fun parse(value: String) {
+        val args = FloatArray(6)
+        var currentMethod = ' '
+        var segmentStart = 0
+        for (i in 0..value.length) {
+            if (i < value.length && METHODS.indexOf(value[i]) < 0) {
+                continue
+            }
+            if (i > segmentStart && currentMethod != ' ') {
+                readArgs(value, segmentStart, i, args)
+                operate(currentMethod, args)
+            }
+            if (i < value.length) {
+                currentMethod = value[i]
+                if (currentMethod == 'Z' || currentMethod == 'z') {
+                    addOp(OP_CLOSE)
+                }
+            }
+            segmentStart = i + 1
         }
-        if (method == "H") {
-            finalPath.lineTo(x0, currentPoint.y)
-        } else if (method == "h") {
-            finalPath.rLineTo(x0, 0f)
+    }
+
+    private fun readArgs(value: String, start: Int, end: Int, args: FloatArray) {
+        args.fill(0f)
+        var index = 0
+        var tokenStart = start
+        for (i in start..end) {
+            if (i < end && value[i] != ' ') {
+                continue
+            }
+            if (i > tokenStart) {
+                if (index < args.size) {
+                    try {
+                        args[index] = value.substring(tokenStart, i).toFloat()
+                    } catch (e: NumberFormatException) {
+                        return
+                    }
+                }
+                index++
+            }
+            tokenStart = i + 1
         }
-        if (method == "V") {
-            finalPath.lineTo(currentPoint.x, x0)
-        } else if (method == "v") {
-            finalPath.rLineTo(0f, x0)
+    }
+
+    private fun operate(method: Char, args: FloatArray) {
+        when (method) {
+            'M' -> addOp(OP_MOVE, args, 2)
+            'm' -> addOp(OP_R_MOVE, args, 2)
+            'L' -> addOp(OP_LINE, args, 2)
+            'l' -> addOp(OP_R_LINE, args, 2)
+            'C' -> addOp(OP_CUBIC, args, 6)
+            'c' -> addOp(OP_R_CUBIC, args, 6)
+            'Q' -> addOp(OP_QUAD, args, 4)
+            'q' -> addOp(OP_R_QUAD, args, 4)
+            'H' -> addOp(OP_LINE, args[0], 0f)
+            'h' -> addOp(OP_R_LINE, args[0], 0f)
+            'V' -> addOp(OP_LINE, 0f, args[0])
+            'v' -> addOp(OP_R_LINE, 0f, args[0])
+            'Z', 'z' -> addOp(OP_CLOSE)
         }
-        if (method == "Z") {
-            finalPath.close()
+    }
+
+    private fun addOp(op: Byte) {
+        if (opCount == ops.size) {
+            ops = ops.copyOf(opCount * 2)
         }
-        else if (method == "z") {
-            finalPath.close()
+        ops[opCount++] = op
+    }
+
+    private fun addOp(op: Byte, args: FloatArray, count: Int) {
+        addOp(op)
+        ensureCoords(count)
+        System.arraycopy(args, 0, coords, coordCount, count)
+        coordCount += count
+    }
+
+    private fun addOp(op: Byte, x: Float, y: Float) {
+        addOp(op)
+        ensureCoords(2)
+        coords[coordCount++] = x
+        coords[coordCount++] = y
+    }
+
+    private fun ensureCoords(count: Int) {
+        if (coordCount + count > coords.size) {
+            coords = coords.copyOf(maxOf(coords.size * 2, coordCount + count))
         }
     }
 
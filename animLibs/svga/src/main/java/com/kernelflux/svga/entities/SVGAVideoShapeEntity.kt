@@ -61,11 +61,15 @@ internal class SVGAVideoShapeEntity {
     var transform: Matrix? = null
         private set
 
+    // 路径在解析线程上预先解析，绘制时只需重放
+    private var pathEntity: SVGAPathEntity? = null
+
     constructor(obj: JSONObject) {
         parseType(obj)
         parseArgs(obj)
         parseStyles(obj)
         parseTransform(obj)
+        parsePath()
     }
 
     constructor(obj: ShapeEntity) {
@@ -73,6 +77,7 @@ internal class SVGAVideoShapeEntity {
         parseArgs(obj)
         parseStyles(obj)
         parseTransform(obj)
+        parsePath()
     }
 
     val isKeep: Boolean
@@ -317,14 +322,22 @@ internal class SVGAVideoShapeEntity {
     }
 
 
+    private fun parsePath() {
+        if (this.type == Type.shape) {
+            pathEntity = (this.args?.get("d") as? String)?.let { SVGAPathEntity(it) }
+        }
+    }
+
     fun buildPath() {
         if (this.shapePath != null) {
             return
         }
         sharedPath.reset()
         if (this.type == Type.shape) {
-            (this.args?.get("d") as? String)?.let {
-                SVGAPathEntity(it).buildPath(sharedPath)
+            this.pathEntity?.let {
+                it.buildPath(sharedPath)
+                // 形状路径只构建一次，之后由 shapePath 缓存，不再需要保留命令数组
+                this.pathEntity = null
             }
         } else if (this.type == Type.ellipse) {
             val xv = this.args?.get("x") as? Number ?: return
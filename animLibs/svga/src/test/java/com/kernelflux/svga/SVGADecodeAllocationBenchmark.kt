@@ -0,0 +1,56 @@
+package com.kernelflux.svga
+
+import android.os.Build
+import com.kernelflux.svga.proto.MovieEntity
+import okio.Okio
+import org.junit.Assert.assertTrue
+import org.junit.Assume.assumeTrue
+import org.junit.Ignore
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.lang.management.ManagementFactory
+
+/**
+ * Bytes allocated decoding sample.svga: full-buffer copies (readAsBytes + inflate) against streaming
+ */
+@Ignore("Benchmark, run manually")
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.P])
+class SVGADecodeAllocationBenchmark {
+
+    companion object {
+        private const val WARMUP_ROUNDS = 5
+        private const val MEASURED_ROUNDS = 20
+    }
+
+    private val parser = SVGAParser(null)
+
+    @Test
+    fun streamingDecodeAllocatesLess() {
+        val threadBean = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+        assumeTrue(threadBean != null && threadBean.isThreadAllocatedMemorySupported)
+        val bytes = SVGADecodeFixtures.sampleBytes()
+
+        val fullBuffer = measureAllocatedBytes(threadBean!!) {
+            val file = SVGADecodeFixtures.readAsBytes(bytes.inputStream())
+            MovieEntity.ADAPTER.decode(SVGADecodeFixtures.inflateFully(file))
+        }
+        val streaming = measureAllocatedBytes(threadBean) {
+            parser.decodeMovieEntity(Okio.buffer(Okio.source(bytes.inputStream())))
+        }
+        assertTrue(
+            "Allocated per decode: full buffer $fullBuffer bytes, streaming $streaming bytes",
+            streaming < fullBuffer
+        )
+    }
+
+    private fun measureAllocatedBytes(threadBean: com.sun.management.ThreadMXBean, decode: () -> Any): Long {
+        val threadId = Thread.currentThread().id
+        repeat(WARMUP_ROUNDS) { decode() }
+        val start = threadBean.getThreadAllocatedBytes(threadId)
+        repeat(MEASURED_ROUNDS) { decode() }
+        return (threadBean.getThreadAllocatedBytes(threadId) - start) / MEASURED_ROUNDS
+    }
+}
@@ -0,0 +1,52 @@
+package com.kernelflux.svga
+
+import java.io.ByteArrayOutputStream
+import java.io.InputStream
+import java.util.zip.Inflater
+
+internal object SVGADecodeFixtures {
+
+    fun sampleBytes(): ByteArray {
+        return javaClass.classLoader!!.getResourceAsStream("sample.svga").use { it.readBytes() }
+    }
+
+    /**
+     * Decode path before streaming: the whole file and the whole inflated movie as byte arrays
+     */
+    fun inflateFully(bytes: ByteArray): ByteArray {
+        val inflater = Inflater()
+        try {
+            inflater.setInput(bytes, 0, bytes.size)
+            val inflatedBytes = ByteArray(2048)
+            ByteArrayOutputStream().use { inflatedOutputStream ->
+                while (true) {
+                    val count = inflater.inflate(inflatedBytes, 0, 2048)
+                    if (count <= 0) {
+                        break
+                    }
+                    inflatedOutputStream.write(inflatedBytes, 0, count)
+                }
+                return inflatedOutputStream.toByteArray()
+            }
+        } finally {
+            inflater.end()
+        }
+    }
+
+    /**
+     * Read path before streaming: the whole file into a growing byte array
+     */
+    fun readAsBytes(input: InputStream): ByteArray {
+        ByteArrayOutputStream().use { byteArrayOutputStream ->
+            val byteArray = ByteArray(2048)
+            while (true) {
+                val count = input.read(byteArray, 0, 2048)
+                if (count <= 0) {
+                    break
+                }
+                byteArrayOutputStream.write(byteArray, 0, count)
+            }
+            return byteArrayOutputStream.toByteArray()
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.kernelflux.svga
+
+import android.os.Build
+import okio.Okio
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.P])
+class SVGADrawableTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    @Test
+    fun playingStateIsPerDrawable() {
+        val entity = sampleEntity()
+        val first = SVGADrawable(entity)
+        val second = SVGADrawable(entity)
+        first.resume()
+        second.resume()
+
+        first.pause()
+
+        assertFalse(first.isPlaying)
+        assertTrue(second.isPlaying)
+    }
+
+    @Test
+    fun clearKeepsSharedEntity() {
+        val entity = sampleEntity()
+        val sprites = entity.spriteList
+        val imageCount = entity.imageMap.size
+        assertTrue(sprites.isNotEmpty())
+        val other = SVGADrawable(entity)
+        other.resume()
+
+        SVGADrawable(entity).clear()
+
+        assertSame(sprites, entity.spriteList)
+        assertEquals(imageCount, entity.imageMap.size)
+        assertTrue(other.isPlaying)
+    }
+
+    @Test
+    fun entityClearFreesSharedData() {
+        val entity = sampleEntity()
+
+        entity.clear()
+
+        assertTrue(entity.spriteList.isEmpty())
+        assertTrue(entity.imageMap.isEmpty())
+    }
+
+    private fun sampleEntity(): SVGAVideoEntity {
+        val bytes = SVGADecodeFixtures.sampleBytes()
+        val movie = SVGAParser(null).decodeMovieEntity(Okio.buffer(Okio.source(bytes.inputStream())))
+        return SVGAVideoEntity(movie, folder.newFolder())
+    }
+}
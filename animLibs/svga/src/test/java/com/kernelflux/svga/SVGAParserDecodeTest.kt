@@ -0,0 +1,49 @@
+package com.kernelflux.svga
+
+import android.os.Build
+import com.kernelflux.svga.proto.MovieEntity
+import okio.Buffer
+import okio.Okio
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.io.EOFException
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.P])
+class SVGAParserDecodeTest {
+
+    private val parser = SVGAParser(null)
+
+    @Test
+    fun streamingDecodeMatchesFullBufferDecode() {
+        val bytes = SVGADecodeFixtures.sampleBytes()
+
+        val streamed = parser.decodeMovieEntity(Okio.buffer(Okio.source(bytes.inputStream())))
+
+        assertEquals(MovieEntity.ADAPTER.decode(SVGADecodeFixtures.inflateFully(bytes)), streamed)
+        assertTrue(streamed.sprites.isNotEmpty())
+    }
+
+    @Test
+    fun zipCheckPeeksWithoutConsuming() {
+        val zip = Buffer().write(byteArrayOf(80, 75, 3, 4, 20, 0))
+        assertTrue(parser.isZipSource(zip))
+        assertEquals(6L, zip.size())
+
+        val svga = Buffer().write(SVGADecodeFixtures.sampleBytes())
+        val size = svga.size()
+        assertFalse(parser.isZipSource(svga))
+        assertEquals(size, svga.size())
+    }
+
+    @Test(expected = EOFException::class)
+    fun truncatedInputFails() {
+        val bytes = SVGADecodeFixtures.sampleBytes()
+        parser.decodeMovieEntity(Buffer().write(bytes, 0, bytes.size / 2))
+    }
+}
@@ -0,0 +1,194 @@
+package com.kernelflux.svga.entities
+
+import android.graphics.Path
+import android.os.Build
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.util.StringTokenizer
+
+/**
+ * 对比操作码解析与原先基于 StringTokenizer 的实现（[LegacyPathParser]）生成的 Path 调用
+ */
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.P])
+class SVGAPathEntityTest {
+
+    @Test
+    fun absoluteCommands() {
+        assertSameAsLegacy("M10 20 L30 40 C1 2 3 4 5 6 Q7 8 9 10 Z")
+    }
+
+    @Test
+    fun relativeCommands() {
+        assertSameAsLegacy("m10,20 l5 5 h10 v-3 c1 2 3 4 5 6 q1 2 3 4 z")
+    }
+
+    @Test
+    fun horizontalAndVerticalLines() {
+        assertSameAsLegacy("M5 5 H20 V30 h-4 v2")
+    }
+
+    @Test
+    fun implicitRepeats() {
+        assertSameAsLegacy("M0 0 10 10 20 20 30 30 L1 1 2 2 3 3 4 4 c1 1 2 2 3 3 4 4 5 5 6 6")
+    }
+
+    @Test
+    fun closeFollowedByMove() {
+        assertSameAsLegacy("M0 0L10 0L10 10Z M20 20 L30 30 z m5 5 l1 1 zM1 1")
+    }
+
+    @Test
+    fun unsupportedCommandsAreSkipped() {
+        assertSameAsLegacy("M0 0 S1 2 3 4 A1 1 0 0 1 5 5 R1 1 L2 2")
+    }
+
+    @Test
+    fun malformedNumbers() {
+        assertSameAsLegacy("M1 x 3 L4 5 c1e1 -2.5 .5 3 4")
+    }
+
+    @Test
+    fun argumentsBeforeFirstCommandAreIgnored() {
+        assertSameAsLegacy(" 10 10 M1 1  L 2   3 ")
+    }
+
+    private fun assertSameAsLegacy(d: String) {
+        val expected = RecordingPath()
+        LegacyPathParser.build(d, expected)
+        val actual = RecordingPath()
+        SVGAPathEntity(d).replay(actual)
+        assertEquals(d, expected.calls, actual.calls)
+    }
+
+    /**
+     * 记录调用而不绘制，结果与图形后端无关
+     */
+    private class RecordingPath : Path() {
+        val calls = mutableListOf<String>()
+
+        override fun moveTo(x: Float, y: Float) {
+            calls.add("moveTo($x, $y)")
+        }
+
+        override fun rMoveTo(dx: Float, dy: Float) {
+            calls.add("rMoveTo($dx, $dy)")
+        }
+
+        override fun lineTo(x: Float, y: Float) {
+            calls.add("lineTo($x, $y)")
+        }
+
+        override fun rLineTo(dx: Float, dy: Float) {
+            calls.add("rLineTo($dx, $dy)")
+        }
+
+        override fun cubicTo(x1: Float, y1: Float, x2: Float, y2: Float, x3: Float, y3: Float) {
+            calls.add("cubicTo($x1, $y1, $x2, $y2, $x3, $y3)")
+        }
+
+        override fun rCubicTo(x1: Float, y1: Float, x2: Float, y2: Float, x3: Float, y3: Float) {
+            calls.add("rCubicTo($x1, $y1, $x2, $y2, $x3, $y3)")
+        }
+
+        override fun quadTo(x1: Float, y1: Float, x2: Float, y2: Float) {
+            calls.add("quadTo($x1, $y1, $x2, $y2)")
+        }
+
+        override fun rQuadTo(dx1: Float, dy1: Float, dx2: Float, dy2: Float) {
+            calls.add("rQuadTo($dx1, $dy1, $dx2, $dy2)")
+        }
+
+        override fun close() {
+            calls.add("close()")
+        }
+    }
+
+    /**
+     * 原先 SVGAPathEntity.buildPath 的解析逻辑
+     */
+    private object LegacyPathParser {
+
+        private val VALID_METHODS: Set<String> = setOf("M", "L", "H", "V", "C", "S", "Q", "R", "A", "Z", "m", "l", "h", "v", "c", "s", "q", "r", "a", "z")
+
+        fun build(originValue: String, finalPath: Path) {
+            val replacedValue = if (originValue.contains(",")) originValue.replace(",", " ") else originValue
+            val segments = StringTokenizer(replacedValue, "MLHVCSQRAZmlhvcsqraz", true)
+            var currentMethod = ""
+            while (segments.hasMoreTokens()) {
+                val segment = segments.nextToken()
+                if (segment.isEmpty()) { continue }
+                if (VALID_METHODS.contains(segment)) {
+                    currentMethod = segment
+                    if (currentMethod == "Z" || currentMethod == "z") { operate(finalPath, currentMethod, StringTokenizer("", "")) }
+                }
+                else {
+                    operate(finalPath, currentMethod, StringTokenizer(segment, " "))
+                }
+            }
+        }
+
+        private fun operate(finalPath: Path, method: String, args: StringTokenizer) {
+            var x0 = 0.0f
+            var y0 = 0.0f
+            var x1 = 0.0f
+            var y1 = 0.0f
+            var x2 = 0.0f
+            var y2 = 0.0f
+            try {
+                var index = 0
+                while (args.hasMoreTokens()) {
+                    val s = args.nextToken()
+                    if (s.isEmpty()) {continue}
+                    if (index == 0) { x0 = s.toFloat() }
+                    if (index == 1) { y0 = s.toFloat() }
+                    if (index == 2) { x1 = s.toFloat() }
+                    if (index == 3) { y1 = s.toFloat() }
+                    if (index == 4) { x2 = s.toFloat() }
+                    if (index == 5) { y2 = s.toFloat() }
+                    index++
+                }
+            } catch (e: Exception) {}
+            // 原实现每次调用都新建当前点 (0, 0)
+            if (method == "M") {
+                finalPath.moveTo(x0, y0)
+            } else if (method == "m") {
+                finalPath.rMoveTo(x0, y0)
+            }
+            if (method == "L") {
+                finalPath.lineTo(x0, y0)
+            } else if (method == "l") {
+                finalPath.rLineTo(x0, y0)
+            }
+            if (method == "C") {
+                finalPath.cubicTo(x0, y0, x1, y1, x2, y2)
+            } else if (method == "c") {
+                finalPath.rCubicTo(x0, y0, x1, y1, x2, y2)
+            }
+            if (method == "Q") {
+                finalPath.quadTo(x0, y0, x1, y1)
+            } else if (method == "q") {
+                finalPath.rQuadTo(x0, y0, x1, y1)
+            }
+            if (method == "H") {
+                finalPath.lineTo(x0, 0f)
+            } else if (method == "h") {
+                finalPath.rLineTo(x0, 0f)
+            }
+            if (method == "V") {
+                finalPath.lineTo(0f, x0)
+            } else if (method == "v") {
+                finalPath.rLineTo(0f, x0)
+            }
+            if (method == "Z") {
+                finalPath.close()
+            }
+            else if (method == "z") {
+                finalPath.close()
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package com.kernelflux.vap
 
 import com.kernelflux.vap.mask.MaskConfig
+import com.kernelflux.vap.mix.FrameIndex
 import com.kernelflux.vap.util.ALog
 import org.json.JSONException
 import org.json.JSONObject
@@ -44,7 +45,8 @@ class AnimConfig {
     var defaultVideoMode = Constant.VIDEO_MODE_SPLIT_HORIZONTAL
 
     var maskConfig: MaskConfig?= null
-    var jsonConfig: JSONObject? = null
+    var jsonConfig: JSONObject? = null // 不含 "frame"，逐帧数据见 frameIndex
+    var frameIndex: FrameIndex? = null // 融合动画逐帧数据
 
 
     /**
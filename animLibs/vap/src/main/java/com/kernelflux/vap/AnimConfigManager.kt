@@ -18,7 +18,7 @@ package com.kernelflux.vap
 import android.os.SystemClock
 import com.kernelflux.vap.file.IFileContainer
 import com.kernelflux.vap.util.ALog
-import org.json.JSONObject
+import java.io.InputStream
 import java.nio.charset.Charset
 
 /**
@@ -148,13 +148,12 @@ class AnimConfigManager(val player: AnimPlayer) {
             return true
         }
 
-        // 读取vapc box
-        val vapcBuf = ByteArray(head.length - 8) // ps: OOM exception
-        fileContainer.read(vapcBuf, 0 , vapcBuf.size)
-        fileContainer.closeRandomRead()
-
-        val json = String(vapcBuf, 0, vapcBuf.size, Charset.forName("UTF-8"))
-        val jsonObj = JSONObject(json)
+        // 流式读取vapc box，逐帧数据直接写入列式索引，避免整个box读入内存
+        val jsonObj = try {
+            VapcParser.parse(BoxInputStream(fileContainer, head.length - 8), config)
+        } finally {
+            fileContainer.closeRandomRead()
+        }
         config.jsonConfig = jsonObj
         val result = config.parse(jsonObj)
         if (defaultFps > 0) {
@@ -177,6 +176,31 @@ class AnimConfigManager(val player: AnimPlayer) {
         return head
     }
 
+    /**
+     * 从当前位置读取 box 内容，最多读取 length 个字节
+     */
+    private class BoxInputStream(
+        private val fileContainer: IFileContainer,
+        private var remaining: Int
+    ) : InputStream() {
+
+        override fun read(): Int {
+            val b = ByteArray(1)
+            return if (read(b, 0, 1) == 1) b[0].toInt() and 0xff else -1
+        }
+
+        override fun read(b: ByteArray, off: Int, len: Int): Int {
+            if (remaining <= 0) return -1
+            val count = fileContainer.read(b, off, minOf(len, remaining))
+            if (count <= 0) {
+                remaining = 0
+                return -1
+            }
+            remaining -= count
+            return count
+        }
+    }
+
     private class BoxHead {
         var startIndex: Long = 0
         var length: Int = 0
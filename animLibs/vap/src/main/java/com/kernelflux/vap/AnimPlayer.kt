@@ -90,14 +90,14 @@ class AnimPlayer(val animView: IAnimView) {
     fun startPlay(fileContainer: IFileContainer) {
         isStartRunning = true
         prepareDecoder()
-        if (decoder?.prepareThread() == false) {
+        if (decoder?.prepareQueues() == false) {
             isStartRunning = false
             decoder?.onFailed(Constant.REPORT_ERROR_TYPE_CREATE_THREAD, Constant.ERROR_MSG_CREATE_THREAD)
             decoder?.onVideoComplete()
             return
         }
         // 在线程中解析配置
-        decoder?.renderThread?.handler?.post {
+        decoder?.renderQueue?.post {
             val result = configManager.parseConfig(fileContainer, enableVersion1, videoMode, defaultFps)
             if (result != Constant.OK) {
                 isStartRunning = false
@@ -57,8 +57,10 @@ abstract class Decoder(val player: AnimPlayer) : IAnimListener {
     }
 
     var render: IRenderListener? = null
-    val renderThread = HandlerHolder(null, null)
-    val decodeThread = HandlerHolder(null, null)
+    @Volatile
+    var renderQueue: VapScheduler.SerialQueue? = null
+    @Volatile
+    var decodeQueue: VapScheduler.SerialQueue? = null
     private var surfaceWidth = 0
     private var surfaceHeight = 0
     var fps: Int = 0
@@ -68,6 +70,7 @@ abstract class Decoder(val player: AnimPlayer) : IAnimListener {
         }
     var playLoop = 0 // 循环播放次数
     var isRunning = false // 是否正在运行
+    @Volatile
     var isStopReq = false // 是否需要停止
     
     /**
@@ -81,14 +84,31 @@ abstract class Decoder(val player: AnimPlayer) : IAnimListener {
 
     abstract fun start(fileContainer: IFileContainer)
 
-    fun stop() {
+    open fun stop() {
         isStopReq = true
     }
 
     abstract fun destroy()
 
-    fun prepareThread(): Boolean {
-        return createThread(renderThread, "anim_render_thread") && createThread(decodeThread, "anim_decode_thread")
+    /**
+     * 渲染、解码任务在 VapScheduler 的共享线程上按播放器串行执行，不再每个播放器单独创建线程
+     */
+    fun prepareQueues(): Boolean {
+        try {
+            if (renderQueue == null) {
+                renderQueue = VapScheduler.newRenderQueue().apply {
+                    // 共享渲染线程上切换播放器时，恢复该播放器的 EGL 上下文
+                    onActivate = { render?.makeCurrent() }
+                }
+            }
+            if (decodeQueue == null) {
+                decodeQueue = VapScheduler.newDecodeQueue()
+            }
+            return true
+        } catch (e: OutOfMemoryError) {
+            ALog.e(TAG, "prepareQueues OOM", e)
+        }
+        return false
     }
 
     fun prepareRender(needYUV: Boolean): Boolean {
@@ -132,15 +152,13 @@ abstract class Decoder(val player: AnimPlayer) : IAnimListener {
     }
 
 
-    fun destroyThread() {
+    fun destroyQueues() {
         if (player.isDetachedFromWindow) {
-            ALog.i(TAG, "destroyThread")
-            renderThread.handler?.removeCallbacksAndMessages(null)
-            decodeThread.handler?.removeCallbacksAndMessages(null)
-            renderThread.thread = quitSafely(renderThread.thread)
-            decodeThread.thread = quitSafely(decodeThread.thread)
-            renderThread.handler = null
-            decodeThread.handler = null
+            ALog.i(TAG, "destroyQueues")
+            renderQueue?.release()
+            decodeQueue?.release()
+            renderQueue = null
+            decodeQueue = null
         }
     }
 
@@ -96,6 +96,17 @@ class EGLUtil {
         return egl?.eglCreateContext(eglDisplay, eglConfig, EGL10.EGL_NO_CONTEXT, attrs)
     }
 
+    /**
+     * 多个播放器共用渲染线程，切换播放器时重新绑定当前的上下文
+     */
+    fun makeCurrent() {
+        if (eglContext == null || eglContext == EGL10.EGL_NO_CONTEXT
+            || eglSurface == null || eglSurface == EGL10.EGL_NO_SURFACE) return
+        if (egl?.eglMakeCurrent(eglDisplay, eglSurface, eglSurface, eglContext) == false) {
+            ALog.e(TAG, "make current error:${Integer.toHexString(egl?.eglGetError() ?: 0)}")
+        }
+    }
+
     fun swapBuffers() {
         if (eglDisplay == null || eglSurface == null) return
         egl?.eglSwapBuffers(eglDisplay, eglSurface)
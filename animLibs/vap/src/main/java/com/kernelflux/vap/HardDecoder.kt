@@ -25,12 +25,18 @@ import android.view.Surface
 import com.kernelflux.vap.file.IFileContainer
 import com.kernelflux.vap.util.ALog
 import com.kernelflux.vap.util.MediaUtil
+import com.kernelflux.vap.util.YUVConverter
+import com.kernelflux.vap.util.YUVPlanePool
+import java.nio.ByteBuffer
 
 class HardDecoder(player: AnimPlayer) : Decoder(player), SurfaceTexture.OnFrameAvailableListener {
 
 
     companion object {
         private const val TAG = "${Constant.TAG}.HardDecoder"
+        private const val TIMEOUT_USEC = 10000L
+        // 每次解码任务最多等待解码器的次数，没有输出时也会让出解码线程
+        private const val MAX_DEQUEUE_PER_SLICE = 10
     }
 
     private var surface: Surface? = null
@@ -48,13 +54,18 @@ class HardDecoder(player: AnimPlayer) : Decoder(player), SurfaceTexture.OnFrameA
 
     // 动画是否需要走YUV渲染逻辑的标志位
     private var needYUV = false
+    // YUV渲染时复用的平面数据
+    private val yuvPlanePool = YUVPlanePool()
     private var outputFormat: MediaFormat? = null
+    // 排队或正在执行的解码任务
+    @Volatile
+    private var decodeTask: DecodeTask? = null
 
     override fun start(fileContainer: IFileContainer) {
         isStopReq = false
         needDestroy = false
         isRunning = true
-        renderThread.handler?.post {
+        renderQueue?.post {
             startPlay(fileContainer)
         }
     }
@@ -66,7 +77,7 @@ class HardDecoder(player: AnimPlayer) : Decoder(player), SurfaceTexture.OnFrameA
     }
 
     private fun renderData() {
-        renderThread.handler?.post {
+        renderQueue?.post {
             try {
                 glTexture?.apply {
                     updateTexImage()
@@ -81,6 +92,10 @@ class HardDecoder(player: AnimPlayer) : Decoder(player), SurfaceTexture.OnFrameA
     }
 
     private fun startPlay(fileContainer: IFileContainer) {
+        if (isStopReq) {
+            release(null, null)
+            return
+        }
 
         var extractor: MediaExtractor? = null
         var decoder: MediaCodec? = null
@@ -150,79 +165,135 @@ class HardDecoder(player: AnimPlayer) : Decoder(player), SurfaceTexture.OnFrameA
             return
         }
 
-        try {
-            val mime = format.getString(MediaFormat.KEY_MIME) ?: ""
-            ALog.i(TAG, "Video MIME is $mime")
-            decoder = MediaCodec.createDecoderByType(mime).apply {
-                if (needYUV) {
-                    format.setInteger(
-                            MediaFormat.KEY_COLOR_FORMAT,
-                            MediaCodecInfo.CodecCapabilities.COLOR_FormatYUV420Planar
-                    )
-                    configure(format, null, null, 0)
-                } else {
-                    surface = Surface(glTexture)
-                    configure(format, surface, null, 0)
-                }
-
-                start()
-                decodeThread.handler?.post {
-                    try {
-                        startDecode(extractor, this)
-                    } catch (e: Throwable) {
-                        ALog.e(TAG, "MediaCodec exception e=$e", e)
-                        onFailed(Constant.REPORT_ERROR_TYPE_DECODE_EXC, "${Constant.ERROR_MSG_DECODE_EXC} e=$e")
-                        release(decoder, extractor)
-                    }
-                }
-            }
-        } catch (e: Throwable) {
-            ALog.e(TAG, "MediaCodec configure exception e=$e", e)
-            onFailed(Constant.REPORT_ERROR_TYPE_DECODE_EXC, "${Constant.ERROR_MSG_DECODE_EXC} e=$e")
-            release(decoder, extractor)
+        val videoExtractor = extractor
+        val videoFormat = format
+        if (videoExtractor == null || videoFormat == null) {
+            release(null, extractor)
             return
         }
+        // 解码器在解码队列上创建，排队的播放器不占用 MediaCodec
+        val task = DecodeTask(videoExtractor, videoFormat)
+        decodeTask = task
+        if (decodeQueue?.post(task) != true) {
+            decodeTask = null
+            release(null, videoExtractor)
+        }
     }
 
-    private fun startDecode(extractor: MediaExtractor ,decoder: MediaCodec) {
-        val TIMEOUT_USEC = 10000L
-        var inputChunk = 0
-        var outputDone = false
-        var inputDone = false
-        var frameIndex = 0
-        var isLoop = false
-
-        val decoderInputBuffers = decoder.inputBuffers
+    /**
+     * 停止时如果解码任务还在解码队列中排队，直接移除并释放，不再等待解码线程空出来
+     */
+    override fun stop() {
+        super.stop()
+        val task = decodeTask ?: return
+        if (decodeQueue?.remove(task) == true) {
+            ALog.i(TAG, "stop pending decode")
+            task.release()
+        }
+    }
 
-        while (!outputDone) {
+    /**
+     * 解码任务，每次执行只解码一帧（或等待 [MAX_DEQUEUE_PER_SLICE] 次无输出）后重新提交到解码队列，
+     * 解码线程在播放器之间轮转，循环播放的动画不会一直占用线程，超出 [VapScheduler.MAX_CONCURRENT_DECODERS] 的播放器也能播放
+     */
+    private inner class DecodeTask(
+        private val extractor: MediaExtractor,
+        private val format: MediaFormat
+    ) : Runnable {
+        private var decoder: MediaCodec? = null
+        private var decoderInputBuffers: Array<ByteBuffer>? = null
+        private var inputChunk = 0
+        private var inputDone = false
+        private var frameIndex = 0
+        private var isLoop = false
+
+        override fun run() {
             if (isStopReq) {
                 ALog.i(TAG, "stop decode")
-                release(decoder, extractor)
+                release()
                 return
             }
+            val codec = decoder ?: createDecoder() ?: return
+            val done = try {
+                decodeSlice(codec)
+            } catch (e: Throwable) {
+                ALog.e(TAG, "MediaCodec exception e=$e", e)
+                onFailed(Constant.REPORT_ERROR_TYPE_DECODE_EXC, "${Constant.ERROR_MSG_DECODE_EXC} e=$e")
+                true
+            }
+            if (done || decodeQueue?.post(this) != true) {
+                release()
+            }
+        }
+
+        fun release() {
+            if (decodeTask === this) {
+                decodeTask = null
+            }
+            this@HardDecoder.release(decoder, extractor)
+            decoder = null
+        }
 
-            if (!inputDone) {
-                val inputBufIndex = decoder.dequeueInputBuffer(TIMEOUT_USEC)
-                if (inputBufIndex >= 0) {
-                    val inputBuf = decoderInputBuffers[inputBufIndex]
-                    val chunkSize = extractor.readSampleData(inputBuf, 0)
-                    if (chunkSize < 0) {
-                        decoder.queueInputBuffer(inputBufIndex, 0, 0, 0L, MediaCodec.BUFFER_FLAG_END_OF_STREAM)
-                        inputDone = true
-                        ALog.d(TAG, "decode EOS")
+        private fun createDecoder(): MediaCodec? {
+            try {
+                val mime = format.getString(MediaFormat.KEY_MIME) ?: ""
+                ALog.i(TAG, "Video MIME is $mime")
+                decoder = MediaCodec.createDecoderByType(mime)
+                decoder?.apply {
+                    if (needYUV) {
+                        format.setInteger(
+                                MediaFormat.KEY_COLOR_FORMAT,
+                                MediaCodecInfo.CodecCapabilities.COLOR_FormatYUV420Planar
+                        )
+                        configure(format, null, null, 0)
                     } else {
-                        val presentationTimeUs = extractor.sampleTime
-                        decoder.queueInputBuffer(inputBufIndex, 0, chunkSize, presentationTimeUs, 0)
-                        ALog.d(TAG, "submitted frame $inputChunk to dec, size=$chunkSize")
-                        inputChunk++
-                        extractor.advance()
+                        surface = Surface(glTexture)
+                        configure(format, surface, null, 0)
                     }
-                } else {
-                    ALog.d(TAG, "input buffer not available")
+                    start()
+                    decoderInputBuffers = inputBuffers
                 }
+                return decoder
+            } catch (e: Throwable) {
+                ALog.e(TAG, "MediaCodec configure exception e=$e", e)
+                onFailed(Constant.REPORT_ERROR_TYPE_DECODE_EXC, "${Constant.ERROR_MSG_DECODE_EXC} e=$e")
+                release()
+                return null
             }
+        }
+
+        /**
+         * @return 是否已经解码结束
+         */
+        private fun decodeSlice(decoder: MediaCodec): Boolean {
+            val inputBuffers = decoderInputBuffers ?: return true
+            repeat(MAX_DEQUEUE_PER_SLICE) {
+                if (isStopReq) {
+                    ALog.i(TAG, "stop decode")
+                    return true
+                }
+
+                if (!inputDone) {
+                    val inputBufIndex = decoder.dequeueInputBuffer(TIMEOUT_USEC)
+                    if (inputBufIndex >= 0) {
+                        val inputBuf = inputBuffers[inputBufIndex]
+                        val chunkSize = extractor.readSampleData(inputBuf, 0)
+                        if (chunkSize < 0) {
+                            decoder.queueInputBuffer(inputBufIndex, 0, 0, 0L, MediaCodec.BUFFER_FLAG_END_OF_STREAM)
+                            inputDone = true
+                            ALog.d(TAG, "decode EOS")
+                        } else {
+                            val presentationTimeUs = extractor.sampleTime
+                            decoder.queueInputBuffer(inputBufIndex, 0, chunkSize, presentationTimeUs, 0)
+                            ALog.d(TAG, "submitted frame $inputChunk to dec, size=$chunkSize")
+                            inputChunk++
+                            extractor.advance()
+                        }
+                    } else {
+                        ALog.d(TAG, "input buffer not available")
+                    }
+                }
 
-            if (!outputDone) {
                 val decoderStatus = decoder.dequeueOutputBuffer(bufferInfo, TIMEOUT_USEC)
                 when {
                     decoderStatus == MediaCodec.INFO_TRY_AGAIN_LATER -> ALog.d(TAG, "no output from decoder available")
@@ -249,6 +320,7 @@ class HardDecoder(player: AnimPlayer) : Decoder(player), SurfaceTexture.OnFrameA
                     }
                     else -> {
                         var loop = 0
+                        var outputDone = false
                         if (bufferInfo.flags and MediaCodec.BUFFER_FLAG_END_OF_STREAM != 0) {
                             loop = --playLoop
                             player.playLoop = playLoop // 消耗loop次数 自动恢复后能有正确的loop次数
@@ -284,71 +356,42 @@ class HardDecoder(player: AnimPlayer) : Decoder(player), SurfaceTexture.OnFrameA
                             frameIndex = 0
                             isLoop = true
                         }
-                        if (outputDone) {
-                            release(decoder, extractor)
-                        }
+                        // 输出一帧后让出解码线程
+                        return outputDone
                     }
                 }
             }
+            return false
         }
-
     }
 
     /**
      * 获取到解码后每一帧的YUV数据，裁剪出正确的尺寸
+     * 直接从解码器的输出 buffer 拷贝到复用的平面中，每帧不再分配内存
      */
     private fun yuvProcess(decoder: MediaCodec, outputIndex: Int) {
-        val outputBuffer = decoder.outputBuffers[outputIndex]
-        outputBuffer?.let {
-            it.position(0)
-            it.limit(bufferInfo.offset + bufferInfo.size)
-            var yuvData = ByteArray(outputBuffer.remaining())
-            outputBuffer.get(yuvData)
-
-            if (yuvData.isNotEmpty()) {
-                var yData = ByteArray(videoWidth * videoHeight)
-                var uData = ByteArray(videoWidth * videoHeight / 4)
-                var vData = ByteArray(videoWidth * videoHeight / 4)
-
-                if (outputFormat?.getInteger(MediaFormat.KEY_COLOR_FORMAT) == MediaCodecInfo.CodecCapabilities.COLOR_FormatYUV420SemiPlanar) {
-                    yuvData = yuv420spTop(yuvData)
-                }
-
-                yuvCopy(yuvData, 0, alignWidth, alignHeight, yData, videoWidth, videoHeight)
-                yuvCopy(yuvData, alignWidth * alignHeight, alignWidth / 2, alignHeight / 2, uData, videoWidth / 2, videoHeight / 2)
-                yuvCopy(yuvData, alignWidth * alignHeight * 5 / 4, alignWidth / 2, alignHeight / 2, vData, videoWidth / 2, videoHeight / 2)
-
-                render?.setYUVData(videoWidth, videoHeight, yData, uData, vData)
-                renderData()
-            }
-        }
-    }
-
-    private fun yuv420spTop(yuv420sp: ByteArray): ByteArray {
-        val yuv420p = ByteArray(yuv420sp.size)
-        val ySize = alignWidth * alignHeight
-        System.arraycopy(yuv420sp, 0, yuv420p, 0, alignWidth * alignHeight)
-        var i = ySize
-        var j = ySize
-        while (i < ySize * 3 / 2) {
-            yuv420p[j] = yuv420sp[i]
-            yuv420p[j + ySize / 4] = yuv420sp[i + 1]
-            i += 2
-            j++
+        val outputBuffer = decoder.outputBuffers[outputIndex] ?: return
+        if (bufferInfo.size <= 0) return
+        val semiPlanar = outputFormat?.getInteger(MediaFormat.KEY_COLOR_FORMAT) ==
+                MediaCodecInfo.CodecCapabilities.COLOR_FormatYUV420SemiPlanar
+        val planes = yuvPlanePool.acquire(videoWidth, videoHeight)
+        try {
+            YUVConverter.convert(outputBuffer, semiPlanar, alignWidth, alignHeight, planes)
+        } catch (e: RuntimeException) {
+            planes.recycle()
+            throw e
         }
-        return yuv420p
-    }
-
-    private fun yuvCopy(src: ByteArray, srcOffset: Int, inWidth: Int, inHeight: Int, dest: ByteArray, outWidth: Int, outHeight: Int) {
-        for (h in 0 until inHeight) {
-            if (h < outHeight) {
-                System.arraycopy(src, srcOffset + h * inWidth, dest, h * outWidth, outWidth)
-            }
+        val currentRender = render
+        if (currentRender == null) {
+            planes.recycle()
+            return
         }
+        currentRender.setYUVData(planes)
+        renderData()
     }
 
     private fun release(decoder: MediaCodec?, extractor: MediaExtractor?) {
-        renderThread.handler?.post {
+        renderQueue?.post {
             // ✅ 根据 retainLastFrame 配置决定是否清空帧
             if (!retainLastFrame) {
                 render?.clearFrame()
@@ -367,6 +410,7 @@ class HardDecoder(player: AnimPlayer) : Decoder(player), SurfaceTexture.OnFrameA
                 render?.releaseTexture()
                 surface?.release()
                 surface = null
+                yuvPlanePool.clear()
             } catch (e: Throwable) {
                 ALog.e(TAG, "release e=$e", e)
             }
@@ -389,12 +433,12 @@ class HardDecoder(player: AnimPlayer) : Decoder(player), SurfaceTexture.OnFrameA
 
     private fun destroyInner() {
         ALog.i(TAG, "destroyInner")
-        renderThread.handler?.post {
+        renderQueue?.post {
             player.pluginManager.onDestroy()
             render?.destroyRender()
             render = null
             onVideoDestroy()
-            destroyThread()
+            destroyQueues()
         }
     }
 }
\ No newline at end of file
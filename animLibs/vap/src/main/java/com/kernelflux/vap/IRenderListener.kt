@@ -15,6 +15,8 @@
  */
 package com.kernelflux.vap
 
+import com.kernelflux.vap.util.YUVPlanes
+
 interface IRenderListener {
 
     /**
@@ -50,5 +52,15 @@ interface IRenderListener {
 
     fun swapBuffers()
 
-    fun setYUVData(width: Int, height: Int, y: ByteArray?, u: ByteArray?, v: ByteArray?) {}
+    /**
+     * 在共享渲染线程上切换到当前播放器的 EGL 上下文
+     */
+    fun makeCurrent() {}
+
+    /**
+     * 设置下一帧的 YUV 数据，使用完后需调用 [YUVPlanes.recycle] 归还
+     */
+    fun setYUVData(planes: YUVPlanes) {
+        planes.recycle()
+    }
 }
\ No newline at end of file
@@ -121,6 +121,10 @@ class Render(surfaceTexture: SurfaceTexture): IRenderListener {
         eglUtil.swapBuffers()
     }
 
+    override fun makeCurrent() {
+        eglUtil.makeCurrent()
+    }
+
     /**
      * mediaCodec渲染使用的
      */
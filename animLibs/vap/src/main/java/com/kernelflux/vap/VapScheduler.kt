@@ -0,0 +1,205 @@
+package com.kernelflux.vap
+
+import android.os.Handler
+import android.os.HandlerThread
+import java.util.ArrayDeque
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 所有 VAP 播放器共享的线程调度
+ *
+ * 每个播放器拥有自己的渲染队列和解码队列（[SerialQueue]），队列内任务串行执行，
+ * 多个队列复用少量线程：
+ * - 渲染：固定 [RENDER_THREAD_COUNT] 个 looper 线程，队列创建时绑定到负载最小的线程（EGL 上下文、SurfaceTexture 需要固定线程），
+ *   同一线程上的队列每次只执行一个任务后排到队尾，轮转执行保证播放器之间的公平
+ * - 解码：最多 [MAX_CONCURRENT_DECODERS] 个线程，空闲线程超时后退出。解码任务每次只解码一帧后重新排到队尾，
+ *   超出线程数的播放器轮流解码而不是一直等待；停止时仍在排队的解码任务直接从队列移除并释放
+ */
+object VapScheduler {
+
+    const val RENDER_THREAD_COUNT = 2
+    const val MAX_CONCURRENT_DECODERS = 3
+    private const val DECODE_KEEP_ALIVE_SECONDS = 30L
+
+    private val renderWorkers = arrayOfNulls<RenderWorker>(RENDER_THREAD_COUNT)
+
+    private val decodeExecutor by lazy {
+        ThreadPoolExecutor(
+            MAX_CONCURRENT_DECODERS, MAX_CONCURRENT_DECODERS,
+            DECODE_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            LinkedBlockingQueue(),
+            NamedThreadFactory("anim_decode_thread")
+        ).apply {
+            allowCoreThreadTimeOut(true)
+        }
+    }
+
+    private val decodeDispatcher = object : Dispatcher {
+        override fun dispatch(queue: SerialQueue) {
+            decodeExecutor.execute { queue.runNext() }
+        }
+    }
+
+    /**
+     * 创建渲染队列，绑定到当前队列数最少的渲染线程
+     */
+    @Synchronized
+    fun newRenderQueue(): SerialQueue {
+        // 线程按需创建，已有线程空闲时不再新建
+        var index = 0
+        for (i in 1 until renderWorkers.size) {
+            if ((renderWorkers[i]?.queueCount ?: 0) < (renderWorkers[index]?.queueCount ?: 0)) {
+                index = i
+            }
+        }
+        val worker = renderWorkers[index] ?: RenderWorker("anim_render_thread_$index").also {
+            renderWorkers[index] = it
+        }
+        worker.queueCount++
+        return SerialQueue(worker)
+    }
+
+    fun newDecodeQueue(): SerialQueue {
+        return SerialQueue(decodeDispatcher)
+    }
+
+    @Synchronized
+    internal fun onRenderQueueReleased(worker: RenderWorker) {
+        worker.queueCount--
+    }
+
+    internal interface Dispatcher {
+        fun dispatch(queue: SerialQueue)
+
+        /**
+         * 即将在当前线程执行该队列的任务
+         */
+        fun activate(queue: SerialQueue) {}
+
+        fun release(queue: SerialQueue) {}
+    }
+
+    internal class RenderWorker(name: String) : Dispatcher {
+        private val handler: Handler
+        private var current: SerialQueue? = null
+        var queueCount = 0
+
+        init {
+            val thread = HandlerThread(name)
+            thread.start()
+            handler = Handler(thread.looper)
+        }
+
+        override fun dispatch(queue: SerialQueue) {
+            handler.post { queue.runNext() }
+        }
+
+        override fun activate(queue: SerialQueue) {
+            // 线程上轮到另一个播放器时切换到它的 EGL 上下文
+            if (current !== queue) {
+                current = queue
+                queue.onActivate?.invoke()
+            }
+        }
+
+        override fun release(queue: SerialQueue) {
+            handler.post {
+                if (current === queue) {
+                    current = null
+                }
+            }
+            onRenderQueueReleased(this)
+        }
+    }
+
+    private class NamedThreadFactory(private val name: String) : ThreadFactory {
+        private val count = AtomicInteger()
+
+        override fun newThread(r: Runnable): Thread {
+            return Thread(r, "${name}_${count.getAndIncrement()}")
+        }
+    }
+
+    /**
+     * 单个播放器的串行任务队列，任务按提交顺序在共享线程上逐个执行
+     */
+    class SerialQueue internal constructor(private val dispatcher: Dispatcher) {
+
+        private val tasks = ArrayDeque<Runnable>()
+        private var scheduled = false
+        private var released = false
+
+        /**
+         * 在线程上切换到该队列时回调，渲染队列用来设置 EGL 上下文
+         */
+        var onActivate: (() -> Unit)? = null
+
+        fun post(task: Runnable): Boolean {
+            synchronized(this) {
+                if (released) return false
+                tasks.addLast(task)
+                if (scheduled) return true
+                scheduled = true
+            }
+            dispatcher.dispatch(this)
+            return true
+        }
+
+        /**
+         * 移除一个未执行的任务，任务已经开始执行或不在队列中时返回 false
+         */
+        fun remove(task: Runnable): Boolean {
+            synchronized(this) {
+                return tasks.remove(task)
+            }
+        }
+
+        /**
+         * 移除所有未执行的任务
+         */
+        fun clear() {
+            synchronized(this) {
+                tasks.clear()
+            }
+        }
+
+        /**
+         * 清空并释放队列，之后提交的任务不再执行
+         */
+        fun release() {
+            synchronized(this) {
+                if (released) return
+                released = true
+                tasks.clear()
+            }
+            onActivate = null
+            dispatcher.release(this)
+        }
+
+        internal fun runNext() {
+            val task = synchronized(this) {
+                tasks.pollFirst() ?: run {
+                    scheduled = false
+                    return
+                }
+            }
+            try {
+                dispatcher.activate(this)
+                task.run()
+            } finally {
+                val hasMore = synchronized(this) {
+                    scheduled = tasks.isNotEmpty()
+                    scheduled
+                }
+                // 还有任务时重新排到队尾，让同一线程上的其他队列先执行
+                if (hasMore) {
+                    dispatcher.dispatch(this)
+                }
+            }
+        }
+    }
+}
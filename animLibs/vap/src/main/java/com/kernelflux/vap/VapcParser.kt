@@ -0,0 +1,167 @@
+package com.kernelflux.vap
+
+import android.util.JsonReader
+import android.util.JsonToken
+import com.kernelflux.vap.mix.FrameIndex
+import org.json.JSONArray
+import org.json.JSONException
+import org.json.JSONObject
+import java.io.InputStream
+import java.io.InputStreamReader
+
+/**
+ * vapc 流式解析
+ *
+ * 不再把整个 vapc box 读成 ByteArray -> String -> JSONObject：
+ * - "frame"（融合动画逐帧数据，可能有几万项）边读边写入 [FrameIndex]，不创建 JSONObject
+ * - 其余字段（info、src 等，数据量很小）仍转成 JSONObject，保持 [AnimConfig.jsonConfig] 的用法不变
+ */
+object VapcParser {
+
+    /**
+     * @param input vapc box 的内容（不含 box 头）
+     * @return 除 "frame" 以外的配置，"frame" 解析结果写入 [AnimConfig.frameIndex]
+     */
+    fun parse(input: InputStream, config: AnimConfig): JSONObject {
+        val reader = JsonReader(InputStreamReader(input, Charsets.UTF_8))
+        val json = JSONObject()
+        var frames: FrameIndex.Builder? = null
+        reader.beginObject()
+        while (reader.hasNext()) {
+            val name = reader.nextName()
+            if (name == "frame" && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                frames = readFrames(reader)
+            } else {
+                json.put(name, readValue(reader))
+            }
+        }
+        reader.endObject()
+        // "info" 可能在 "frame" 之后，读完整个对象才知道总帧数
+        val totalFrames = json.optJSONObject("info")?.optInt("f") ?: 0
+        config.frameIndex = frames?.build(totalFrames)
+        return json
+    }
+
+    private fun readFrames(reader: JsonReader): FrameIndex.Builder {
+        val builder = FrameIndex.Builder()
+        reader.beginArray()
+        while (reader.hasNext()) {
+            val set = builder.beginSet()
+            var frameIndex = -1
+            reader.beginObject()
+            while (reader.hasNext()) {
+                when (reader.nextName()) {
+                    "i" -> frameIndex = readInt(reader)
+                    "obj" -> readObjs(reader, builder, set)
+                    else -> reader.skipValue()
+                }
+            }
+            reader.endObject()
+            if (frameIndex < 0) throw JSONException("frame set without i")
+            builder.endSet(set, frameIndex)
+        }
+        reader.endArray()
+        return builder
+    }
+
+    private fun readObjs(reader: JsonReader, builder: FrameIndex.Builder, set: Int) {
+        val frame = IntArray(4)
+        val mFrame = IntArray(4)
+        reader.beginArray()
+        while (reader.hasNext()) {
+            var srcId: String? = null
+            var z: Int? = null
+            var mt: Int? = null
+            var hasFrame = false
+            var hasMFrame = false
+            reader.beginObject()
+            while (reader.hasNext()) {
+                when (reader.nextName()) {
+                    "srcId" -> srcId = reader.nextString()
+                    "z" -> z = readInt(reader)
+                    "mt" -> mt = readInt(reader)
+                    "frame" -> hasFrame = readRect(reader, frame)
+                    "mFrame" -> hasMFrame = readRect(reader, mFrame)
+                    else -> reader.skipValue()
+                }
+            }
+            reader.endObject()
+            // 与原先 JSONObject.getXxx 一致，缺少字段时整个配置解析失败
+            if (srcId == null || z == null || mt == null || !hasFrame || !hasMFrame) {
+                throw JSONException("frame obj missing field, srcId=$srcId")
+            }
+            builder.add(
+                set, srcId, z,
+                frame[0], frame[1], frame[2], frame[3],
+                mFrame[0], mFrame[1], mFrame[2], mFrame[3],
+                mt
+            )
+        }
+        reader.endArray()
+    }
+
+    private fun readRect(reader: JsonReader, out: IntArray): Boolean {
+        var i = 0
+        reader.beginArray()
+        while (reader.hasNext()) {
+            if (i < out.size) {
+                out[i] = readInt(reader)
+            } else {
+                reader.skipValue()
+            }
+            i++
+        }
+        reader.endArray()
+        return i >= out.size
+    }
+
+    /**
+     * 与 JSONObject.getInt 一致，小数截断
+     */
+    private fun readInt(reader: JsonReader): Int {
+        return reader.nextDouble().toInt()
+    }
+
+    private fun readValue(reader: JsonReader): Any {
+        return when (reader.peek()) {
+            JsonToken.BEGIN_OBJECT -> {
+                val obj = JSONObject()
+                reader.beginObject()
+                while (reader.hasNext()) {
+                    obj.put(reader.nextName(), readValue(reader))
+                }
+                reader.endObject()
+                obj
+            }
+            JsonToken.BEGIN_ARRAY -> {
+                val array = JSONArray()
+                reader.beginArray()
+                while (reader.hasNext()) {
+                    array.put(readValue(reader))
+                }
+                reader.endArray()
+                array
+            }
+            JsonToken.NUMBER -> readNumber(reader.nextString())
+            JsonToken.BOOLEAN -> reader.nextBoolean()
+            JsonToken.NULL -> {
+                reader.nextNull()
+                JSONObject.NULL
+            }
+            else -> reader.nextString()
+        }
+    }
+
+    /**
+     * 与 JSONTokener 一致：整数优先用 Int/Long，否则为 Double
+     */
+    private fun readNumber(literal: String): Any {
+        if (literal.indexOf('.') < 0 && literal.indexOf('e') < 0 && literal.indexOf('E') < 0) {
+            val value = literal.toLongOrNull()
+            if (value != null) {
+                return if (value in Int.MIN_VALUE..Int.MAX_VALUE) value.toInt() else value
+            }
+        }
+        return literal.toDouble()
+    }
+}
@@ -21,7 +21,7 @@ import com.kernelflux.vap.util.GlFloatArray
 import com.kernelflux.vap.util.ShaderUtil
 import com.kernelflux.vap.util.TexCoordsUtil
 import com.kernelflux.vap.util.VertexUtil
-import java.nio.ByteBuffer
+import com.kernelflux.vap.util.YUVPlanes
 import java.nio.FloatBuffer
 
 class YUVRender (surfaceTexture: SurfaceTexture): IRenderListener {
@@ -53,12 +53,9 @@ class YUVRender (surfaceTexture: SurfaceTexture): IRenderListener {
     private var convertMatrixUniform = 0
     private var convertOffsetUniform = 0
 
-    //YUV数据
-    private var widthYUV = 0
-    private var heightYUV = 0
-    private var y: ByteBuffer? = null
-    private var u: ByteBuffer? = null
-    private var v: ByteBuffer? = null
+    //YUV数据，解码线程写入，渲染线程上传后归还
+    private val yuvLock = Any()
+    private var pendingPlanes: YUVPlanes? = null
 
     private val eglUtil: EGLUtil = EGLUtil()
 
@@ -146,21 +143,33 @@ class YUVRender (surfaceTexture: SurfaceTexture): IRenderListener {
         eglUtil.swapBuffers()
     }
 
-    override fun setYUVData(width: Int, height: Int, y: ByteArray?, u: ByteArray?, v: ByteArray?) {
-        widthYUV = width
-        heightYUV = height
-        this.y = ByteBuffer.wrap(y)
-        this.u = ByteBuffer.wrap(u)
-        this.v = ByteBuffer.wrap(v)
+    override fun makeCurrent() {
+        eglUtil.makeCurrent()
+    }
 
-        // 当视频帧的u或者v分量的宽度不能被4整除时，用默认的4字节对齐会导致存取最后一行时越界，所以在向GPU传输数据前指定对齐方式
-        if ((widthYUV / 2) % 4 != 0) {
-            this.unpackAlign = if ((widthYUV / 2) % 2 == 0) 2 else 1
+    override fun setYUVData(planes: YUVPlanes) {
+        val dropped = synchronized(yuvLock) {
+            val previous = pendingPlanes
+            pendingPlanes = planes
+            previous
         }
+        // 上一帧还没来得及渲染，直接归还
+        dropped?.recycle()
     }
 
     private fun draw() {
-        if (widthYUV > 0 && heightYUV > 0 && y != null && u != null && v != null) {
+        val planes = synchronized(yuvLock) {
+            val next = pendingPlanes
+            pendingPlanes = null
+            next
+        } ?: return
+        val widthYUV = planes.width
+        val heightYUV = planes.height
+        if (widthYUV > 0 && heightYUV > 0) {
+            // 当视频帧的u或者v分量的宽度不能被4整除时，用默认的4字节对齐会导致存取最后一行时越界，所以在向GPU传输数据前指定对齐方式
+            if ((widthYUV / 2) % 4 != 0) {
+                this.unpackAlign = if ((widthYUV / 2) % 2 == 0) 2 else 1
+            }
             GLES20.glUseProgram(shaderProgram)
             vertexArray.setVertexAttribPointer(avPosition)
             alphaArray.setVertexAttribPointer(alphaPosition)
@@ -171,17 +180,17 @@ class YUVRender (surfaceTexture: SurfaceTexture): IRenderListener {
             //激活纹理0来绑定y数据
             GLES20.glActiveTexture(GLES20.GL_TEXTURE0)
             GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, textureId[0])
-            GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_LUMINANCE, widthYUV, heightYUV, 0, GLES20.GL_LUMINANCE, GLES20.GL_UNSIGNED_BYTE, y)
+            GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_LUMINANCE, widthYUV, heightYUV, 0, GLES20.GL_LUMINANCE, GLES20.GL_UNSIGNED_BYTE, planes.y)
 
             //激活纹理1来绑定u数据
             GLES20.glActiveTexture(GLES20.GL_TEXTURE1)
             GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, textureId[1])
-            GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_LUMINANCE, widthYUV / 2, heightYUV / 2, 0, GLES20.GL_LUMINANCE, GLES20.GL_UNSIGNED_BYTE, u)
+            GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_LUMINANCE, widthYUV / 2, heightYUV / 2, 0, GLES20.GL_LUMINANCE, GLES20.GL_UNSIGNED_BYTE, planes.u)
 
             //激活纹理2来绑定v数据
             GLES20.glActiveTexture(GLES20.GL_TEXTURE2)
             GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, textureId[2])
-            GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_LUMINANCE, widthYUV / 2, heightYUV / 2, 0, GLES20.GL_LUMINANCE, GLES20.GL_UNSIGNED_BYTE, v)
+            GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_LUMINANCE, widthYUV / 2, heightYUV / 2, 0, GLES20.GL_LUMINANCE, GLES20.GL_UNSIGNED_BYTE, planes.v)
 
             //给fragment_shader里面yuv变量设置值   0 1 标识纹理x
             GLES20.glUniform1i(samplerY, 0)
@@ -193,15 +202,11 @@ class YUVRender (surfaceTexture: SurfaceTexture): IRenderListener {
 
             //绘制
             GLES20.glDrawArrays(GLES20.GL_TRIANGLE_STRIP, 0, 4)
-            y?.clear()
-            u?.clear()
-            v?.clear()
-            y = null
-            u = null
-            v = null
             GLES20.glDisableVertexAttribArray(avPosition)
             GLES20.glDisableVertexAttribArray(rgbPosition)
             GLES20.glDisableVertexAttribArray(alphaPosition)
         }
+        // glTexImage2D 已同步拷贝数据，可以复用
+        planes.recycle()
     }
 }
\ No newline at end of file
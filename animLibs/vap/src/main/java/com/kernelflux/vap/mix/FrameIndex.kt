@@ -0,0 +1,190 @@
+package com.kernelflux.vap.mix
+
+import com.kernelflux.vap.PointRect
+
+/**
+ * 融合动画所有帧的列式索引
+ *
+ * vapc 中每一帧的每个元素（obj）不再创建 JSONObject、Frame、PointRect，而是按列存入基本类型数组：
+ * 第 frameIndex 帧的元素下标范围为 [start, end)，已按 z 排好绘制顺序，查询为 O(1)
+ */
+class FrameIndex private constructor(
+    private val offsets: IntArray,
+    private val srcIds: Array<String>,
+    private val rects: IntArray,
+    private val mts: IntArray
+) {
+
+    companion object {
+        // 每个元素在 rects 中占 8 个 int：frame(x, y, w, h) + mFrame(x, y, w, h)
+        private const val RECT_STRIDE = 8
+    }
+
+    /**
+     * 元素总数
+     */
+    val size: Int
+        get() = srcIds.size
+
+    fun start(frameIndex: Int): Int {
+        if (frameIndex < 0 || frameIndex >= offsets.size - 1) return 0
+        return offsets[frameIndex]
+    }
+
+    fun end(frameIndex: Int): Int {
+        if (frameIndex < 0 || frameIndex >= offsets.size - 1) return 0
+        return offsets[frameIndex + 1]
+    }
+
+    fun srcId(position: Int) = srcIds[position]
+
+    fun frameX(position: Int) = rects[position * RECT_STRIDE]
+    fun frameY(position: Int) = rects[position * RECT_STRIDE + 1]
+    fun frameW(position: Int) = rects[position * RECT_STRIDE + 2]
+    fun frameH(position: Int) = rects[position * RECT_STRIDE + 3]
+
+    fun maskX(position: Int) = rects[position * RECT_STRIDE + 4]
+    fun maskY(position: Int) = rects[position * RECT_STRIDE + 5]
+    fun maskW(position: Int) = rects[position * RECT_STRIDE + 6]
+    fun maskH(position: Int) = rects[position * RECT_STRIDE + 7]
+
+    /**
+     * 遮罩旋转角度，v2 版本只支持 0 与 90度
+     */
+    fun mt(position: Int) = mts[position]
+
+    /**
+     * 点击等非逐帧场景使用，会创建对象
+     */
+    fun frameRect(position: Int) = PointRect(frameX(position), frameY(position), frameW(position), frameH(position))
+
+
+    /**
+     * 解析时逐个添加元素，[build] 时按帧号分桶并按 z 排序
+     * 元素所在帧号（"i"）在 json 中可能出现在 "obj" 之后，所以先按帧集合记录，集合结束时再设置帧号
+     */
+    class Builder {
+        private var setFrames = IntArray(64)
+        private var setCount = 0
+
+        private var count = 0
+        private var sets = IntArray(256)
+        private var zs = IntArray(256)
+        private var mts = IntArray(256)
+        private var rects = IntArray(256 * RECT_STRIDE)
+        private var srcIds = arrayOfNulls<String>(256)
+
+        // srcId 去重，同一个 srcId 在所有帧中共用一个字符串
+        private val srcIdTable = HashMap<String, String>()
+
+        /**
+         * 开始一个帧集合（vapc 中 "frame" 数组的一项）
+         * @return 集合 id
+         */
+        fun beginSet(): Int {
+            if (setCount == setFrames.size) {
+                setFrames = setFrames.copyOf(setCount * 2)
+            }
+            setFrames[setCount] = -1
+            return setCount++
+        }
+
+        fun endSet(set: Int, frameIndex: Int) {
+            setFrames[set] = frameIndex
+        }
+
+        fun add(
+            set: Int, srcId: String, z: Int,
+            x: Int, y: Int, w: Int, h: Int,
+            mx: Int, my: Int, mw: Int, mh: Int,
+            mt: Int
+        ) {
+            if (count == sets.size) {
+                val newSize = count * 2
+                sets = sets.copyOf(newSize)
+                zs = zs.copyOf(newSize)
+                mts = mts.copyOf(newSize)
+                rects = rects.copyOf(newSize * RECT_STRIDE)
+                srcIds = srcIds.copyOf(newSize)
+            }
+            sets[count] = set
+            zs[count] = z
+            mts[count] = mt
+            srcIds[count] = srcIdTable.getOrPut(srcId) { srcId }
+            val r = count * RECT_STRIDE
+            rects[r] = x
+            rects[r + 1] = y
+            rects[r + 2] = w
+            rects[r + 3] = h
+            rects[r + 4] = mx
+            rects[r + 5] = my
+            rects[r + 6] = mw
+            rects[r + 7] = mh
+            count++
+        }
+
+        /**
+         * @param totalFrames 动画总帧数（info 中的 "f"），帧号不在 [0, totalFrames) 内的集合不会被播放，直接丢弃；
+         * 索引按帧号分配数组，不限制的话一个很大的 "i" 就会 OOM
+         */
+        fun build(totalFrames: Int): FrameIndex {
+            var maxFrame = -1
+            for (s in 0 until setCount) {
+                val frame = setFrames[s]
+                if (frame >= totalFrames) {
+                    setFrames[s] = -1
+                } else {
+                    maxFrame = maxOf(maxFrame, frame)
+                }
+            }
+            // 同一帧号出现多次时与原先 SparseArray.put 一致，以最后一个集合为准
+            val latestSet = IntArray(maxFrame + 1) { -1 }
+            for (s in 0 until setCount) {
+                val frame = setFrames[s]
+                if (frame >= 0) latestSet[frame] = s
+            }
+
+            val offsets = IntArray(maxFrame + 2)
+            for (i in 0 until count) {
+                val frame = setFrames[sets[i]]
+                if (frame >= 0 && latestSet[frame] == sets[i]) {
+                    offsets[frame + 1]++
+                }
+            }
+            for (f in 1 until offsets.size) {
+                offsets[f] += offsets[f - 1]
+            }
+            val total = offsets[offsets.size - 1]
+
+            // 按帧号分桶，桶内保持原始顺序
+            val order = IntArray(total)
+            val cursor = offsets.copyOf(maxFrame + 1)
+            for (i in 0 until count) {
+                val frame = setFrames[sets[i]]
+                if (frame >= 0 && latestSet[frame] == sets[i]) {
+                    order[cursor[frame]++] = i
+                }
+            }
+            // 桶内按 z 稳定排序（每帧元素很少，插入排序即可）
+            for (f in 0..maxFrame) {
+                for (j in offsets[f] + 1 until offsets[f + 1]) {
+                    val item = order[j]
+                    var k = j - 1
+                    while (k >= offsets[f] && zs[order[k]] > zs[item]) {
+                        order[k + 1] = order[k]
+                        k--
+                    }
+                    order[k + 1] = item
+                }
+            }
+
+            val outSrcIds = Array(total) { srcIds[order[it]]!! }
+            val outMts = IntArray(total) { mts[order[it]] }
+            val outRects = IntArray(total * RECT_STRIDE)
+            for (p in 0 until total) {
+                System.arraycopy(rects, order[p] * RECT_STRIDE, outRects, p * RECT_STRIDE, RECT_STRIDE)
+            }
+            return FrameIndex(offsets, outSrcIds, outRects, outMts)
+        }
+    }
+}
@@ -37,7 +37,7 @@ class MixAnimPlugin(val player: AnimPlayer): IAnimPlugin {
     var resourceRequest: IFetchResource? = null
     var resourceClickListener: OnResourceClickListener? = null
     var srcMap: SrcMap? = null
-    var frameAll: FrameAll? = null
+    var frames: FrameIndex? = null
     var curFrameIndex = -1 // 当前帧
     private var resultCbCount = 0 // 回调次数
     private var mixRender:MixRender? = null
@@ -96,10 +96,10 @@ class MixAnimPlugin(val player: AnimPlayer): IAnimPlugin {
         val config = player.configManager.config ?: return
         if (!config.isMix) return
         curFrameIndex = frameIndex
-        val list = frameAll?.map?.get(frameIndex)?.list ?: return
-        list.forEach {frame ->
-            val src = srcMap?.map?.get(frame.srcId) ?: return@forEach
-            mixRender?.renderFrame(config, frame, src)
+        val index = frames ?: return
+        for (position in index.start(frameIndex) until index.end(frameIndex)) {
+            val src = srcMap?.map?.get(index.srcId(position)) ?: continue
+            mixRender?.renderFrame(config, index, position, src)
         }
     }
 
@@ -143,7 +143,7 @@ class MixAnimPlugin(val player: AnimPlayer): IAnimPlugin {
         // 清理
         curFrameIndex = -1
         srcMap?.map?.clear()
-        frameAll?.map?.clear()
+        frames = null
     }
 
     private fun parseSrc(config: AnimConfig) {
@@ -154,9 +154,8 @@ class MixAnimPlugin(val player: AnimPlayer): IAnimPlugin {
 
 
     private fun parseFrame(config: AnimConfig) {
-        config.jsonConfig?.apply {
-            frameAll = FrameAll(this)
-        }
+        // 逐帧数据在解析 vapc 时已流式生成索引
+        frames = config.frameIndex
     }
 
 
@@ -19,7 +19,6 @@ import android.opengl.GLES11Ext
 import android.opengl.GLES20
 import com.kernelflux.vap.AnimConfig
 import com.kernelflux.vap.Constant
-import com.kernelflux.vap.PointRect
 import com.kernelflux.vap.util.ALog
 import com.kernelflux.vap.util.GlFloatArray
 import com.kernelflux.vap.util.TexCoordsUtil
@@ -54,17 +53,20 @@ class MixRender(private val mixAnimPlugin: MixAnimPlugin) {
 
     }
 
-    fun renderFrame(config: AnimConfig, frame:Frame, src: Src) {
+    fun renderFrame(config: AnimConfig, frames: FrameIndex, position: Int, src: Src) {
         val videoTextureId = mixAnimPlugin.player.decoder?.render?.getExternalTexture() ?: return
         if (videoTextureId <= 0) return
         val shader = this.shader ?: return
         shader.useProgram()
         // 定点坐标
-        vertexArray.setArray(VertexUtil.create(config.width, config.height, frame.frame, vertexArray.array))
+        val fw = frames.frameW(position)
+        val fh = frames.frameH(position)
+        vertexArray.setArray(VertexUtil.create(config.width, config.height,
+            frames.frameX(position), frames.frameY(position), fw, fh, vertexArray.array))
         vertexArray.setVertexAttribPointer(shader.aPositionLocation)
 
         // src 纹理坐标
-        srcArray.setArray(genSrcCoordsArray(srcArray.array, frame.frame.w, frame.frame.h, src.drawWidth, src.drawHeight, src.fitType))
+        srcArray.setArray(genSrcCoordsArray(srcArray.array, fw, fh, src.drawWidth, src.drawHeight, src.fitType))
         srcArray.setVertexAttribPointer(shader.aTextureSrcCoordinatesLocation)
         // 绑定 src纹理
         GLES20.glActiveTexture(GLES20.GL_TEXTURE0)
@@ -72,8 +74,9 @@ class MixRender(private val mixAnimPlugin: MixAnimPlugin) {
         GLES20.glUniform1i(shader.uTextureSrcUnitLocation, 0)
 
         // mask 纹理
-        maskArray.setArray(TexCoordsUtil.create(config.videoWidth, config.videoHeight, frame.mFrame, maskArray.array))
-        if (frame.mt == 90) {
+        maskArray.setArray(TexCoordsUtil.create(config.videoWidth, config.videoHeight,
+            frames.maskX(position), frames.maskY(position), frames.maskW(position), frames.maskH(position), maskArray.array))
+        if (frames.mt(position) == 90) {
             maskArray.setArray(TexCoordsUtil.rotate90(maskArray.array))
         }
         maskArray.setVertexAttribPointer(shader.aTextureMaskCoordinatesLocation)
@@ -117,28 +120,26 @@ class MixRender(private val mixAnimPlugin: MixAnimPlugin) {
                 // 中心对齐，不拉伸
                 val gw = (sw - fw) / 2
                 val gh = (sh - fh) / 2
-                TexCoordsUtil.create(sw, sh, PointRect(gw, gh, fw, fh), array)
+                TexCoordsUtil.create(sw, sh, gw, gh, fw, fh, array)
             } else { // centerCrop
                 val fScale = fw * 1.0f / fh
                 val sScale = sw * 1.0f / sh
-                val srcRect = if (fScale > sScale) {
+                if (fScale > sScale) {
                     val w = sw
                     val x = 0
                     val h = (sw / fScale).toInt()
                     val y = (sh - h) / 2
-
-                    PointRect(x, y, w, h)
+                    TexCoordsUtil.create(sw, sh, x, y, w, h, array)
                 } else {
                     val h = sh
                     val y = 0
                     val w = (sh * fScale).toInt()
                     val x = (sw - w) / 2
-                    PointRect(x, y, w, h)
+                    TexCoordsUtil.create(sw, sh, x, y, w, h, array)
                 }
-                TexCoordsUtil.create(sw, sh, srcRect, array)
             }
         } else { // 默认 fitXY
-            TexCoordsUtil.create(fw, fh, PointRect(0, 0, fw, fh), array)
+            TexCoordsUtil.create(fw, fh, 0, 0, fw, fh, array)
         }
     }
 
@@ -34,12 +34,14 @@ class MixTouch(private val mixAnimPlugin: MixAnimPlugin) {
             MotionEvent.ACTION_UP -> {
                 val x = ev.x * videoWith / viewWith.toFloat()
                 val y = ev.y * videoHeight / viewHeight.toFloat()
-                val list = mixAnimPlugin.frameAll?.map?.get(mixAnimPlugin.curFrameIndex)?.list
-                list?.forEach {frame ->
-                    val src = mixAnimPlugin.srcMap?.map?.get(frame.srcId) ?: return@forEach
-                    if (calClick(x.toInt(), y.toInt(), frame.frame)) {
+                val frames = mixAnimPlugin.frames ?: return null
+                val frameIndex = mixAnimPlugin.curFrameIndex
+                for (position in frames.start(frameIndex) until frames.end(frameIndex)) {
+                    val src = mixAnimPlugin.srcMap?.map?.get(frames.srcId(position)) ?: continue
+                    val frame = frames.frameRect(position)
+                    if (calClick(x.toInt(), y.toInt(), frame)) {
                         return Resource(src).apply {
-                            curPoint = frame.frame
+                            curPoint = frame
                         }
                     }
                 }
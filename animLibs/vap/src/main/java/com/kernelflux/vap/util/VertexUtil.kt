@@ -28,26 +28,33 @@ object VertexUtil {
      * @param height
      */
     fun create(width: Int, height: Int, rect: PointRect, array: FloatArray): FloatArray {
+        return create(width, height, rect.x, rect.y, rect.w, rect.h, array)
+    }
+
+    /**
+     * 逐帧调用时直接传坐标，不创建 PointRect
+     */
+    fun create(width: Int, height: Int, x: Int, y: Int, w: Int, h: Int, array: FloatArray): FloatArray {
 
         // x0
-        array[0] = switchX(rect.x.toFloat() / width)
+        array[0] = switchX(x.toFloat() / width)
         // y0
-        array[1] = switchY(rect.y.toFloat() / height)
+        array[1] = switchY(y.toFloat() / height)
 
         // x1
-        array[2] = switchX(rect.x.toFloat() / width)
+        array[2] = switchX(x.toFloat() / width)
         // y1
-        array[3] = switchY((rect.y.toFloat() + rect.h) / height)
+        array[3] = switchY((y.toFloat() + h) / height)
 
         // x2
-        array[4] = switchX((rect.x.toFloat() + rect.w) / width)
+        array[4] = switchX((x.toFloat() + w) / width)
         // y2
-        array[5] = switchY(rect.y.toFloat() / height)
+        array[5] = switchY(y.toFloat() / height)
 
         // x3
-        array[6] = switchX((rect.x.toFloat() + rect.w) / width)
+        array[6] = switchX((x.toFloat() + w) / width)
         // y3
-        array[7] = switchY((rect.y.toFloat() + rect.h) / height)
+        array[7] = switchY((y.toFloat() + h) / height)
 
         return array
     }
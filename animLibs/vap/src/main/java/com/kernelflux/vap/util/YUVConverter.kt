@@ -0,0 +1,66 @@
+package com.kernelflux.vap.util
+
+import java.nio.ByteBuffer
+
+/**
+ * 把解码器输出的 YUV420 数据裁剪为视频尺寸的 I420 平面
+ * 直接从解码器的 ByteBuffer 读取，写入 [YUVPlanes]，不产生中间数组；只依赖 java.nio，可在 JVM 上测试
+ */
+object YUVConverter {
+
+    /**
+     * @param src 解码器输出，从 0 开始为对齐后尺寸的 Y 平面，随后是色度数据；会修改它的 position/limit
+     * @param semiPlanar true 为 YUV420SemiPlanar（UV 交错），否则为 YUV420Planar
+     * @param alignWidth 对齐后的宽度（stride）
+     * @param alignHeight 对齐后的高度（slice-height）
+     */
+    fun convert(src: ByteBuffer, semiPlanar: Boolean, alignWidth: Int, alignHeight: Int, dst: YUVPlanes) {
+        val ySize = alignWidth * alignHeight
+        dst.clear()
+        copyPlane(src, 0, alignWidth, alignHeight, dst.y, dst.width, dst.height)
+        if (semiPlanar) {
+            deinterleave(src, ySize, alignWidth, alignHeight / 2, dst.u, dst.v, dst.width / 2, dst.height / 2)
+        } else {
+            copyPlane(src, ySize, alignWidth / 2, alignHeight / 2, dst.u, dst.width / 2, dst.height / 2)
+            copyPlane(src, ySize * 5 / 4, alignWidth / 2, alignHeight / 2, dst.v, dst.width / 2, dst.height / 2)
+        }
+        dst.rewind()
+        src.clear()
+    }
+
+    /**
+     * 逐行复制一个平面，每行只取前 outWidth 个字节
+     */
+    fun copyPlane(
+        src: ByteBuffer, srcOffset: Int, inWidth: Int, inHeight: Int,
+        dst: ByteBuffer, outWidth: Int, outHeight: Int
+    ) {
+        val rows = minOf(inHeight, outHeight)
+        for (h in 0 until rows) {
+            val start = srcOffset + h * inWidth
+            src.limit(src.capacity())
+            src.position(start)
+            src.limit(start + outWidth)
+            dst.put(src)
+        }
+    }
+
+    /**
+     * 交错的 UV 平面拆分为 U、V 两个平面
+     */
+    fun deinterleave(
+        src: ByteBuffer, srcOffset: Int, inStride: Int, inHeight: Int,
+        dstU: ByteBuffer, dstV: ByteBuffer, outWidth: Int, outHeight: Int
+    ) {
+        src.limit(src.capacity())
+        val rows = minOf(inHeight, outHeight)
+        for (h in 0 until rows) {
+            var index = srcOffset + h * inStride
+            for (w in 0 until outWidth) {
+                dstU.put(src.get(index))
+                dstV.put(src.get(index + 1))
+                index += 2
+            }
+        }
+    }
+}
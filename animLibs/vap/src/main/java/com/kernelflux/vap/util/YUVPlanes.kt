@@ -0,0 +1,76 @@
+package com.kernelflux.vap.util
+
+import java.nio.ByteBuffer
+
+/**
+ * 一帧 I420 数据的 Y/U/V 三个平面，使用 direct buffer，可直接交给 glTexImage2D
+ * 由 [YUVPlanePool] 分配，渲染完成后调用 [recycle] 归还复用
+ */
+class YUVPlanes internal constructor(
+    val width: Int,
+    val height: Int,
+    private val pool: YUVPlanePool?
+) {
+
+    val y: ByteBuffer = ByteBuffer.allocateDirect(width * height)
+    val u: ByteBuffer = ByteBuffer.allocateDirect(width / 2 * (height / 2))
+    val v: ByteBuffer = ByteBuffer.allocateDirect(width / 2 * (height / 2))
+
+    /**
+     * 写入前调用，三个平面从头开始写
+     */
+    fun clear() {
+        y.clear()
+        u.clear()
+        v.clear()
+    }
+
+    /**
+     * 写入后调用，三个平面从头开始读
+     */
+    fun rewind() {
+        y.rewind()
+        u.rewind()
+        v.rewind()
+    }
+
+    fun recycle() {
+        pool?.release(this)
+    }
+}
+
+/**
+ * 复用 [YUVPlanes]，解码线程取出填充，渲染线程上传纹理后归还
+ * 同一时刻最多有三组在使用（解码中、待渲染、渲染中），稳定播放后不再分配内存
+ */
+class YUVPlanePool(private val maxSize: Int = 3) {
+
+    private val free = ArrayList<YUVPlanes>(maxSize)
+
+    /**
+     * 取出一组指定尺寸的平面，没有空闲时新分配；尺寸变化时丢弃旧的
+     */
+    @Synchronized
+    fun acquire(width: Int, height: Int): YUVPlanes {
+        while (free.isNotEmpty()) {
+            val planes = free.removeAt(free.size - 1)
+            if (planes.width == width && planes.height == height) {
+                planes.clear()
+                return planes
+            }
+        }
+        return YUVPlanes(width, height, this)
+    }
+
+    @Synchronized
+    fun release(planes: YUVPlanes) {
+        if (free.size < maxSize && !free.contains(planes)) {
+            free.add(planes)
+        }
+    }
+
+    @Synchronized
+    fun clear() {
+        free.clear()
+    }
+}
@@ -0,0 +1,98 @@
+package com.kernelflux.vap
+
+import android.os.Build
+import android.util.SparseArray
+import org.json.JSONObject
+import org.junit.Assert.assertTrue
+import org.junit.Ignore
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+/**
+ * Parse time of a large vapc: the former ByteArray -> String -> JSONObject path with one object per frame
+ * element, against the streaming [VapcParser]
+ */
+@Ignore("Benchmark, run manually")
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.P])
+class VapcParseBenchmark {
+
+    companion object {
+        private const val FRAMES = 3000
+        private const val OBJS_PER_FRAME = 4
+        private const val WARMUP_ITERATIONS = 5
+        private const val ITERATIONS = 20
+    }
+
+    @Test
+    fun streamParsesFasterThanJson() {
+        val vapc = largeVapc().toByteArray()
+        repeat(WARMUP_ITERATIONS) {
+            parseJson(vapc)
+            parseStream(vapc)
+        }
+        var start = System.nanoTime()
+        repeat(ITERATIONS) { parseJson(vapc) }
+        val json = (System.nanoTime() - start) / ITERATIONS / 1000
+        start = System.nanoTime()
+        repeat(ITERATIONS) { parseStream(vapc) }
+        val stream = (System.nanoTime() - start) / ITERATIONS / 1000
+        assertTrue("Mean parse of ${vapc.size} bytes: json ${json}us, stream ${stream}us", stream < json)
+    }
+
+    private fun parseStream(vapc: ByteArray) {
+        VapcParser.parse(vapc.inputStream(), AnimConfig())
+    }
+
+    /**
+     * Same work as the removed FrameAll/FrameSet/Frame classes
+     */
+    private fun parseJson(vapc: ByteArray): SparseArray<List<Array<PointRect>>> {
+        val json = JSONObject(String(vapc, Charsets.UTF_8))
+        val frames = json.getJSONArray("frame")
+        val map = SparseArray<List<Array<PointRect>>>()
+        for (i in 0 until frames.length()) {
+            val set = frames.getJSONObject(i)
+            val objs = set.getJSONArray("obj")
+            val list = ArrayList<Pair<Int, Array<PointRect>>>()
+            for (o in 0 until objs.length()) {
+                val obj = objs.getJSONObject(o)
+                obj.getString("srcId")
+                obj.getInt("mt")
+                val f = obj.getJSONArray("frame")
+                val m = obj.getJSONArray("mFrame")
+                list.add(
+                    obj.getInt("z") to arrayOf(
+                        PointRect(f.getInt(0), f.getInt(1), f.getInt(2), f.getInt(3)),
+                        PointRect(m.getInt(0), m.getInt(1), m.getInt(2), m.getInt(3))
+                    )
+                )
+            }
+            list.sortBy { it.first }
+            map.put(set.getInt("i"), list.map { it.second })
+        }
+        return map
+    }
+
+    private fun largeVapc(): String {
+        val sb = StringBuilder()
+        sb.append("""{"info":{"v":2,"f":$FRAMES,"w":750,"h":1334,"videoW":1504,"videoH":1344,"orien":0,""")
+        sb.append(""""fps":30,"isVapx":1,"aFrame":[0,0,750,1334],"rgbFrame":[752,0,750,1334]},""")
+        sb.append(""""src":[{"srcId":"1","srcType":"img","loadType":"net","srcTag":"avatar","w":200,"h":200}],""")
+        sb.append(""""frame":[""")
+        for (i in 0 until FRAMES) {
+            if (i > 0) sb.append(',')
+            sb.append("""{"i":$i,"obj":[""")
+            for (o in 0 until OBJS_PER_FRAME) {
+                if (o > 0) sb.append(',')
+                sb.append("""{"srcId":"${o + 1}","z":${OBJS_PER_FRAME - o},"frame":[$i,$o,200,200],""")
+                sb.append(""""mFrame":[1504,${o * 200},200,200],"mt":0}""")
+            }
+            sb.append("]}")
+        }
+        sb.append("]}")
+        return sb.toString()
+    }
+}
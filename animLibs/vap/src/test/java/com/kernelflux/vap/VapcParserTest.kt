@@ -0,0 +1,81 @@
+package com.kernelflux.vap
+
+import android.os.Build
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.P])
+class VapcParserTest {
+
+    @Test
+    fun framesAreSortedByZ() {
+        val config = parse(
+            """{"info":{"f":2},"frame":[
+                {"i":0,"obj":[${obj("b", z = 2)},${obj("a", z = 1)}]},
+                {"i":1,"obj":[${obj("c", z = 0)}]}
+            ]}"""
+        )
+        val index = config.frameIndex!!
+
+        assertEquals(listOf("a", "b"), srcIds(config, 0))
+        assertEquals(listOf("c"), srcIds(config, 1))
+        assertEquals(3, index.size)
+    }
+
+    @Test
+    fun framesOutsideTotalFramesAreDropped() {
+        val config = parse(
+            """{"info":{"f":2},"frame":[
+                {"i":0,"obj":[${obj("a")}]},
+                {"i":2000000000,"obj":[${obj("b")}]},
+                {"i":2,"obj":[${obj("c")}]}
+            ]}"""
+        )
+
+        assertEquals(listOf("a"), srcIds(config, 0))
+        assertTrue(srcIds(config, 2).isEmpty())
+        assertTrue(srcIds(config, 2000000000).isEmpty())
+        assertEquals(1, config.frameIndex!!.size)
+    }
+
+    @Test
+    fun infoAfterFrames() {
+        val config = parse(
+            """{"frame":[{"i":1,"obj":[${obj("a")}]}],"info":{"f":3}}"""
+        )
+
+        assertEquals(listOf("a"), srcIds(config, 1))
+    }
+
+    @Test
+    fun frameArrayIsNotKeptInJson() {
+        val config = AnimConfig()
+        val json = VapcParser.parse(
+            """{"info":{"f":1},"frame":[{"i":0,"obj":[${obj("a")}]}]}""".byteInputStream(), config
+        )
+
+        assertFalse(json.has("frame"))
+        assertEquals(1, json.getJSONObject("info").getInt("f"))
+    }
+
+    private fun parse(vapc: String): AnimConfig {
+        val config = AnimConfig()
+        VapcParser.parse(vapc.byteInputStream(), config)
+        return config
+    }
+
+    private fun srcIds(config: AnimConfig, frame: Int): List<String> {
+        val index = config.frameIndex!!
+        return (index.start(frame) until index.end(frame)).map { index.srcId(it) }
+    }
+
+    private fun obj(srcId: String, z: Int = 0): String {
+        return """{"srcId":"$srcId","z":$z,"frame":[0,0,10,10],"mFrame":[0,0,10,10],"mt":0}"""
+    }
+}
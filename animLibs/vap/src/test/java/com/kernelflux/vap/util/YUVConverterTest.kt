@@ -0,0 +1,139 @@
+package com.kernelflux.vap.util
+
+import android.os.Build
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertSame
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.nio.ByteBuffer
+import kotlin.random.Random
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [Build.VERSION_CODES.P])
+class YUVConverterTest {
+
+    private val random = Random(7)
+
+    @Test
+    fun planarWithoutPadding() {
+        assertMatchesArrayCrop(semiPlanar = false, width = 16, height = 8, alignWidth = 16, alignHeight = 8)
+    }
+
+    @Test
+    fun planarCropsStrideAndSlice() {
+        assertMatchesArrayCrop(semiPlanar = false, width = 10, height = 6, alignWidth = 16, alignHeight = 16)
+    }
+
+    @Test
+    fun semiPlanarWithoutPadding() {
+        assertMatchesArrayCrop(semiPlanar = true, width = 16, height = 8, alignWidth = 16, alignHeight = 8)
+    }
+
+    @Test
+    fun semiPlanarCropsStrideAndSlice() {
+        assertMatchesArrayCrop(semiPlanar = true, width = 10, height = 6, alignWidth = 16, alignHeight = 16)
+    }
+
+    @Test
+    fun planarOddSize() {
+        assertMatchesArrayCrop(semiPlanar = false, width = 11, height = 7, alignWidth = 16, alignHeight = 8)
+    }
+
+    @Test
+    fun semiPlanarOddSize() {
+        assertMatchesArrayCrop(semiPlanar = true, width = 11, height = 7, alignWidth = 16, alignHeight = 8)
+    }
+
+    @Test
+    fun reusedPlanesAreOverwritten() {
+        val pool = YUVPlanePool()
+        val first = pool.acquire(10, 6)
+        YUVConverter.convert(frame(16, 16), false, 16, 16, first)
+        first.recycle()
+
+        val src = randomFrame(16, 16)
+        val second = pool.acquire(10, 6)
+        YUVConverter.convert(ByteBuffer.wrap(src), false, 16, 16, second)
+
+        assertSame(first, second)
+        val expected = arrayCrop(src, false, 10, 6, 16, 16)
+        assertArrayEquals(expected[0], bytes(second.y))
+        assertArrayEquals(expected[1], bytes(second.u))
+        assertArrayEquals(expected[2], bytes(second.v))
+    }
+
+    private fun assertMatchesArrayCrop(
+        semiPlanar: Boolean, width: Int, height: Int, alignWidth: Int, alignHeight: Int
+    ) {
+        val src = randomFrame(alignWidth, alignHeight)
+        val planes = YUVPlanePool().acquire(width, height)
+
+        YUVConverter.convert(ByteBuffer.wrap(src), semiPlanar, alignWidth, alignHeight, planes)
+
+        val expected = arrayCrop(src, semiPlanar, width, height, alignWidth, alignHeight)
+        assertArrayEquals("y", expected[0], bytes(planes.y))
+        assertArrayEquals("u", expected[1], bytes(planes.u))
+        assertArrayEquals("v", expected[2], bytes(planes.v))
+    }
+
+    private fun randomFrame(alignWidth: Int, alignHeight: Int): ByteArray {
+        return random.nextBytes(alignWidth * alignHeight * 3 / 2)
+    }
+
+    private fun frame(alignWidth: Int, alignHeight: Int): ByteBuffer {
+        return ByteBuffer.wrap(randomFrame(alignWidth, alignHeight))
+    }
+
+    /**
+     * Remaining bytes of a plane, leaves its position unchanged
+     */
+    private fun bytes(plane: ByteBuffer): ByteArray {
+        val copy = ByteArray(plane.remaining())
+        plane.duplicate().get(copy)
+        return copy
+    }
+
+    /**
+     * Crop of the former array-based HardDecoder path (yuv420spTop + yuvCopy), trimmed to the plane sizes
+     */
+    private fun arrayCrop(
+        src: ByteArray, semiPlanar: Boolean, width: Int, height: Int, alignWidth: Int, alignHeight: Int
+    ): Array<ByteArray> {
+        val yuv = if (semiPlanar) yuv420spTop(src, alignWidth, alignHeight) else src
+        val y = ByteArray(width * height)
+        val u = ByteArray(width * height / 4)
+        val v = ByteArray(width * height / 4)
+        yuvCopy(yuv, 0, alignWidth, alignHeight, y, width, height)
+        yuvCopy(yuv, alignWidth * alignHeight, alignWidth / 2, alignHeight / 2, u, width / 2, height / 2)
+        yuvCopy(yuv, alignWidth * alignHeight * 5 / 4, alignWidth / 2, alignHeight / 2, v, width / 2, height / 2)
+        val chromaSize = width / 2 * (height / 2)
+        return arrayOf(y, u.copyOf(chromaSize), v.copyOf(chromaSize))
+    }
+
+    private fun yuv420spTop(yuv420sp: ByteArray, alignWidth: Int, alignHeight: Int): ByteArray {
+        val yuv420p = ByteArray(yuv420sp.size)
+        val ySize = alignWidth * alignHeight
+        System.arraycopy(yuv420sp, 0, yuv420p, 0, ySize)
+        var i = ySize
+        var j = ySize
+        while (i < ySize * 3 / 2) {
+            yuv420p[j] = yuv420sp[i]
+            yuv420p[j + ySize / 4] = yuv420sp[i + 1]
+            i += 2
+            j++
+        }
+        return yuv420p
+    }
+
+    private fun yuvCopy(
+        src: ByteArray, srcOffset: Int, inWidth: Int, inHeight: Int, dest: ByteArray, outWidth: Int, outHeight: Int
+    ) {
+        for (h in 0 until inHeight) {
+            if (h < outHeight) {
+                System.arraycopy(src, srcOffset + h * inWidth, dest, h * outWidth, outWidth)
+            }
+        }
+    }
+}